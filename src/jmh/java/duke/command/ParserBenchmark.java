@@ -0,0 +1,135 @@
+package duke.command;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to turn a replayed script into command names and arguments,
+ * comparing the registry-based tokenizer with the split-and-rescan approach it replaced.
+ * Run with {@code gradlew jmh}, adding {@code -prof gc} to the JMH arguments to see allocation per line.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParserBenchmark {
+    /** A script mixing every kind of command, as replayed from a file. */
+    private static final String[] SCRIPT = {
+        "todo read book",
+        "deadline return book /by 2/12/2099 1800",
+        "event project meeting /from 2/12/2099 1400 /to 2/12/2099 1600",
+        "recur standup /every daily /from 3/12/2099 0900 /to 3/12/2099 0915 /count 5",
+        "mark 2",
+        "unmark 2",
+        "find book",
+        "postpone 2 5/12/2099 1800",
+        "delete 1",
+        "list",
+    };
+
+    private final CommandRegistry registry = Parser.getRegistry();
+    private final CommandLine line = new CommandLine();
+
+    /**
+     * Tokenizes the script with the command registry, extracting the arguments each handler reads.
+     *
+     * @param blackhole The sink for the extracted arguments.
+     */
+    @Benchmark
+    public void registryTokenizer(Blackhole blackhole) {
+        for (String command : SCRIPT) {
+            line.parse(command, registry);
+            switch (line.getSchema().getFlagCount()) {
+                case 0:
+                    blackhole.consume(line.getArgumentCount() > 0 ? line.getArgument(0) : null);
+                    break;
+                case 1:
+                    blackhole.consume(line.getArguments());
+                    blackhole.consume(line.getFlag("/by"));
+                    break;
+                default:
+                    blackhole.consume(line.getArguments());
+                    blackhole.consume(line.getFlag("/from"));
+                    blackhole.consume(line.getFlag("/to"));
+                    if (line.getSchema().getFlagCount() > 2) {
+                        blackhole.consume(line.getFlag("/every"));
+                        blackhole.consume(line.getFlag("/until"));
+                        blackhole.consume(line.getFlag("/count"));
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Parses the script the way the parser did before the registry: splitting the line, lower-casing
+     * the command name, switching on it and rescanning the line for keywords.
+     *
+     * @param blackhole The sink for the extracted arguments.
+     */
+    @Benchmark
+    public void splitAndRescan(Blackhole blackhole) {
+        for (String command : SCRIPT) {
+            String[] commandParts = command.split(" ", 3);
+            switch (commandParts[0].toLowerCase()) {
+                case "deadline":
+                    int byIndex = command.indexOf("/by");
+                    int deadlineIndex = command.toLowerCase().indexOf("deadline");
+                    blackhole.consume(command.substring(deadlineIndex + "deadline".length(), byIndex).trim());
+                    blackhole.consume(command.substring(byIndex + "/by".length()).trim());
+                    break;
+                case "recur":
+                    String[] keywords = {"/every", "/from", "/to", "/until", "/count"};
+                    int everyIndex = command.indexOf("/every");
+                    int recurIndex = command.toLowerCase().indexOf("recur");
+                    blackhole.consume(command.substring(recurIndex + "recur".length(), everyIndex).trim());
+                    for (String keyword : keywords) {
+                        blackhole.consume(getKeywordValue(command, keywords, keyword));
+                    }
+                    break;
+                case "event":
+                    int fromIndex = command.indexOf("/from");
+                    int toIndex = command.indexOf("/to");
+                    int prefixIndex = command.toLowerCase().indexOf(commandParts[0]);
+                    blackhole.consume(command.substring(prefixIndex + commandParts[0].length(), fromIndex).trim());
+                    blackhole.consume(command.substring(fromIndex + "/from".length(), toIndex).trim());
+                    blackhole.consume(command.substring(toIndex + "/to".length()).trim());
+                    break;
+                default:
+                    blackhole.consume(commandParts.length > 1 ? commandParts[1] : null);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Extracts the value following a keyword the way recurring tasks used to, up to the next keyword.
+     */
+    private static String getKeywordValue(String command, String[] keywords, String keyword) {
+        int start = command.indexOf(keyword + " ");
+        if (start == -1) {
+            return "";
+        }
+        start += keyword.length();
+        int end = command.length();
+        for (String otherKeyword : keywords) {
+            int otherIndex = command.indexOf(otherKeyword + " ", start);
+            if (otherIndex != -1 && otherIndex < end) {
+                end = otherIndex;
+            }
+        }
+        return command.substring(start, end).trim();
+    }
+}
@@ -0,0 +1,114 @@
+package duke.loadtest;
+
+/**
+ * Counts latencies in buckets whose width grows with their value, so that any latency from a nanosecond
+ * to hours is kept to within about 3% in a fixed, small array, however many are recorded. Each power of
+ * two is split into {@link #SUB_BUCKETS} buckets of equal width.
+ */
+public class LatencyHistogram {
+    /** The number of buckets each power of two is split into. */
+    private static final int SUB_BUCKETS = 32;
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long count = 0;
+    private long total = 0;
+    private long max = 0;
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos The latency, in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucketOf(value)]++;
+        count++;
+        total += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds the latencies recorded by another histogram.
+     *
+     * @param other The other histogram.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Retrieves the number of latencies recorded.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Retrieves the mean latency.
+     *
+     * @return The mean, in nanoseconds, or 0 if none was recorded.
+     */
+    public long getMean() {
+        return count == 0 ? 0 : total / count;
+    }
+
+    /**
+     * Retrieves the largest latency recorded.
+     *
+     * @return The largest latency, in nanoseconds.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Retrieves the latency below which a given share of the latencies fall.
+     *
+     * @param percentile The share, from 0 to 100.
+     * @return The upper bound of the bucket holding the percentile, in nanoseconds, or 0 if none was recorded.
+     */
+    public long getPercentile(double percentile) {
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(max, upperBoundOf(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Finds the bucket of a value: values below {@link #SUB_BUCKETS} have one each, and above that each
+     * power of two is split evenly.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Finds the largest value falling in a bucket.
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long first = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return first + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,273 @@
+package duke.loadtest;
+
+import duke.command.Parser;
+import duke.exception.DukeException;
+import duke.storage.Storage;
+import duke.task.TaskEventBus;
+import duke.task.TaskList;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Replays a synthetic workload against the task list in this process for as long as asked, the way the
+ * interactive session runs commands: through {@link Parser#executeCommand} holding the lock of the task
+ * list, with changes saved in the background. Every interval, it reports throughput, latency percentiles,
+ * heap and garbage collection, and the growth of the task file, and flags latencies that jump, so that
+ * scaling cliffs show up as the list grows. Output of the commands themselves is discarded.
+ * Run with {@code gradlew loadTest --args='--tasks 1000000 --duration 1h'}; see {@link #USAGE} for options.
+ * Without a {@code duke.data.dir} system property, the task file is kept in a temporary directory,
+ * never in the data directory of everyday use.
+ */
+public class LoadTest {
+    /** The options, with their defaults. */
+    private static final String USAGE = "Usage: LoadTest [--tasks N] [--duration 60s|30m|2h] [--commands N]\n"
+            + "                [--mix " + Workload.DEFAULT_MIX + "]\n"
+            + "                [--seed N] [--report 10s]";
+    /** The factor by which the 99th percentile latency must grow between intervals to be flagged. */
+    private static final double CLIFF_FACTOR = 2;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double BYTES_PER_MEGABYTE = 1 << 20;
+
+    private final PrintStream out;
+    private final Workload workload;
+    private final Path taskFile;
+    private final Map<String, LatencyHistogram> totals = new LinkedHashMap<>();
+    private final Map<String, Long> errors = new LinkedHashMap<>();
+    private LatencyHistogram interval = new LatencyHistogram();
+    private long lastP99 = 0;
+    private long lastGcCount = 0;
+    private long lastGcMillis = 0;
+    private long lastFileSize = 0;
+
+    private LoadTest(PrintStream out, Workload workload, Path taskFile) {
+        this.out = out;
+        this.workload = workload;
+        this.taskFile = taskFile;
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args The options, as shown by {@link #USAGE}.
+     */
+    public static void main(String[] args) throws IOException, DukeException {
+        int taskCount = 0;
+        Duration duration = Duration.ofSeconds(60);
+        long commandLimit = Long.MAX_VALUE;
+        String mix = Workload.DEFAULT_MIX;
+        long seed = 42;
+        Duration reportInterval = Duration.ofSeconds(10);
+        Workload workload;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                String value = i + 1 < args.length ? args[i + 1] : "";
+                switch (args[i]) {
+                    case "--tasks":
+                        taskCount = Integer.parseInt(value);
+                        break;
+                    case "--duration":
+                        duration = parseDuration(value);
+                        break;
+                    case "--commands":
+                        commandLimit = Long.parseLong(value);
+                        break;
+                    case "--mix":
+                        mix = value;
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--report":
+                        reportInterval = parseDuration(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            workload = new Workload(mix, seed);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        // Set before any class of the task list reads it
+        if (System.getProperty("duke.data.dir") == null) {
+            System.setProperty("duke.data.dir", Files.createTempDirectory("duke-loadtest").toString());
+        }
+        Path taskFile = Storage.getWorkspaceFile(Storage.DEFAULT_WORKSPACE);
+        Files.createDirectories(taskFile.toAbsolutePath().getParent());
+        Files.write(taskFile, workload.seedLines(taskCount));
+
+        PrintStream out = System.out;
+        out.println("Task file: " + taskFile.toAbsolutePath());
+        long loadStart = System.nanoTime();
+        TaskList.loadTasks();
+        out.printf("Loaded %,d task(s) in %.0f ms%n", TaskList.taskList.size(),
+                (System.nanoTime() - loadStart) / NANOS_PER_MILLI);
+
+        TaskEventBus.subscribe(Storage::saveAfterEvents);
+        TaskEventBus.start();
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            new LoadTest(out, workload, taskFile).run(duration, commandLimit, reportInterval);
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    /**
+     * Parses a duration such as "90s", "30m" or "2h", or a number of seconds.
+     */
+    private static Duration parseDuration(String text) {
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("Missing duration");
+        }
+        char unit = text.charAt(text.length() - 1);
+        String amount = Character.isDigit(unit) ? text : text.substring(0, text.length() - 1);
+        long value = Long.parseLong(amount);
+        switch (unit) {
+            case 'h':
+                return Duration.ofHours(value);
+            case 'm':
+                return Duration.ofMinutes(value);
+            case 's':
+                return Duration.ofSeconds(value);
+            default:
+                if (Character.isDigit(unit)) {
+                    return Duration.ofSeconds(value);
+                }
+                throw new IllegalArgumentException("Invalid duration: " + text);
+        }
+    }
+
+    /**
+     * Runs commands until the duration has passed or the number of commands has been run, reporting
+     * every interval and summing up at the end.
+     */
+    private void run(Duration duration, long commandLimit, Duration reportInterval) throws IOException {
+        ReentrantLock taskListLock = TaskEventBus.getTaskListLock();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long nextReport = start + reportInterval.toNanos();
+        long intervalStart = start;
+        lastFileSize = Files.size(taskFile);
+        printHeader();
+        for (long commandCount = 0; commandCount < commandLimit; commandCount++) {
+            String kind = workload.nextKind();
+            long before = System.nanoTime();
+            taskListLock.lock();
+            boolean isSuccessful;
+            try {
+                isSuccessful = Parser.executeCommand(workload.nextCommand(kind, TaskList.taskList));
+            } finally {
+                taskListLock.unlock();
+            }
+            long after = System.nanoTime();
+            record(kind, after - before, isSuccessful);
+            if (after >= nextReport || after >= end || commandCount + 1 == commandLimit) {
+                report(after - start, after - intervalStart);
+                intervalStart = after;
+                nextReport = after + reportInterval.toNanos();
+            }
+            if (after >= end) {
+                break;
+            }
+        }
+        TaskEventBus.drain();
+        printSummary(System.nanoTime() - start);
+    }
+
+    /**
+     * Records the latency of a command.
+     */
+    private void record(String kind, long nanos, boolean isSuccessful) {
+        interval.record(nanos);
+        totals.computeIfAbsent(kind, key -> new LatencyHistogram()).record(nanos);
+        if (!isSuccessful) {
+            errors.merge(kind, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Prints the headings of the interval reports.
+     */
+    private void printHeader() {
+        out.printf("%8s %10s %9s %8s %8s %8s %8s %8s %13s %12s %10s%n", "elapsed", "tasks", "ops/s", "p50 ms",
+                "p99 ms", "p99.9 ms", "max ms", "heap MB", "gc count/ms", "file MB", "growth MB");
+    }
+
+    /**
+     * Prints the report of an interval, flagging a 99th percentile latency that has jumped since the last.
+     * Pending saves are waited for first, so that the file is not measured while it is being rewritten.
+     */
+    private void report(long elapsedNanos, long intervalNanos) throws IOException {
+        TaskEventBus.drain();
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, collector.getCollectionCount());
+            gcMillis += Math.max(0, collector.getCollectionTime());
+        }
+        long fileSize = Files.exists(taskFile) ? Files.size(taskFile) : 0;
+        long p99 = interval.getPercentile(99);
+        out.printf("%7.0fs %,10d %9.0f %8.2f %8.2f %8.2f %8.2f %8.0f %6d/%-6d %12.1f %+10.1f%s%n",
+                elapsedNanos / 1e9, TaskList.taskList.size(), interval.getCount() * 1e9 / Math.max(1, intervalNanos),
+                interval.getPercentile(50) / NANOS_PER_MILLI, p99 / NANOS_PER_MILLI,
+                interval.getPercentile(99.9) / NANOS_PER_MILLI, interval.getMax() / NANOS_PER_MILLI,
+                heap.getUsed() / BYTES_PER_MEGABYTE, gcCount - lastGcCount, gcMillis - lastGcMillis,
+                fileSize / BYTES_PER_MEGABYTE, (fileSize - lastFileSize) / BYTES_PER_MEGABYTE,
+                lastP99 > 0 && p99 > CLIFF_FACTOR * lastP99 ? String.format("  <- p99 x%.1f", (double) p99 / lastP99)
+                        : "");
+        interval = new LatencyHistogram();
+        lastP99 = p99;
+        lastGcCount = gcCount;
+        lastGcMillis = gcMillis;
+        lastFileSize = fileSize;
+    }
+
+    /**
+     * Prints the latencies and errors of each kind of command over the whole run.
+     */
+    private void printSummary(long elapsedNanos) {
+        LatencyHistogram all = new LatencyHistogram();
+        for (LatencyHistogram histogram : totals.values()) {
+            all.add(histogram);
+        }
+        out.printf("%nRan %,d command(s) in %.1f s, %.0f ops/s, ending with %,d task(s)%n", all.getCount(),
+                elapsedNanos / 1e9, all.getCount() * 1e9 / Math.max(1, elapsedNanos), TaskList.taskList.size());
+        out.printf("%-10s %10s %8s %9s %8s %8s %8s %8s %8s%n", "command", "count", "errors", "mean ms",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, LatencyHistogram> entry : totals.entrySet()) {
+            printSummaryRow(entry.getKey(), entry.getValue(), errors.getOrDefault(entry.getKey(), 0L));
+        }
+        long errorCount = 0;
+        for (long count : errors.values()) {
+            errorCount += count;
+        }
+        printSummaryRow("all", all, errorCount);
+    }
+
+    /**
+     * Prints the latencies and errors of one kind of command.
+     */
+    private void printSummaryRow(String kind, LatencyHistogram histogram, long errorCount) {
+        out.printf("%-10s %,10d %8d %9.3f %8.3f %8.3f %8.3f %8.3f %8.2f%n", kind, histogram.getCount(), errorCount,
+                histogram.getMean() / NANOS_PER_MILLI, histogram.getPercentile(50) / NANOS_PER_MILLI,
+                histogram.getPercentile(90) / NANOS_PER_MILLI, histogram.getPercentile(99) / NANOS_PER_MILLI,
+                histogram.getPercentile(99.9) / NANOS_PER_MILLI, histogram.getMax() / NANOS_PER_MILLI);
+    }
+}
@@ -0,0 +1,253 @@
+package duke.loadtest;
+
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Task;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates a synthetic mix of commands, each kind drawn in proportion to its weight, against the task
+ * list as it stands, so that task numbers stay in range as the list grows and shrinks. Descriptions and
+ * search keywords are drawn from a small vocabulary, the most common words far more often than the
+ * rest, the way real task lists repeat themselves. Every draw comes from one seeded generator, so a
+ * seed replays the same workload against the same starting list.
+ */
+public class Workload {
+    /** The kinds of commands, with the weights of the default mix. */
+    public static final String DEFAULT_MIX = "todo=30,deadline=15,event=10,mark=15,delete=10,find=15,postpone=5";
+
+    /** The words of descriptions, most common first. */
+    private static final String[] VOCABULARY = {
+        "report", "weekly", "review", "meeting", "email", "call", "book", "project", "plan", "team",
+        "budget", "client", "draft", "update", "read", "write", "fix", "deploy", "release", "test",
+        "design", "invoice", "groceries", "gym", "dentist", "laundry", "rent", "taxes", "slides", "demo",
+        "standup", "retro", "backlog", "roadmap", "hiring", "interview", "onboarding", "training", "audit", "survey",
+        "garden", "plants", "car", "insurance", "passport", "flight", "hotel", "dinner", "birthday", "gift",
+    };
+    /** The format of dates and times in commands and in the task file. */
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("d/M/yyyy HHmm");
+    /** The number of minutes in the year ahead, over which due dates are spread. */
+    private static final int MINUTES_AHEAD = 365 * 24 * 60;
+    /** The number of tasks looked at when searching for a deadline or event to postpone. */
+    private static final int POSTPONE_ATTEMPTS = 8;
+
+    private final Random random;
+    private final String[] kinds;
+    private final int[] cumulativeWeights;
+    private final LocalDateTime base = LocalDateTime.now().plusDays(1).withSecond(0).withNano(0);
+
+    /**
+     * Creates a workload.
+     *
+     * @param mix  The weight of each kind of command, such as {@code todo=30,find=10}.
+     * @param seed The seed of the random draws.
+     * @throws IllegalArgumentException If the mix is malformed or names an unknown kind.
+     */
+    public Workload(String mix, long seed) {
+        Map<String, Integer> weights = parseMix(mix);
+        kinds = weights.keySet().toArray(new String[0]);
+        cumulativeWeights = new int[kinds.length];
+        int total = 0;
+        for (int i = 0; i < kinds.length; i++) {
+            total += weights.get(kinds[i]);
+            cumulativeWeights[i] = total;
+        }
+        random = new Random(seed);
+    }
+
+    /**
+     * Parses a mix such as {@code todo=30,find=10}.
+     *
+     * @param mix The mix.
+     * @return The weight of each kind of command, in the order given.
+     * @throws IllegalArgumentException If the mix is malformed or names an unknown kind.
+     */
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2 || !isKnownKind(parts[0])) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            int weight;
+            try {
+                weight = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid mix weight: " + entry);
+            }
+            if (weight < 0) {
+                throw new IllegalArgumentException("Invalid mix weight: " + entry);
+            }
+            if (weight > 0) {
+                weights.put(parts[0], weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no command with a positive weight");
+        }
+        return weights;
+    }
+
+    /**
+     * Checks whether a kind of command can be generated.
+     */
+    private static boolean isKnownKind(String kind) {
+        switch (kind) {
+            case "todo":
+            case "deadline":
+            case "event":
+            case "mark":
+            case "unmark":
+            case "delete":
+            case "find":
+            case "postpone":
+            case "list":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Draws the kind of the next command.
+     *
+     * @return The kind, such as "todo".
+     */
+    public String nextKind() {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while (cumulativeWeights[i] <= draw) {
+            i++;
+        }
+        return kinds[i];
+    }
+
+    /**
+     * Generates a command of a kind against the task list as it stands.
+     * Commands naming a task fall back to adding a to-do while the list is empty.
+     *
+     * @param kind  The kind of command.
+     * @param tasks The task list.
+     * @return The command, as typed.
+     */
+    public String nextCommand(String kind, List<Task> tasks) {
+        int size = tasks.size();
+        switch (kind) {
+            case "todo":
+                return "todo " + nextDescription();
+            case "deadline":
+                return "deadline " + nextDescription() + " /by " + nextDateTime().format(DATE_TIME_FORMAT);
+            case "event":
+                LocalDateTime from = nextDateTime();
+                return "event " + nextDescription() + " /from " + from.format(DATE_TIME_FORMAT)
+                        + " /to " + from.plusMinutes(30 + random.nextInt(180)).format(DATE_TIME_FORMAT);
+            case "find":
+                return "find " + nextWord();
+            case "list":
+                return "list";
+            default:
+                break;
+        }
+        if (size == 0) {
+            return "todo " + nextDescription();
+        }
+        if (kind.equals("postpone")) {
+            return "postpone " + findSchedulable(tasks) + " " + nextDateTime().format(DATE_TIME_FORMAT);
+        }
+        return kind + " " + (1 + random.nextInt(size));
+    }
+
+    /**
+     * Generates the lines of a task file holding a number of tasks, to start from a list of that size
+     * without running a command per task. To-dos, deadlines and events come in the proportions of the mix,
+     * or evenly if the mix adds none. The lines carry no identifiers or versions, which are stamped on load.
+     *
+     * @param taskCount The number of tasks.
+     * @return The lines.
+     */
+    public List<String> seedLines(int taskCount) {
+        int[] addWeights = new int[3];
+        String[] addKinds = {"todo", "deadline", "event"};
+        for (int i = 0; i < kinds.length; i++) {
+            int weight = cumulativeWeights[i] - (i == 0 ? 0 : cumulativeWeights[i - 1]);
+            for (int k = 0; k < addKinds.length; k++) {
+                if (kinds[i].equals(addKinds[k])) {
+                    addWeights[k] = weight;
+                }
+            }
+        }
+        int total = addWeights[0] + addWeights[1] + addWeights[2];
+        if (total == 0) {
+            addWeights = new int[]{1, 1, 1};
+            total = 3;
+        }
+        List<String> lines = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            int draw = random.nextInt(total);
+            String status = random.nextInt(4) == 0 ? "1" : "0";
+            if (draw < addWeights[0]) {
+                lines.add("T | " + status + " | " + nextDescription());
+            } else if (draw < addWeights[0] + addWeights[1]) {
+                lines.add("D | " + status + " | " + nextDescription() + " | "
+                        + nextDateTime().format(DATE_TIME_FORMAT));
+            } else {
+                LocalDateTime from = nextDateTime();
+                lines.add("E | " + status + " | " + nextDescription() + " | " + from.format(DATE_TIME_FORMAT)
+                        + " - " + from.plusMinutes(30 + random.nextInt(180)).format(DATE_TIME_FORMAT));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Finds the number of a deadline or event, looking at a few tasks at random, or any task if none is found.
+     */
+    private int findSchedulable(List<Task> tasks) {
+        int taskNumber = 1 + random.nextInt(tasks.size());
+        for (int i = 0; i < POSTPONE_ATTEMPTS; i++) {
+            Task task = tasks.get(taskNumber - 1);
+            if (task instanceof Deadline || task instanceof Event) {
+                break;
+            }
+            taskNumber = 1 + random.nextInt(tasks.size());
+        }
+        return taskNumber;
+    }
+
+    /**
+     * Draws a description of two to four words, now and then numbered.
+     */
+    private String nextDescription() {
+        StringBuilder description = new StringBuilder(nextWord());
+        int wordCount = 2 + random.nextInt(3);
+        for (int i = 1; i < wordCount; i++) {
+            description.append(' ').append(nextWord());
+        }
+        if (random.nextInt(4) == 0) {
+            description.append(' ').append(random.nextInt(1000));
+        }
+        return description.toString();
+    }
+
+    /**
+     * Draws a word, the first words of the vocabulary far more often than the last.
+     */
+    private String nextWord() {
+        double draw = random.nextDouble();
+        return VOCABULARY[(int) (draw * draw * VOCABULARY.length)];
+    }
+
+    /**
+     * Draws a date and time within the year ahead, on the minute.
+     */
+    private LocalDateTime nextDateTime() {
+        return base.plusMinutes(random.nextInt(MINUTES_AHEAD));
+    }
+}
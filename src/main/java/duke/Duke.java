@@ -1,20 +1,34 @@
 package duke;
 
+import duke.command.OneShot;
 import duke.command.Parser;
 import duke.exception.DukeException;
+import duke.storage.StoreWatcher;
 import duke.ui.Ui;
+import duke.task.OverdueSweeper;
+import duke.task.ReminderScheduler;
+import duke.task.TaskEventBus;
 import duke.task.TaskList;
 
 public class Duke {
 
     public static void main(String[] args) throws DukeException {
+        TaskEventBus.subscribe(TaskList.getRepository()::saveAfterEvents);
+        if (args.length > 0) {
+            System.exit(OneShot.run(args));
+        }
         Parser parser = new Parser();
         Ui ui = new Ui();
         TaskList taskList = new TaskList();
 
         taskList.readTasksFromFile();
+        ReminderScheduler.start();
+        OverdueSweeper.start();
+        StoreWatcher.start();
+        TaskEventBus.start();
         ui.greetUser();
         parser.runDuke();
+        TaskEventBus.drain();
         ui.sayGoodbye();
     }
 }
@@ -0,0 +1,126 @@
+package duke.command;
+
+import duke.exception.DukeException;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Declares the arguments a command accepts: the flags it recognises and whether it needs any arguments at all.
+ * Only declared flags are treated as flags, so a word like "/by" in the description of a todo is kept as text.
+ */
+public class ArgumentSchema {
+    /**
+     * The kind of value a flag takes.
+     */
+    public enum Arity {
+        /** The flag takes no value, such as {@code --json}. */
+        SWITCH,
+        /** The flag takes the single token after it, such as {@code --since 5}. */
+        TOKEN,
+        /** The flag takes all text up to the next flag, such as {@code /by 2/12/2019 1800}. */
+        TEXT
+    }
+
+    /** The names of the declared flags, including their leading slash or dashes. */
+    private String[] flagNames = new String[0];
+    /** The kinds of value taken by the declared flags. */
+    private Arity[] arities = new Arity[0];
+    /** The error reported when the command is given no arguments, or null if none are required. */
+    private Supplier<DukeException> usageError = null;
+
+    /**
+     * Declares a flag recognised by the command.
+     *
+     * @param name  The name of the flag, including its leading slash or dashes.
+     * @param arity The kind of value the flag takes.
+     * @return This schema.
+     */
+    public ArgumentSchema withFlag(String name, Arity arity) {
+        flagNames = Arrays.copyOf(flagNames, flagNames.length + 1);
+        arities = Arrays.copyOf(arities, arities.length + 1);
+        flagNames[flagNames.length - 1] = name;
+        arities[arities.length - 1] = arity;
+        return this;
+    }
+
+    /**
+     * Declares that the command needs at least one argument.
+     *
+     * @param usageError The supplier of the error reported when no argument is given.
+     * @return This schema.
+     */
+    public ArgumentSchema requiringArguments(Supplier<DukeException> usageError) {
+        this.usageError = usageError;
+        return this;
+    }
+
+    /**
+     * Checks whether the command needs at least one argument.
+     *
+     * @return True if the command needs an argument, false otherwise.
+     */
+    public boolean requiresArguments() {
+        return usageError != null;
+    }
+
+    /**
+     * Creates the error reported when the command is given no arguments.
+     *
+     * @return The usage error.
+     */
+    public DukeException getUsageError() {
+        return usageError.get();
+    }
+
+    /**
+     * Retrieves the number of declared flags.
+     *
+     * @return The number of declared flags.
+     */
+    int getFlagCount() {
+        return flagNames.length;
+    }
+
+    /**
+     * Retrieves the kind of value taken by a declared flag.
+     *
+     * @param flagIndex The index of the flag in declaration order.
+     * @return The kind of value taken by the flag.
+     */
+    Arity getArity(int flagIndex) {
+        return arities[flagIndex];
+    }
+
+    /**
+     * Finds a declared flag by name.
+     *
+     * @param name The name of the flag.
+     * @return The index of the flag, or -1 if it is not declared.
+     */
+    int indexOfFlag(String name) {
+        return indexOfFlag(name, 0, name.length());
+    }
+
+    /**
+     * Finds the declared flag spelled by a region of a line, without copying the region.
+     *
+     * @param text  The line.
+     * @param start The start of the region, inclusive.
+     * @param end   The end of the region, exclusive.
+     * @return The index of the flag, or -1 if the region is not a declared flag.
+     */
+    int indexOfFlag(String text, int start, int end) {
+        int length = end - start;
+        // Cheap rejection, since most tokens of a line are words rather than flags
+        if (length < 2 || (text.charAt(start) != '/' && text.charAt(start) != '-')) {
+            return -1;
+        }
+        for (int i = 0; i < flagNames.length; i++) {
+            if (flagNames[i].length() == length && text.startsWith(flagNames[i], start)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,17 @@
+package duke.command;
+
+import duke.exception.DukeException;
+
+/**
+ * Executes one kind of command once its line has been tokenized against the command's argument schema.
+ */
+@FunctionalInterface
+public interface CommandHandler {
+    /**
+     * Executes the command.
+     *
+     * @param line The tokenized command line.
+     * @throws DukeException If an error occurs during execution.
+     */
+    void execute(CommandLine line) throws DukeException;
+}
@@ -0,0 +1,258 @@
+package duke.command;
+
+import java.util.Arrays;
+
+/**
+ * A command line split into its command name, positional arguments and flags in a single pass.
+ * Tokens are recorded as offsets into the line, so substrings are only created for the
+ * arguments a handler actually asks for. A command line can be reused for the next line.
+ */
+public class CommandLine {
+    /** The line being tokenized. */
+    private String text = "";
+    /** The bounds of the command name within the line. */
+    private int nameStart;
+    private int nameEnd;
+    /** The registered command named by the line, or null if there is none. */
+    private CommandRegistry.Registration registration;
+
+    /** The start, end and segment of each positional token; tokens in one segment are not separated by flags. */
+    private int[] tokens = new int[3 * 8];
+    /** The number of positional tokens. */
+    private int tokenCount = 0;
+    /** The bounds of the value of each declared flag, or -1 if the flag is absent. */
+    private int[] flagStarts = new int[4];
+    private int[] flagEnds = new int[4];
+
+    /**
+     * Tokenizes a line against the argument schema of the command it names.
+     *
+     * @param line     The line to tokenize.
+     * @param registry The registry in which the command is looked up.
+     * @return True if the line names a registered command, false otherwise.
+     */
+    public boolean parse(String line, CommandRegistry registry) {
+        text = line;
+        tokenCount = 0;
+        int length = line.length();
+
+        int i = skipSpaces(line, 0);
+        nameStart = i;
+        i = skipToken(line, i);
+        nameEnd = i;
+        registration = registry.lookup(line, nameStart, nameEnd);
+        if (registration == null) {
+            return false;
+        }
+
+        ArgumentSchema schema = registration.getSchema();
+        int flagCount = schema.getFlagCount();
+        if (flagStarts.length < flagCount) {
+            flagStarts = new int[flagCount];
+            flagEnds = new int[flagCount];
+        }
+        Arrays.fill(flagStarts, 0, flagCount, -1);
+
+        // A flag taking text collects every token up to the next flag; a flag taking a token only the next one
+        int textFlag = -1;
+        int tokenFlag = -1;
+        int segment = 0;
+        while ((i = skipSpaces(line, i)) < length) {
+            int start = i;
+            i = skipToken(line, i);
+            int flag = schema.indexOfFlag(line, start, i);
+            if (flag >= 0) {
+                flagStarts[flag] = i;
+                flagEnds[flag] = i;
+                textFlag = schema.getArity(flag) == ArgumentSchema.Arity.TEXT ? flag : -1;
+                tokenFlag = schema.getArity(flag) == ArgumentSchema.Arity.TOKEN ? flag : -1;
+                segment++;
+            } else if (tokenFlag >= 0) {
+                flagStarts[tokenFlag] = start;
+                flagEnds[tokenFlag] = i;
+                tokenFlag = -1;
+            } else if (textFlag >= 0) {
+                if (flagStarts[textFlag] == flagEnds[textFlag]) {
+                    flagStarts[textFlag] = start;
+                }
+                flagEnds[textFlag] = i;
+            } else {
+                addToken(start, i, segment);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves the command name as typed.
+     *
+     * @return The command name.
+     */
+    public String getName() {
+        return text.substring(nameStart, nameEnd);
+    }
+
+    /**
+     * Retrieves the argument schema of the command named by the line.
+     *
+     * @return The argument schema.
+     */
+    ArgumentSchema getSchema() {
+        return registration.getSchema();
+    }
+
+    /**
+     * Retrieves the handler of the command named by the line.
+     *
+     * @return The handler.
+     */
+    CommandHandler getHandler() {
+        return registration.getHandler();
+    }
+
+    /**
+     * Checks whether the line has any positional argument or flag.
+     *
+     * @return True if the line has an argument, false otherwise.
+     */
+    public boolean hasArguments() {
+        if (tokenCount > 0) {
+            return true;
+        }
+        for (int i = 0; i < getSchema().getFlagCount(); i++) {
+            if (flagStarts[i] >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the number of positional tokens.
+     *
+     * @return The number of positional tokens.
+     */
+    public int getArgumentCount() {
+        return tokenCount;
+    }
+
+    /**
+     * Retrieves a positional token.
+     *
+     * @param index The index of the token.
+     * @return The token.
+     */
+    public String getArgument(int index) {
+        assert index < tokenCount : "Argument index out of range";
+        return text.substring(tokens[3 * index], tokens[3 * index + 1]);
+    }
+
+    /**
+     * Parses a positional token as an integer without copying it.
+     *
+     * @param index The index of the token.
+     * @return The integer.
+     * @throws NumberFormatException If the token is missing or not an integer.
+     */
+    public int getIntArgument(int index) {
+        if (index >= tokenCount) {
+            throw new NumberFormatException("Missing argument " + index);
+        }
+        return Integer.parseInt(text, tokens[3 * index], tokens[3 * index + 1], 10);
+    }
+
+    /**
+     * Retrieves all positional text, as typed.
+     *
+     * @return The positional text, or an empty string if there is none.
+     */
+    public String getArguments() {
+        return getArguments(0);
+    }
+
+    /**
+     * Retrieves the positional text from the given token onwards, as typed.
+     * Text on either side of a flag is joined by a single space.
+     *
+     * @param fromIndex The index of the first token.
+     * @return The positional text, or an empty string if there is none.
+     */
+    public String getArguments(int fromIndex) {
+        if (fromIndex >= tokenCount) {
+            return "";
+        }
+        int last = tokenCount - 1;
+        if (tokens[3 * fromIndex + 2] == tokens[3 * last + 2]) {
+            return text.substring(tokens[3 * fromIndex], tokens[3 * last + 1]);
+        }
+
+        StringBuilder arguments = new StringBuilder();
+        int segmentStart = fromIndex;
+        for (int i = fromIndex; i <= last; i++) {
+            if (i == last || tokens[3 * i + 2] != tokens[3 * (i + 1) + 2]) {
+                if (arguments.length() > 0) {
+                    arguments.append(' ');
+                }
+                arguments.append(text, tokens[3 * segmentStart], tokens[3 * i + 1]);
+                segmentStart = i + 1;
+            }
+        }
+        return arguments.toString();
+    }
+
+    /**
+     * Checks whether a declared flag is present.
+     *
+     * @param name The name of the flag.
+     * @return True if the flag is present, false otherwise.
+     */
+    public boolean hasFlag(String name) {
+        int flag = getSchema().indexOfFlag(name);
+        assert flag >= 0 : "Flag " + name + " is not declared";
+        return flagStarts[flag] >= 0;
+    }
+
+    /**
+     * Retrieves the value of a declared flag, as typed.
+     *
+     * @param name The name of the flag.
+     * @return The value of the flag, an empty string if it has none, or null if the flag is absent.
+     */
+    public String getFlag(String name) {
+        int flag = getSchema().indexOfFlag(name);
+        assert flag >= 0 : "Flag " + name + " is not declared";
+        return flagStarts[flag] < 0 ? null : text.substring(flagStarts[flag], flagEnds[flag]);
+    }
+
+    /**
+     * Records a positional token, growing the token array if needed.
+     */
+    private void addToken(int start, int end, int segment) {
+        if (3 * tokenCount == tokens.length) {
+            tokens = Arrays.copyOf(tokens, tokens.length * 2);
+        }
+        tokens[3 * tokenCount] = start;
+        tokens[3 * tokenCount + 1] = end;
+        tokens[3 * tokenCount + 2] = segment;
+        tokenCount++;
+    }
+
+    /**
+     * Finds the first character at or after the given index that is not a space.
+     */
+    private static int skipSpaces(String text, int index) {
+        while (index < text.length() && text.charAt(index) == ' ') {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Finds the end of the token starting at the given index.
+     */
+    private static int skipToken(String text, int index) {
+        // String.indexOf is intrinsified, so this beats scanning character by character
+        int end = text.indexOf(' ', index);
+        return end == -1 ? text.length() : end;
+    }
+}
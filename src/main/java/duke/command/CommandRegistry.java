@@ -0,0 +1,176 @@
+package duke.command;
+
+/**
+ * Maps command names to their handlers and argument schemas.
+ * Names are matched case-insensitively straight from the typed line, so looking up
+ * a command allocates nothing. The registry is a small chained hash table.
+ */
+public class CommandRegistry {
+    /**
+     * A registered command.
+     */
+    static class Registration {
+        private final String name;
+        private final int hash;
+        private final ArgumentSchema schema;
+        private final CommandHandler handler;
+        private Registration next;
+
+        private Registration(String name, int hash, ArgumentSchema schema, CommandHandler handler) {
+            this.name = name;
+            this.hash = hash;
+            this.schema = schema;
+            this.handler = handler;
+        }
+
+        /**
+         * Retrieves the argument schema of the command.
+         *
+         * @return The argument schema.
+         */
+        ArgumentSchema getSchema() {
+            return schema;
+        }
+
+        /**
+         * Retrieves the handler of the command.
+         *
+         * @return The handler.
+         */
+        CommandHandler getHandler() {
+            return handler;
+        }
+    }
+
+    /** The initial number of buckets, a power of two. */
+    private static final int INITIAL_CAPACITY = 32;
+
+    /** The chains of registrations, indexed by the low bits of the hash of their names. */
+    private Registration[] buckets = new Registration[INITIAL_CAPACITY];
+    /** The number of registered commands. */
+    private int size = 0;
+
+    /**
+     * Registers a command, replacing any command already registered under the same name.
+     *
+     * @param name    The name of the command.
+     * @param schema  The arguments the command accepts.
+     * @param handler The handler that executes the command.
+     */
+    public void register(String name, ArgumentSchema schema, CommandHandler handler) {
+        assert !name.isEmpty() && name.indexOf(' ') == -1 : "Command name must be a single word";
+
+        unregister(name);
+        if (size + 1 > buckets.length * 3 / 4) {
+            resize();
+        }
+        int hash = hash(name, 0, name.length());
+        Registration registration = new Registration(name, hash, schema, handler);
+        int bucket = hash & (buckets.length - 1);
+        registration.next = buckets[bucket];
+        buckets[bucket] = registration;
+        size++;
+    }
+
+    /**
+     * Removes a command, if registered.
+     *
+     * @param name The name of the command.
+     */
+    public void unregister(String name) {
+        int bucket = hash(name, 0, name.length()) & (buckets.length - 1);
+        Registration previous = null;
+        for (Registration entry = buckets[bucket]; entry != null; previous = entry, entry = entry.next) {
+            if (entry.name.equalsIgnoreCase(name)) {
+                if (previous == null) {
+                    buckets[bucket] = entry.next;
+                } else {
+                    previous.next = entry.next;
+                }
+                size--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a command is registered.
+     *
+     * @param name The name of the command.
+     * @return True if the command is registered, false otherwise.
+     */
+    public boolean isRegistered(String name) {
+        return lookup(name, 0, name.length()) != null;
+    }
+
+    /**
+     * Finds the command whose name is spelled by a region of a line.
+     *
+     * @param text  The line.
+     * @param start The start of the region, inclusive.
+     * @param end   The end of the region, exclusive.
+     * @return The registration, or null if no such command is registered.
+     */
+    Registration lookup(String text, int start, int end) {
+        int hash = hash(text, start, end);
+        int length = end - start;
+        for (Registration entry = buckets[hash & (buckets.length - 1)]; entry != null; entry = entry.next) {
+            if (entry.hash == hash && entry.name.length() == length && matches(entry.name, text, start)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Doubles the number of buckets, redistributing the registrations.
+     */
+    private void resize() {
+        Registration[] oldBuckets = buckets;
+        buckets = new Registration[oldBuckets.length * 2];
+        for (Registration chain : oldBuckets) {
+            while (chain != null) {
+                Registration next = chain.next;
+                int bucket = chain.hash & (buckets.length - 1);
+                chain.next = buckets[bucket];
+                buckets[bucket] = chain;
+                chain = next;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a region of a line spells a name, ignoring case.
+     */
+    private static boolean matches(String name, String text, int start) {
+        for (int i = 0; i < name.length(); i++) {
+            if (foldCase(name.charAt(i)) != foldCase(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hashes a region of a line ignoring case.
+     */
+    private static int hash(String text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + foldCase(text.charAt(i));
+        }
+        // Spreads the high bits into the low bits used to pick a bucket
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Folds the case of a character consistently with {@link String#equalsIgnoreCase(String)},
+     * taking a shortcut for ASCII, which is what command names are typed in.
+     */
+    private static int foldCase(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
@@ -2,14 +2,54 @@ package duke.command;
 
 import duke.exception.DukeException;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
 
 /**
  * Utility class for parsing date and time strings.
+ * Besides the native {@code d/M/yyyy HHmm}, it accepts ISO-8601 dates and date-times, {@code yyyy-MM-dd},
+ * the {@code MMM d yyyy HH:mm} form tasks are displayed in, and relative forms such as "now", "tomorrow 9am",
+ * "next fri", "fri 14:30" or "+3d". Dates given without a time mean the start of the day.
+ * The parser remembers which format last matched each shape of input, such as "99/99/9999 9999",
+ * and tries that format first, so a file mixing a few formats parses almost as fast as one with a single format.
  */
 public class DateTimeParser {
+    /** The absolute formats accepted, compiled once. */
+    private static final DateTimeFormatter[] FORMATS = {
+        DateTimeFormatter.ofPattern("d/M/yyyy HHmm"),
+        DateTimeFormatter.ofPattern("d/M/yyyy HH:mm"),
+        DateTimeFormatter.ofPattern("d/M/yyyy"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"),
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+        DateTimeFormatter.ISO_OFFSET_DATE_TIME,
+        DateTimeFormatter.ISO_LOCAL_DATE,
+        new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern("MMM d yyyy HH:mm")
+                .toFormatter(Locale.ENGLISH),
+    };
+    /** The number of slots of the format cache, a power of two. */
+    private static final int SHAPE_CACHE_SIZE = 256;
+    /**
+     * The index plus one of the format that last matched each shape of input, or 0 if none has.
+     * Shapes sharing a slot only cost a wrong first guess. Races between threads are harmless for the same reason.
+     */
+    private static final byte[] formatByShape = new byte[SHAPE_CACHE_SIZE];
+    /** The lower-case English names of the days of the week, from Monday. */
+    private static final String[] DAY_NAMES = {
+        "monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday"
+    };
+
     /**
      * Parses a date and time string into a LocalDateTime object.
      *
@@ -18,11 +58,256 @@ public class DateTimeParser {
      * @throws DukeException If the date and time string is in an invalid format.
      */
     public static LocalDateTime parseDateTime(String dateTimeString) throws DukeException {
+        return parseDateTime(dateTimeString, LocalDateTime.now());
+    }
+
+    /**
+     * Parses a date and time string into a LocalDateTime object, resolving relative forms against the given time.
+     *
+     * @param dateTimeString The string representing date and time.
+     * @param now            The current date and time.
+     * @return The parsed LocalDateTime object.
+     * @throws DukeException If the date and time string is in an invalid format.
+     */
+    public static LocalDateTime parseDateTime(String dateTimeString, LocalDateTime now) throws DukeException {
+        String text = dateTimeString.trim();
+        if (text.isEmpty()) {
+            throw DukeException.invalidDateTimeFormat();
+        }
+
+        char first = text.charAt(0);
+        if (Character.isLetter(first) || first == '+' || first == '-' || text.length() <= 7) {
+            LocalDateTime relativeDateTime = parseRelative(text.toLowerCase(Locale.ROOT), now);
+            if (relativeDateTime != null) {
+                return relativeDateTime;
+            }
+        }
+        return parseAbsolute(text);
+    }
+
+    /**
+     * Parses an absolute date and time, trying the format that last matched the same shape of input first.
+     *
+     * @param text The trimmed date and time string.
+     * @return The parsed date and time.
+     * @throws DukeException If no format matches.
+     */
+    private static LocalDateTime parseAbsolute(String text) throws DukeException {
+        int shape = getShape(text);
+        int cachedIndex = formatByShape[shape] - 1;
+        if (cachedIndex >= 0) {
+            LocalDateTime dateTime = tryFormat(FORMATS[cachedIndex], text);
+            if (dateTime != null) {
+                return dateTime;
+            }
+        }
+        for (int i = 0; i < FORMATS.length; i++) {
+            if (i == cachedIndex) {
+                continue;
+            }
+            LocalDateTime dateTime = tryFormat(FORMATS[i], text);
+            if (dateTime != null) {
+                formatByShape[shape] = (byte) (i + 1);
+                return dateTime;
+            }
+        }
+        throw DukeException.invalidDateTimeFormat();
+    }
+
+    /**
+     * Parses a date and time with one format.
+     * Dates with an offset are converted to the system time zone, and dates without a time mean the start of the day.
+     *
+     * @param formatter The format.
+     * @param text      The date and time string.
+     * @return The parsed date and time, or null if the format does not match.
+     */
+    private static LocalDateTime tryFormat(DateTimeFormatter formatter, String text) {
         try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("d/M/yyyy HHmm");
-            return LocalDateTime.parse(dateTimeString, formatter);
+            TemporalAccessor parsed = formatter.parse(text);
+            if (parsed.isSupported(ChronoField.OFFSET_SECONDS)) {
+                return OffsetDateTime.from(parsed).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            }
+            if (parsed.isSupported(ChronoField.HOUR_OF_DAY)) {
+                return LocalDateTime.from(parsed);
+            }
+            return LocalDate.from(parsed).atStartOfDay();
         } catch (DateTimeParseException e) {
-            throw DukeException.invalidDateTimeFormat();
+            return null;
+        }
+    }
+
+    /**
+     * Computes the slot of the format cache for the shape of a string, in which every digit
+     * and every letter stand for themselves as a class rather than as a value.
+     *
+     * @param text The string.
+     * @return The slot of the format cache.
+     */
+    private static int getShape(String text) {
+        int hash = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int characterClass = c >= '0' && c <= '9' ? '9' : Character.isLetter(c) ? 'a' : c;
+            hash = 31 * hash + characterClass;
+        }
+        return (hash ^ (hash >>> 16)) & (SHAPE_CACHE_SIZE - 1);
+    }
+
+    /**
+     * Parses a relative date and time, such as "tomorrow 9am", "next fri", "+3d" or "now".
+     *
+     * @param text The trimmed, lower-case date and time string.
+     * @param now  The current date and time.
+     * @return The parsed date and time, or null if the string is not a relative form.
+     */
+    private static LocalDateTime parseRelative(String text, LocalDateTime now) {
+        if (text.equals("now")) {
+            return now;
+        }
+        if (text.charAt(0) == '+' || text.charAt(0) == '-') {
+            return parseOffset(text, now);
+        }
+
+        String[] words = (text.contains("  ") ? text.replaceAll(" {2,}", " ") : text).split(" ");
+        int wordIndex = 0;
+        LocalDate date;
+        if (words[0].equals("today")) {
+            date = now.toLocalDate();
+            wordIndex++;
+        } else if (words[0].equals("tomorrow")) {
+            date = now.toLocalDate().plusDays(1);
+            wordIndex++;
+        } else if (words[0].equals("yesterday")) {
+            date = now.toLocalDate().minusDays(1);
+            wordIndex++;
+        } else {
+            // "next" is optional: both "fri" and "next fri" mean the first Friday after today
+            if (words[0].equals("next") && words.length > 1) {
+                wordIndex++;
+            }
+            DayOfWeek dayOfWeek = parseDayOfWeek(words[wordIndex]);
+            if (dayOfWeek != null) {
+                date = now.toLocalDate().with(TemporalAdjusters.next(dayOfWeek));
+                wordIndex++;
+            } else if (wordIndex == 0 && words.length == 1) {
+                // A time on its own means that time today
+                LocalTime time = parseTime(words[0]);
+                return time == null ? null : now.toLocalDate().atTime(time);
+            } else {
+                return null;
+            }
+        }
+
+        if (wordIndex == words.length) {
+            return date.atStartOfDay();
+        }
+        if (words[wordIndex].equals("at") && wordIndex + 1 < words.length) {
+            wordIndex++;
+        }
+        LocalTime time = wordIndex == words.length - 1 ? parseTime(words[wordIndex]) : null;
+        return time == null ? null : date.atTime(time);
+    }
+
+    /**
+     * Parses an offset from now, such as "+3d", "+2h", "+30m", "+1w" or "-1d".
+     *
+     * @param text The lower-case offset.
+     * @param now  The current date and time.
+     * @return The date and time at the offset from now, or null if the string is not an offset.
+     */
+    private static LocalDateTime parseOffset(String text, LocalDateTime now) {
+        int end = text.length() - 1;
+        if (end < 2) {
+            return null;
+        }
+        long amount;
+        try {
+            amount = Long.parseLong(text, 1, end, 10);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (text.charAt(0) == '-') {
+            amount = -amount;
+        }
+        switch (text.charAt(end)) {
+            case 'm':
+                return now.plusMinutes(amount);
+            case 'h':
+                return now.plusHours(amount);
+            case 'd':
+                return now.plusDays(amount);
+            case 'w':
+                return now.plusWeeks(amount);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Parses the full or three-letter English name of a day of the week.
+     *
+     * @param word The lower-case word.
+     * @return The day of the week, or null if the word does not name one.
+     */
+    private static DayOfWeek parseDayOfWeek(String word) {
+        if (word.length() < 3) {
+            return null;
+        }
+        for (int i = 0; i < DAY_NAMES.length; i++) {
+            String name = DAY_NAMES[i];
+            if (name.startsWith(word) && (word.length() == 3 || word.length() == name.length())) {
+                return DayOfWeek.of(i + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a time of day such as "9am", "9:30pm", "21:00", "2100" or "noon".
+     *
+     * @param word The lower-case word.
+     * @return The time of day, or null if the word is not a time.
+     */
+    private static LocalTime parseTime(String word) {
+        if (word.equals("noon")) {
+            return LocalTime.NOON;
+        }
+        if (word.equals("midnight")) {
+            return LocalTime.MIDNIGHT;
+        }
+
+        int end = word.length();
+        boolean isAm = word.endsWith("am");
+        boolean isPm = word.endsWith("pm");
+        if (isAm || isPm) {
+            end -= 2;
+        }
+        int colon = word.indexOf(':');
+        try {
+            int hour;
+            int minute;
+            if (colon >= 0) {
+                hour = Integer.parseInt(word, 0, colon, 10);
+                minute = Integer.parseInt(word, colon + 1, end, 10);
+            } else if (end == 4 && !isAm && !isPm) {
+                hour = Integer.parseInt(word, 0, 2, 10);
+                minute = Integer.parseInt(word, 2, 4, 10);
+            } else if (end >= 1 && end <= 2 && (isAm || isPm)) {
+                hour = Integer.parseInt(word, 0, end, 10);
+                minute = 0;
+            } else {
+                return null;
+            }
+            if (isAm || isPm) {
+                if (hour < 1 || hour > 12) {
+                    return null;
+                }
+                hour = hour % 12 + (isPm ? 12 : 0);
+            }
+            return hour < 24 && minute >= 0 && minute < 60 ? LocalTime.of(hour, minute) : null;
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return null;
         }
     }
 }
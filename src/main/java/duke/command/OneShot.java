@@ -0,0 +1,199 @@
+package duke.command;
+
+import duke.exception.DukeException;
+import duke.storage.BulkTransfer;
+import duke.task.Query;
+import duke.task.Task;
+import duke.task.TaskList;
+import duke.task.Workspace;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs a single command given on the command line, such as {@code duke add todo read book} or
+ * {@code duke --json find book}, for scripts that start Duke many times. No banners are shown,
+ * no reminders are delivered and only what the command needs is loaded: "add" appends to the
+ * saved task list, "find" scans it and "list" reads it without building any index. "query" and "list"
+ * with filters load the task list and print its matches. Every other command loads the task list and runs as it would
+ * in the interactive session.
+ * With --json, tasks are printed as JSON Lines in the form of JSON Lines exports. Options are only read
+ * before the command, so that the words after it are passed on as they are. Errors are printed
+ * to standard error and reported through the exit status.
+ */
+public class OneShot {
+    /** The exit status of a command that succeeded. */
+    public static final int EXIT_SUCCESS = 0;
+    /** The exit status of a command that failed. */
+    public static final int EXIT_FAILURE = 1;
+    /** The exit status of a command line that could not be understood. */
+    public static final int EXIT_USAGE = 2;
+
+    /**
+     * Runs the command given by the arguments.
+     *
+     * @param args The options, then the command and its arguments.
+     * @return The exit status.
+     */
+    public static int run(String[] args) {
+        DukeException.reportErrorsTo(System.err);
+        boolean isJson = false;
+        List<String> words = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (words.isEmpty() && args[i].equals("--workspace") && i + 1 < args.length) {
+                    Workspace.open(args[++i]);
+                } else if (words.isEmpty() && args[i].equals("--json")) {
+                    isJson = true;
+                } else {
+                    words.add(args[i]);
+                }
+            }
+        } catch (DukeException e) {
+            DukeException.handleGracefulError(e);
+            return EXIT_USAGE;
+        }
+        if (words.isEmpty()) {
+            DukeException.handleGracefulError(DukeException.invalidCommandLine());
+            return EXIT_USAGE;
+        }
+
+        String name = words.get(0).toLowerCase(Locale.ROOT);
+        String arguments = String.join(" ", words.subList(1, words.size()));
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+        try {
+            switch (name) {
+                case "add":
+                    return runAdd(arguments, isJson, out);
+                case "list":
+                    return runList(arguments, isJson, out);
+                case "find":
+                    return runFind(arguments, isJson, out);
+                case "query":
+                    return runQuery(arguments, isJson, out);
+                default:
+                    if (isJson) {
+                        DukeException.handleGracefulError(DukeException.invalidCommandLine());
+                        return EXIT_USAGE;
+                    }
+                    TaskList.loadTasks();
+                    return Parser.executeCommand(String.join(" ", words)) ? EXIT_SUCCESS : EXIT_FAILURE;
+            }
+        } catch (DukeException e) {
+            DukeException.handleGracefulError(e);
+            return EXIT_FAILURE;
+        } catch (IOException e) {
+            DukeException.handleGracefulError(new DukeException("Error writing output: " + e.getMessage()));
+            return EXIT_FAILURE;
+        } finally {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                // Standard output is gone, so there is nobody left to tell
+            }
+        }
+    }
+
+    /**
+     * Runs "add", which takes a "todo", "deadline", "event" or "recur" command and appends its
+     * task to the task file without loading the list.
+     */
+    private static int runAdd(String command, boolean isJson, Writer out) throws DukeException, IOException {
+        CommandLine line = Parser.parseCommand(command);
+        if (line == null) {
+            DukeException.handleGracefulError(DukeException.invalidCommandLine());
+            return EXIT_USAGE;
+        }
+        int handledCount = DukeException.getHandledCount();
+        Task task = Parser.createTask(line);
+        if (task == null && DukeException.getHandledCount() == handledCount) {
+            // Not a command that adds a task
+            DukeException.handleGracefulError(DukeException.invalidCommandLine());
+            return EXIT_USAGE;
+        } else if (task == null) {
+            return EXIT_FAILURE;
+        }
+        TaskList.getRepository().appendTask(task);
+        writeTask(0, task, isJson, out);
+        return EXIT_SUCCESS;
+    }
+
+    /**
+     * Runs "list", printing every task, or the tasks satisfying its filters, with their numbers.
+     */
+    private static int runList(String filters, boolean isJson, Writer out) throws DukeException, IOException {
+        if (!filters.isEmpty()) {
+            Query query = Query.parseFilters(filters);
+            TaskList.loadTasks();
+            for (Map.Entry<Integer, Task> match : TaskList.findQueryMatches(query).entrySet()) {
+                writeTask(match.getKey(), match.getValue(), isJson, out);
+            }
+            return EXIT_SUCCESS;
+        }
+        List<Task> tasks = TaskList.getRepository().loadTasks();
+        for (int i = 0; i < tasks.size(); i++) {
+            writeTask(i + 1, tasks.get(i), isJson, out);
+        }
+        return EXIT_SUCCESS;
+    }
+
+    /**
+     * Runs "find", printing the matching tasks with their numbers. Fuzzy matches need the whole
+     * list and its index, so the list is loaded for them and they are printed closest first.
+     * Finding nothing is not a failure, so scripts can tell an empty result from an error.
+     */
+    private static int runFind(String arguments, boolean isJson, Writer out) throws DukeException, IOException {
+        CommandLine line = Parser.parseCommand("find " + arguments);
+        String keyword = line.getArguments();
+        Map<Integer, Task> matches;
+        if (keyword.isEmpty()) {
+            DukeException.handleGracefulError(DukeException.invalidFindFormat());
+            return EXIT_USAGE;
+        } else if (line.hasFlag("--fuzzy")) {
+            TaskList.loadTasks();
+            matches = TaskList.findFuzzyMatches(keyword);
+        } else {
+            matches = TaskList.getRepository().findTasks(keyword);
+        }
+        for (Map.Entry<Integer, Task> match : matches.entrySet()) {
+            writeTask(match.getKey(), match.getValue(), isJson, out);
+        }
+        return EXIT_SUCCESS;
+    }
+
+    /**
+     * Runs "query", printing the matching tasks with their numbers, in list order.
+     */
+    private static int runQuery(String arguments, boolean isJson, Writer out) throws DukeException, IOException {
+        CommandLine line = Parser.parseCommand("query " + arguments);
+        if (line.getArguments().isEmpty()) {
+            DukeException.handleGracefulError(DukeException.invalidQueryFormat());
+            return EXIT_USAGE;
+        }
+        Query query = Query.parse(line.getArguments());
+        TaskList.loadTasks();
+        for (Map.Entry<Integer, Task> match : TaskList.findQueryMatches(query).entrySet()) {
+            writeTask(match.getKey(), match.getValue(), isJson, out);
+        }
+        return EXIT_SUCCESS;
+    }
+
+    /**
+     * Prints a task on one line, as JSON or as shown in the task list.
+     *
+     * @param number The number of the task in the task list, or 0 if it is not known.
+     */
+    private static void writeTask(int number, Task task, boolean isJson, Writer out) throws IOException {
+        if (isJson) {
+            BulkTransfer.writeJsonLine(number, task, out);
+        } else {
+            out.write(number > 0 ? number + ". " + task + "\n" : task + "\n");
+        }
+    }
+}
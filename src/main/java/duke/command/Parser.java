@@ -1,87 +1,287 @@
 package duke.command;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.time.LocalDateTime;
-import java.util.Scanner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
+import duke.storage.BulkTransfer;
+import duke.storage.Storage;
+import duke.storage.StoreWatcher;
+import duke.storage.SyncFeed;
 import duke.task.*;
 import duke.ui.Ui;
 import duke.exception.DukeException;
 
 /**
  * Represents a parser for user commands.
- * Parses user commands and executes corresponding actions.
+ * Looks up each command in a registry of handlers and tokenizes its line in a single pass
+ * against the arguments the command declares, then executes the handler.
  */
 public class Parser {
+    /** The registered commands. */
+    private static final CommandRegistry registry = new CommandRegistry();
+    /** The reusable command line of each thread, so that tokenizing allocates little per line. */
+    private static final ThreadLocal<CommandLine> commandLines = ThreadLocal.withInitial(CommandLine::new);
+    /** The number of days the stats command covers when none is given. */
+    private static final int DEFAULT_STATS_DAYS = 7;
+    /** The largest number of days the stats command covers. */
+    private static final int MAX_STATS_DAYS = 366;
+    /** Whether the user has asked to exit. */
+    private static boolean isExitRequested = false;
+
+    static {
+        registerCommand("bye", new ArgumentSchema(), line -> isExitRequested = true);
+        registerCommand("list", new ArgumentSchema(), Parser::executeListCommand);
+        registerCommand("mark", new ArgumentSchema()
+                .requiringArguments(DukeException::invalidTaskNumber), Parser::executeMarkCommand);
+        registerCommand("unmark", new ArgumentSchema()
+                .requiringArguments(DukeException::invalidTaskNumber), Parser::executeUnmarkCommand);
+        registerCommand("tag", new ArgumentSchema()
+                .requiringArguments(DukeException::invalidTagFormat), line -> executeTagCommand(line, true));
+        registerCommand("untag", new ArgumentSchema()
+                .requiringArguments(DukeException::invalidTagFormat), line -> executeTagCommand(line, false));
+        registerCommand("priority", new ArgumentSchema()
+                .requiringArguments(DukeException::invalidPriorityFormat), Parser::executePriorityCommand);
+        registerCommand("todo", new ArgumentSchema()
+                .requiringArguments(DukeException::invalidToDoFormat), Parser::executeAddCommand);
+        registerCommand("deadline", new ArgumentSchema()
+                .withFlag("/by", ArgumentSchema.Arity.TEXT)
+                .requiringArguments(DukeException::invalidDeadlineFormat), Parser::executeAddCommand);
+        registerCommand("event", new ArgumentSchema()
+                .withFlag("/from", ArgumentSchema.Arity.TEXT)
+                .withFlag("/to", ArgumentSchema.Arity.TEXT)
+                .requiringArguments(DukeException::invalidEventFormat), Parser::executeAddCommand);
+        registerCommand("recur", new ArgumentSchema()
+                .withFlag("/every", ArgumentSchema.Arity.TEXT)
+                .withFlag("/from", ArgumentSchema.Arity.TEXT)
+                .withFlag("/to", ArgumentSchema.Arity.TEXT)
+                .withFlag("/until", ArgumentSchema.Arity.TEXT)
+                .withFlag("/count", ArgumentSchema.Arity.TEXT)
+                .requiringArguments(DukeException::invalidRecurringFormat), Parser::executeAddCommand);
+        registerCommand("due", new ArgumentSchema()
+                .requiringArguments(DukeException::invalidDueFormat), Parser::executeDueCommand);
+        registerCommand("sort", new ArgumentSchema()
+                .withFlag("--page", ArgumentSchema.Arity.TOKEN)
+                .requiringArguments(DukeException::invalidSortFormat), Parser::executeSortCommand);
+        registerCommand("move", new ArgumentSchema()
+                .requiringArguments(DukeException::invalidMoveFormat), Parser::executeMoveCommand);
+        registerCommand("stats", new ArgumentSchema(), Parser::executeStatsCommand);
+        registerCommand("overdue", new ArgumentSchema(), line -> TaskList.displayOverdueTasks());
+        registerCommand("conflicts", new ArgumentSchema(), line -> TaskList.displayConflicts());
+        registerCommand("delete", new ArgumentSchema()
+                .requiringArguments(DukeException::invalidTaskNumber), Parser::executeDeleteCommand);
+        registerCommand("find", new ArgumentSchema()
+                .withFlag("--fuzzy", ArgumentSchema.Arity.SWITCH)
+                .requiringArguments(DukeException::invalidFindFormat), Parser::executeFindCommand);
+        registerCommand("query", new ArgumentSchema()
+                .withFlag("--explain", ArgumentSchema.Arity.SWITCH)
+                .requiringArguments(DukeException::invalidQueryFormat), Parser::executeQueryCommand);
+        registerCommand("postpone", new ArgumentSchema()
+                .requiringArguments(DukeException::invalidPostponeFormat), Parser::executePostponeCommand);
+        registerCommand("export", new ArgumentSchema()
+                .withFlag("--since", ArgumentSchema.Arity.TOKEN)
+                .withFlag("--format", ArgumentSchema.Arity.TOKEN)
+                .requiringArguments(DukeException::invalidExportFormat), Parser::executeExportCommand);
+        registerCommand("import", new ArgumentSchema()
+                .withFlag("--format", ArgumentSchema.Arity.TOKEN)
+                .requiringArguments(DukeException::invalidImportFormat), Parser::executeImportCommand);
+        registerCommand("undo", new ArgumentSchema(), line -> executeUndoCommand(line, true));
+        registerCommand("redo", new ArgumentSchema(), line -> executeUndoCommand(line, false));
+        registerCommand("workspace", new ArgumentSchema(), Parser::executeWorkspaceCommand);
+    }
+
+    /**
+     * Registers a command, replacing any command already registered under the same name.
+     *
+     * @param name    The name of the command.
+     * @param schema  The arguments the command accepts.
+     * @param handler The handler that executes the command.
+     */
+    public static void registerCommand(String name, ArgumentSchema schema, CommandHandler handler) {
+        registry.register(name, schema, handler);
+    }
+
+    /**
+     * Retrieves the registry of commands.
+     *
+     * @return The registry of commands.
+     */
+    public static CommandRegistry getRegistry() {
+        return registry;
+    }
+
     /**
      * Executes the provided command.
      *
      * @param command The command to execute.
+     * @return True if the command succeeded, false if it was unknown or an error was displayed.
      */
-    public static void executeCommand(String command) {
+    public static boolean executeCommand(String command) {
+        CommandLine line = commandLines.get();
+        int handledCount = DukeException.getHandledCount();
         try {
-            String[] commandParts = command.split(" ", 3);
-            String commandType = commandParts[0].toLowerCase();
-
-            switch (commandType) {
-                case "list":
-                    executeListCommand();
-                    break;
-                case "mark":
-                    executeMarkCommand(commandParts);
-                    break;
-                case "unmark":
-                    executeUnmarkCommand(commandParts);
-                    break;
-                case "todo":
-                    executeTodoCommand(command, commandParts);
-                    break;
-                case "deadline":
-                    executeDeadlineCommand(command, commandParts);
-                    break;
-                case "event":
-                    executeEventCommand(command, commandParts);
-                    break;
-                case "delete":
-                    executeDeleteCommand(commandParts);
-                    break;
-                case "find":
-                    executeFindCommand(commandParts);
-                    break;
-                case "postpone":
-                    executePostponeCommand(commandParts);
-                    break;
-                default:
-                    Ui.displayMessage("    Unknown command! Enter a valid command.");
+            if (!line.parse(command, registry)) {
+                DukeException.handleGracefulError("    Unknown command! Enter a valid command.");
+                return false;
+            }
+            if (line.getSchema().requiresArguments() && !line.hasArguments()) {
+                DukeException.handleGracefulError(line.getSchema().getUsageError());
+                return false;
             }
+            line.getHandler().execute(line);
+        } catch (DukeException e) {
+            DukeException.handleGracefulError(e.getMessage());
+            return false;
+        }
+        return DukeException.getHandledCount() == handledCount;
+    }
+
+    /**
+     * Tokenizes a command without executing it.
+     *
+     * @param command The command to tokenize.
+     * @return The command line, reused by the next call on the same thread, or null if the command is unknown.
+     * @throws DukeException If the command requires arguments and has none.
+     */
+    static CommandLine parseCommand(String command) throws DukeException {
+        CommandLine line = commandLines.get();
+        if (!line.parse(command, registry)) {
+            return null;
+        }
+        if (line.getSchema().requiresArguments() && !line.hasArguments()) {
+            throw line.getSchema().getUsageError();
+        }
+        return line;
+    }
 
+    /**
+     * Checks whether the user has asked to exit.
+     *
+     * @return True if the user has asked to exit, false otherwise.
+     */
+    public static boolean isExitRequested() {
+        return isExitRequested;
+    }
+
+    /**
+     * Executes the "list" command, which lists every task or, given filters such as {@code #ops p1 pending},
+     * the tasks bearing every tag, of the priority and of the completion status given.
+     *
+     * @param line The command line.
+     */
+    private static void executeListCommand(CommandLine line) {
+        if (!line.hasArguments()) {
+            TaskList.displayList();
+            return;
+        }
+        try {
+            TaskList.displayFilteredList(Query.parseFilters(line.getArguments()));
+        } catch (DukeException e) {
+            DukeException.handleGracefulError(e);
+        }
+    }
+
+    /**
+     * Executes the "sort" command, which shows a page of the list sorted by due date, type or completion,
+     * such as {@code sort by due desc --page 2}.
+     *
+     * @param line The command line.
+     */
+    private static void executeSortCommand(CommandLine line) {
+        int count = line.getArgumentCount();
+        int first = line.getArgument(0).equalsIgnoreCase("by") ? 1 : 0;
+        boolean isDescending = count > first + 1 && line.getArgument(count - 1).equalsIgnoreCase("desc");
+        try {
+            if (count != first + (isDescending ? 2 : 1)) {
+                throw DukeException.invalidSortFormat();
+            }
+            String page = line.getFlag("--page");
+            int pageNumber = page == null ? 1 : Integer.parseInt(page);
+            TaskList.displaySortedList(line.getArgument(first), isDescending, pageNumber);
+        } catch (NumberFormatException e) {
+            DukeException.handleGracefulError(DukeException.invalidSortFormat());
         } catch (DukeException e) {
-            Ui.displayMessage(e.getMessage());
+            DukeException.handleGracefulError(e);
         }
     }
 
     /**
-     * Executes the "list" command.
+     * Executes the "move" command.
      *
+     * @param line The command line.
      * @throws DukeException If an error occurs during execution.
      */
-    private static void executeListCommand() throws DukeException {
-        Ui.displayTaskList(TaskList.taskList);
+    private static void executeMoveCommand(CommandLine line) throws DukeException {
+        if (line.getArgumentCount() != 2) {
+            DukeException.handleGracefulError(DukeException.invalidMoveFormat());
+            return;
+        }
+        try {
+            TaskList.moveTask(line.getIntArgument(0), line.getIntArgument(1));
+        } catch (NumberFormatException e) {
+            DukeException.handleGracefulError(DukeException.invalidTaskNumber());
+        }
     }
 
     /**
-     * Executes the "mark" command.
+     * Executes the "tag" or "untag" command.
      *
-     * @param commandParts The command parts.
+     * @param line    The command line.
+     * @param isAdded True for "tag", false for "untag".
      * @throws DukeException If an error occurs during execution.
      */
-    private static void executeMarkCommand(String[] commandParts) throws DukeException {
-        if (commandParts.length > 1) {
-            try {
-                TaskList.markTaskAsDone(Integer.parseInt(commandParts[1]));
-            } catch (NumberFormatException e) {
-                DukeException.handleGracefulError(DukeException.invalidTaskNumber());
+    private static void executeTagCommand(CommandLine line, boolean isAdded) throws DukeException {
+        if (isAdded && line.getArgumentCount() < 2) {
+            DukeException.handleGracefulError(DukeException.invalidTagFormat());
+            return;
+        }
+        try {
+            List<String> tags = new ArrayList<>();
+            for (int i = 1; i < line.getArgumentCount(); i++) {
+                tags.add(Task.parseTag(line.getArgument(i)));
             }
-        } else {
+            TaskList.tagTask(line.getIntArgument(0), tags, isAdded);
+        } catch (NumberFormatException e) {
+            DukeException.handleGracefulError(DukeException.invalidTaskNumber());
+        } catch (DukeException e) {
+            DukeException.handleGracefulError(e);
+        }
+    }
+
+    /**
+     * Executes the "priority" command.
+     *
+     * @param line The command line.
+     * @throws DukeException If an error occurs during execution.
+     */
+    private static void executePriorityCommand(CommandLine line) throws DukeException {
+        if (line.getArgumentCount() != 2) {
+            DukeException.handleGracefulError(DukeException.invalidPriorityFormat());
+            return;
+        }
+        try {
+            TaskList.prioritizeTask(line.getIntArgument(0), Task.parsePriority(line.getArgument(1)));
+        } catch (NumberFormatException e) {
+            DukeException.handleGracefulError(DukeException.invalidTaskNumber());
+        } catch (DukeException e) {
+            DukeException.handleGracefulError(e);
+        }
+    }
+
+    /**
+     * Executes the "mark" command.
+     *
+     * @param line The command line.
+     * @throws DukeException If an error occurs during execution.
+     */
+    private static void executeMarkCommand(CommandLine line) throws DukeException {
+        try {
+            TaskList.markTaskAsDone(line.getIntArgument(0));
+        } catch (NumberFormatException e) {
             DukeException.handleGracefulError(DukeException.invalidTaskNumber());
         }
     }
@@ -89,137 +289,319 @@ public class Parser {
     /**
      * Executes the "unmark" command.
      *
-     * @param commandParts The command parts.
+     * @param line The command line.
      * @throws DukeException If an error occurs during execution.
      */
-    private static void executeUnmarkCommand(String[] commandParts) throws DukeException {
-        if (commandParts.length > 1) {
-            try {
-                TaskList.unmarkTaskAsDone(Integer.parseInt(commandParts[1]));
-            } catch (NumberFormatException e) {
-                DukeException.handleGracefulError(DukeException.invalidTaskNumber());
-            }
-        } else {
+    private static void executeUnmarkCommand(CommandLine line) throws DukeException {
+        try {
+            TaskList.unmarkTaskAsDone(line.getIntArgument(0));
+        } catch (NumberFormatException e) {
             DukeException.handleGracefulError(DukeException.invalidTaskNumber());
         }
     }
 
     /**
-     * Executes the "todo" command.
+     * Executes the "todo", "deadline", "event" or "recur" command.
      *
-     * @param command      The full command string.
-     * @param commandParts The command parts.
+     * @param line The command line.
      * @throws DukeException If an error occurs during execution.
      */
-    private static void executeTodoCommand(String command, String[] commandParts) throws DukeException {
-        if (commandParts.length > 1) {
-            ToDo toDoTask = ToDo.createToDoFromCommand(command);
-            if (toDoTask != null) {
-                TaskList.addTask(toDoTask);
-            } else {
-                DukeException.handleGracefulError(DukeException.invalidToDoFormat());
-            }
-        } else {
-            DukeException.handleGracefulError(DukeException.invalidToDoFormat());
+    private static void executeAddCommand(CommandLine line) throws DukeException {
+        Task task = createTask(line);
+        if (task != null) {
+            TaskList.addTask(task);
+        }
+    }
+
+    /**
+     * Creates the task described by a "todo", "deadline", "event" or "recur" command, without adding it.
+     *
+     * @param line The command line.
+     * @return The task, or null if the command describes no valid task, in which case the error has been displayed.
+     */
+    static Task createTask(CommandLine line) {
+        switch (line.getName().toLowerCase(Locale.ROOT)) {
+            case "todo":
+                return new ToDo(line.getArguments());
+            case "deadline":
+                return Deadline.createDeadline(line.getArguments(), line.getFlag("/by"));
+            case "event":
+                return Event.createEvent(line.getArguments(), line.getFlag("/from"), line.getFlag("/to"));
+            case "recur":
+                return Recurring.createRecurring(line.getArguments(), line.getFlag("/every"), line.getFlag("/from"),
+                        line.getFlag("/to"), line.getFlag("/until"), line.getFlag("/count"));
+            default:
+                return null;
         }
     }
 
     /**
-     * Executes the "deadline" command.
+     * Executes the "due" command.
      *
-     * @param command      The full command string.
-     * @param commandParts The command parts.
+     * @param line The command line.
      * @throws DukeException If an error occurs during execution.
      */
-    private static void executeDeadlineCommand(String command, String[] commandParts) throws DukeException {
-        if (commandParts.length > 1) {
-            Deadline deadlineTask = Deadline.createDeadlineFromCommand(command);
-            if (deadlineTask != null) {
-                TaskList.addTask(deadlineTask);
+    private static void executeDueCommand(CommandLine line) throws DukeException {
+        try {
+            TaskList.displayTasksDueBefore(DateTimeParser.parseDateTime(line.getArguments()));
+        } catch (DukeException e) {
+            DukeException.handleGracefulError(DukeException.invalidDueFormat());
+        }
+    }
+
+    /**
+     * Executes the "stats" command, which covers the given number of days, or a week if none is given.
+     *
+     * @param line The command line.
+     * @throws DukeException If an error occurs during execution.
+     */
+    private static void executeStatsCommand(CommandLine line) throws DukeException {
+        try {
+            int days = line.hasArguments() ? line.getIntArgument(0) : DEFAULT_STATS_DAYS;
+            if (days < 1 || days > MAX_STATS_DAYS) {
+                DukeException.handleGracefulError(DukeException.invalidStatsFormat());
+                return;
             }
+            TaskList.displayStats(days);
+        } catch (NumberFormatException e) {
+            DukeException.handleGracefulError(DukeException.invalidStatsFormat());
+        }
+    }
+
+    /**
+     * Executes the "delete" command.
+     *
+     * @param line The command line.
+     * @throws DukeException If an error occurs during execution.
+     */
+    private static void executeDeleteCommand(CommandLine line) throws DukeException {
+        try {
+            TaskList.deleteTask(line.getIntArgument(0), TaskList.taskList);
+        } catch (NumberFormatException e) {
+            DukeException.handleGracefulError(DukeException.invalidTaskNumber());
+        }
+    }
+
+    /**
+     * Executes the "find" command, which matches a keyword exactly or, with --fuzzy, despite typos.
+     *
+     * @param line The command line.
+     * @throws DukeException If an error occurs during execution.
+     */
+    private static void executeFindCommand(CommandLine line) throws DukeException {
+        if (line.getArguments().isEmpty()) {
+            // The --fuzzy flag alone passes for an argument
+            DukeException.handleGracefulError(DukeException.invalidFindFormat());
+        } else if (line.hasFlag("--fuzzy")) {
+            TaskList.displayFuzzyMatches(line.getArguments());
         } else {
-            DukeException.handleGracefulError(DukeException.invalidDeadlineFormat());
+            TaskList.findTasksByKeyword(line.getArguments());
+        }
+    }
+
+    /**
+     * Executes the "query" command, which lists the tasks matching a query and, with --explain, how it was run.
+     *
+     * @param line The command line.
+     */
+    private static void executeQueryCommand(CommandLine line) {
+        if (line.getArguments().isEmpty()) {
+            // The --explain flag alone passes for an argument
+            DukeException.handleGracefulError(DukeException.invalidQueryFormat());
+            return;
+        }
+        try {
+            TaskList.displayQueryMatches(Query.parse(line.getArguments()), line.hasFlag("--explain"));
+        } catch (DukeException e) {
+            DukeException.handleGracefulError(e);
         }
     }
 
     /**
-     * Executes the "event" command.
+     * Executes the "postpone" command.
      *
-     * @param command      The full command string.
-     * @param commandParts The command parts.
+     * @param line The command line.
      * @throws DukeException If an error occurs during execution.
      */
-    private static void executeEventCommand(String command, String[] commandParts) throws DukeException {
-        if (commandParts.length > 1) {
-            Event eventTask = Event.createEventFromCommand(command);
-            if (eventTask != null) {
-                TaskList.addTask(eventTask);
+    private static void executePostponeCommand(CommandLine line) throws DukeException {
+        if (line.getArgumentCount() < 2) {
+            DukeException.handleGracefulError(DukeException.invalidPostponeFormat());
+            return;
+        }
+        try {
+            int taskNumber = line.getIntArgument(0);
+            if (!TaskList.isValidTaskNumber(taskNumber, TaskList.taskList)) {
+                DukeException.handleGracefulError(DukeException.invalidTaskNumber());
             }
-        } else {
-            DukeException.handleGracefulError(DukeException.invalidEventFormat());
+            LocalDateTime newDueDateTime = DateTimeParser.parseDateTime(line.getArguments(1));
+            if (newDueDateTime.isBefore(LocalDateTime.now())) {
+                DukeException.handleGracefulError(DukeException.invalidDateTime());
+            } else {
+                TaskList.postponeTask(taskNumber, newDueDateTime);
+            }
+        } catch (NumberFormatException e) {
+            DukeException.handleGracefulError(DukeException.invalidTaskNumber());
+        } catch (DukeException e) {
+            DukeException.handleGracefulError(DukeException.invalidPostponeFormat());
         }
     }
 
     /**
-     * Executes the "delete" command.
+     * Executes the "export" command.
+     * With --since, the changes since a version are written as a change feed; with --format or a
+     * .csv or .jsonl file, the whole list is written in CSV or JSON Lines.
      *
-     * @param commandParts The command parts.
+     * @param line The command line.
      * @throws DukeException If an error occurs during execution.
      */
-    private static void executeDeleteCommand(String[] commandParts) throws DukeException {
-        if (commandParts.length > 1) {
+    private static void executeExportCommand(CommandLine line) throws DukeException {
+        String sinceString = line.getFlag("--since");
+        String format = line.getFlag("--format");
+        String filePath = line.getArguments();
+        if (sinceString == null && !filePath.isEmpty()
+                && (format != null || BulkTransfer.isBulkFormat(null, filePath))) {
+            int taskCount = BulkTransfer.exportTasks(TaskList.taskList, filePath, format);
+            Ui.displayMessage("    Behold! " + taskCount + " task(s) have been inscribed into " + filePath + ".");
+            return;
+        }
+        if (sinceString != null && !sinceString.isEmpty() && !filePath.isEmpty()) {
             try {
-                int taskNumber = Integer.parseInt(commandParts[1]);
-                TaskList.deleteTask(taskNumber, TaskList.taskList);
+                long since = Long.parseLong(sinceString);
+                int recordCount = SyncFeed.exportChangesSince(since, filePath);
+                Ui.displayMessage("    Behold! " + recordCount + " change(s) since version " + since
+                        + " have been inscribed. The list now stands at version "
+                        + ChangeFeed.getCurrentVersion() + ".");
+                return;
             } catch (NumberFormatException e) {
-                DukeException.handleGracefulError(DukeException.invalidTaskNumber());
+                // Fall through to the format error below
             }
-        } else {
-            DukeException.handleGracefulError(DukeException.invalidTaskNumber());
         }
+        DukeException.handleGracefulError(DukeException.invalidExportFormat());
     }
 
     /**
-     * Executes the "find" command.
+     * Executes the "import" command.
+     * Files in CSV or JSON Lines bring in new tasks; any other file is read as a change feed.
      *
-     * @param commandParts The command parts.
+     * @param line The command line.
      * @throws DukeException If an error occurs during execution.
      */
-    private static void executeFindCommand(String[] commandParts) throws DukeException {
-        if (commandParts.length > 1) {
-            String keyword = commandParts[1].trim();
-            TaskList.findTasksByKeyword(keyword);
-        } else {
-            DukeException.handleGracefulError(DukeException.invalidFindFormat());
+    private static void executeImportCommand(CommandLine line) throws DukeException {
+        String format = line.getFlag("--format");
+        String filePath = line.getArguments();
+        if (filePath.isEmpty()) {
+            DukeException.handleGracefulError(DukeException.invalidImportFormat());
+            return;
+        }
+        if (format != null || BulkTransfer.isBulkFormat(null, filePath)) {
+            BulkTransfer.ImportSummary summary = BulkTransfer.importTasks(filePath, format);
+            Ui.displayMessage("    " + summary.getImportedCount() + " task(s) summoned from " + filePath
+                    + ". Now you have " + TaskList.taskList.size() + " task(s).");
+            if (summary.getSkippedCount() > 0) {
+                Ui.displayMessage("    " + summary.getSkippedCount()
+                        + " unworthy record(s) were cast aside, the first at " + summary.getFirstError());
+            }
+            return;
         }
+        int recordCount = SyncFeed.importChanges(filePath);
+        Ui.displayMessage("    " + recordCount + " change(s) absorbed into your list. Now you have "
+                + TaskList.taskList.size() + " task(s).");
     }
 
     /**
-     * Executes the "postpone" command.
+     * Executes the "undo" or "redo" command.
      *
-     * @param commandParts The command parts.
+     * @param line   The command line.
+     * @param isUndo True to undo changes, false to redo them.
      * @throws DukeException If an error occurs during execution.
      */
-    private static void executePostponeCommand(String[] commandParts) throws DukeException {
-        if (commandParts.length > 2) {
+    private static void executeUndoCommand(CommandLine line, boolean isUndo) throws DukeException {
+        int count = 1;
+        if (line.getArgumentCount() > 0) {
             try {
-                int taskNumber = Integer.parseInt(commandParts[1]);
-                if (!TaskList.isValidTaskNumber(taskNumber, TaskList.taskList)) {
-                    DukeException.handleGracefulError(DukeException.invalidTaskNumber());
-                }
-                LocalDateTime newDueDateTime = DateTimeParser.parseDateTime(commandParts[2]);
-                if (newDueDateTime.isBefore(LocalDateTime.now())) {
-                    DukeException.handleGracefulError(DukeException.invalidDateTime());
-                } else {
-                    TaskList.postponeTask(taskNumber, newDueDateTime);
-                }
+                count = line.getIntArgument(0);
             } catch (NumberFormatException e) {
-                DukeException.handleGracefulError(DukeException.invalidTaskNumber());
+                count = 0;
+            }
+        }
+        if (count <= 0) {
+            DukeException.handleGracefulError(DukeException.invalidUndoFormat());
+        } else if (isUndo) {
+            TaskList.undoChanges(count);
+        } else {
+            TaskList.redoChanges(count);
+        }
+    }
+
+    /**
+     * Executes the "workspace" command, which lists the workspaces or switches to another one.
+     *
+     * @param line The command line.
+     * @throws DukeException If an error occurs during execution.
+     */
+    private static void executeWorkspaceCommand(CommandLine line) throws DukeException {
+        String action = line.getArgumentCount() == 0 ? "list" : line.getArgument(0);
+        if (action.equals("list") && line.getArgumentCount() <= 1) {
+            Ui.displayMessage("    ======= Realms of Your Servitude =======");
+            for (String name : Workspace.listNames()) {
+                String marker = name.equals(Workspace.getCurrentName()) ? " (in use)"
+                        : Workspace.isLoaded(name) ? " (awake)" : "";
+                Ui.displayMessage("         " + name + marker);
+            }
+        } else if (action.equals("use") && line.getArgumentCount() == 2) {
+            try {
+                String name = Workspace.use(line.getArgument(1));
+                Ui.displayMessage("    You now toil in the workspace '" + name + "', with "
+                        + TaskList.taskList.size() + " task(s) in your list.");
             } catch (DukeException e) {
-                DukeException.handleGracefulError(DukeException.invalidPostponeFormat());
+                DukeException.handleGracefulError(e);
             }
         } else {
-            DukeException.handleGracefulError(DukeException.invalidPostponeFormat());
+            DukeException.handleGracefulError(DukeException.invalidWorkspaceFormat());
+        }
+    }
+
+    /**
+     * Merges the changes other processes have made to the file of the task list in use, reporting them.
+     *
+     * @return False if tasks were deleted, so that the task numbers the user last saw may name other tasks.
+     */
+    private static boolean syncWithFile() {
+        try {
+            StoreMerge merge = TaskList.getRepository().syncWithStore();
+            if (merge != null && merge.getReport() != null) {
+                Ui.displayMessage(merge.getReport());
+            }
+            return merge == null || !merge.isRenumbered();
+        } catch (DukeException e) {
+            DukeException.handleGracefulError(e);
+            return true;
+        }
+    }
+
+    /**
+     * Runs a command typed in the interactive session, after bringing the task list up to date with
+     * the clock and with changes made by other processes.
+     *
+     * @param userInput The command, trimmed.
+     */
+    private static void runCommand(String userInput) {
+        if (userInput.isEmpty()) {
+            System.out.println(new DukeException("Enter a valid command").getErrorMessage());
+        }
+        String overdueReport = OverdueSweeper.sweep();
+        if (overdueReport != null) {
+            Ui.displayMessage(overdueReport);
+        }
+        if (StoreWatcher.takeChange() && !syncWithFile()) {
+            Ui.displayMessage("    Your command was not carried out, lest it strike the wrong task. "
+                    + "Look upon your list anew!");
+        } else {
+            Parser.executeCommand(userInput);
+        }
+        String mergeReport = Storage.takeMergeReport();
+        if (mergeReport != null) {
+            Ui.displayMessage(mergeReport);
         }
     }
 
@@ -227,22 +609,26 @@ public class Parser {
      * Runs the Duke application by taking user input and executing commands until the user exits.
      */
     public void runDuke() {
-        String userInput;
-        Scanner in = new Scanner(System.in);
+        // A plain reader rather than a Scanner, which loads regular expressions and locale data at startup
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
 
-        do {
-            userInput = in.nextLine().trim();
-            if (userInput.isEmpty()) {
-                System.out.println(new DukeException("Enter a valid command").getErrorMessage());
-            }
-            if (userInput.equalsIgnoreCase("bye")) {
-                continue;
-            } else if (userInput.equalsIgnoreCase("list")) {
-                TaskList.displayList();
-                continue;
+        isExitRequested = false;
+        try {
+            String line;
+            while (!isExitRequested && (line = in.readLine()) != null) {
+                // Listeners of task events, such as saving, run between commands
+                TaskEventBus.getTaskListLock().lock();
+                try {
+                    runCommand(line.trim());
+                } finally {
+                    TaskEventBus.getTaskListLock().unlock();
+                }
+                if (!isExitRequested) {
+                    Ui.printHorizontalLine();
+                }
             }
-            Parser.executeCommand(userInput);
-            Ui.printHorizontalLine();
-        } while (!userInput.equalsIgnoreCase("bye"));
+        } catch (IOException e) {
+            Ui.displayMessage("    Error reading commands: " + e.getMessage());
+        }
     }
 }
@@ -1,10 +1,19 @@
 package duke.exception;
 
+import duke.log.Log;
+
+import java.io.PrintStream;
+
 /**
  * Represents an exception specific to the Duke application.
  * This class extends the general Exception class.
  */
 public class DukeException extends Exception {
+    /** Where errors handled gracefully are reported: standard output in the interactive session. */
+    private static PrintStream errorOutput = System.out;
+    /** The number of errors handled gracefully so far, so that callers can tell whether a command failed. */
+    private static int handledCount = 0;
+
     /**
      * Constructs a DukeException with the specified detail message.
      *
@@ -24,12 +33,46 @@ public class DukeException extends Exception {
     }
 
     /**
-     * Handles the given DukeException gracefully by printing its error message.
+     * Handles the given DukeException gracefully by printing its error message, and logging it at info level,
+     * since errors the user is told about are mostly mistakes in commands rather than faults.
      *
      * @param exception The DukeException to handle.
      */
     public static void handleGracefulError(DukeException exception) {
-        System.out.println(exception.getErrorMessage());
+        handledCount++;
+        Log.info(DukeException.class, exception.getMessage());
+        errorOutput.println(exception.getErrorMessage());
+    }
+
+    /**
+     * Handles an error whose message is already worded for the user by printing it as it is.
+     *
+     * @param message The message, including its indentation.
+     */
+    public static void handleGracefulError(String message) {
+        handledCount++;
+        if (Log.isEnabled(Log.Level.INFO)) {
+            Log.info(DukeException.class, message.trim());
+        }
+        errorOutput.println(message);
+    }
+
+    /**
+     * Directs the errors handled gracefully from now on to the given stream.
+     *
+     * @param output The stream, such as standard error when output is read by other programs.
+     */
+    public static void reportErrorsTo(PrintStream output) {
+        errorOutput = output;
+    }
+
+    /**
+     * Retrieves the number of errors handled gracefully so far.
+     *
+     * @return The number of errors handled.
+     */
+    public static int getHandledCount() {
+        return handledCount;
     }
 
     /**
@@ -102,4 +145,170 @@ public class DukeException extends Exception {
     public static DukeException invalidDateTime() {
         return new DukeException("Date and Time has to be in the future!");
     }
+
+    /**
+     * Creates a DukeException for an invalid 'export' command format.
+     *
+     * @return The DukeException for an invalid 'export' command format.
+     */
+    public static DukeException invalidExportFormat() {
+        return new DukeException("Enter the export format as follows: export --since <version> <file> "
+                + "or export <file> [--format csv|jsonl]");
+    }
+
+    /**
+     * Creates a DukeException for an invalid 'import' command format.
+     *
+     * @return The DukeException for an invalid 'import' command format.
+     */
+    public static DukeException invalidImportFormat() {
+        return new DukeException("Enter the import format as follows: import <file> [--format csv|jsonl]");
+    }
+
+    /**
+     * Creates a DukeException for an invalid 'undo' or 'redo' command format.
+     *
+     * @return The DukeException for an invalid 'undo' or 'redo' command format.
+     */
+    public static DukeException invalidUndoFormat() {
+        return new DukeException("Enter the number of changes as a positive number: undo [count] or redo [count]");
+    }
+
+    /**
+     * Creates a DukeException for an invalid Recurring format.
+     *
+     * @return The DukeException for an invalid Recurring format.
+     */
+    public static DukeException invalidRecurringFormat() {
+        return new DukeException("Insolent wretch! Enter the Recurring format as follows: recur <description> "
+                + "/every <daily|weekly|monthly> /from <date> [/to <date>] [/until <date> | /count <n>]");
+    }
+
+    /**
+     * Creates a DukeException for an invalid 'due' command format.
+     *
+     * @return The DukeException for an invalid 'due' command format.
+     */
+    public static DukeException invalidDueFormat() {
+        return new DukeException("Enter the end of the window in the correct format: due dd/mm/yyyy HHmm");
+    }
+
+    /**
+     * Creates a DukeException for an invalid 'stats' command format.
+     *
+     * @return The DukeException for an invalid 'stats' command format.
+     */
+    public static DukeException invalidStatsFormat() {
+        return new DukeException("Enter the stats format as follows: stats [number of days, from 1 to 366]");
+    }
+
+    /**
+     * Creates a DukeException for an invalid 'workspace' command format.
+     *
+     * @return The DukeException for an invalid 'workspace' command format.
+     */
+    public static DukeException invalidWorkspaceFormat() {
+        return new DukeException("Enter the workspace format as follows: workspace [list] or workspace use <name>");
+    }
+
+    /**
+     * Creates a DukeException for an invalid workspace name.
+     *
+     * @return The DukeException for an invalid workspace name.
+     */
+    public static DukeException invalidWorkspaceName() {
+        return new DukeException("Witless mortal! A workspace name holds up to 64 letters, digits, '-' or '_', "
+                + "and starts with a letter or digit.");
+    }
+
+    /**
+     * Creates a DukeException for an incomplete 'query' command.
+     *
+     * @return The DukeException for an invalid 'query' command format.
+     */
+    public static DukeException invalidQueryFormat() {
+        return new DukeException("Enter a query of conditions such as: query type = deadline and not done "
+                + "and by < friday and desc ~ deploy");
+    }
+
+    /**
+     * Creates a DukeException for a query that cannot be understood.
+     *
+     * @param token The part of the query at which it stopped making sense.
+     * @return The DukeException for an invalid query.
+     */
+    public static DukeException invalidQuery(String token) {
+        return new DukeException("Gibberish! Your query loses its way at '" + token + "'. Compare type, done, desc, "
+                + "by, from, to, tag or priority with a value, and join the comparisons with and, or, not and "
+                + "parentheses.");
+    }
+
+    /**
+     * Creates a DukeException for an invalid 'tag' or 'untag' command format.
+     *
+     * @return The DukeException for an invalid 'tag' or 'untag' command format.
+     */
+    public static DukeException invalidTagFormat() {
+        return new DukeException("Enter the tag format as follows: tag <taskNumber> #<tag>... "
+                + "or untag <taskNumber> [#<tag>...]");
+    }
+
+    /**
+     * Creates a DukeException for an invalid tag.
+     *
+     * @param tag The tag as typed.
+     * @return The DukeException for an invalid tag.
+     */
+    public static DukeException invalidTag(String tag) {
+        return new DukeException("Witless mortal! '" + tag + "' is no tag. A tag holds up to 32 letters, digits, "
+                + "'-' or '_', and starts with a letter or digit.");
+    }
+
+    /**
+     * Creates a DukeException for an invalid 'priority' command format or priority.
+     *
+     * @return The DukeException for an invalid 'priority' command format.
+     */
+    public static DukeException invalidPriorityFormat() {
+        return new DukeException("Enter the priority format as follows: priority <taskNumber> <p1|p2|p3|none>");
+    }
+
+    /**
+     * Creates a DukeException for a filter of the 'list' command that cannot be understood.
+     *
+     * @param filter The filter as typed.
+     * @return The DukeException for an invalid filter.
+     */
+    public static DukeException invalidListFilter(String filter) {
+        return new DukeException("Befuddled fool! '" + filter + "' is no filter. Filter the list by tags, "
+                + "priorities and completion, such as: list #ops p1 pending");
+    }
+
+    /**
+     * Creates a DukeException for an invalid 'sort' command format.
+     *
+     * @return The DukeException for an invalid 'sort' command format.
+     */
+    public static DukeException invalidSortFormat() {
+        return new DukeException("Enter the sort format as follows: sort [by] <due|type|done> [desc] [--page N]");
+    }
+
+    /**
+     * Creates a DukeException for an invalid 'move' command format.
+     *
+     * @return The DukeException for an invalid 'move' command format.
+     */
+    public static DukeException invalidMoveFormat() {
+        return new DukeException("Enter the move format as follows: move <taskNumber> <newTaskNumber>");
+    }
+
+    /**
+     * Creates a DukeException for a command given on the command line that cannot be run there.
+     *
+     * @return The DukeException for an invalid command line.
+     */
+    public static DukeException invalidCommandLine() {
+        return new DukeException("Feeble incantation! Run me as: duke [--workspace NAME] [--json] COMMAND..., "
+                + "where --json is only understood by add, list, find and query.");
+    }
 }
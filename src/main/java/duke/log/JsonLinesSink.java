@@ -0,0 +1,195 @@
+package duke.log;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Writes log records to a file as JSON Lines, one object per record, rolling the file over once it
+ * reaches its maximum size: the file becomes backup 1, backup 1 becomes backup 2 and so on, and the
+ * oldest backup is dropped. Only used by the thread writing the log.
+ */
+class JsonLinesSink {
+    private final Path path;
+    private final long maxBytes;
+    private final int backupCount;
+    private OutputStream out;
+    private long size;
+
+    /**
+     * Opens the log file, appending to what it already holds.
+     *
+     * @param path        The file.
+     * @param maxBytes    The size beyond which the file is rolled over.
+     * @param backupCount The number of rolled-over files kept.
+     */
+    JsonLinesSink(Path path, long maxBytes, int backupCount) throws IOException {
+        this.path = path;
+        this.maxBytes = maxBytes;
+        this.backupCount = backupCount;
+        open();
+    }
+
+    /**
+     * Writes a record, rolling the file over first if it would grow beyond its maximum size.
+     *
+     * @param record The record.
+     */
+    void write(LogRecord record) throws IOException {
+        byte[] line = format(record).getBytes(StandardCharsets.UTF_8);
+        if (size > 0 && size + line.length > maxBytes) {
+            roll();
+        }
+        out.write(line);
+        size += line.length;
+    }
+
+    /**
+     * Writes out the records buffered so far.
+     */
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Writes out the records buffered so far and closes the file.
+     */
+    void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Formats a record as one line of JSON.
+     *
+     * @param record The record.
+     * @return The line, ending with a line break.
+     */
+    static String format(LogRecord record) {
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"time\":\"").append(Instant.ofEpochMilli(record.timeMillis))
+                .append("\",\"level\":\"").append(record.level.name())
+                .append("\",\"thread\":");
+        appendString(json, record.threadName);
+        json.append(",\"source\":");
+        appendString(json, record.source);
+        json.append(",\"message\":");
+        appendString(json, record.message);
+        for (int i = 0; i + 1 < record.fields.length; i += 2) {
+            json.append(',');
+            appendString(json, String.valueOf(record.fields[i]));
+            json.append(':');
+            appendValue(json, record.fields[i + 1]);
+        }
+        if (record.error != null) {
+            json.append(",\"error\":");
+            appendString(json, record.error.toString());
+            StringWriter stackTrace = new StringWriter();
+            record.error.printStackTrace(new PrintWriter(stackTrace));
+            json.append(",\"stack\":");
+            appendString(json, stackTrace.toString());
+        }
+        return json.append("}\n").toString();
+    }
+
+    /**
+     * Appends a field value: numbers and booleans as they are, null as null, anything else as a string.
+     */
+    private static void appendValue(StringBuilder json, Object value) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else {
+            appendString(json, value.toString());
+        }
+    }
+
+    /**
+     * Appends a string in quotes, escaping quotes, backslashes and control characters.
+     */
+    private static void appendString(StringBuilder json, String text) {
+        if (text == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                    break;
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Opens the file for appending, creating it and its directory if needed.
+     */
+    private void open() throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        out = new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND));
+        size = Files.size(path);
+    }
+
+    /**
+     * Closes the file, shifts it and its backups along by one, and opens a new file.
+     */
+    private void roll() throws IOException {
+        out.close();
+        if (backupCount == 0) {
+            Files.delete(path);
+        } else {
+            for (int i = backupCount - 1; i >= 1; i--) {
+                Path backup = getBackup(i);
+                if (Files.exists(backup)) {
+                    Files.move(backup, getBackup(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(path, getBackup(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        open();
+    }
+
+    /**
+     * Retrieves the path of a rolled-over file.
+     *
+     * @param number The number of the backup, 1 for the most recent.
+     * @return The path.
+     */
+    Path getBackup(int number) {
+        return path.resolveSibling(path.getFileName() + "." + number);
+    }
+}
@@ -0,0 +1,248 @@
+package duke.log;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records what happens inside Duke for whoever maintains it, apart from what the user is told.
+ * Records are captured on the thread logging them and handed over a lock-free queue to a background
+ * thread, which writes them to a rolling JSON Lines file, so logging never waits on the disk. Records
+ * below the level of the {@code duke.log.level} system property, warn unless set and off to log nothing,
+ * are dropped by one comparison before anything is allocated, and callers passing fields check
+ * {@link #isEnabled} first so that not even their array is built. The background thread and the file
+ * are only started by the first record kept, so a session with nothing to log creates neither. When the
+ * queue is full, records are dropped and counted rather than waited for, and the count is logged later.
+ * The file is {@code duke-log.jsonl} in the data directory unless {@code duke.log.file} is set, and is
+ * rolled over at {@code duke.log.maxBytes} bytes, keeping {@code duke.log.backups} older files.
+ */
+public class Log {
+    /**
+     * The levels of records, from the least to the most severe.
+     */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    /** The number of records the queue holds, a power of two. */
+    private static final int QUEUE_CAPACITY = 8192;
+    /** The number of milliseconds the log is given to be written out when the process exits. */
+    private static final long EXIT_WAIT_MILLIS = 1000;
+    /** The ordinal of the least severe level kept, a constant so that checks against it cost next to nothing. */
+    private static final int THRESHOLD = parseLevel(System.getProperty("duke.log.level")).ordinal();
+    private static final Path FILE = Paths.get(System.getProperty("duke.log.file",
+            Paths.get(System.getProperty("duke.data.dir", "./data"), "duke-log.jsonl").toString()));
+    private static final long MAX_BYTES = Long.getLong("duke.log.maxBytes", 10L << 20);
+    private static final int BACKUP_COUNT = Integer.getInteger("duke.log.backups", 3);
+
+    private static final LogQueue queue = new LogQueue(QUEUE_CAPACITY);
+    /** The number of records dropped because the queue was full, not yet logged. */
+    private static final AtomicLong droppedCount = new AtomicLong();
+    /** The background thread writing the log, or null if nothing has been logged yet. */
+    private static volatile Thread thread = null;
+    /** Whether the background thread is about to wait, or waiting, for records. */
+    private static volatile boolean isIdle = false;
+    /** Whether the process is exiting, so the background thread writes out what is left and stops. */
+    private static volatile boolean isClosing = false;
+    /** The log file, or null if it could not be written. Only used by the background thread. */
+    private static JsonLinesSink sink = null;
+
+    /**
+     * Parses a level such as "warn", keeping warnings and errors if the level is missing or unknown.
+     *
+     * @param name The name of the level, in any case, or null.
+     * @return The level.
+     */
+    static Level parseLevel(String name) {
+        if (name == null) {
+            return Level.WARN;
+        }
+        try {
+            return Level.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Level.WARN;
+        }
+    }
+
+    /**
+     * Checks whether records of a level are kept.
+     *
+     * @param level The level.
+     * @return True if records of the level are kept, false if they are dropped.
+     */
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= THRESHOLD;
+    }
+
+    /**
+     * Logs an error.
+     *
+     * @param source The class reporting the error.
+     * @param message What went wrong.
+     * @param error  The exception behind the error, or null.
+     */
+    public static void error(Class<?> source, String message, Throwable error) {
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, source, message, error);
+        }
+    }
+
+    /**
+     * Logs a warning.
+     *
+     * @param source  The class reporting the warning.
+     * @param message What happened.
+     * @param error   The exception behind the warning, or null.
+     */
+    public static void warn(Class<?> source, String message, Throwable error) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, source, message, error);
+        }
+    }
+
+    /**
+     * Logs an event of interest.
+     *
+     * @param source  The class reporting the event.
+     * @param message What happened.
+     */
+    public static void info(Class<?> source, String message) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, source, message, null);
+        }
+    }
+
+    /**
+     * Logs a detail of interest when tracking down a problem.
+     *
+     * @param source  The class reporting the detail.
+     * @param message What happened.
+     */
+    public static void debug(Class<?> source, String message) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, source, message, null);
+        }
+    }
+
+    /**
+     * Logs a record with fields of its own, if records of its level are kept.
+     * Callers check {@link #isEnabled} first, so that the fields are not gathered for nothing.
+     *
+     * @param level   The level.
+     * @param source  The class logging the record.
+     * @param message What happened.
+     * @param error   The exception involved, or null.
+     * @param fields  The names and values of the fields, alternating.
+     */
+    public static void log(Level level, Class<?> source, String message, Throwable error, Object... fields) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        LogRecord record = new LogRecord(System.currentTimeMillis(), level, Thread.currentThread().getName(),
+                source.getName(), message, fields, error);
+        if (!queue.offer(record)) {
+            droppedCount.incrementAndGet();
+            return;
+        }
+        Thread writer = thread;
+        if (writer == null) {
+            start();
+        } else if (isIdle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Starts the background thread writing the log, if it is not running yet, and has it write out what
+     * is left when the process exits.
+     */
+    private static synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        Thread writer = new Thread(Log::writeRecords, "duke-log");
+        writer.setDaemon(true);
+        thread = writer;
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            isClosing = true;
+            LockSupport.unpark(writer);
+            try {
+                writer.join(EXIT_WAIT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "duke-log-closer"));
+    }
+
+    /**
+     * Writes records to the log file as they arrive, writing out the buffer whenever the queue runs dry,
+     * until the process exits.
+     */
+    private static void writeRecords() {
+        try {
+            sink = new JsonLinesSink(FILE, MAX_BYTES, BACKUP_COUNT);
+        } catch (IOException e) {
+            reportFailure(e);
+        }
+        while (true) {
+            LogRecord record = queue.poll();
+            if (record != null) {
+                write(record);
+                continue;
+            }
+            long dropped = droppedCount.getAndSet(0);
+            if (dropped > 0) {
+                write(new LogRecord(System.currentTimeMillis(), Level.WARN, Thread.currentThread().getName(),
+                        Log.class.getName(), "Records were dropped while the log queue was full",
+                        new Object[]{"dropped", dropped}, null));
+                continue;
+            }
+            try {
+                if (sink != null) {
+                    sink.flush();
+                }
+                if (isClosing) {
+                    if (sink != null) {
+                        sink.close();
+                    }
+                    return;
+                }
+            } catch (IOException e) {
+                reportFailure(e);
+            }
+            isIdle = true;
+            // Checked again once idle, so that a record logged meanwhile is not left waiting
+            if (queue.isEmpty() && !isClosing) {
+                LockSupport.park();
+            }
+            isIdle = false;
+        }
+    }
+
+    /**
+     * Writes a record to the log file, unless it could not be written before.
+     */
+    private static void write(LogRecord record) {
+        if (sink == null) {
+            return;
+        }
+        try {
+            sink.write(record);
+        } catch (IOException e) {
+            reportFailure(e);
+        }
+    }
+
+    /**
+     * Gives up on the log file, saying so once on standard error, since there is nowhere else to say it.
+     * Records are still taken off the queue and dropped, so logging stays cheap.
+     */
+    private static void reportFailure(IOException e) {
+        System.err.println("Logging to " + FILE + " stopped: " + e.getMessage());
+        sink = null;
+    }
+}
@@ -0,0 +1,94 @@
+package duke.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded queue of log records, free of locks, for any number of threads adding and one taking.
+ * Each slot carries a sequence number telling whose turn it is: a thread adding claims a position by
+ * compare-and-set, then fills the slot and hands it on by publishing the next sequence number, and the
+ * thread taking reads a slot only once its sequence number says it is filled. A full queue refuses records
+ * rather than making anyone wait, since no command should ever wait on its log.
+ */
+class LogQueue {
+    private final int capacity;
+    private final int mask;
+    private final LogRecord[] records;
+    /** The sequence number of each slot: its position when free, one past it when filled. */
+    private final AtomicLongArray sequences;
+    /** The position the next record added claims. */
+    private final AtomicLong tail = new AtomicLong();
+    /** The position of the next record taken. Only used by the thread taking. */
+    private long head = 0;
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param capacity The number of records the queue holds, a power of two.
+     */
+    LogQueue(int capacity) {
+        assert Integer.bitCount(capacity) == 1 : "The capacity must be a power of two";
+
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.records = new LogRecord[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds a record, unless the queue is full.
+     *
+     * @param record The record.
+     * @return True if the record was added, false if the queue was full.
+     */
+    boolean offer(LogRecord record) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    records[slot] = record;
+                    // Publishing the sequence number after filling the slot makes the record visible with it
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // The slot still holds the record added a whole queue ago
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest record. Only called by the one thread taking records.
+     *
+     * @return The record, or null if the queue is empty.
+     */
+    LogRecord poll() {
+        int slot = (int) head & mask;
+        if (sequences.get(slot) != head + 1) {
+            return null;
+        }
+        LogRecord record = records[slot];
+        records[slot] = null;
+        sequences.set(slot, head + capacity);
+        head++;
+        return record;
+    }
+
+    /**
+     * Checks whether the queue is empty. Only called by the one thread taking records.
+     *
+     * @return True if there is no record to take.
+     */
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+}
@@ -0,0 +1,27 @@
+package duke.log;
+
+/**
+ * One entry of the log, captured on the thread logging it and formatted later on the thread writing the log.
+ */
+class LogRecord {
+    final long timeMillis;
+    final Log.Level level;
+    final String threadName;
+    final String source;
+    final String message;
+    /** The names and values of extra fields, alternating, or an empty array. */
+    final Object[] fields;
+    /** The error being reported, or null. */
+    final Throwable error;
+
+    LogRecord(long timeMillis, Log.Level level, String threadName, String source, String message, Object[] fields,
+              Throwable error) {
+        this.timeMillis = timeMillis;
+        this.level = level;
+        this.threadName = threadName;
+        this.source = source;
+        this.message = message;
+        this.fields = fields;
+        this.error = error;
+    }
+}
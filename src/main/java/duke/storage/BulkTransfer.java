@@ -0,0 +1,311 @@
+package duke.storage;
+
+import duke.exception.DukeException;
+import duke.log.Log;
+import duke.task.Task;
+import duke.task.TaskList;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Imports and exports whole task lists in formats exchanged with other tools: CSV and JSON Lines.
+ * Files are streamed record by record, so only a few batches of records are held at a time.
+ * Large imports are decoded in parallel while records are still being read, and applied in
+ * file order; the task list is saved once at the end and the import is undone as one change, which
+ * remembers only where the imported tasks start in the list.
+ */
+public class BulkTransfer {
+    /** The number of records decoded together. */
+    private static final int BATCH_SIZE = 4096;
+    /** The size from which files are decoded in parallel; smaller files are not worth the threads. */
+    private static final long PARALLEL_THRESHOLD_BYTES = 1 << 20;
+
+    /**
+     * The outcome of an import.
+     */
+    public static class ImportSummary {
+        private int importedCount = 0;
+        private int skippedCount = 0;
+        private String firstError = null;
+
+        /**
+         * Retrieves the number of tasks imported.
+         *
+         * @return The number of tasks imported.
+         */
+        public int getImportedCount() {
+            return importedCount;
+        }
+
+        /**
+         * Retrieves the number of records skipped because they did not describe a valid task.
+         *
+         * @return The number of records skipped.
+         */
+        public int getSkippedCount() {
+            return skippedCount;
+        }
+
+        /**
+         * Retrieves the reason the first skipped record was skipped.
+         *
+         * @return The reason, including the record number, or null if no record was skipped.
+         */
+        public String getFirstError() {
+            return firstError;
+        }
+    }
+
+    /**
+     * Checks whether a file is in a bulk format, either as named or as implied by its extension.
+     *
+     * @param format   The name of the format, or null to infer it from the file name.
+     * @param filePath The path of the file.
+     * @return True if the file is in CSV or JSON Lines, false otherwise.
+     */
+    public static boolean isBulkFormat(String format, String filePath) {
+        return getFormatName(format, filePath) != null;
+    }
+
+    /**
+     * Writes every task to a file.
+     *
+     * @param tasks    The tasks to write.
+     * @param filePath The path of the file.
+     * @param format   The name of the format, or null to infer it from the file name.
+     * @return The number of tasks written.
+     * @throws DukeException If the format is unknown or there is an error while writing the file.
+     */
+    public static int exportTasks(List<Task> tasks, String filePath, String format) throws DukeException {
+        TaskCodec codec = createCodec(format, filePath);
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(filePath))) {
+            codec.writeHeader(writer);
+            for (Task task : tasks) {
+                codec.writeRecord(task, writer);
+            }
+        } catch (IOException e) {
+            throw new DukeException("Error exporting tasks: " + e.getMessage());
+        }
+        return tasks.size();
+    }
+
+    /**
+     * Writes one task as a line of JSON, in the form used by JSON Lines exports.
+     *
+     * @param number The number of the task in the task list, or 0 to leave it out.
+     * @param task   The task.
+     * @param writer The writer.
+     * @throws IOException If the task cannot be written.
+     */
+    public static void writeJsonLine(int number, Task task, Writer writer) throws IOException {
+        if (number > 0) {
+            JsonLinesCodec.writeNumberedRecord(number, task, writer);
+        } else {
+            new JsonLinesCodec().writeRecord(task, writer);
+        }
+    }
+
+    /**
+     * Adds the tasks in a file to the task list and saves tasks to file once at the end.
+     * Records that do not describe a valid task are skipped and counted.
+     *
+     * @param filePath The path of the file.
+     * @param format   The name of the format, or null to infer it from the file name.
+     * @return The outcome of the import.
+     * @throws DukeException If the format is unknown or the file cannot be read.
+     */
+    public static ImportSummary importTasks(String filePath, String format) throws DukeException {
+        TaskCodec codec = createCodec(format, filePath);
+        Path path = Paths.get(filePath);
+        LocalDateTime now = LocalDateTime.now();
+        ImportSummary summary = new ImportSummary();
+        ExecutorService decoders = null;
+
+        int firstIndex = TaskList.taskList.size();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            int threadCount = Runtime.getRuntime().availableProcessors();
+            if (threadCount > 1 && Files.size(path) >= PARALLEL_THRESHOLD_BYTES) {
+                decoders = Executors.newFixedThreadPool(threadCount, runnable -> {
+                    Thread thread = new Thread(runnable, "duke-import");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            // Bounding the batches in flight bounds the memory used, however large the file
+            ArrayDeque<Future<Batch>> pendingBatches = new ArrayDeque<>();
+            int maxPendingBatches = 2 * threadCount;
+
+            codec.readHeader(reader);
+            Batch batch = new Batch();
+            int recordNumber = 0;
+            String record;
+            while ((record = codec.readRecord(reader)) != null) {
+                recordNumber++;
+                if (record.isBlank()) {
+                    continue;
+                }
+                batch.add(record, recordNumber);
+                if (batch.size == BATCH_SIZE) {
+                    submit(batch, codec, now, decoders, pendingBatches, summary);
+                    batch = new Batch();
+                    while (pendingBatches.size() > maxPendingBatches) {
+                        apply(pendingBatches.poll(), summary);
+                    }
+                }
+            }
+            submit(batch, codec, now, decoders, pendingBatches, summary);
+            while (!pendingBatches.isEmpty()) {
+                apply(pendingBatches.poll(), summary);
+            }
+        } catch (IOException e) {
+            Log.error(BulkTransfer.class, "Error importing tasks", e);
+            throw new DukeException("Error importing tasks: " + e.getMessage());
+        } finally {
+            TaskList.recordAppendedTasks(firstIndex, "import " + filePath);
+            if (decoders != null) {
+                decoders.shutdownNow();
+            }
+        }
+        TaskList.getRepository().saveTasks(TaskList.taskList);
+        return summary;
+    }
+
+    /**
+     * Decodes a batch, on the decoder threads if there are any or right away otherwise.
+     */
+    private static void submit(Batch batch, TaskCodec codec, LocalDateTime now, ExecutorService decoders,
+                               ArrayDeque<Future<Batch>> pendingBatches, ImportSummary summary) {
+        if (decoders == null) {
+            batch.decode(codec, now);
+            batch.applyTo(summary);
+        } else {
+            pendingBatches.add(decoders.submit(() -> batch.decode(codec, now)));
+        }
+    }
+
+    /**
+     * Waits for a batch to be decoded and applies it.
+     */
+    private static void apply(Future<Batch> pendingBatch, ImportSummary summary) throws DukeException {
+        try {
+            pendingBatch.get().applyTo(summary);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DukeException("Import interrupted");
+        } catch (ExecutionException e) {
+            Log.error(BulkTransfer.class, "Decoding records to import failed", e.getCause());
+            throw new DukeException("Error importing tasks: " + e.getCause());
+        }
+    }
+
+    /**
+     * Finds the name of the format of a file.
+     *
+     * @return "csv", "jsonl", or null if the format is not a bulk format.
+     */
+    private static String getFormatName(String format, String filePath) {
+        String name = format;
+        if (name == null) {
+            String lowerCasePath = filePath.toLowerCase(Locale.ROOT);
+            name = lowerCasePath.substring(lowerCasePath.lastIndexOf('.') + 1);
+        }
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "csv":
+                return "csv";
+            case "jsonl":
+            case "ndjson":
+            case "json":
+                return "jsonl";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Creates a codec for the format of a file.
+     */
+    private static TaskCodec createCodec(String format, String filePath) throws DukeException {
+        String name = getFormatName(format, filePath);
+        if ("csv".equals(name)) {
+            return new CsvCodec();
+        } else if ("jsonl".equals(name)) {
+            return new JsonLinesCodec();
+        }
+        throw new DukeException("Unknown format: " + (format == null ? filePath : format)
+                + ". Use csv or jsonl.");
+    }
+
+    /**
+     * A run of consecutive records, decoded together.
+     */
+    private static class Batch {
+        private final String[] records = new String[BATCH_SIZE];
+        /** The number of each record in the file; blank lines and multi-line records leave gaps. */
+        private final int[] recordNumbers = new int[BATCH_SIZE];
+        private final Task[] tasks = new Task[BATCH_SIZE];
+        private int size = 0;
+        private int skippedCount = 0;
+        private String firstError = null;
+
+        void add(String record, int recordNumber) {
+            records[size] = record;
+            recordNumbers[size] = recordNumber;
+            size++;
+        }
+
+        /**
+         * Decodes every record of the batch, remembering why the first invalid one was skipped
+         * and logging why each one was.
+         *
+         * @return This batch.
+         */
+        Batch decode(TaskCodec codec, LocalDateTime now) {
+            for (int i = 0; i < size; i++) {
+                try {
+                    tasks[i] = codec.decode(records[i], now);
+                } catch (DukeException | RuntimeException e) {
+                    skippedCount++;
+                    if (Log.isEnabled(Log.Level.WARN)) {
+                        Log.log(Log.Level.WARN, BulkTransfer.class, "Skipped an invalid record while importing", null,
+                                "record", recordNumbers[i], "reason", e.getMessage());
+                    }
+                    if (firstError == null) {
+                        firstError = "record " + recordNumbers[i] + ": " + e.getMessage();
+                    }
+                }
+                records[i] = null;
+            }
+            return this;
+        }
+
+        /**
+         * Adds the decoded tasks to the task list, in order.
+         */
+        void applyTo(ImportSummary summary) {
+            for (int i = 0; i < size; i++) {
+                if (tasks[i] != null) {
+                    TaskList.appendTask(tasks[i]);
+                    summary.importedCount++;
+                }
+            }
+            summary.skippedCount += skippedCount;
+            if (summary.firstError == null) {
+                summary.firstError = firstError;
+            }
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package duke.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Reads and writes task files compressed in independent blocks, for task lists too large to keep as
+ * plain text. A compressed file starts with a dictionary trained on its own lines, made of the fields that
+ * recur most often, and goes on with blocks of whole lines, each deflated on its own against the dictionary.
+ * Since no block depends on another, blocks are compressed and decompressed on all cores, a reader can skip
+ * blocks by their lengths alone, and a line is appended as a block of its own without rewriting the file.
+ * Plain text files are read as they are, told apart by their first byte, which no line of text begins with.
+ */
+class CompressedText {
+    /** The first bytes of every compressed file, "\0DKZ". */
+    private static final int MAGIC = 0x00444b5a;
+    /** The version of the layout below, bumped whenever it changes. */
+    private static final int FORMAT_VERSION = 1;
+    /** The number of bytes of text after which a block is closed, large enough to compress well. */
+    private static final int BLOCK_SIZE = 1 << 16;
+    /** The largest dictionary Deflate can refer back to. */
+    private static final int MAX_DICTIONARY_SIZE = 1 << 15;
+    /** The number of lines sampled, evenly spread, to train the dictionary. */
+    private static final int SAMPLE_SIZE = 4096;
+    /** The separator of fields in a line of the task file. */
+    private static final String FIELD_SEPARATOR = " | ";
+
+    /**
+     * Checks whether a file is compressed, rather than plain text.
+     *
+     * @param path The file.
+     * @return True if the file exists and is compressed, false otherwise.
+     */
+    static boolean isCompressed(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.read() == 0;
+        }
+    }
+
+    /**
+     * Writes lines to a file, compressed.
+     *
+     * @param path  The file.
+     * @param lines The lines.
+     */
+    static void write(Path path, List<String> lines) throws IOException {
+        byte[] dictionary = trainDictionary(lines);
+        List<Integer> blockStarts = new ArrayList<>();
+        int blockLength = BLOCK_SIZE;
+        for (int i = 0; i < lines.size(); i++) {
+            if (blockLength >= BLOCK_SIZE) {
+                blockStarts.add(i);
+                blockLength = 0;
+            }
+            blockLength += lines.get(i).length() + 1;
+        }
+        blockStarts.add(lines.size());
+        byte[][] blocks = IntStream.range(0, blockStarts.size() - 1).parallel()
+                .mapToObj(block -> compressBlock(lines.subList(blockStarts.get(block), blockStarts.get(block + 1)),
+                        dictionary))
+                .toArray(byte[][]::new);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(dictionary.length);
+            out.write(dictionary);
+            for (byte[] block : blocks) {
+                out.write(block);
+            }
+        }
+    }
+
+    /**
+     * Adds a line to the end of a compressed file, as a block of its own compressed against the dictionary.
+     *
+     * @param path The file.
+     * @param line The line.
+     */
+    static void append(Path path, String line) throws IOException {
+        byte[] dictionary;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            dictionary = readHeader(in);
+        }
+        Files.write(path, compressBlock(Collections.singletonList(line), dictionary), StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Reads every line of a file, compressed or plain, decompressing the blocks of a compressed file on all cores.
+     *
+     * @param path The file.
+     * @return The lines.
+     */
+    static List<String> readAllLines(Path path) throws IOException {
+        if (!isCompressed(path)) {
+            return Files.readAllLines(path);
+        }
+        ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (file.getInt() != MAGIC || file.getInt() != FORMAT_VERSION) {
+            throw new IOException("Unknown compressed file format");
+        }
+        byte[] dictionary = new byte[file.getInt()];
+        file.get(dictionary);
+        // Only the headers are read here, skipping over the compressed bytes to find where each block starts
+        List<Integer> blockStarts = new ArrayList<>();
+        while (file.hasRemaining()) {
+            blockStarts.add(file.position());
+            file.position(file.position() + 8);
+            file.position(file.position() + 4 + file.getInt(file.position()));
+        }
+        String[][] blocks;
+        try {
+            blocks = IntStream.range(0, blockStarts.size()).parallel()
+                    .mapToObj(block -> decompressBlock(file.duplicate().position(blockStarts.get(block)), dictionary))
+                    .toArray(String[][]::new);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        List<String> lines = new ArrayList<>();
+        for (String[] block : blocks) {
+            lines.addAll(Arrays.asList(block));
+        }
+        return lines;
+    }
+
+    /**
+     * Opens a file, compressed or plain, for reading line by line, decompressing one block at a time.
+     *
+     * @param path The file.
+     * @return A reader of the text of the file.
+     */
+    static BufferedReader newReader(Path path) throws IOException {
+        if (!isCompressed(path)) {
+            return Files.newBufferedReader(path);
+        }
+        DataInputStream in = new DataInputStream(Files.newInputStream(path));
+        try {
+            return new BufferedReader(new InputStreamReader(new BlockInputStream(in, readHeader(in)),
+                    StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the header of a compressed file.
+     *
+     * @param in The file, at its start.
+     * @return The dictionary.
+     */
+    private static byte[] readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unknown compressed file format");
+        }
+        byte[] dictionary = new byte[in.readInt()];
+        in.readFully(dictionary);
+        return dictionary;
+    }
+
+    /**
+     * Trains a dictionary on a sample of lines: the fields recurring in the sample, those saving the most
+     * bytes last, where Deflate refers back to them most cheaply. Fields seen once, such as identifiers,
+     * are left out.
+     *
+     * @param lines The lines.
+     * @return The dictionary, empty if nothing recurs.
+     */
+    private static byte[] trainDictionary(List<String> lines) {
+        Map<String, Integer> counts = new HashMap<>();
+        int step = Math.max(1, lines.size() / SAMPLE_SIZE);
+        for (int i = 0; i < lines.size(); i += step) {
+            for (String field : lines.get(i).split(" \\| ")) {
+                counts.merge(field, 1, Integer::sum);
+            }
+        }
+        List<Map.Entry<String, Integer>> fields = new ArrayList<>();
+        for (Map.Entry<String, Integer> field : counts.entrySet()) {
+            if (field.getValue() > 1) {
+                fields.add(field);
+            }
+        }
+        fields.sort((first, second) -> Long.compare(savings(second), savings(first)));
+        List<byte[]> chosen = new ArrayList<>();
+        int length = 0;
+        for (Map.Entry<String, Integer> field : fields) {
+            byte[] bytes = (field.getKey() + FIELD_SEPARATOR).getBytes(StandardCharsets.UTF_8);
+            if (length + bytes.length <= MAX_DICTIONARY_SIZE) {
+                chosen.add(bytes);
+                length += bytes.length;
+            }
+        }
+        ByteBuffer dictionary = ByteBuffer.allocate(length);
+        for (int i = chosen.size() - 1; i >= 0; i--) {
+            dictionary.put(chosen.get(i));
+        }
+        return dictionary.array();
+    }
+
+    /**
+     * Estimates the bytes a field in the dictionary saves over the sample.
+     */
+    private static long savings(Map.Entry<String, Integer> field) {
+        return (long) field.getValue() * (field.getKey().length() + FIELD_SEPARATOR.length());
+    }
+
+    /**
+     * Compresses lines into a block: the number of lines, the length of their text and of the compressed
+     * bytes, then the bytes.
+     *
+     * @param lines      The lines, each ended by a line break in the text.
+     * @param dictionary The dictionary.
+     * @return The block.
+     */
+    private static byte[] compressBlock(List<String> lines, byte[] dictionary) {
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append('\n');
+        }
+        byte[] raw = text.toString().getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            if (dictionary.length > 0) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream block = new ByteArrayOutputStream(raw.length / 4 + 16);
+            DataOutputStream out = new DataOutputStream(block);
+            out.writeInt(lines.size());
+            out.writeInt(raw.length);
+            out.writeInt(0);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            byte[] bytes = block.toByteArray();
+            ByteBuffer.wrap(bytes).putInt(8, bytes.length - 12);
+            return bytes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decompresses the lines of a block.
+     *
+     * @param block      The file, at the start of the block.
+     * @param dictionary The dictionary.
+     * @return The lines.
+     */
+    private static String[] decompressBlock(ByteBuffer block, byte[] dictionary) {
+        int lineCount = block.getInt();
+        byte[] raw = inflate(block, dictionary);
+        String[] lines = new String[lineCount];
+        int start = 0;
+        for (int i = 0; i < lineCount; i++) {
+            int end = start;
+            while (raw[end] != '\n') {
+                end++;
+            }
+            lines[i] = new String(raw, start, end - start, StandardCharsets.UTF_8);
+            start = end + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * Inflates the text of a block.
+     *
+     * @param block      The file, just after the number of lines of the block.
+     * @param dictionary The dictionary.
+     * @return The text.
+     */
+    private static byte[] inflate(ByteBuffer block, byte[] dictionary) {
+        byte[] raw = new byte[block.getInt()];
+        int compressedLength = block.getInt();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(block.array(), block.arrayOffset() + block.position(), compressedLength);
+            int length = 0;
+            while (length < raw.length) {
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && inflater.needsDictionary()) {
+                    inflater.setDictionary(dictionary);
+                } else if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new UncheckedIOException(new EOFException("Compressed block cut short"));
+                }
+                length += inflated;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt compressed block: " + e.getMessage()));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * The text of the blocks of a compressed file, decompressed one block at a time as it is read.
+     */
+    private static class BlockInputStream extends InputStream {
+        private final DataInputStream in;
+        private final byte[] dictionary;
+        private byte[] text = new byte[0];
+        private int position = 0;
+
+        private BlockInputStream(DataInputStream in, byte[] dictionary) {
+            this.in = in;
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return text[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, text.length - position);
+            System.arraycopy(text, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        /**
+         * Decompresses the next block once the text of the last is used up.
+         *
+         * @return True if there is text left, false at the end of the file.
+         */
+        private boolean fill() throws IOException {
+            while (position == text.length) {
+                byte[] header = new byte[12];
+                int headerLength = in.readNBytes(header, 0, header.length);
+                if (headerLength == 0) {
+                    return false;
+                } else if (headerLength < header.length) {
+                    throw new EOFException("Compressed block cut short");
+                }
+                int compressedLength = ByteBuffer.wrap(header).getInt(8);
+                ByteBuffer block = ByteBuffer.allocate(header.length + compressedLength).put(header);
+                in.readFully(block.array(), header.length, compressedLength);
+                block.position(4);
+                try {
+                    text = inflate(block, dictionary);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                position = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package duke.storage;
+
+import duke.exception.DukeException;
+import duke.task.Task;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Reads and writes tasks as comma-separated values with a header line, quoting fields as in RFC 4180.
+ * Columns are matched by their header names, so files from other tools may order them freely
+ * and carry extra columns, which are ignored.
+ */
+class CsvCodec implements TaskCodec {
+    /** The field of each column of the file being read, or -1 for ignored columns. */
+    private int[] fieldOfColumn = new int[0];
+
+    @Override
+    public void writeHeader(Writer writer) throws IOException {
+        writer.write(String.join(",", TaskRecord.FIELDS));
+        writer.write('\n');
+    }
+
+    @Override
+    public void writeRecord(Task task, Writer writer) throws IOException {
+        String[] values = TaskRecord.fromTask(task);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writeField(values[i], writer);
+            }
+        }
+        writer.write('\n');
+    }
+
+    @Override
+    public void readHeader(BufferedReader reader) throws IOException, DukeException {
+        String header = readRecord(reader);
+        if (header == null) {
+            throw new DukeException("The CSV file is empty");
+        }
+        // Some tools start the file with a byte order mark
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+
+        String[] columns = splitFields(header);
+        fieldOfColumn = new int[columns.length];
+        boolean hasDescription = false;
+        for (int i = 0; i < columns.length; i++) {
+            fieldOfColumn[i] = TaskRecord.indexOfField(columns[i]);
+            hasDescription |= fieldOfColumn[i] == TaskRecord.DESCRIPTION;
+        }
+        if (!hasDescription) {
+            throw new DukeException("The CSV header has no description column: " + header);
+        }
+    }
+
+    @Override
+    public String readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null || !hasOpenQuote(line)) {
+            return line;
+        }
+        // A quoted field spans lines until its closing quote
+        StringBuilder record = new StringBuilder(line);
+        while (hasOpenQuote(record) && (line = reader.readLine()) != null) {
+            record.append('\n').append(line);
+        }
+        return record.toString();
+    }
+
+    @Override
+    public Task decode(String record, LocalDateTime now) throws DukeException {
+        String[] columns = splitFields(record);
+        String[] values = new String[TaskRecord.FIELDS.length];
+        for (int i = 0; i < columns.length && i < fieldOfColumn.length; i++) {
+            if (fieldOfColumn[i] >= 0) {
+                values[fieldOfColumn[i]] = columns[i];
+            }
+        }
+        return TaskRecord.toTask(values, now);
+    }
+
+    /**
+     * Writes a field, quoting it if it contains a comma, a quote or a line break.
+     */
+    private static void writeField(String value, Writer writer) throws IOException {
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Splits a record into its fields, removing quotes.
+     */
+    private static String[] splitFields(String record) {
+        String[] fields = new String[8];
+        int fieldCount = 0;
+        StringBuilder field = new StringBuilder();
+        boolean isQuoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (isQuoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    isQuoted = false;
+                }
+            } else if (c == '"') {
+                isQuoted = true;
+            } else if (c == ',') {
+                if (fieldCount == fields.length) {
+                    fields = Arrays.copyOf(fields, fieldCount * 2);
+                }
+                fields[fieldCount++] = field.toString();
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        if (fieldCount == fields.length) {
+            fields = Arrays.copyOf(fields, fieldCount + 1);
+        }
+        fields[fieldCount++] = field.toString();
+        return Arrays.copyOf(fields, fieldCount);
+    }
+
+    /**
+     * Checks whether text ends inside a quoted field, counting quotes since escaped quotes come in pairs.
+     */
+    private static boolean hasOpenQuote(CharSequence text) {
+        int quoteCount = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                quoteCount++;
+            }
+        }
+        return quoteCount % 2 != 0;
+    }
+}
@@ -0,0 +1,275 @@
+package duke.storage;
+
+import duke.exception.DukeException;
+import duke.task.Task;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+
+/**
+ * Reads and writes tasks as JSON Lines: one flat JSON object per line, such as
+ * <pre>
+ * {"type":"deadline","description":"return book","done":false,"start":"2019-12-02T18:00"}
+ * </pre>
+ * Fields that do not apply to a task are left out. Unknown keys are ignored when reading.
+ */
+class JsonLinesCodec implements TaskCodec {
+    @Override
+    public void writeHeader(Writer writer) {
+        // JSON Lines has no header
+    }
+
+    @Override
+    public void writeRecord(Task task, Writer writer) throws IOException {
+        writer.write('{');
+        writeFields(task, true, writer);
+        writer.write("}\n");
+    }
+
+    /**
+     * Writes a task as a JSON object led by its number in the task list.
+     *
+     * @param number The number of the task, counting from 1.
+     * @param task   The task.
+     * @param writer The writer.
+     * @throws IOException If the task cannot be written.
+     */
+    static void writeNumberedRecord(int number, Task task, Writer writer) throws IOException {
+        writer.write("{\"number\":");
+        writer.write(Integer.toString(number));
+        writeFields(task, false, writer);
+        writer.write("}\n");
+    }
+
+    /**
+     * Writes the fields of a task that apply to it as comma-separated JSON members.
+     */
+    private static void writeFields(Task task, boolean isFirst, Writer writer) throws IOException {
+        String[] values = TaskRecord.fromTask(task);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                continue;
+            }
+            if (!isFirst) {
+                writer.write(',');
+            }
+            isFirst = false;
+            writeString(TaskRecord.FIELDS[i], writer);
+            writer.write(':');
+            if (i == TaskRecord.DONE || i == TaskRecord.COUNT || i == TaskRecord.PRIORITY) {
+                writer.write(values[i]);
+            } else {
+                writeString(values[i], writer);
+            }
+        }
+    }
+
+    @Override
+    public void readHeader(BufferedReader reader) {
+        // JSON Lines has no header
+    }
+
+    @Override
+    public String readRecord(BufferedReader reader) throws IOException {
+        return reader.readLine();
+    }
+
+    @Override
+    public Task decode(String record, LocalDateTime now) throws DukeException {
+        String[] values = new String[TaskRecord.FIELDS.length];
+        Cursor cursor = new Cursor(record);
+        cursor.expect('{');
+        if (!cursor.consume('}')) {
+            do {
+                String key = cursor.readString();
+                cursor.expect(':');
+                String value = cursor.readValue();
+                int field = TaskRecord.indexOfField(key);
+                if (field >= 0) {
+                    values[field] = value;
+                }
+            } while (cursor.consume(','));
+            cursor.expect('}');
+        }
+        cursor.expectEnd();
+        return TaskRecord.toTask(values, now);
+    }
+
+    /**
+     * Writes a JSON string, escaping quotes, backslashes and control characters.
+     */
+    private static void writeString(String value, Writer writer) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < ' ') {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+    /**
+     * A position within the JSON object being decoded.
+     */
+    private static class Cursor {
+        private final String text;
+        private int position = 0;
+
+        Cursor(String text) {
+            this.text = text;
+        }
+
+        /**
+         * Skips whitespace and consumes the given character if it comes next.
+         *
+         * @param c The character.
+         * @return True if the character was consumed, false otherwise.
+         */
+        boolean consume(char c) {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Skips whitespace and consumes the given character, which must come next.
+         *
+         * @param c The character.
+         * @throws DukeException If another character comes next.
+         */
+        void expect(char c) throws DukeException {
+            if (!consume(c)) {
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        /**
+         * Checks that nothing but whitespace is left.
+         *
+         * @throws DukeException If anything else is left.
+         */
+        void expectEnd() throws DukeException {
+            skipWhitespace();
+            if (position < text.length()) {
+                throw error("Unexpected text after the object");
+            }
+        }
+
+        /**
+         * Reads a string, number, boolean or null value as text.
+         *
+         * @return The text of the value, or null for a JSON null.
+         * @throws DukeException If the value is not one of these.
+         */
+        String readValue() throws DukeException {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == '"') {
+                return readString();
+            }
+            int start = position;
+            while (position < text.length() && ",}] \t".indexOf(text.charAt(position)) == -1) {
+                position++;
+            }
+            String literal = text.substring(start, position);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.isEmpty() || literal.charAt(0) == '{' || literal.charAt(0) == '[') {
+                throw error("Expected a string, number, boolean or null");
+            }
+            return literal;
+        }
+
+        /**
+         * Reads a string, resolving escapes.
+         *
+         * @return The string.
+         * @throws DukeException If no valid string comes next.
+         */
+        String readString() throws DukeException {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        if (position + 4 > text.length()) {
+                            throw error("Invalid escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text, position, position + 4, 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid escape");
+                        }
+                        position += 4;
+                        break;
+                    default:
+                        value.append(escaped);
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private DukeException error(String message) {
+            return new DukeException(message + " at column " + (position + 1));
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package duke.storage;
+
+import duke.exception.DukeException;
+import duke.log.Log;
+import duke.task.ChangeFeed;
+import duke.task.StoreMerge;
+import duke.task.Task;
+import duke.task.TaskEvent;
+import duke.task.TaskEventBus;
+import duke.task.TaskList;
+import duke.task.TaskSnapshots;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps each task list in a {@link KeyValueStore} of its own, with each task stored under its identifier as
+ * its line of the text file behind its order key. Saving writes only the tasks changed and the identifiers
+ * deleted since the last save, so marking or deleting one task of millions appends one record rather than
+ * writing the whole list. Tasks are loaded in the order of their keys, which {@link TaskSnapshots} keeps
+ * between neighbours as tasks are added and moved; when it hands out keys afresh, or more tasks have been
+ * deleted than the change feed remembers, the whole list is written instead. A store is held by one
+ * process at a time, so unlike text files, task lists kept this way are not shared by processes running
+ * at once and nothing is merged.
+ */
+class KeyValueRepository implements TaskRepository {
+    /** The extension of the file of each task list. */
+    static final String FILE_EXTENSION = ".kv";
+    /** The key of the record holding the latest version and the largest order key written, which no task has. */
+    private static final long META_KEY = 0;
+
+    /** The stores opened, by the name of their task list, each held until Duke exits. */
+    private final ConcurrentHashMap<String, OpenStore> stores = new ConcurrentHashMap<>();
+    /**
+     * The lock held by a thread of this process opening or writing a store. Always taken after the lock of
+     * the task list, never before.
+     */
+    private final ReentrantLock storeGuard = new ReentrantLock();
+    /** The name of the task list in use. */
+    private volatile String name = Storage.DEFAULT_WORKSPACE;
+
+    /**
+     * An open store and what it holds of its task list.
+     */
+    private static class OpenStore {
+        private final KeyValueStore store;
+        /** The change feed version the store holds, or -1 until the task list is loaded or saved. */
+        private volatile long savedVersion = -1;
+        /** The keying of the tasks whose order keys the store holds. */
+        private long savedKeying = -1;
+        /** The largest order key written, so that tasks appended go last. */
+        private long maxOrderKey = 0;
+        /** Whether the store must be written whole on the next save, since its keys are not those of the list. */
+        private boolean isRewriteNeeded = false;
+
+        private OpenStore(KeyValueStore store) {
+            this.store = store;
+        }
+    }
+
+    /**
+     * The records of one save, encoded while holding the lock of the task list.
+     */
+    private static class Changes {
+        private final LinkedHashMap<Long, byte[]> values = new LinkedHashMap<>();
+        private final List<Long> deleted = new ArrayList<>();
+        private boolean isWhole;
+        private long version;
+        private long keying;
+        private long maxOrderKey;
+    }
+
+    @Override
+    public ArrayList<Task> loadTasks() throws DukeException {
+        storeGuard.lock();
+        try {
+            OpenStore openStore = getStore(name);
+            ArrayList<Task> tasks = new ArrayList<>(openStore.store.size());
+            try (KeyValueStore.Cursor cursor = openStore.store.openCursor()) {
+                while (cursor.next()) {
+                    if (cursor.getKey() == META_KEY) {
+                        ByteBuffer meta = ByteBuffer.wrap(cursor.getValue());
+                        // Identifiers of deleted tasks are not handed out again
+                        ChangeFeed.raiseVersion(meta.getLong());
+                        openStore.maxOrderKey = meta.getLong();
+                        continue;
+                    }
+                    Task task = decode(cursor.getValue());
+                    openStore.isRewriteNeeded |= task.getId() != cursor.getKey();
+                    tasks.add(task);
+                }
+            }
+            tasks.sort(Comparator.comparingLong(Task::getOrderKey));
+            for (int i = 0; i < tasks.size(); i++) {
+                long previousKey = i > 0 ? tasks.get(i - 1).getOrderKey() : 0;
+                openStore.isRewriteNeeded |= tasks.get(i).getOrderKey() <= previousKey;
+            }
+            return tasks;
+        } catch (IOException e) {
+            Log.error(KeyValueRepository.class, "Error loading tasks from store", e);
+            throw new DukeException("Error loading tasks from store: " + e.getMessage());
+        } finally {
+            storeGuard.unlock();
+        }
+    }
+
+    @Override
+    public void saveTasks(ArrayList<Task> taskList) throws DukeException {
+        storeGuard.lock();
+        try {
+            OpenStore openStore = getStore(name);
+            write(openStore, encodeChanges(openStore, taskList));
+        } finally {
+            storeGuard.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * On the background thread of the bus, the task list is locked only to encode the changes, and
+     * they are written while commands go on.
+     */
+    @Override
+    public void saveAfterEvents(List<TaskEvent> events) {
+        if (!TaskEventBus.isStarted()) {
+            if (hasUnsavedChanges()) {
+                try {
+                    saveTasks(TaskList.taskList);
+                } catch (DukeException e) {
+                    DukeException.handleGracefulError(e);
+                }
+            }
+            return;
+        }
+        ReentrantLock taskListLock = TaskEventBus.getTaskListLock();
+        TaskEventBus.lockTaskList();
+        try {
+            if (!hasUnsavedChanges()) {
+                return;
+            }
+            storeGuard.lock();
+            try {
+                OpenStore openStore = getStore(name);
+                Changes changes = encodeChanges(openStore, TaskList.taskList);
+                // The store stays guarded until written, so saves land in the order of their versions
+                taskListLock.unlock();
+                write(openStore, changes);
+            } finally {
+                storeGuard.unlock();
+            }
+        } catch (DukeException e) {
+            DukeException.handleGracefulError(e);
+        } finally {
+            if (taskListLock.isHeldByCurrentThread()) {
+                taskListLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void markSaved() {
+        OpenStore openStore = stores.get(name);
+        if (openStore == null) {
+            return;
+        }
+        storeGuard.lock();
+        try {
+            openStore.savedKeying = TaskSnapshots.keyTasks();
+            openStore.savedVersion = ChangeFeed.getCurrentVersion();
+        } finally {
+            storeGuard.unlock();
+        }
+    }
+
+    @Override
+    public boolean hasUnsavedChanges() {
+        OpenStore openStore = stores.get(name);
+        return openStore == null || openStore.savedVersion != ChangeFeed.getCurrentVersion();
+    }
+
+    /**
+     * {@inheritDoc}
+     * No other process can change a store while this one holds it, so there is never anything to merge.
+     */
+    @Override
+    public StoreMerge syncWithStore() {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The task is given the identifier and version after the latest the store has seen, and a key
+     * ordering it after every task in the store.
+     */
+    @Override
+    public void appendTask(Task task) throws DukeException {
+        storeGuard.lock();
+        try {
+            OpenStore openStore = getStore(name);
+            byte[] meta = openStore.store.get(META_KEY);
+            long version = meta == null ? 1 : ByteBuffer.wrap(meta).getLong() + 1;
+            long orderKey = (meta == null ? 0 : ByteBuffer.wrap(meta).getLong(8)) + TaskSnapshots.KEY_GAP;
+            task.setId(version);
+            task.setVersion(version);
+            task.setOrderKey(orderKey);
+            LinkedHashMap<Long, byte[]> values = new LinkedHashMap<>();
+            values.put(task.getId(), encode(task));
+            values.put(META_KEY, encodeMeta(version, orderKey));
+            openStore.store.write(values, Collections.emptyList());
+            openStore.maxOrderKey = orderKey;
+        } catch (IOException e) {
+            Log.error(KeyValueRepository.class, "Error saving tasks to store", e);
+            throw new DukeException("Error saving tasks to store: " + e.getMessage());
+        } finally {
+            storeGuard.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The store is not ordered by list position, so the whole list is loaded to number the matches.
+     */
+    @Override
+    public LinkedHashMap<Integer, Task> findTasks(String keyword) throws DukeException {
+        String lowerKeyword = keyword.toLowerCase();
+        List<Task> tasks = loadTasks();
+        LinkedHashMap<Integer, Task> matches = new LinkedHashMap<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getDescription().toLowerCase().contains(lowerKeyword)) {
+                matches.put(i + 1, tasks.get(i));
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public void useWorkspace(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public List<String> listWorkspaces() throws DukeException {
+        return Storage.listWorkspaces(FILE_EXTENSION);
+    }
+
+    /**
+     * Retrieves the store of a task list, opening it if it is not open yet.
+     * Must be called while holding {@link #storeGuard}.
+     */
+    private OpenStore getStore(String name) throws DukeException {
+        OpenStore openStore = stores.get(name);
+        if (openStore != null) {
+            return openStore;
+        }
+        Path path = Storage.DATA_DIRECTORY.resolve(name + FILE_EXTENSION);
+        Storage.createDirectoriesIfNeeded(path);
+        try {
+            openStore = new OpenStore(KeyValueStore.open(path));
+        } catch (IOException e) {
+            Log.error(KeyValueRepository.class, "Error opening task store", e);
+            throw new DukeException("Error opening task store: " + e.getMessage());
+        }
+        stores.put(name, openStore);
+        return openStore;
+    }
+
+    /**
+     * Encodes what has changed in the task list since the store was last written: the tasks changed and
+     * deleted since then, or every task if the store cannot be brought up to date that way.
+     * Must be called while holding the lock of the task list and {@link #storeGuard}.
+     */
+    private Changes encodeChanges(OpenStore openStore, List<Task> taskList) throws DukeException {
+        Changes changes = new Changes();
+        changes.version = ChangeFeed.getCurrentVersion();
+        changes.keying = TaskSnapshots.keyTasks();
+        changes.isWhole = openStore.isRewriteNeeded || openStore.savedVersion < 0
+                || changes.keying != openStore.savedKeying || !ChangeFeed.isCompleteSince(openStore.savedVersion);
+        Collection<Task> changedTasks = changes.isWhole ? taskList
+                : ChangeFeed.getTasksChangedSince(openStore.savedVersion).values();
+        long maxOrderKey = changes.isWhole ? 0 : openStore.maxOrderKey;
+        for (Task task : changedTasks) {
+            changes.values.put(task.getId(), encode(task));
+            maxOrderKey = Math.max(maxOrderKey, task.getOrderKey());
+        }
+        if (!changes.isWhole) {
+            changes.deleted.addAll(ChangeFeed.getTombstonesSince(openStore.savedVersion).values());
+        }
+        changes.maxOrderKey = maxOrderKey;
+        changes.values.put(META_KEY, encodeMeta(changes.version, maxOrderKey));
+        return changes;
+    }
+
+    /**
+     * Writes encoded changes to a store, recording what it then holds.
+     * Must be called while holding {@link #storeGuard}.
+     */
+    private void write(OpenStore openStore, Changes changes) throws DukeException {
+        try {
+            if (changes.isWhole) {
+                openStore.store.replaceAll(changes.values);
+            } else {
+                openStore.store.write(changes.values, changes.deleted);
+            }
+        } catch (IOException e) {
+            Log.error(KeyValueRepository.class, "Error saving tasks to store", e);
+            throw new DukeException("Error saving tasks to store: " + e.getMessage());
+        }
+        openStore.maxOrderKey = changes.maxOrderKey;
+        openStore.isRewriteNeeded = false;
+        openStore.savedKeying = changes.keying;
+        openStore.savedVersion = changes.version;
+    }
+
+    /**
+     * Encodes a task as its order key followed by its line of the text file.
+     */
+    private static byte[] encode(Task task) throws DukeException {
+        byte[] line = Storage.taskToFileString(task).getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(Long.BYTES + line.length).putLong(task.getOrderKey()).put(line).array();
+    }
+
+    /**
+     * Decodes a task encoded by {@link #encode}.
+     */
+    private static Task decode(byte[] value) throws DukeException {
+        String line = new String(value, Long.BYTES, value.length - Long.BYTES, StandardCharsets.UTF_8);
+        Task task = Storage.fileStringToTask(line);
+        if (task == null) {
+            throw new DukeException("Invalid task format: " + line);
+        }
+        task.setOrderKey(ByteBuffer.wrap(value).getLong());
+        return task;
+    }
+
+    /**
+     * Encodes the record holding the latest version and the largest order key written.
+     */
+    private static byte[] encodeMeta(long version, long maxOrderKey) {
+        return ByteBuffer.allocate(2 * Long.BYTES).putLong(version).putLong(maxOrderKey).array();
+    }
+}
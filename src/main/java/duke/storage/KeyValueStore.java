@@ -0,0 +1,549 @@
+package duke.storage;
+
+import duke.log.Log;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A small embedded store of byte values under long keys, kept in one file that is only ever appended
+ * to, in the manner of Bitcask. Every write appends a batch of records checked as a whole by a CRC-32,
+ * and a directory in memory holds where the latest record of each key lies, so that a write costs time
+ * proportional to what it writes however large the store, and a read costs one seek. The directory is
+ * rebuilt by reading the file when the store is opened, and a batch cut short by a crash fails its
+ * check and is cut off, so each write is kept whole or lost whole. Each batch is forced to the disk
+ * before its write returns, so a write that has returned survives the machine losing power as well as
+ * the process dying. Records overwritten or deleted stay in the file until they outweigh the live ones,
+ * when the live records are copied to a new file that replaces it. A store is held by one process at a
+ * time, through a lock on a file of its own, and is not thread-safe.
+ */
+class KeyValueStore implements Closeable {
+    /** The first bytes of every store, "DUKV". */
+    private static final int MAGIC = 0x44554b56;
+    /** The version of the layout below, bumped whenever it changes. */
+    private static final int FORMAT_VERSION = 1;
+    /** The size of the header of the file: its magic number and format version. */
+    private static final int FILE_HEADER_SIZE = 8;
+    /** The size of the header of a batch: the length of its records and their CRC-32. */
+    private static final int BATCH_HEADER_SIZE = 8;
+    /** The size of the header of a record: its key and the length of its value. */
+    private static final int RECORD_HEADER_SIZE = 12;
+    /** The length of the value of a record deleting its key. */
+    private static final int TOMBSTONE = -1;
+    /** The largest size of a record, which the directory packs into the low bits of its position. */
+    private static final int MAX_RECORD_SIZE = (1 << 24) - 1;
+    /** The size a batch grows to before it is written while copying the store. */
+    private static final int COPY_BATCH_SIZE = 1 << 20;
+    /** The least number of bytes of dead records worth copying the store to be rid of. */
+    private static final long MIN_COMPACTION_BYTES = 1 << 20;
+    /** The extension added to the file of the store for the file locked while it is open. */
+    private static final String LOCK_EXTENSION = ".lock";
+    /** The extension added to the file of the store for the copy being written to replace it. */
+    private static final String COPY_EXTENSION = ".copy";
+
+    private final Path path;
+    private final FileChannel lockChannel;
+    private FileChannel channel;
+    /** The position of the latest record of each live key, shifted left past the size of the record. */
+    private final HashMap<Long, Long> directory = new HashMap<>();
+    /** The position just past the last whole batch, where the next batch is written. */
+    private long end;
+    /** The number of bytes of the records of live keys. */
+    private long liveBytes;
+    /** The number of bytes of everything else: headers, and records overwritten or deleted. */
+    private long deadBytes;
+
+    private KeyValueStore(Path path, FileChannel lockChannel) {
+        this.path = path;
+        this.lockChannel = lockChannel;
+    }
+
+    /**
+     * Opens a store, creating it if it does not exist, and reads its directory.
+     *
+     * @param path The file of the store.
+     * @return The store.
+     * @throws IOException If the store cannot be read or is held by another process.
+     */
+    static KeyValueStore open(Path path) throws IOException {
+        Path lockFile = path.resolveSibling(path.getFileName() + LOCK_EXTENSION);
+        FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        KeyValueStore store = new KeyValueStore(path, lockChannel);
+        try {
+            FileLock lock;
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                throw new IOException(path.getFileName() + " is held by another process");
+            }
+            store.load();
+        } catch (IOException e) {
+            store.close();
+            throw e;
+        }
+        return store;
+    }
+
+    /**
+     * Retrieves the number of live keys.
+     *
+     * @return The number of keys.
+     */
+    int size() {
+        return directory.size();
+    }
+
+    /**
+     * Retrieves the value of a key.
+     *
+     * @param key The key.
+     * @return The value, or null if the key has none.
+     * @throws IOException If the value cannot be read.
+     */
+    byte[] get(long key) throws IOException {
+        Long entry = directory.get(key);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer value = ByteBuffer.allocate((int) (entry & MAX_RECORD_SIZE) - RECORD_HEADER_SIZE);
+        long position = (entry >>> 24) + RECORD_HEADER_SIZE;
+        while (value.hasRemaining()) {
+            int count = channel.read(value, position);
+            if (count < 0) {
+                throw new EOFException("Record of key " + key + " cut short in " + path);
+            }
+            position += count;
+        }
+        return value.array();
+    }
+
+    /**
+     * Writes values and deletes keys in one batch, then copies the store if dead records outweigh live ones.
+     * Deleting a key also given a value, or one without a value, writes nothing for it.
+     *
+     * @param values  The new values by their keys.
+     * @param deleted The keys to delete.
+     * @throws IOException If the batch cannot be written or forced to the disk, in which case none of it is kept.
+     */
+    void write(Map<Long, byte[]> values, Collection<Long> deleted) throws IOException {
+        Batch batch = new Batch();
+        for (long key : deleted) {
+            if (directory.containsKey(key) && !values.containsKey(key)) {
+                batch.addTombstone(key);
+            }
+        }
+        for (Map.Entry<Long, byte[]> value : values.entrySet()) {
+            batch.add(value.getKey(), value.getValue());
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        ByteBuffer buffer = batch.toBuffer();
+        try {
+            writeFully(channel, buffer, end);
+            channel.force(false);
+        } catch (IOException e) {
+            // A batch cut short would hide every later batch when the store is next opened
+            channel.truncate(end);
+            throw e;
+        }
+        apply(batch.records, end + BATCH_HEADER_SIZE);
+        end += buffer.limit();
+        if (deadBytes > liveBytes && deadBytes >= MIN_COMPACTION_BYTES) {
+            compact();
+        }
+    }
+
+    /**
+     * Replaces the whole contents of the store, writing a new file that takes the place of the old.
+     *
+     * @param values The values by their keys.
+     * @throws IOException If the new file cannot be written, in which case the store is unchanged.
+     */
+    void replaceAll(Map<Long, byte[]> values) throws IOException {
+        try (Copy copy = new Copy()) {
+            for (Map.Entry<Long, byte[]> value : values.entrySet()) {
+                copy.add(value.getKey(), value.getValue());
+            }
+            copy.commit();
+        }
+    }
+
+    /**
+     * Opens a cursor over the live records, in the order they were written.
+     *
+     * @return The cursor, to be closed once done.
+     * @throws IOException If the file cannot be read.
+     */
+    Cursor openCursor() throws IOException {
+        return new Cursor();
+    }
+
+    /**
+     * Closes the store, letting other processes open it.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            lockChannel.close();
+        }
+    }
+
+    /**
+     * A walk through the live records of the store, in the order they were written.
+     */
+    class Cursor implements Closeable {
+        private final DataInputStream in;
+        /** The position in the file of the next byte read. */
+        private long position = FILE_HEADER_SIZE;
+        /** The position just past the batch being read. */
+        private long batchEnd = FILE_HEADER_SIZE;
+        private long key;
+        private byte[] value;
+
+        private Cursor() throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+            skipFully(FILE_HEADER_SIZE);
+        }
+
+        /**
+         * Moves to the next live record.
+         *
+         * @return False if there are no more.
+         * @throws IOException If the file cannot be read.
+         */
+        boolean next() throws IOException {
+            while (true) {
+                if (position == batchEnd) {
+                    if (position >= end) {
+                        return false;
+                    }
+                    int length = in.readInt();
+                    in.readInt();
+                    position += BATCH_HEADER_SIZE;
+                    batchEnd = position + length;
+                }
+                long recordPosition = position;
+                key = in.readLong();
+                int length = in.readInt();
+                position += RECORD_HEADER_SIZE;
+                if (length == TOMBSTONE) {
+                    continue;
+                }
+                position += length;
+                Long entry = directory.get(key);
+                if (entry == null || entry >>> 24 != recordPosition) {
+                    skipFully(length);
+                    continue;
+                }
+                value = new byte[length];
+                in.readFully(value);
+                return true;
+            }
+        }
+
+        /**
+         * Retrieves the key of the record moved to.
+         *
+         * @return The key.
+         */
+        long getKey() {
+            return key;
+        }
+
+        /**
+         * Retrieves the value of the record moved to.
+         *
+         * @return The value.
+         */
+        byte[] getValue() {
+            return value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        /**
+         * Skips bytes of the file, failing if it ends first.
+         */
+        private void skipFully(int count) throws IOException {
+            while (count > 0) {
+                int skipped = in.skipBytes(count);
+                if (skipped <= 0) {
+                    throw new EOFException("Store cut short: " + path);
+                }
+                count -= skipped;
+            }
+        }
+    }
+
+    /**
+     * The records of one batch, laid out as they are written.
+     */
+    private static class Batch {
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(body);
+        /** The key, position in the body and size of each record, with a size of -1 for a tombstone. */
+        private final List<long[]> records = new ArrayList<>();
+
+        private void add(long key, byte[] value) throws IOException {
+            if (RECORD_HEADER_SIZE + value.length > MAX_RECORD_SIZE) {
+                throw new IOException("Value of key " + key + " too large to store: " + value.length + " bytes");
+            }
+            records.add(new long[] {key, body.size(), RECORD_HEADER_SIZE + value.length});
+            out.writeLong(key);
+            out.writeInt(value.length);
+            out.write(value);
+        }
+
+        private void addTombstone(long key) throws IOException {
+            records.add(new long[] {key, body.size(), TOMBSTONE});
+            out.writeLong(key);
+            out.writeInt(TOMBSTONE);
+        }
+
+        private boolean isEmpty() {
+            return records.isEmpty();
+        }
+
+        private int size() {
+            return body.size();
+        }
+
+        /**
+         * Lays the batch out behind its header, ready to be written.
+         */
+        private ByteBuffer toBuffer() {
+            byte[] bytes = body.toByteArray();
+            ByteBuffer buffer = ByteBuffer.allocate(BATCH_HEADER_SIZE + bytes.length);
+            buffer.putInt(bytes.length).putInt(checksumOf(bytes, bytes.length)).put(bytes);
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    /**
+     * A copy of the store being written to a new file, which replaces the file of the store once committed.
+     */
+    private class Copy implements Closeable {
+        private final Path copyPath = path.resolveSibling(path.getFileName() + COPY_EXTENSION);
+        private final FileChannel copyChannel;
+        private long copyEnd = 0;
+        private Batch batch = new Batch();
+        private boolean isCommitted = false;
+
+        private Copy() throws IOException {
+            copyChannel = FileChannel.open(copyPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            copyEnd += writeFully(copyChannel, fileHeader(), 0);
+        }
+
+        private void add(long key, byte[] value) throws IOException {
+            batch.add(key, value);
+            if (batch.size() >= COPY_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        /**
+         * Puts the copy in place of the file of the store and reads its directory again.
+         */
+        private void commit() throws IOException {
+            flush();
+            // Forced before it replaces the file, lest a crash leave a name pointing at nothing
+            copyChannel.force(true);
+            copyChannel.close();
+            channel.close();
+            try {
+                Files.move(copyPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                isCommitted = true;
+            } finally {
+                directory.clear();
+                load();
+            }
+        }
+
+        private void flush() throws IOException {
+            if (!batch.isEmpty()) {
+                copyEnd += writeFully(copyChannel, batch.toBuffer(), copyEnd);
+                batch = new Batch();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!isCommitted) {
+                copyChannel.close();
+                Files.deleteIfExists(copyPath);
+            }
+        }
+    }
+
+    /**
+     * Opens the file of the store and reads its directory, cutting off a batch left unfinished by a crash.
+     */
+    private void load() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long size = channel.size();
+        liveBytes = 0;
+        deadBytes = FILE_HEADER_SIZE;
+        if (size < FILE_HEADER_SIZE) {
+            channel.truncate(0);
+            end = writeFully(channel, fileHeader(), 0);
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a task store: " + path);
+            }
+            end = FILE_HEADER_SIZE;
+            while (end + BATCH_HEADER_SIZE <= size) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 0 || length > size - end - BATCH_HEADER_SIZE) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+                if (checksumOf(body, length) != checksum) {
+                    break;
+                }
+                apply(parseRecords(body), end + BATCH_HEADER_SIZE);
+                end += BATCH_HEADER_SIZE + length;
+            }
+        }
+        if (end < size) {
+            Log.warn(KeyValueStore.class, "Cut off " + (size - end) + " bytes of an unfinished write to " + path,
+                    null);
+            channel.truncate(end);
+        }
+    }
+
+    /**
+     * Finds the records of a batch read from the file.
+     *
+     * @return The key, position in the body and size of each record, with a size of -1 for a tombstone.
+     */
+    private List<long[]> parseRecords(byte[] body) throws IOException {
+        List<long[]> records = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        while (buffer.hasRemaining()) {
+            int position = buffer.position();
+            if (buffer.remaining() < RECORD_HEADER_SIZE) {
+                throw new IOException("Damaged store: " + path);
+            }
+            long key = buffer.getLong();
+            int length = buffer.getInt();
+            if (length == TOMBSTONE) {
+                records.add(new long[] {key, position, TOMBSTONE});
+                continue;
+            }
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IOException("Damaged store: " + path);
+            }
+            buffer.position(buffer.position() + length);
+            records.add(new long[] {key, position, RECORD_HEADER_SIZE + length});
+        }
+        return records;
+    }
+
+    /**
+     * Points the directory at the records of a batch written at a position, counting the bytes they
+     * make live or dead.
+     */
+    private void apply(List<long[]> records, long bodyPosition) {
+        deadBytes += BATCH_HEADER_SIZE;
+        for (long[] record : records) {
+            Long previous;
+            if (record[2] == TOMBSTONE) {
+                previous = directory.remove(record[0]);
+                deadBytes += RECORD_HEADER_SIZE;
+            } else {
+                previous = directory.put(record[0], (bodyPosition + record[1]) << 24 | record[2]);
+                liveBytes += record[2];
+            }
+            if (previous != null) {
+                liveBytes -= previous & MAX_RECORD_SIZE;
+                deadBytes += previous & MAX_RECORD_SIZE;
+            }
+        }
+    }
+
+    /**
+     * Copies the live records to a new file that replaces the file of the store.
+     */
+    private void compact() throws IOException {
+        try (Copy copy = new Copy()) {
+            try (Cursor cursor = openCursor()) {
+                while (cursor.next()) {
+                    copy.add(cursor.getKey(), cursor.getValue());
+                }
+            }
+            copy.commit();
+        }
+    }
+
+    /**
+     * Lays out the header of the file.
+     */
+    private static ByteBuffer fileHeader() {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION);
+        header.flip();
+        return header;
+    }
+
+    /**
+     * Computes the CRC-32 of the first bytes of an array.
+     */
+    private static int checksumOf(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Writes the whole of a buffer at a position of a file.
+     *
+     * @return The number of bytes written.
+     */
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int count = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return count;
+    }
+}
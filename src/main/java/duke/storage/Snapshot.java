@@ -0,0 +1,265 @@
+package duke.storage;
+
+import duke.log.Log;
+import duke.task.ChangeFeed;
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Recurring;
+import duke.task.Task;
+import duke.task.ToDo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes a binary copy of a task file, so that tasks can be loaded at startup without
+ * parsing text or dates. A snapshot records the size and modification time of the text file it
+ * was written with and is ignored once the text file no longer matches, so the text file remains
+ * the source of truth and can still be edited by hand.
+ */
+class Snapshot {
+    /** The first bytes of every snapshot, "DUKS". */
+    private static final int MAGIC = 0x44554b53;
+    /** The version of the layout below, bumped whenever it changes so that older snapshots are ignored. */
+    private static final int FORMAT_VERSION = 3;
+    /** The extension of snapshot files, which sit next to the text file they copy. */
+    private static final String FILE_EXTENSION = ".snap";
+    /** Stands for a missing date and time. */
+    private static final long NO_DATE_TIME = Long.MIN_VALUE;
+
+    /**
+     * Writes a snapshot of the tasks just saved to a text file.
+     * A snapshot is only a cache, so failing to write one removes any stale snapshot instead of failing.
+     *
+     * @param textFile   The text file the tasks were saved to.
+     * @param tasks      The tasks, in list order.
+     * @param tombstones The identifiers of deleted tasks by the version of their deletion.
+     * @param horizon    The latest version whose deletions may have been forgotten.
+     */
+    static void write(Path textFile, List<Task> tasks, Map<Long, Long> tombstones, long horizon) {
+        Path snapshotFile = getSnapshotFile(textFile);
+        Path partialFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(textFile, BasicFileAttributes.class);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(partialFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(attributes.size());
+                out.writeLong(attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+                out.writeInt(tasks.size());
+                for (Task task : tasks) {
+                    writeTask(task, out);
+                }
+                out.writeInt(tombstones.size());
+                for (Map.Entry<Long, Long> tombstone : tombstones.entrySet()) {
+                    out.writeLong(tombstone.getKey());
+                    out.writeLong(tombstone.getValue());
+                }
+                out.writeLong(horizon);
+            }
+            Files.move(partialFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Log.warn(Snapshot.class, "Writing the snapshot of " + textFile + " failed", e);
+            delete(partialFile);
+            delete(snapshotFile);
+        }
+    }
+
+    /**
+     * Reads the snapshot of a text file, restoring its tombstones and horizon into the change feed.
+     *
+     * @param textFile The text file.
+     * @return The tasks, in list order, or null if there is no snapshot matching the text file.
+     */
+    static ArrayList<Task> read(Path textFile) {
+        Path snapshotFile = getSnapshotFile(textFile);
+        if (!Files.exists(snapshotFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            BasicFileAttributes attributes = Files.readAttributes(textFile, BasicFileAttributes.class);
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || in.readLong() != attributes.size()
+                    || in.readLong() != attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)) {
+                return null;
+            }
+            int taskCount = in.readInt();
+            ArrayList<Task> tasks = new ArrayList<>(taskCount);
+            for (int i = 0; i < taskCount; i++) {
+                tasks.add(readTask(in));
+            }
+            // Tombstones are only restored once every task has been read, so a corrupt snapshot changes nothing
+            int tombstoneCount = in.readInt();
+            long[] tombstones = new long[2 * tombstoneCount];
+            for (int i = 0; i < tombstones.length; i++) {
+                tombstones[i] = in.readLong();
+            }
+            long horizon = in.readLong();
+            for (int i = 0; i < tombstones.length; i += 2) {
+                ChangeFeed.restoreTombstone(tombstones[i + 1], tombstones[i]);
+            }
+            if (horizon > 0) {
+                ChangeFeed.restoreHorizon(horizon);
+            }
+            return tasks;
+        } catch (IOException | RuntimeException e) {
+            Log.warn(Snapshot.class, "Reading the snapshot of " + textFile + " failed; reading the text instead", e);
+            return null;
+        }
+    }
+
+    /**
+     * Retrieves the snapshot file of a text file.
+     *
+     * @param textFile The text file.
+     * @return The path of its snapshot file.
+     */
+    private static Path getSnapshotFile(Path textFile) {
+        String fileName = textFile.getFileName().toString();
+        int extensionStart = fileName.lastIndexOf('.');
+        String baseName = extensionStart > 0 ? fileName.substring(0, extensionStart) : fileName;
+        return textFile.resolveSibling(baseName + FILE_EXTENSION);
+    }
+
+    /**
+     * Writes one task: its type, status, description, identifier, version, priority, tags and time of
+     * completion, then its dates.
+     */
+    private static void writeTask(Task task, DataOutputStream out) throws IOException {
+        if (task instanceof ToDo) {
+            out.writeByte('T');
+        } else if (task instanceof Deadline) {
+            out.writeByte('D');
+        } else if (task instanceof Event) {
+            out.writeByte('E');
+        } else if (task instanceof Recurring) {
+            out.writeByte('R');
+        } else {
+            throw new IOException("Unknown task type");
+        }
+        out.writeBoolean(task.isDone());
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(description.length);
+        out.write(description);
+        out.writeLong(task.getId());
+        out.writeLong(task.getVersion());
+        out.writeByte(task.getPriority());
+        out.writeShort(task.getTags().size());
+        for (String tag : task.getTags()) {
+            out.writeUTF(tag);
+        }
+        LocalDateTime completedDateTime = task.getCompletedDateTime();
+        out.writeLong(completedDateTime == null ? NO_DATE_TIME : toMinute(completedDateTime));
+
+        if (task instanceof Deadline) {
+            out.writeLong(toMinute(((Deadline) task).getBy()));
+        } else if (task instanceof Event) {
+            out.writeLong(toMinute(((Event) task).getFromDateTime()));
+            out.writeLong(toMinute(((Event) task).getToDateTime()));
+        } else if (task instanceof Recurring) {
+            Recurring recurring = (Recurring) task;
+            out.writeByte(recurring.getFrequency().ordinal());
+            out.writeLong(toMinute(recurring.getStartDateTime()));
+            out.writeLong(recurring.getDuration().toMinutes());
+            out.writeLong(recurring.getUntil() == null ? NO_DATE_TIME : toMinute(recurring.getUntil()));
+            out.writeInt(recurring.getCount());
+        }
+    }
+
+    /**
+     * Reads one task written by {@link #writeTask}.
+     */
+    private static Task readTask(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        boolean isDone = in.readBoolean();
+        byte[] description = new byte[in.readInt()];
+        in.readFully(description);
+        String descriptionString = new String(description, StandardCharsets.UTF_8);
+        long id = in.readLong();
+        long version = in.readLong();
+        int priority = in.readByte();
+        if (priority < 0 || priority > Task.MAX_PRIORITY) {
+            throw new IOException("Invalid priority: " + priority);
+        }
+        String[] tags = new String[in.readUnsignedShort()];
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = in.readUTF();
+        }
+        long completedMinute = in.readLong();
+
+        Task task;
+        switch (type) {
+            case 'T':
+                task = new ToDo(descriptionString);
+                break;
+            case 'D':
+                task = new Deadline(descriptionString, fromMinute(in.readLong()));
+                break;
+            case 'E':
+                task = new Event(descriptionString, fromMinute(in.readLong()), fromMinute(in.readLong()));
+                break;
+            case 'R':
+                Recurring.Frequency frequency = Recurring.Frequency.values()[in.readByte()];
+                LocalDateTime startDateTime = fromMinute(in.readLong());
+                Duration duration = Duration.ofMinutes(in.readLong());
+                long untilMinute = in.readLong();
+                LocalDateTime untilDateTime = untilMinute == NO_DATE_TIME ? null : fromMinute(untilMinute);
+                task = new Recurring(descriptionString, frequency, startDateTime, duration, untilDateTime,
+                        in.readInt());
+                break;
+            default:
+                throw new IOException("Unknown task type: " + type);
+        }
+        if (isDone) {
+            task.markAsDone();
+            task.setCompletedDateTime(completedMinute == NO_DATE_TIME ? null : fromMinute(completedMinute));
+        }
+        task.setId(id);
+        task.setVersion(version);
+        task.setPriority(priority);
+        task.setTags(Arrays.asList(tags));
+        return task;
+    }
+
+    /**
+     * Converts a date and time to whole minutes since the epoch, the precision of the text file.
+     */
+    private static long toMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Converts whole minutes since the epoch back to a date and time.
+     */
+    private static LocalDateTime fromMinute(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Deletes a file if it exists, ignoring failures.
+     */
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Nothing more can be done; a stale snapshot is ignored when read anyway
+        }
+    }
+}
@@ -3,26 +3,88 @@ package duke.storage;
 import duke.command.DateTimeParser;
 import duke.task.*;
 import duke.exception.DukeException;
+import duke.log.Log;
 
+import java.io.BufferedReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 import java.time.LocalDateTime;
 import java.io.IOException;
 
 /**
  * Represents the storage utility for saving and loading tasks.
- * Manages the reading and writing of tasks to a file.
+ * Manages the reading and writing of tasks to a file. Every read and write holds an advisory lock,
+ * and a save first merges whatever other processes have written since this one last read the file.
  */
 public class Storage {
     /**
-     * The file path for storing tasks.
+     * The name of the task list used when no other is chosen.
      */
-    private static final String FILE_PATH = "./data/duke.txt";
+    public static final String DEFAULT_WORKSPACE = "duke";
+    /**
+     * The directory holding one file per task list, read from the {@code duke.data.dir} system property.
+     */
+    static final Path DATA_DIRECTORY = Paths.get(System.getProperty("duke.data.dir", "./data"));
+    /**
+     * The extension of the file of each task list.
+     */
+    static final String FILE_EXTENSION = ".txt";
+    /**
+     * Whether task files are written compressed, read from the {@code duke.storage.compress} system property.
+     * Files are read in either form, so a task list changes form on its next save.
+     */
+    private static final boolean IS_COMPRESSED = Boolean.getBoolean("duke.storage.compress");
+    /**
+     * The extension added to the file of a task list for the file locked while it is read or written.
+     */
+    private static final String LOCK_EXTENSION = ".lock";
+    /**
+     * The file path for storing the tasks of the task list in use.
+     */
+    private static Path filePath = getWorkspaceFile(DEFAULT_WORKSPACE);
+    /**
+     * The file last saved or loaded, and the change feed version it holds, so that an unchanged list is not saved again.
+     */
+    private static volatile Path savedFilePath = null;
+    private static volatile long savedVersion = -1;
+    /**
+     * The state of each file when this process last loaded, saved or merged it, so that changes made
+     * to it by other processes are noticed. Only used while holding {@link #fileGuard}.
+     */
+    private static final HashMap<Path, SyncPoint> syncPoints = new HashMap<>();
+    /**
+     * The lock held by a thread of this process using a file, since the lock on the file itself is held
+     * by the whole process. Always taken after the lock of the task list, never before.
+     */
+    private static final ReentrantLock fileGuard = new ReentrantLock();
+    /**
+     * What was merged from the file on the last save, until it is reported.
+     */
+    private static volatile String mergeReport = null;
+    /**
+     * The format of dates and times in the file, compiled once.
+     */
+    private static final DateTimeFormatter FILE_DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("d/M/yyyy HHmm");
 
     /**
      * Saves the list of tasks to a file.
@@ -34,41 +96,531 @@ public class Storage {
         assert taskList != null : "Task list must not be null";
 
         try {
-            Path filePath = Paths.get(FILE_PATH);
             createDirectoriesIfNeeded(filePath);
-            List<String> lines = new ArrayList<>();
-            for (Task task : taskList) {
-                lines.add(taskToFileString(task));
-            }
-            Files.write(filePath, lines);
+            withFileLock(false, () -> {
+                // Changes made by other processes since this one last read the file are merged, not overwritten
+                StoreMerge merge = mergeExternalChanges();
+                if (merge != null && merge.getReport() != null) {
+                    mergeReport = merge.getReport();
+                }
+                writeTasks(filePath, taskList, ChangeFeed.getTombstonesSince(0), ChangeFeed.getHorizon());
+                return null;
+            });
         } catch (IOException e) {
+            Log.error(Storage.class, "Error saving tasks to file", e);
             throw new DukeException("Error saving tasks to file: " + e.getMessage());
         }
+        markSaved();
+    }
+
+    /**
+     * Saves the task list after a batch of changes published on the task event bus, once for the
+     * whole batch, unless an earlier save has already written them.
+     * On the background thread of the bus, the task list is locked only to merge changes made by other
+     * processes and take a view of it, and the file is written from the view while commands go on.
+     *
+     * @param events The changes.
+     */
+    public static void saveAfterEvents(List<TaskEvent> events) {
+        if (!TaskEventBus.isStarted()) {
+            saveIfChanged();
+            return;
+        }
+        ReentrantLock taskListLock = TaskEventBus.getTaskListLock();
+        TaskEventBus.lockTaskList();
+        try {
+            if (!hasUnsavedChanges()) {
+                return;
+            }
+            Path path = filePath;
+            createDirectoriesIfNeeded(path);
+            withFileLock(false, () -> {
+                StoreMerge merge = mergeExternalChanges();
+                if (merge != null && merge.getReport() != null) {
+                    mergeReport = merge.getReport();
+                }
+                TaskSnapshots.View view = TaskSnapshots.take();
+                // The file stays locked until written, so other processes see the view or nothing newer
+                taskListLock.unlock();
+                writeTasks(path, view.getTasks(), view.getTombstones(), view.getHorizon());
+                markSaved(path, view.getVersion());
+                return null;
+            });
+        } catch (IOException e) {
+            Log.error(Storage.class, "Error saving tasks to file", e);
+            DukeException.handleGracefulError(new DukeException("Error saving tasks to file: " + e.getMessage()));
+        } catch (DukeException e) {
+            DukeException.handleGracefulError(e);
+        } finally {
+            if (taskListLock.isHeldByCurrentThread()) {
+                taskListLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Saves the task list in use to its file if it has changed since it was last saved or loaded.
+     */
+    private static void saveIfChanged() {
+        if (!hasUnsavedChanges()) {
+            return;
+        }
+        try {
+            saveTasksToFile(TaskList.taskList);
+        } catch (DukeException e) {
+            DukeException.handleGracefulError(e);
+        }
+    }
+
+    /**
+     * Merges the changes made to the file by other processes since this process last loaded, saved
+     * or merged it, writing the file again if the merged list differs from what it holds.
+     *
+     * @return The merge, or null if the file is unchanged.
+     * @throws DukeException If there is an error while reading or writing the file.
+     */
+    public static StoreMerge syncWithFile() throws DukeException {
+        if (!Files.exists(filePath)) {
+            return null;
+        }
+        StoreMerge merge;
+        try {
+            merge = withFileLock(false, () -> {
+                StoreMerge externalMerge = mergeExternalChanges();
+                if (externalMerge != null && externalMerge.isRewriteNeeded()) {
+                    writeTasks(filePath, TaskList.taskList, ChangeFeed.getTombstonesSince(0), ChangeFeed.getHorizon());
+                } else if (externalMerge != null) {
+                    recordSyncPoint();
+                }
+                return externalMerge;
+            });
+        } catch (IOException e) {
+            Log.error(Storage.class, "Error loading tasks from file", e);
+            throw new DukeException("Error loading tasks from file: " + e.getMessage());
+        }
+        if (merge == null) {
+            return null;
+        }
+        markSaved();
+        return merge;
+    }
+
+    /**
+     * Retrieves what the last save merged from the file, forgetting it.
+     *
+     * @return A report of what was merged, or null if nothing was merged since the last call.
+     */
+    public static String takeMergeReport() {
+        String report = mergeReport;
+        mergeReport = null;
+        return report;
+    }
+
+    /**
+     * Merges the file into the task list if another process has changed it since this one last synced.
+     * Must be called while holding the lock on the file.
+     *
+     * @return The merge, or null if the file is unchanged or this process has never synced with it.
+     */
+    private static StoreMerge mergeExternalChanges() throws IOException, DukeException {
+        SyncPoint syncPoint = syncPoints.get(filePath);
+        if (syncPoint == null || syncPoint.version < 0 || !Files.exists(filePath)
+                || syncPoint.matches(Files.readAttributes(filePath, BasicFileAttributes.class))) {
+            return null;
+        }
+        StoreMerge merge = new StoreMerge(syncPoint.version);
+        try (BufferedReader reader = CompressedText.newReader(filePath)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                feedLine(merge, line);
+            }
+        }
+        merge.apply();
+        return merge;
+    }
+
+    /**
+     * Feeds a line of the file to a merge, parsing it only if the task in it has changed.
+     */
+    private static void feedLine(StoreMerge merge, String line) throws DukeException {
+        if (line.isEmpty()) {
+            return;
+        }
+        char lineType = line.charAt(0);
+        if (lineType == 'X' || lineType == 'H') {
+            String[] fields = line.split(" \\| ");
+            if (lineType == 'H' && fields.length == 2) {
+                merge.addHorizon(parseNumber(fields[1], line));
+            } else if (lineType == 'X' && fields.length == 3) {
+                merge.addTombstone(parseNumber(fields[1], line), parseNumber(fields[2], line));
+            } else {
+                throw new DukeException("Invalid task format: " + line);
+            }
+            return;
+        }
+        if (!merge.keepIfUnchanged(findNumber(line, " | id="), findNumber(line, " | v="))) {
+            merge.addTask(fileStringToTask(line));
+        }
+    }
+
+    /**
+     * Finds the number following the last occurrence of a key in a line, without splitting the line.
+     *
+     * @return The number, or 0 if the key is absent or not followed by a number.
+     */
+    private static long findNumber(String line, String key) {
+        int start = line.lastIndexOf(key);
+        if (start < 0) {
+            return 0;
+        }
+        long number = 0;
+        for (int i = start + key.length(); i < line.length() && Character.isDigit(line.charAt(i)); i++) {
+            number = number * 10 + (line.charAt(i) - '0');
+        }
+        return number;
+    }
+
+    /**
+     * Writes tasks to a file and its snapshot, recording the file as synced.
+     * Must be called while holding the lock on the file.
+     *
+     * @param path       The file.
+     * @param taskList   The tasks, in list order.
+     * @param tombstones The identifiers of deleted tasks by the version of their deletion.
+     * @param horizon    The latest version whose deletions may have been forgotten.
+     */
+    private static void writeTasks(Path path, List<Task> taskList, Map<Long, Long> tombstones, long horizon)
+            throws IOException, DukeException {
+        List<String> lines = new ArrayList<>();
+        for (Task task : taskList) {
+            lines.add(taskToFileString(task));
+        }
+        for (Map.Entry<Long, Long> tombstone : tombstones.entrySet()) {
+            lines.add("X | " + tombstone.getValue() + " | " + tombstone.getKey());
+        }
+        if (horizon > 0) {
+            lines.add("H | " + horizon);
+        }
+        if (IS_COMPRESSED) {
+            CompressedText.write(path, lines);
+        } else {
+            Files.write(path, lines);
+        }
+        Snapshot.write(path, taskList, tombstones, horizon);
+        recordSyncPoint(path);
+    }
+
+    /**
+     * Records the state of the file of the task list in use as this process has just read or written it.
+     * Must be called while holding the lock on the file.
+     */
+    private static void recordSyncPoint() throws IOException {
+        recordSyncPoint(filePath);
+    }
+
+    /**
+     * Records the state of a file as this process has just read or written it.
+     * Must be called while holding the lock on the file.
+     */
+    private static void recordSyncPoint(Path path) throws IOException {
+        syncPoints.put(path, new SyncPoint(Files.readAttributes(path, BasicFileAttributes.class)));
+    }
+
+    /**
+     * Runs an action while holding the lock on the file of the task list in use.
+     * The lock is advisory, so it keeps out other Duke processes rather than any program, and is
+     * held on a file of its own, which is never replaced while locked. A lock is held by the whole
+     * process, so threads of this process take turns through {@link #fileGuard}, and locked actions of
+     * one thread must not nest.
+     *
+     * @param isShared Whether the action only reads the file, so that other readers may hold the lock too.
+     * @param action   The action.
+     * @return The result of the action.
+     */
+    @SuppressWarnings("try")
+    private static <T> T withFileLock(boolean isShared, LockedAction<T> action) throws IOException, DukeException {
+        Path lockFile = filePath.resolveSibling(filePath.getFileName() + LOCK_EXTENSION);
+        fileGuard.lock();
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+             FileLock lock = channel.lock(0, Long.MAX_VALUE, isShared)) {
+            return action.run();
+        } finally {
+            fileGuard.unlock();
+        }
+    }
+
+    /**
+     * An action on the file of the task list in use, run while holding its lock.
+     */
+    private interface LockedAction<T> {
+        /**
+         * Runs the action.
+         *
+         * @return The result of the action.
+         */
+        T run() throws IOException, DukeException;
+    }
+
+    /**
+     * The attributes of a file when this process last read or wrote it, which change whenever another
+     * process writes it, and the change feed version of the task list it then held.
+     */
+    private static class SyncPoint {
+        private final long size;
+        private final FileTime modifiedTime;
+        private final Object fileKey;
+        /** The change feed version, or -1 until the loaded tasks have been stamped. */
+        private long version = -1;
+
+        private SyncPoint(BasicFileAttributes attributes) {
+            this.size = attributes.size();
+            this.modifiedTime = attributes.lastModifiedTime();
+            this.fileKey = attributes.fileKey();
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && modifiedTime.equals(attributes.lastModifiedTime())
+                    && (fileKey == null || fileKey.equals(attributes.fileKey()));
+        }
+    }
+
+    /**
+     * Records that the file holds the task list as it is now, for example just after loading it.
+     */
+    public static void markSaved() {
+        markSaved(filePath, ChangeFeed.getCurrentVersion());
+    }
+
+    /**
+     * Records that a file holds the task list as it was at a version.
+     *
+     * @param path    The file.
+     * @param version The change feed version.
+     */
+    private static void markSaved(Path path, long version) {
+        fileGuard.lock();
+        try {
+            savedFilePath = path;
+            savedVersion = version;
+            SyncPoint syncPoint = syncPoints.get(path);
+            if (syncPoint != null) {
+                syncPoint.version = version;
+            }
+        } finally {
+            fileGuard.unlock();
+        }
+    }
+
+    /**
+     * Checks whether the task list has changed since it was last saved to or loaded from its file.
+     * Every change stamps a new change feed version, so comparing versions is enough.
+     *
+     * @return True if the task list needs saving, false otherwise.
+     */
+    public static boolean hasUnsavedChanges() {
+        return !filePath.equals(savedFilePath) || savedVersion != ChangeFeed.getCurrentVersion()
+                || !Files.exists(filePath);
     }
 
     /**
      * Loads tasks from a file into a list of tasks.
+     * The binary snapshot of the file is read instead when it is up to date, which avoids parsing
+     * text; otherwise the text is parsed and a new snapshot written for the next start.
      *
      * @return The list of tasks loaded from the file.
      * @throws DukeException If there is an error while loading tasks from the file.
      */
     public static ArrayList<Task> loadTasksFromFile() throws DukeException {
+        try {
+            createDirectoriesIfNeeded(filePath);
+            // Locked like a write, since a new snapshot may be written
+            return withFileLock(false, () -> {
+                createFileIfNeeded(filePath);
+                ArrayList<Task> loadedTasks = readTasks();
+                recordSyncPoint();
+                return loadedTasks;
+            });
+        } catch (IOException e) {
+            Log.error(Storage.class, "Error loading tasks from file", e);
+            throw new DukeException("Error loading tasks from file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the tasks in the file, from its snapshot if that is up to date.
+     * Must be called while holding the lock on the file.
+     */
+    private static ArrayList<Task> readTasks() throws IOException, DukeException {
         ArrayList<Task> loadedTasks = new ArrayList<>();
+        if (Files.size(filePath) == 0) {
+            return loadedTasks;
+        }
+        ArrayList<Task> snapshotTasks = Snapshot.read(filePath);
+        if (snapshotTasks != null) {
+            return snapshotTasks;
+        }
+        List<String> lines = CompressedText.readAllLines(filePath);
+        for (String line : lines) {
+            Task task = fileStringToTask(line);
+            if (task != null) {
+                loadedTasks.add(task);
+            }
+        }
+        Snapshot.write(filePath, loadedTasks, ChangeFeed.getTombstonesSince(0), ChangeFeed.getHorizon());
+        return loadedTasks;
+    }
+
+    /**
+     * Adds a task to the end of the file without loading the tasks already in it.
+     * The task is written without an identifier or version, which it is stamped with when the
+     * file is next loaded or merged, like tasks from files written before these existed. The file no longer
+     * matches its snapshot, so the snapshot is ignored on that load. A compressed file gets the task as a
+     * block of its own.
+     *
+     * @param task The task to add.
+     * @throws DukeException If there is an error while writing to the file.
+     */
+    public static void appendTaskToFile(Task task) throws DukeException {
+        assert task != null : "Task must not be null";
+
         try {
-            Path filePath = Paths.get(FILE_PATH);
             createDirectoriesIfNeeded(filePath);
-            createFileIfNeeded(filePath);
-            List<String> lines = Files.readAllLines(filePath);
-            for (String line : lines) {
+            String fields = taskFieldsToFileString(task);
+            String line = fields + System.lineSeparator();
+            withFileLock(false, () -> {
+                if (CompressedText.isCompressed(filePath)) {
+                    CompressedText.append(filePath, fields);
+                    return null;
+                }
+                String text = endsWithLineBreak(filePath) ? line : System.lineSeparator() + line;
+                return Files.write(filePath, text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+            });
+        } catch (IOException e) {
+            Log.error(Storage.class, "Error saving tasks to file", e);
+            throw new DukeException("Error saving tasks to file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the tasks in the file whose descriptions contain a keyword, without loading the whole list.
+     * A line is only parsed once its text contains the keyword, so most lines are never parsed.
+     *
+     * @param keyword The keyword, matched regardless of case.
+     * @return The matching tasks by their number in the list, in list order.
+     * @throws DukeException If there is an error while reading the file.
+     */
+    public static LinkedHashMap<Integer, Task> findTasksInFile(String keyword) throws DukeException {
+        LinkedHashMap<Integer, Task> matches = new LinkedHashMap<>();
+        if (!Files.exists(filePath)) {
+            return matches;
+        }
+        String lowerKeyword = keyword.toLowerCase();
+        try {
+            withFileLock(true, () -> findTasksInLockedFile(lowerKeyword, matches));
+        } catch (IOException e) {
+            Log.error(Storage.class, "Error loading tasks from file", e);
+            throw new DukeException("Error loading tasks from file: " + e.getMessage());
+        }
+        return matches;
+    }
+
+    /**
+     * Finds the tasks in the file whose descriptions contain a keyword in lower case.
+     * Must be called while holding the lock on the file.
+     */
+    private static LinkedHashMap<Integer, Task> findTasksInLockedFile(String lowerKeyword,
+            LinkedHashMap<Integer, Task> matches) throws IOException, DukeException {
+        try (BufferedReader reader = CompressedText.newReader(filePath)) {
+            int taskNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.charAt(0) == 'X' || line.charAt(0) == 'H') {
+                    continue;
+                }
+                taskNumber++;
+                if (!line.toLowerCase().contains(lowerKeyword)) {
+                    continue;
+                }
                 Task task = fileStringToTask(line);
-                if (task != null) {
-                    loadedTasks.add(task);
+                if (task.getDescription().toLowerCase().contains(lowerKeyword)) {
+                    matches.put(taskNumber, task);
                 }
             }
+        }
+        return matches;
+    }
+
+    /**
+     * Checks whether a file is empty or ends with a line break.
+     */
+    private static boolean endsWithLineBreak(Path filePath) throws IOException {
+        if (!Files.exists(filePath)) {
+            return true;
+        }
+        try (SeekableByteChannel channel = Files.newByteChannel(filePath)) {
+            if (channel.size() == 0) {
+                return true;
+            }
+            ByteBuffer lastByte = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1).read(lastByte);
+            return lastByte.get(0) == '\n';
+        }
+    }
+
+    /**
+     * Directs saving and loading to the file of the given task list.
+     *
+     * @param name The name of the task list.
+     */
+    public static void useWorkspaceFile(String name) {
+        filePath = getWorkspaceFile(name);
+    }
+
+    /**
+     * Retrieves the file holding the tasks of a task list.
+     *
+     * @param name The name of the task list.
+     * @return The path of its file in the data directory.
+     */
+    public static Path getWorkspaceFile(String name) {
+        return DATA_DIRECTORY.resolve(name + FILE_EXTENSION);
+    }
+
+    /**
+     * Lists the task lists saved in the data directory, without loading any of them.
+     *
+     * @return The names of the task lists, in alphabetical order.
+     * @throws DukeException If there is an error while reading the data directory.
+     */
+    public static List<String> listWorkspaces() throws DukeException {
+        return listWorkspaces(FILE_EXTENSION);
+    }
+
+    /**
+     * Lists the task lists saved in the data directory in files with the given extension.
+     *
+     * @param extension The extension of their files.
+     * @return The names of the task lists, in alphabetical order.
+     * @throws DukeException If there is an error while reading the data directory.
+     */
+    static List<String> listWorkspaces(String extension) throws DukeException {
+        List<String> names = new ArrayList<>();
+        if (!Files.isDirectory(DATA_DIRECTORY)) {
+            return names;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DATA_DIRECTORY, "*" + extension)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                names.add(fileName.substring(0, fileName.length() - extension.length()));
+            }
         } catch (IOException e) {
-            throw new DukeException("Error loading tasks from file: " + e.getMessage());
+            Log.error(Storage.class, "Error listing task lists", e);
+            throw new DukeException("Error listing task lists: " + e.getMessage());
         }
-        return loadedTasks;
+        Collections.sort(names);
+        return names;
     }
 
     /**
@@ -77,14 +629,15 @@ public class Storage {
      * @param filePath The file path.
      * @throws DukeException If there is an error while creating directories.
      */
-    private static void createDirectoriesIfNeeded(Path filePath) throws DukeException {
+    static void createDirectoriesIfNeeded(Path filePath) throws DukeException {
         assert filePath != null : "File path must not be null";
 
-        Path directoryPath = filePath.getParent();
+        Path directoryPath = filePath.toAbsolutePath().getParent();
         if (!Files.exists(directoryPath)) {
             try {
                 Files.createDirectories(directoryPath);
             } catch (IOException e) {
+                Log.error(Storage.class, "Error creating directory", e);
                 throw new DukeException("Error creating directory: " + e.getMessage());
             }
         }
@@ -103,6 +656,7 @@ public class Storage {
             try {
                 Files.createFile(filePath);
             } catch (IOException e) {
+                Log.error(Storage.class, "Error creating file", e);
                 throw new DukeException("Error creating file: " + e.getMessage());
             }
         }
@@ -115,20 +669,62 @@ public class Storage {
      * @return The string representation of the task for storing in the file.
      * @throws DukeException If there is an error while converting the task to string.
      */
-    private static String taskToFileString(Task task) throws DukeException {
+    static String taskToFileString(Task task) throws DukeException {
+        assert task != null : "Task must not be null";
+
+        String fileString = taskFieldsToFileString(task) + " | id=" + task.getId() + " | v=" + task.getVersion();
+        if (task.getPriority() == 0 && task.getTags().isEmpty() && task.getCompletedDateTime() == null) {
+            return fileString;
+        }
+        // Written only when set, so that unlabelled tasks read the same in older versions
+        StringBuilder labels = new StringBuilder(fileString);
+        if (task.getPriority() > 0) {
+            labels.append(" | p=").append(task.getPriority());
+        }
+        if (!task.getTags().isEmpty()) {
+            labels.append(" | tags=").append(String.join(",", task.getTags()));
+        }
+        if (task.getCompletedDateTime() != null) {
+            labels.append(" | completed=").append(task.getCompletedDateTime().format(FILE_DATE_TIME_FORMAT));
+        }
+        return labels.toString();
+    }
+
+    /**
+     * Converts the type-specific fields of a task object to their string representation in the file.
+     *
+     * @param task The task object.
+     * @return The string representation of the type-specific fields of the task.
+     * @throws DukeException If there is an error while converting the task to string.
+     */
+    private static String taskFieldsToFileString(Task task) throws DukeException {
         assert task != null : "Task must not be null";
 
         if (task instanceof ToDo) {
-            return String.format("T | %d | %s", task.isDone() ? 1 : 0, task.getDescription());
+            // Concatenated rather than formatted, since a Formatter compiles regular expressions when first used
+            return "T | " + (task.isDone() ? 1 : 0) + " | " + task.getDescription();
         } else if (task instanceof Deadline) {
             Deadline deadlineTask = (Deadline) task;
-            String formattedDate = deadlineTask.getBy().format(DateTimeFormatter.ofPattern("d/M/yyyy HHmm"));
-            return String.format("D | %d | %s | %s", task.isDone() ? 1 : 0, task.getDescription(), formattedDate);
+            String formattedDate = deadlineTask.getBy().format(FILE_DATE_TIME_FORMAT);
+            return "D | " + (task.isDone() ? 1 : 0) + " | " + task.getDescription() + " | " + formattedDate;
         } else if (task instanceof Event) {
             Event eventTask = (Event) task;
-            String formattedFrom = eventTask.getFromDateTime().format(DateTimeFormatter.ofPattern("d/M/yyyy HHmm"));
-            String formattedTo = eventTask.getToDateTime().format(DateTimeFormatter.ofPattern("d/M/yyyy HHmm"));
-            return String.format("E | %d | %s | %s - %s", task.isDone() ? 1 : 0, task.getDescription(), formattedFrom, formattedTo);
+            String formattedFrom = eventTask.getFromDateTime().format(FILE_DATE_TIME_FORMAT);
+            String formattedTo = eventTask.getToDateTime().format(FILE_DATE_TIME_FORMAT);
+            return "E | " + (task.isDone() ? 1 : 0) + " | " + task.getDescription() + " | " + formattedFrom
+                    + " - " + formattedTo;
+        } else if (task instanceof Recurring) {
+            Recurring recurringTask = (Recurring) task;
+            String limit = "none";
+            if (recurringTask.getUntil() != null) {
+                limit = "until " + recurringTask.getUntil().format(FILE_DATE_TIME_FORMAT);
+            } else if (recurringTask.getCount() > 0) {
+                limit = "count " + recurringTask.getCount();
+            }
+            return "R | " + (task.isDone() ? 1 : 0) + " | " + task.getDescription()
+                    + " | " + recurringTask.getFrequency().name().toLowerCase()
+                    + " | " + recurringTask.getStartDateTime().format(FILE_DATE_TIME_FORMAT)
+                    + " | " + recurringTask.getDuration().toMinutes() + " | " + limit;
         } else {
             throw new DukeException("Error formatting task to string: Unknown task type.");
         }
@@ -141,10 +737,14 @@ public class Storage {
      * @return The Task object created from the file string.
      * @throws DukeException If the file string has an invalid format or an unknown task type.
      */
-    private static Task fileStringToTask(String fileString) throws DukeException {
+    static Task fileStringToTask(String fileString) throws DukeException {
         assert fileString != null : "File string must not be null";
 
         String[] fields = fileString.split(" \\| ");
+        if (fields.length == 2 && fields[0].equals("H")) {
+            ChangeFeed.restoreHorizon(parseNumber(fields[1], fileString));
+            return null;
+        }
         if (fields.length < 3) {
             throw new DukeException("Invalid task format: " + fileString);
         }
@@ -153,16 +753,94 @@ public class Storage {
         boolean isDone = fields[1].equals("1");
         String description = fields[2];
 
+        Task task;
         switch (taskType) {
             case 'T':
-                return createToDoTask(description, isDone);
+                task = createToDoTask(description, isDone);
+                break;
             case 'D':
-                return createDeadlineTask(description, fields, isDone);
+                task = createDeadlineTask(description, fields, isDone);
+                break;
             case 'E':
-                return createEventTask(description, fields, isDone);
+                task = createEventTask(description, fields, isDone);
+                break;
+            case 'R':
+                task = createRecurringTask(description, fields, isDone);
+                break;
+            case 'X':
+                ChangeFeed.restoreTombstone(parseNumber(fields[1], fileString), parseNumber(fields[2], fileString));
+                return null;
             default:
                 throw new DukeException("Unknown task type: " + taskType);
         }
+        applyMetadata(task, fields, fileString);
+        return task;
+    }
+
+    /**
+     * Applies the optional trailing key=value fields of a file string to a task.
+     * Files written before these fields existed simply have none.
+     *
+     * @param task       The task created from the file string.
+     * @param fields     The fields extracted from the file string.
+     * @param fileString The file string, for error messages.
+     * @throws DukeException If a metadata field has an invalid value.
+     */
+    private static void applyMetadata(Task task, String[] fields, String fileString) throws DukeException {
+        for (int i = 3; i < fields.length; i++) {
+            String field = fields[i];
+            if (field.startsWith("id=")) {
+                task.setId(parseNumber(field.substring(3), fileString));
+            } else if (field.startsWith("v=")) {
+                task.setVersion(parseNumber(field.substring(2), fileString));
+            } else if (field.startsWith("p=")) {
+                long priority = parseNumber(field.substring(2), fileString);
+                if (priority < 0 || priority > Task.MAX_PRIORITY) {
+                    throw new DukeException("Invalid task format: " + fileString);
+                }
+                task.setPriority((int) priority);
+            } else if (field.startsWith("tags=")) {
+                task.setTags(parseTags(field.substring(5), fileString));
+            } else if (field.startsWith("completed=") && task.isDone()) {
+                task.setCompletedDateTime(DateTimeParser.parseDateTime(field.substring(10)));
+            }
+        }
+    }
+
+    /**
+     * Parses the comma-separated tags stored in the file.
+     *
+     * @param value      The string holding the tags.
+     * @param fileString The file string, for error messages.
+     * @return The tags.
+     * @throws DukeException If a tag is not valid.
+     */
+    private static List<String> parseTags(String value, String fileString) throws DukeException {
+        List<String> tags = new ArrayList<>();
+        try {
+            for (String tag : value.split(",")) {
+                tags.add(Task.parseTag(tag));
+            }
+        } catch (DukeException e) {
+            throw new DukeException("Invalid task format: " + fileString);
+        }
+        return tags;
+    }
+
+    /**
+     * Parses a number stored in the file.
+     *
+     * @param value      The string holding the number.
+     * @param fileString The file string, for error messages.
+     * @return The parsed number.
+     * @throws DukeException If the string is not a valid number.
+     */
+    private static long parseNumber(String value, String fileString) throws DukeException {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new DukeException("Invalid task format: " + fileString);
+        }
     }
 
     /**
@@ -235,4 +913,38 @@ public class Storage {
         }
         return event;
     }
+
+    /**
+     * Creates a Recurring task based on the provided description, fields, and done status.
+     *
+     * @param description The description of the Recurring task.
+     * @param fields      The fields extracted from the file string.
+     * @param isDone      True if the task is marked as done, false otherwise.
+     * @return The created Recurring task.
+     * @throws DukeException If the fields have an invalid format.
+     */
+    private static Recurring createRecurringTask(String description, String[] fields, boolean isDone) throws DukeException {
+        assert description != null : "Description must not be null";
+        assert fields != null : "Fields must not be null";
+
+        if (fields.length < 7) {
+            throw new DukeException("Invalid recurring format: " + Arrays.toString(fields));
+        }
+        Recurring.Frequency frequency = Recurring.parseFrequency(fields[3]);
+        LocalDateTime startDateTime = DateTimeParser.parseDateTime(fields[4]);
+        long durationMinutes = parseNumber(fields[5], Arrays.toString(fields));
+        LocalDateTime untilDateTime = null;
+        int count = 0;
+        if (fields[6].startsWith("until ")) {
+            untilDateTime = DateTimeParser.parseDateTime(fields[6].substring("until ".length()));
+        } else if (fields[6].startsWith("count ")) {
+            count = (int) parseNumber(fields[6].substring("count ".length()), Arrays.toString(fields));
+        }
+        Recurring recurring = new Recurring(description, frequency, startDateTime,
+                Duration.ofMinutes(durationMinutes), untilDateTime, count);
+        if (isDone) {
+            recurring.markAsDone();
+        }
+        return recurring;
+    }
 }
@@ -0,0 +1,89 @@
+package duke.storage;
+
+import duke.log.Log;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Watches the data directory for task files written by other processes, so that the task list in
+ * use is merged with its file before the next command rather than only on the next save.
+ * A background thread blocks on a WatchService and only raises a flag; the merge itself is left to
+ * the thread running commands. Where the directory cannot be watched, the file is checked before
+ * every command instead, which costs a look at its attributes.
+ */
+public class StoreWatcher {
+    /** Whether a task file may have changed since the last check. */
+    private static volatile boolean isChanged = false;
+    /** Whether the data directory is being watched. */
+    private static volatile boolean isWatching = false;
+    /** The background thread watching the data directory, or null if it has not been started. */
+    private static Thread thread = null;
+
+    /**
+     * Starts watching the data directory, if not already watching it.
+     */
+    public static synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        try {
+            WatchService watchService = FileSystems.getDefault().newWatchService();
+            Storage.DATA_DIRECTORY.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            isWatching = true;
+            thread = new Thread(() -> watch(watchService), "duke-store-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        } catch (IOException e) {
+            Log.warn(StoreWatcher.class, "Watching the data directory failed; the task file is checked "
+                    + "before every command instead", e);
+            isWatching = false;
+        }
+    }
+
+    /**
+     * Raises the flag whenever a task file in the data directory is created, changed or deleted.
+     * This process's own saves raise it too, which only costs the next check a look at the file.
+     */
+    private static void watch(WatchService watchService) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                isWatching = false;
+                return;
+            }
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                        || event.context().toString().endsWith(Storage.FILE_EXTENSION)) {
+                    isChanged = true;
+                }
+            }
+            if (!key.reset()) {
+                isWatching = false;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a task file may have changed since the last check, clearing the flag.
+     *
+     * @return True if the file of the task list in use should be checked, false otherwise.
+     */
+    public static boolean takeChange() {
+        if (!isWatching) {
+            return true;
+        }
+        boolean wasChanged = isChanged;
+        isChanged = false;
+        return wasChanged;
+    }
+}
@@ -0,0 +1,152 @@
+package duke.storage;
+
+import duke.exception.DukeException;
+import duke.task.ChangeFeed;
+import duke.task.Task;
+import duke.task.TaskList;
+import duke.task.UndoLog;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Exports and imports the changes made to the task list since a given version.
+ * A feed starts with a header line, followed by one line per record:
+ * <pre>
+ * # duke-changes &lt;since&gt; &lt;version&gt; [full]
+ * A &lt;task in file format&gt;
+ * M &lt;task in file format&gt;
+ * D &lt;id&gt;
+ * </pre>
+ * A full feed replaces the whole task list; it is written when deletions after the
+ * requested version have already been forgotten.
+ */
+public class SyncFeed {
+    /** The prefix of the header line of a feed. */
+    private static final String HEADER_PREFIX = "# duke-changes ";
+
+    /**
+     * Writes the changes made after the given version to a feed file.
+     *
+     * @param since    The version after which changes are exported.
+     * @param filePath The path of the feed file.
+     * @return The number of records written.
+     * @throws DukeException If there is an error while writing the feed file.
+     */
+    public static int exportChangesSince(long since, String filePath) throws DukeException {
+        boolean isFull = !ChangeFeed.isCompleteSince(since);
+        long fromVersion = isFull ? 0 : since;
+        int recordCount = 0;
+
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(filePath))) {
+            writer.write(HEADER_PREFIX + fromVersion + " " + ChangeFeed.getCurrentVersion() + (isFull ? " full" : ""));
+            writer.newLine();
+
+            Iterator<Map.Entry<Long, Task>> changes = ChangeFeed.getTasksChangedSince(fromVersion).entrySet().iterator();
+            Iterator<Map.Entry<Long, Long>> deletions = ChangeFeed.getTombstonesSince(fromVersion).entrySet().iterator();
+            Map.Entry<Long, Task> change = changes.hasNext() ? changes.next() : null;
+            Map.Entry<Long, Long> deletion = deletions.hasNext() ? deletions.next() : null;
+
+            // Merge both streams by version so that a consumer can apply them in order
+            while (change != null || deletion != null) {
+                if (deletion == null || (change != null && change.getKey() < deletion.getKey())) {
+                    Task task = change.getValue();
+                    writer.write((task.getId() > fromVersion ? "A " : "M ") + Storage.taskToFileString(task));
+                    writer.newLine();
+                    recordCount++;
+                    change = changes.hasNext() ? changes.next() : null;
+                } else {
+                    if (ChangeFeed.getTask(deletion.getValue()) == null && !isFull) {
+                        writer.write("D " + deletion.getValue());
+                        writer.newLine();
+                        recordCount++;
+                    }
+                    deletion = deletions.hasNext() ? deletions.next() : null;
+                }
+            }
+        } catch (IOException e) {
+            throw new DukeException("Error exporting changes: " + e.getMessage());
+        }
+        return recordCount;
+    }
+
+    /**
+     * Applies the changes in a feed file to the task list and saves tasks to file once at the end.
+     *
+     * @param filePath The path of the feed file.
+     * @return The number of records applied.
+     * @throws DukeException If the feed file cannot be read or has an invalid format.
+     */
+    public static int importChanges(String filePath) throws DukeException {
+        Path path = Paths.get(filePath);
+        int recordCount = 0;
+
+        UndoLog.beginGroup();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String header = reader.readLine();
+            if (header == null || !header.startsWith(HEADER_PREFIX)) {
+                throw new DukeException("Invalid change feed: " + filePath);
+            }
+            if (header.endsWith(" full")) {
+                // From the end, so that no deletion shifts the tasks after it
+                for (int i = TaskList.taskList.size() - 1; i >= 0; i--) {
+                    TaskList.deleteTaskById(TaskList.taskList.get(i).getId());
+                }
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                applyRecord(line);
+                recordCount++;
+            }
+        } catch (IOException e) {
+            throw new DukeException("Error importing changes: " + e.getMessage());
+        } finally {
+            UndoLog.endGroup("import " + filePath);
+        }
+        TaskList.getRepository().saveTasks(TaskList.taskList);
+        return recordCount;
+    }
+
+    /**
+     * Applies a single feed record to the task list.
+     *
+     * @param record The feed record.
+     * @throws DukeException If the record has an invalid format.
+     */
+    private static void applyRecord(String record) throws DukeException {
+        if (record.length() < 3 || record.charAt(1) != ' ') {
+            throw new DukeException("Invalid change record: " + record);
+        }
+
+        String body = record.substring(2);
+        switch (record.charAt(0)) {
+            case 'A':
+            case 'M':
+                Task task = Storage.fileStringToTask(body);
+                if (task == null || task.getId() == 0) {
+                    throw new DukeException("Invalid change record: " + record);
+                }
+                TaskList.upsertTask(task);
+                break;
+            case 'D':
+                try {
+                    TaskList.deleteTaskById(Long.parseLong(body.trim()));
+                } catch (NumberFormatException e) {
+                    throw new DukeException("Invalid change record: " + record);
+                }
+                break;
+            default:
+                throw new DukeException("Invalid change record: " + record);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package duke.storage;
+
+import duke.exception.DukeException;
+import duke.task.Task;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+
+/**
+ * Reads and writes tasks one record at a time in a format exchanged with other tools.
+ * Reading a record and decoding it are separate steps, so that records can be read in order
+ * by one thread and decoded by many. Decoding must therefore not change the codec.
+ */
+interface TaskCodec {
+    /**
+     * Writes whatever precedes the records, such as a header line.
+     *
+     * @param writer The destination.
+     * @throws IOException If there is an error while writing.
+     */
+    void writeHeader(Writer writer) throws IOException;
+
+    /**
+     * Writes one task as a record, including its line terminator.
+     *
+     * @param task   The task.
+     * @param writer The destination.
+     * @throws IOException If there is an error while writing.
+     */
+    void writeRecord(Task task, Writer writer) throws IOException;
+
+    /**
+     * Reads whatever precedes the records, such as a header line.
+     *
+     * @param reader The source.
+     * @throws IOException   If there is an error while reading.
+     * @throws DukeException If the header is invalid.
+     */
+    void readHeader(BufferedReader reader) throws IOException, DukeException;
+
+    /**
+     * Reads the text of the next record, which may span several lines.
+     *
+     * @param reader The source.
+     * @return The text of the record, or null at the end of the input.
+     * @throws IOException If there is an error while reading.
+     */
+    String readRecord(BufferedReader reader) throws IOException;
+
+    /**
+     * Decodes the text of a record into a task.
+     *
+     * @param record The text of the record.
+     * @param now    The date and time against which relative dates are resolved.
+     * @return The task.
+     * @throws DukeException If the record does not describe a valid task.
+     */
+    Task decode(String record, LocalDateTime now) throws DukeException;
+}
@@ -0,0 +1,265 @@
+package duke.storage;
+
+import duke.command.DateTimeParser;
+import duke.exception.DukeException;
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Recurring;
+import duke.task.Task;
+import duke.task.ToDo;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The fields of a task as exchanged with other tools, shared by the CSV and JSON Lines codecs.
+ * A record holds one string per field, or null for fields that do not apply to the task.
+ * Dates and times are written in ISO-8601 and read in any format accepted by {@link DateTimeParser}.
+ */
+class TaskRecord {
+    /** The names of the fields, as used for CSV columns and JSON keys. */
+    static final String[] FIELDS = {"type", "description", "done", "start", "end", "every", "until", "count",
+        "priority", "tags"};
+    static final int TYPE = 0;
+    static final int DESCRIPTION = 1;
+    static final int DONE = 2;
+    static final int START = 3;
+    static final int END = 4;
+    static final int EVERY = 5;
+    static final int UNTIL = 6;
+    static final int COUNT = 7;
+    static final int PRIORITY = 8;
+    static final int TAGS = 9;
+    /** The format of dates and times written, which other tools read as ISO-8601. */
+    private static final DateTimeFormatter ISO_MINUTE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
+    /**
+     * Finds a field by name, also accepting the names other tools commonly use.
+     *
+     * @param name The name of the field.
+     * @return The index of the field, or -1 if the name is not recognised.
+     */
+    static int indexOfField(String name) {
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        switch (key) {
+            case "by":
+            case "from":
+            case "due":
+                return START;
+            case "to":
+                return END;
+            case "frequency":
+                return EVERY;
+            case "tag":
+            case "labels":
+                return TAGS;
+            default:
+                for (int i = 0; i < FIELDS.length; i++) {
+                    if (FIELDS[i].equals(key)) {
+                        return i;
+                    }
+                }
+                return -1;
+        }
+    }
+
+    /**
+     * Converts a task to a record.
+     *
+     * @param task The task.
+     * @return The fields of the task.
+     */
+    static String[] fromTask(Task task) {
+        String[] values = new String[FIELDS.length];
+        values[DESCRIPTION] = task.getDescription();
+        values[DONE] = task.isDone() ? "true" : "false";
+        if (task.getPriority() > 0) {
+            values[PRIORITY] = Integer.toString(task.getPriority());
+        }
+        if (!task.getTags().isEmpty()) {
+            values[TAGS] = String.join(" ", task.getTags());
+        }
+        if (task instanceof Deadline) {
+            values[TYPE] = "deadline";
+            values[START] = formatDateTime(((Deadline) task).getBy());
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            values[TYPE] = "event";
+            values[START] = formatDateTime(event.getFromDateTime());
+            values[END] = formatDateTime(event.getToDateTime());
+        } else if (task instanceof Recurring) {
+            Recurring recurring = (Recurring) task;
+            values[TYPE] = "recurring";
+            values[START] = formatDateTime(recurring.getStartDateTime());
+            if (!recurring.getDuration().isZero()) {
+                values[END] = formatDateTime(recurring.getStartDateTime().plus(recurring.getDuration()));
+            }
+            values[EVERY] = recurring.getFrequency().name().toLowerCase(Locale.ROOT);
+            if (recurring.getUntil() != null) {
+                values[UNTIL] = formatDateTime(recurring.getUntil());
+            }
+            if (recurring.getCount() > 0) {
+                values[COUNT] = Integer.toString(recurring.getCount());
+            }
+        } else {
+            values[TYPE] = "todo";
+        }
+        return values;
+    }
+
+    /**
+     * Converts a record to a task. Unlike typed commands, dates in the past are accepted,
+     * since a backlog brought in from elsewhere may well be overdue.
+     *
+     * @param values The fields of the record.
+     * @param now    The date and time against which relative dates are resolved.
+     * @return The task.
+     * @throws DukeException If the record does not describe a valid task.
+     */
+    static Task toTask(String[] values, LocalDateTime now) throws DukeException {
+        String description = values[DESCRIPTION] == null ? "" : toFileSafe(values[DESCRIPTION].trim());
+        if (description.isEmpty()) {
+            throw new DukeException("Missing description");
+        }
+
+        String type = isBlank(values[TYPE]) ? "todo" : values[TYPE].trim().toLowerCase(Locale.ROOT);
+        Task task;
+        switch (type) {
+            case "todo":
+            case "t":
+                task = new ToDo(description);
+                break;
+            case "deadline":
+            case "d":
+                task = new Deadline(description, parseRequired(values[START], "start", now));
+                break;
+            case "event":
+            case "e":
+                LocalDateTime fromDateTime = parseRequired(values[START], "start", now);
+                LocalDateTime toDateTime = parseRequired(values[END], "end", now);
+                if (fromDateTime.isAfter(toDateTime)) {
+                    throw new DukeException("Start time cannot be after end time");
+                }
+                task = new Event(description, fromDateTime, toDateTime);
+                break;
+            case "recurring":
+            case "r":
+                task = toRecurring(description, values, now);
+                break;
+            default:
+                throw new DukeException("Unknown task type: " + values[TYPE]);
+        }
+
+        if (!isBlank(values[DONE]) && parseDone(values[DONE])) {
+            task.markAsDone();
+        }
+        if (!isBlank(values[PRIORITY])) {
+            try {
+                task.setPriority(Task.parsePriority(values[PRIORITY]));
+            } catch (DukeException e) {
+                throw new DukeException("Invalid priority: " + values[PRIORITY]);
+            }
+        }
+        if (!isBlank(values[TAGS])) {
+            task.setTags(parseTags(values[TAGS]));
+        }
+        return task;
+    }
+
+    /**
+     * Converts the fields of a recurring task.
+     */
+    private static Recurring toRecurring(String description, String[] values, LocalDateTime now)
+            throws DukeException {
+        if (isBlank(values[EVERY])) {
+            throw new DukeException("Missing every");
+        }
+        Recurring.Frequency frequency = Recurring.parseFrequency(values[EVERY]);
+        LocalDateTime startDateTime = parseRequired(values[START], "start", now);
+        Duration duration = Duration.ZERO;
+        if (!isBlank(values[END])) {
+            duration = Duration.between(startDateTime, DateTimeParser.parseDateTime(values[END], now));
+            if (duration.isNegative()) {
+                throw new DukeException("Start time cannot be after end time");
+            }
+        }
+        LocalDateTime untilDateTime = isBlank(values[UNTIL]) ? null : DateTimeParser.parseDateTime(values[UNTIL], now);
+        int count = 0;
+        if (!isBlank(values[COUNT])) {
+            try {
+                count = Integer.parseInt(values[COUNT].trim());
+            } catch (NumberFormatException e) {
+                throw new DukeException("Invalid count: " + values[COUNT]);
+            }
+        }
+        return new Recurring(description, frequency, startDateTime, duration, untilDateTime, Math.max(0, count));
+    }
+
+    /**
+     * Parses a date and time that the task type requires.
+     */
+    private static LocalDateTime parseRequired(String value, String field, LocalDateTime now) throws DukeException {
+        if (isBlank(value)) {
+            throw new DukeException("Missing " + field);
+        }
+        return DateTimeParser.parseDateTime(value, now);
+    }
+
+    /**
+     * Parses tags separated by spaces or commas, such as "#ops, #home" or "ops home".
+     */
+    private static List<String> parseTags(String value) throws DukeException {
+        List<String> tags = new ArrayList<>();
+        for (String tag : value.trim().split("[\\s,]+")) {
+            if (!tag.isEmpty()) {
+                tags.add(Task.parseTag(tag));
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Parses the completion status of a task, such as "true", "1", "yes", "x" or "done".
+     */
+    private static boolean parseDone(String value) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "1":
+            case "yes":
+            case "y":
+            case "x":
+            case "done":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Formats a date and time in ISO-8601, to the minute.
+     */
+    private static String formatDateTime(LocalDateTime dateTime) {
+        return dateTime.format(ISO_MINUTE_FORMAT);
+    }
+
+    /**
+     * Rewrites a description so that it can be stored in the task file, which holds one task
+     * per line with fields separated by " | ": line breaks become spaces and separators become slashes.
+     */
+    private static String toFileSafe(String description) {
+        String singleLine = description.indexOf('\n') == -1 && description.indexOf('\r') == -1
+                ? description : description.replaceAll("\\s*[\\r\\n]+\\s*", " ");
+        return singleLine.replace(" | ", " / ");
+    }
+
+    /**
+     * Checks whether a field is missing or empty.
+     */
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
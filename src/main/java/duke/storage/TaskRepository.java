@@ -0,0 +1,107 @@
+package duke.storage;
+
+import duke.exception.DukeException;
+import duke.task.StoreMerge;
+import duke.task.Task;
+import duke.task.TaskEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Represents where task lists are saved and loaded: one per workspace, of which one is in use at a time.
+ * Text files, which other processes may change at the same time, are used unless the
+ * {@code duke.storage.backend} system property chooses "kv", a key-value store of each task list
+ * that saves a change to a task by writing that task alone.
+ */
+public interface TaskRepository {
+    /**
+     * Creates the repository chosen by the {@code duke.storage.backend} system property.
+     *
+     * @return The repository.
+     */
+    static TaskRepository create() {
+        if ("kv".equalsIgnoreCase(System.getProperty("duke.storage.backend"))) {
+            return new KeyValueRepository();
+        }
+        return new TextFileRepository();
+    }
+
+    /**
+     * Loads the tasks of the task list in use.
+     *
+     * @return The tasks, in list order.
+     * @throws DukeException If there is an error while loading the tasks.
+     */
+    ArrayList<Task> loadTasks() throws DukeException;
+
+    /**
+     * Saves the task list in use.
+     *
+     * @param taskList The task list.
+     * @throws DukeException If there is an error while saving the tasks.
+     */
+    void saveTasks(ArrayList<Task> taskList) throws DukeException;
+
+    /**
+     * Saves the task list in use after a batch of changes published on the task event bus, once for
+     * the whole batch, unless an earlier save has already written them. Errors are handled gracefully.
+     *
+     * @param events The changes.
+     */
+    void saveAfterEvents(List<TaskEvent> events);
+
+    /**
+     * Records that the task list in use is saved as it is now, for example just after loading it.
+     */
+    void markSaved();
+
+    /**
+     * Checks whether the task list in use has changed since it was last saved or loaded.
+     *
+     * @return True if the task list needs saving, false otherwise.
+     */
+    boolean hasUnsavedChanges();
+
+    /**
+     * Merges the changes other processes have made to the task list in use since this one last saved
+     * or loaded it.
+     *
+     * @return The merge, or null if there was nothing to merge.
+     * @throws DukeException If there is an error while reading or writing the task list.
+     */
+    StoreMerge syncWithStore() throws DukeException;
+
+    /**
+     * Adds a task to the end of the task list in use as saved, without loading the tasks already in it.
+     *
+     * @param task The task.
+     * @throws DukeException If there is an error while saving the task.
+     */
+    void appendTask(Task task) throws DukeException;
+
+    /**
+     * Finds the saved tasks of the task list in use whose descriptions contain a keyword.
+     *
+     * @param keyword The keyword, matched regardless of case.
+     * @return The matching tasks by their number in the list, in list order.
+     * @throws DukeException If there is an error while loading the tasks.
+     */
+    LinkedHashMap<Integer, Task> findTasks(String keyword) throws DukeException;
+
+    /**
+     * Directs saving and loading to the given task list.
+     *
+     * @param name The name of the task list.
+     */
+    void useWorkspace(String name);
+
+    /**
+     * Lists the task lists saved, without loading any of them.
+     *
+     * @return The names of the task lists, in alphabetical order.
+     * @throws DukeException If there is an error while listing the task lists.
+     */
+    List<String> listWorkspaces() throws DukeException;
+}
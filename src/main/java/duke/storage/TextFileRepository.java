@@ -0,0 +1,66 @@
+package duke.storage;
+
+import duke.exception.DukeException;
+import duke.task.StoreMerge;
+import duke.task.Task;
+import duke.task.TaskEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Keeps each task list in a text file of its own through {@link Storage}, merging the changes other
+ * processes make to the file.
+ */
+class TextFileRepository implements TaskRepository {
+    @Override
+    public ArrayList<Task> loadTasks() throws DukeException {
+        return Storage.loadTasksFromFile();
+    }
+
+    @Override
+    public void saveTasks(ArrayList<Task> taskList) throws DukeException {
+        Storage.saveTasksToFile(taskList);
+    }
+
+    @Override
+    public void saveAfterEvents(List<TaskEvent> events) {
+        Storage.saveAfterEvents(events);
+    }
+
+    @Override
+    public void markSaved() {
+        Storage.markSaved();
+    }
+
+    @Override
+    public boolean hasUnsavedChanges() {
+        return Storage.hasUnsavedChanges();
+    }
+
+    @Override
+    public StoreMerge syncWithStore() throws DukeException {
+        return Storage.syncWithFile();
+    }
+
+    @Override
+    public void appendTask(Task task) throws DukeException {
+        Storage.appendTaskToFile(task);
+    }
+
+    @Override
+    public LinkedHashMap<Integer, Task> findTasks(String keyword) throws DukeException {
+        return Storage.findTasksInFile(keyword);
+    }
+
+    @Override
+    public void useWorkspace(String name) {
+        Storage.useWorkspaceFile(name);
+    }
+
+    @Override
+    public List<String> listWorkspaces() throws DukeException {
+        return Storage.listWorkspaces();
+    }
+}
@@ -0,0 +1,370 @@
+package duke.task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stamps every change to the task list with a monotonically increasing version.
+ * Keeps tasks ordered by the version of their last change, along with tombstones for
+ * deleted tasks, so that the changes since any version can be found without a full scan.
+ */
+public class ChangeFeed {
+    /** The maximum number of tombstones kept before the oldest are forgotten. */
+    private static final int MAX_TOMBSTONES = 10000;
+
+    /** The version of the latest change. */
+    private static long currentVersion = 0;
+    /** The latest version whose deletions may have been forgotten. */
+    private static long horizon = 0;
+    /** The live tasks by identifier. */
+    private static HashMap<Long, Task> tasksById = new HashMap<>();
+    /** The live tasks by the version of their last change. */
+    private static TreeMap<Long, Task> tasksByVersion = new TreeMap<>();
+    /** The identifiers of deleted tasks by the version of their deletion. */
+    private static TreeMap<Long, Long> tombstones = new TreeMap<>();
+    /** The version of the deletion of each deleted task, so that a task added back loses its tombstone. */
+    private static HashMap<Long, Long> deletionsById = new HashMap<>();
+
+    /**
+     * The feed of a task list that is not in use, set aside whole so that switching lists copies nothing.
+     */
+    static class State {
+        private final long currentVersion;
+        private final long horizon;
+        private final HashMap<Long, Task> tasksById;
+        private final TreeMap<Long, Task> tasksByVersion;
+        private final TreeMap<Long, Long> tombstones;
+        private final HashMap<Long, Long> deletionsById;
+
+        private State(long currentVersion, long horizon, HashMap<Long, Task> tasksById,
+                      TreeMap<Long, Task> tasksByVersion, TreeMap<Long, Long> tombstones,
+                      HashMap<Long, Long> deletionsById) {
+            this.currentVersion = currentVersion;
+            this.horizon = horizon;
+            this.tasksById = tasksById;
+            this.tasksByVersion = tasksByVersion;
+            this.tombstones = tombstones;
+            this.deletionsById = deletionsById;
+        }
+    }
+
+    /**
+     * Sets the feed aside and starts an empty one.
+     *
+     * @return The feed set aside.
+     */
+    static State detach() {
+        State state = new State(currentVersion, horizon, tasksById, tasksByVersion, tombstones, deletionsById);
+        currentVersion = 0;
+        horizon = 0;
+        tasksById = new HashMap<>();
+        tasksByVersion = new TreeMap<>();
+        tombstones = new TreeMap<>();
+        deletionsById = new HashMap<>();
+        return state;
+    }
+
+    /**
+     * Puts a feed set aside back in use, replacing the current one.
+     *
+     * @param state The feed set aside.
+     */
+    static void attach(State state) {
+        currentVersion = state.currentVersion;
+        horizon = state.horizon;
+        tasksById = state.tasksById;
+        tasksByVersion = state.tasksByVersion;
+        tombstones = state.tombstones;
+        deletionsById = state.deletionsById;
+    }
+
+    /**
+     * Records a task that has entered the task list, assigning it an identifier if it has none.
+     * A task coming back, such as one whose deletion is undone, is no longer recorded as deleted.
+     *
+     * @param task The added task.
+     */
+    public static void recordAdded(Task task) {
+        assert task != null : "Task must not be null";
+
+        // Tasks received from another store keep their identifier, which new identifiers must not reuse
+        currentVersion = Math.max(currentVersion, task.getId());
+        long version = ++currentVersion;
+        if (task.getId() == 0) {
+            task.setId(version);
+        }
+        task.setVersion(version);
+        tasksById.put(task.getId(), task);
+        tasksByVersion.put(version, task);
+        dropTombstone(task.getId());
+    }
+
+    /**
+     * Records a change to a task that is already in the task list.
+     *
+     * @param task The changed task.
+     */
+    public static void recordModified(Task task) {
+        assert task != null : "Task must not be null";
+
+        tasksByVersion.remove(task.getVersion());
+        task.setVersion(++currentVersion);
+        tasksById.put(task.getId(), task);
+        tasksByVersion.put(task.getVersion(), task);
+    }
+
+    /**
+     * Records the replacement of a task in the task list by another task with the same identifier.
+     *
+     * @param oldTask The replaced task.
+     * @param newTask The task taking its place.
+     */
+    public static void recordReplaced(Task oldTask, Task newTask) {
+        assert oldTask != null && newTask != null : "Tasks must not be null";
+
+        tasksByVersion.remove(oldTask.getVersion());
+        newTask.setVersion(oldTask.getVersion());
+        recordModified(newTask);
+    }
+
+    /**
+     * Records the deletion of a task from the task list.
+     *
+     * @param task The deleted task.
+     */
+    public static void recordDeleted(Task task) {
+        assert task != null : "Task must not be null";
+
+        tasksById.remove(task.getId());
+        tasksByVersion.remove(task.getVersion());
+        putTombstone(++currentVersion, task.getId());
+        while (tombstones.size() > MAX_TOMBSTONES) {
+            Map.Entry<Long, Long> oldest = tombstones.pollFirstEntry();
+            deletionsById.remove(oldest.getValue(), oldest.getKey());
+            horizon = oldest.getKey();
+        }
+    }
+
+    /**
+     * Rebuilds the feed from tasks loaded from storage.
+     * Tasks saved with an identifier and version keep them; others are stamped as new changes.
+     * Tombstones of tasks that are live, left by files written before tasks added back lost them, are dropped.
+     *
+     * @param tasks The loaded tasks, in list order.
+     */
+    public static void restore(List<Task> tasks) {
+        tasksById.clear();
+        tasksByVersion.clear();
+        List<Task> unversionedTasks = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task.getId() == 0 || task.getVersion() == 0 || tasksById.containsKey(task.getId())
+                    || tasksByVersion.containsKey(task.getVersion())) {
+                task.setId(0);
+                unversionedTasks.add(task);
+                continue;
+            }
+            tasksById.put(task.getId(), task);
+            tasksByVersion.put(task.getVersion(), task);
+            currentVersion = Math.max(currentVersion, Math.max(task.getId(), task.getVersion()));
+        }
+        for (Task task : unversionedTasks) {
+            recordAdded(task);
+        }
+        if (!deletionsById.isEmpty()) {
+            for (long id : tasksById.keySet()) {
+                dropTombstone(id);
+            }
+        }
+    }
+
+    /**
+     * Restores a tombstone read from storage.
+     *
+     * @param id      The identifier of the deleted task.
+     * @param version The version at which the task was deleted.
+     */
+    public static void restoreTombstone(long id, long version) {
+        putTombstone(version, id);
+        currentVersion = Math.max(currentVersion, version);
+    }
+
+    /**
+     * Restores the horizon read from storage.
+     *
+     * @param version The latest version whose deletions may have been forgotten.
+     */
+    public static void restoreHorizon(long version) {
+        horizon = Math.max(horizon, version);
+        currentVersion = Math.max(currentVersion, version);
+    }
+
+    /**
+     * Raises the version of the latest change, so that changes stamped from now on come after the given version.
+     *
+     * @param version The version that later changes must follow.
+     */
+    public static void raiseVersion(long version) {
+        currentVersion = Math.max(currentVersion, version);
+    }
+
+    /**
+     * Stamps the changes after the given version again, in the same order, with versions after any seen so far.
+     * Another process writing the same file stamps its changes from its own count, so changes made here
+     * are moved past the versions it has written before this process writes the file in turn.
+     *
+     * @param version The version after which changes are stamped again.
+     */
+    static void restampSince(long version) {
+        TreeMap<Long, Object> changes = new TreeMap<>(tasksByVersion.tailMap(version, false));
+        changes.putAll(tombstones.tailMap(version, false));
+        tasksByVersion.tailMap(version, false).clear();
+        tombstones.tailMap(version, false).clear();
+        for (Object change : changes.values()) {
+            long newVersion = ++currentVersion;
+            if (change instanceof Task) {
+                ((Task) change).setVersion(newVersion);
+                tasksByVersion.put(newVersion, (Task) change);
+                TaskSnapshots.update((Task) change);
+            } else {
+                putTombstone(newVersion, (Long) change);
+            }
+        }
+    }
+
+    /**
+     * Sets the version of a task to the one another process stamped it with in the file.
+     * Any other task holding that version is stamped again, so that versions stay unique.
+     *
+     * @param task    The task, already recorded in the feed.
+     * @param version The version from the file.
+     */
+    static void adoptVersion(Task task, long version) {
+        tasksByVersion.remove(task.getVersion());
+        Task holder = tasksByVersion.get(version);
+        currentVersion = Math.max(currentVersion, version);
+        task.setVersion(version);
+        tasksByVersion.put(version, task);
+        TaskSnapshots.update(task);
+        if (holder != null && holder != task) {
+            holder.setVersion(++currentVersion);
+            tasksByVersion.put(holder.getVersion(), holder);
+            TaskSnapshots.update(holder);
+        }
+    }
+
+    /**
+     * Sets the version of the tombstone just recorded for a task to the one another process deleted it at.
+     *
+     * @param id      The identifier of the deleted task.
+     * @param version The version of the deletion in the file.
+     */
+    static void adoptDeletion(long id, long version) {
+        Map.Entry<Long, Long> latest = tombstones.lastEntry();
+        if (latest != null && latest.getValue() == id) {
+            tombstones.remove(latest.getKey());
+            deletionsById.remove(id);
+        }
+        restoreTombstone(id, version);
+    }
+
+    /**
+     * Gives a task a new identifier, for a task added here whose identifier another process has
+     * meanwhile given to a task of its own.
+     *
+     * @param task The task, already recorded in the feed.
+     * @return The identifier the task had.
+     */
+    static long reassignId(Task task) {
+        long oldId = task.getId();
+        tasksById.remove(oldId);
+        task.setId(++currentVersion);
+        tasksById.put(task.getId(), task);
+        return oldId;
+    }
+
+    /**
+     * Records the deletion of a task at a version, keeping only its latest deletion.
+     */
+    private static void putTombstone(long version, long id) {
+        Long previousVersion = deletionsById.get(id);
+        if (previousVersion != null && previousVersion > version) {
+            return;
+        }
+        if (previousVersion != null) {
+            tombstones.remove(previousVersion);
+        }
+        deletionsById.put(id, version);
+        tombstones.put(version, id);
+    }
+
+    /**
+     * Forgets the deletion of a task, if it is recorded.
+     */
+    private static void dropTombstone(long id) {
+        Long version = deletionsById.remove(id);
+        if (version != null) {
+            tombstones.remove(version);
+        }
+    }
+
+    /**
+     * Retrieves the version of the latest change.
+     *
+     * @return The current version.
+     */
+    public static long getCurrentVersion() {
+        return currentVersion;
+    }
+
+    /**
+     * Retrieves the latest version whose deletions may have been forgotten.
+     *
+     * @return The horizon version.
+     */
+    public static long getHorizon() {
+        return horizon;
+    }
+
+    /**
+     * Checks whether every change after the given version is still known to the feed.
+     *
+     * @param version The version to check.
+     * @return True if the changes since the version are complete, false otherwise.
+     */
+    public static boolean isCompleteSince(long version) {
+        return version >= horizon;
+    }
+
+    /**
+     * Retrieves a live task by its identifier.
+     *
+     * @param id The identifier of the task.
+     * @return The task, or null if no live task has the identifier.
+     */
+    public static Task getTask(long id) {
+        return tasksById.get(id);
+    }
+
+    /**
+     * Retrieves the live tasks changed after the given version, ordered by version.
+     *
+     * @param version The version after which changes are wanted.
+     * @return The changed tasks by the version of their last change.
+     */
+    public static Map<Long, Task> getTasksChangedSince(long version) {
+        return tasksByVersion.tailMap(version, false);
+    }
+
+    /**
+     * Retrieves the tombstones recorded after the given version, ordered by version.
+     *
+     * @param version The version after which deletions are wanted.
+     * @return The identifiers of deleted tasks by the version of their deletion.
+     */
+    public static Map<Long, Long> getTombstonesSince(long version) {
+        return tombstones.tailMap(version, false);
+    }
+}
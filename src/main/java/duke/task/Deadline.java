@@ -4,7 +4,6 @@ import duke.command.DateTimeParser;
 import duke.exception.DukeException;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * Represents a deadline task with a description and a due date and time.
@@ -43,43 +42,45 @@ public class Deadline extends Task {
     }
 
     /**
-     * Creates a deadline task from a user command string.
+     * Creates a deadline task from the arguments of a user command.
      *
-     * @param command The user command string for creating the deadline task.
+     * @param description      The description of the deadline task.
+     * @param byDateTimeString The due date and time as typed, or null if it was not given.
      * @return The created deadline task, or null if an error occurs.
      */
-    public static Deadline createDeadlineFromCommand(String command) {
-        String prefix = "deadline";
-        String byKeyword = "/by";
-
-        int prefixIndex = command.toLowerCase().indexOf(prefix);
-        int byIndex = command.indexOf(byKeyword);
-
+    public static Deadline createDeadline(String description, String byDateTimeString) {
         try {
-            if (prefixIndex == -1 || byIndex == -1) {
+            if (byDateTimeString == null) {
                 throw DukeException.invalidDeadlineFormat();
             }
 
-            String deadlineDescription = command.substring(prefixIndex + prefix.length(), byIndex).trim();
-            String byDateTimeString = command.substring(byIndex + byKeyword.length()).trim();
-
             LocalDateTime byDateTime = DateTimeParser.parseDateTime(byDateTimeString);
 
             if (byDateTime.isBefore(LocalDateTime.now())) {
                 throw DukeException.invalidDateTime();
             }
 
-            if (deadlineDescription.isEmpty() || byDateTimeString.isEmpty()) {
+            if (description.isEmpty() || byDateTimeString.isEmpty()) {
                 throw DukeException.invalidDeadlineFormat();
             }
 
-            return new Deadline(deadlineDescription, byDateTime);
+            return new Deadline(description, byDateTime);
         } catch (DukeException e) {
             DukeException.handleGracefulError(e);
             return null;
         }
     }
 
+    /**
+     * Creates a copy of the deadline holding the same state, which later changes to it leave untouched.
+     *
+     * @return The copy.
+     */
+    @Override
+    Deadline copy() {
+        return copyStateTo(new Deadline(getDescription(), byDateTime));
+    }
+
     /**
      * Returns a string representation of the deadline task.
      *
@@ -87,6 +88,6 @@ public class Deadline extends Task {
      */
     @Override
     public String toString() {
-        return "[D]" + super.toString() + " (by: " + byDateTime.format(DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm")) + ")";
+        return "[D]" + super.toString() + " (by: " + byDateTime.format(DISPLAY_DATE_TIME_FORMAT) + ")";
     }
 }
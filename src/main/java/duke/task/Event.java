@@ -4,7 +4,6 @@ import duke.command.DateTimeParser;
 import duke.exception.DukeException;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * Represents an event task with a description and a duration.
@@ -65,30 +64,17 @@ public class Event extends Task {
     }
 
     /**
-     * Creates an event task from a user command string.
+     * Creates an event task from the arguments of a user command.
      *
-     * @param command The user command string for creating the event task.
+     * @param description        The description of the event task.
+     * @param fromDateTimeString The start date and time as typed, or null if it was not given.
+     * @param toDateTimeString   The end date and time as typed, or null if it was not given.
      * @return The created event task, or null if an error occurs.
      */
-    public static Event createEventFromCommand(String command) {
-        String prefix = "event";
-        String fromKeyword = "/from";
-        String toKeyword = "/to";
-
-        int prefixIndex = command.toLowerCase().indexOf(prefix);
-        int fromIndex = command.indexOf(fromKeyword);
-        int toIndex = command.indexOf(toKeyword);
-
+    public static Event createEvent(String description, String fromDateTimeString, String toDateTimeString) {
         try {
-            if (prefixIndex == -1 || fromIndex == -1 || toIndex == -1) {
-                throw DukeException.invalidEventFormat();
-            }
-
-            String eventDescription = command.substring(prefixIndex + prefix.length(), fromIndex).trim();
-            String fromDateTimeString = command.substring(fromIndex + fromKeyword.length(), toIndex).trim();
-            String toDateTimeString = command.substring(toIndex + toKeyword.length()).trim();
-
-            if (eventDescription.isEmpty() || fromDateTimeString.isEmpty() || toDateTimeString.isEmpty()) {
+            if (description.isEmpty() || fromDateTimeString == null || fromDateTimeString.isEmpty()
+                    || toDateTimeString == null || toDateTimeString.isEmpty()) {
                 throw DukeException.invalidEventFormat();
             }
 
@@ -103,13 +89,23 @@ public class Event extends Task {
                 throw DukeException.invalidDateTime();
             }
 
-            return new Event(eventDescription, fromDateTime, toDateTime);
+            return new Event(description, fromDateTime, toDateTime);
         } catch (DukeException e) {
             DukeException.handleGracefulError(e);
             return null;
         }
     }
 
+    /**
+     * Creates a copy of the event holding the same state, which later changes to it leave untouched.
+     *
+     * @return The copy.
+     */
+    @Override
+    Event copy() {
+        return copyStateTo(new Event(getDescription(), fromDateTime, toDateTime));
+    }
+
     /**
      * Returns a string representation of the event task.
      *
@@ -117,7 +113,7 @@ public class Event extends Task {
      */
     @Override
     public String toString() {
-        return "[E]" + super.toString() + " (from: " + fromDateTime.format(DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm")) +
-                " to: " + toDateTime.format(DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm")) + ")";
+        return "[E]" + super.toString() + " (from: " + fromDateTime.format(DISPLAY_DATE_TIME_FORMAT) +
+                " to: " + toDateTime.format(DISPLAY_DATE_TIME_FORMAT) + ")";
     }
 }
@@ -0,0 +1,158 @@
+package duke.task;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the time spans of all events in an interval tree so that double bookings can be found
+ * without comparing every pair of events.
+ */
+public class EventSchedule {
+    /** The time spans of the events. */
+    private static IntervalTree intervals = new IntervalTree();
+    /** The start of the indexed span of each event, by task identifier. */
+    private static HashMap<Long, Long> indexedStarts = new HashMap<>();
+
+    /**
+     * The index of a task list that is not in use.
+     */
+    static class State {
+        private final IntervalTree intervals;
+        private final HashMap<Long, Long> indexedStarts;
+
+        private State(IntervalTree intervals, HashMap<Long, Long> indexedStarts) {
+            this.intervals = intervals;
+            this.indexedStarts = indexedStarts;
+        }
+    }
+
+    /**
+     * Sets the index aside and starts an empty one.
+     *
+     * @return The index set aside.
+     */
+    static State detach() {
+        State state = new State(intervals, indexedStarts);
+        intervals = new IntervalTree();
+        indexedStarts = new HashMap<>();
+        return state;
+    }
+
+    /**
+     * Puts an index set aside back in use, replacing the current one.
+     *
+     * @param state The index set aside.
+     */
+    static void attach(State state) {
+        intervals = state.intervals;
+        indexedStarts = state.indexedStarts;
+    }
+
+    /**
+     * Indexes the time span of a task if it is an event, replacing any span indexed for it before.
+     *
+     * @param task The task to be indexed.
+     */
+    public static void add(Task task) {
+        remove(task);
+        if (task instanceof Event) {
+            Event event = (Event) task;
+            long start = toMinute(event.getFromDateTime());
+            intervals.insert(task.getId(), start, toEndMinute(start, event.getToDateTime()));
+            indexedStarts.put(task.getId(), start);
+        }
+    }
+
+    /**
+     * Removes the time span of a task from the index, if present.
+     *
+     * @param task The task to be removed.
+     */
+    public static void remove(Task task) {
+        Long start = indexedStarts.remove(task.getId());
+        if (start != null) {
+            intervals.remove(task.getId(), start);
+        }
+    }
+
+    /**
+     * Rebuilds the index from the given tasks.
+     *
+     * @param tasks The tasks to be indexed.
+     */
+    public static void addAll(List<Task> tasks) {
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    /**
+     * Finds the other events whose time spans overlap the given event.
+     *
+     * @param event The event to check.
+     * @return The overlapping events, in order of start.
+     */
+    public static List<Task> findConflicts(Event event) {
+        long start = toMinute(event.getFromDateTime());
+        List<Long> ids = new ArrayList<>();
+        intervals.findOverlapping(start, toEndMinute(start, event.getToDateTime()), ids);
+
+        List<Task> conflicts = new ArrayList<>();
+        for (long id : ids) {
+            Task task = ChangeFeed.getTask(id);
+            if (id != event.getId() && task != null) {
+                conflicts.add(task);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Finds every pair of overlapping events in a single sweep over the events in order of start.
+     * Only the events still running when the next one starts are kept, so the sweep takes
+     * O(n log n + k) time for k overlapping pairs.
+     *
+     * @return The overlapping pairs, each ordered by start.
+     */
+    public static List<Task[]> findAllConflicts() {
+        List<Task[]> conflicts = new ArrayList<>();
+        PriorityQueue<IntervalTree.Node> running = new PriorityQueue<>(
+                (first, second) -> Long.compare(first.getEnd(), second.getEnd()));
+        intervals.forEachInOrder(node -> {
+            while (!running.isEmpty() && running.peek().getEnd() <= node.getStart()) {
+                running.poll();
+            }
+            for (IntervalTree.Node runningNode : running) {
+                conflicts.add(new Task[] {ChangeFeed.getTask(runningNode.getId()), ChangeFeed.getTask(node.getId())});
+            }
+            running.add(node);
+        });
+        return conflicts;
+    }
+
+    /**
+     * Converts a date and time to minutes on a fixed scale.
+     *
+     * @param dateTime The date and time.
+     * @return The number of minutes since the epoch, ignoring time zones.
+     */
+    private static long toMinute(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    /**
+     * Converts the end of an event to minutes, giving zero-length events a length of one minute
+     * so that they still clash with events around them.
+     *
+     * @param startMinute The start of the event, in minutes.
+     * @param endDateTime The end of the event.
+     * @return The exclusive end of the event, in minutes.
+     */
+    private static long toEndMinute(long startMinute, LocalDateTime endDateTime) {
+        return Math.max(startMinute + 1, toMinute(endDateTime));
+    }
+}
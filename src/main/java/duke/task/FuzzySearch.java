@@ -0,0 +1,184 @@
+package duke.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Finds tasks by description despite typos, ranking the closest matches first.
+ * The descriptions are indexed by trigram on the first search rather than at startup, since most
+ * sessions never search, and the index is then kept up to date as tasks are added and deleted.
+ * Deleted tasks are only dropped from the index when it is rebuilt, which happens once they
+ * outnumber the tasks still indexed.
+ */
+public class FuzzySearch {
+    /** The number of deleted tasks below which the index is never rebuilt. */
+    private static final int MIN_REBUILD_DELETED_COUNT = 1024;
+
+    /** The index, or null until the first search or after too many deletions. */
+    private static TrigramIndex index = null;
+    /** The indexed tasks by document number, with null for deleted tasks. */
+    private static ArrayList<Task> tasksByDocument = new ArrayList<>();
+    /** The document number of each indexed task, by task identifier. */
+    private static HashMap<Long, Integer> documentsById = new HashMap<>();
+    /** The number of deleted tasks still in the index. */
+    private static int deletedCount = 0;
+
+    /**
+     * The index of a task list that is not in use.
+     */
+    static class State {
+        private final TrigramIndex index;
+        private final ArrayList<Task> tasksByDocument;
+        private final HashMap<Long, Integer> documentsById;
+        private final int deletedCount;
+
+        private State(TrigramIndex index, ArrayList<Task> tasksByDocument, HashMap<Long, Integer> documentsById,
+                      int deletedCount) {
+            this.index = index;
+            this.tasksByDocument = tasksByDocument;
+            this.documentsById = documentsById;
+            this.deletedCount = deletedCount;
+        }
+    }
+
+    /**
+     * Sets the index aside, leaving none to be built on the next search.
+     *
+     * @return The index set aside.
+     */
+    static State detach() {
+        State state = new State(index, tasksByDocument, documentsById, deletedCount);
+        clear();
+        return state;
+    }
+
+    /**
+     * Puts an index set aside back in use, replacing the current one.
+     *
+     * @param state The index set aside.
+     */
+    static void attach(State state) {
+        index = state.index;
+        tasksByDocument = state.tasksByDocument;
+        documentsById = state.documentsById;
+        deletedCount = state.deletedCount;
+    }
+
+    /**
+     * Indexes the description of a task, replacing any description indexed for it before.
+     * Nothing is done until the index has been built.
+     *
+     * @param task The task to be indexed.
+     */
+    public static void add(Task task) {
+        if (index == null) {
+            return;
+        }
+        remove(task);
+        int document = tasksByDocument.size();
+        tasksByDocument.add(task);
+        documentsById.put(task.getId(), document);
+        index.add(document, task.getDescription());
+    }
+
+    /**
+     * Removes a task from the index, if present.
+     *
+     * @param task The task to be removed.
+     */
+    public static void remove(Task task) {
+        if (index == null) {
+            return;
+        }
+        Integer document = documentsById.remove(task.getId());
+        if (document == null) {
+            return;
+        }
+        tasksByDocument.set(document, null);
+        deletedCount++;
+        if (deletedCount >= MIN_REBUILD_DELETED_COUNT && deletedCount > documentsById.size()) {
+            clear();
+        }
+    }
+
+    /**
+     * Finds the tasks whose descriptions contain every word of a query or words within a few typos of them.
+     *
+     * @param query   The query.
+     * @param limit   The largest number of tasks to retrieve.
+     * @param matches The list to which the closest matching tasks are added, closest first and
+     *                otherwise in the order they were indexed.
+     * @return The number of matching tasks, which may exceed the limit.
+     */
+    static int find(String query, int limit, List<Task> matches) {
+        if (index == null) {
+            build();
+        }
+        long[] results = index.search(query);
+        int resultCount = 0;
+        for (long result : results) {
+            if (tasksByDocument.get((int) result) != null) {
+                results[resultCount++] = result;
+            }
+        }
+        // Packed as distance then document number, so sorting ranks them
+        Arrays.sort(results, 0, resultCount);
+        for (int i = 0; i < Math.min(limit, resultCount); i++) {
+            matches.add(tasksByDocument.get((int) results[i]));
+        }
+        return resultCount;
+    }
+
+    /**
+     * Finds the tasks whose descriptions have a word containing each word of the given text.
+     * These include every task whose description contains the text, which callers check on each.
+     *
+     * @param text The text.
+     * @return The tasks found, in no particular order.
+     */
+    static List<Task> findContaining(String text) {
+        if (index == null) {
+            build();
+        }
+        List<Task> tasks = new ArrayList<>();
+        for (long result : index.search(text, false)) {
+            Task task = tasksByDocument.get((int) result);
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Checks whether the index has been built, so that searching costs no more than the search itself.
+     *
+     * @return True if the index is built, false otherwise.
+     */
+    static boolean isBuilt() {
+        return index != null;
+    }
+
+    /**
+     * Indexes every task in the task list.
+     */
+    private static void build() {
+        clear();
+        index = new TrigramIndex();
+        for (Task task : TaskList.taskList) {
+            add(task);
+        }
+    }
+
+    /**
+     * Drops the index, to be built again on the next search.
+     */
+    private static void clear() {
+        index = null;
+        tasksByDocument = new ArrayList<>();
+        documentsById = new HashMap<>();
+        deletedCount = 0;
+    }
+}
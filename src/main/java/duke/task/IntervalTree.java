@@ -0,0 +1,265 @@
+package duke.task;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * An interval tree over half-open intervals [start, end) identified by a task identifier.
+ * It is a treap ordered by start, with every node also keeping the largest end in its subtree,
+ * so that finding the k intervals overlapping a query takes O(log n + k) expected time.
+ * The tree is not thread-safe.
+ */
+class IntervalTree {
+    /**
+     * A node of the tree, holding one interval.
+     */
+    static class Node {
+        private final long id;
+        private final long start;
+        private final long end;
+        private final int priority;
+        private long maxEnd;
+        private Node left;
+        private Node right;
+
+        private Node(long id, long start, long end, int priority) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        /**
+         * Retrieves the identifier of the interval.
+         *
+         * @return The identifier of the interval.
+         */
+        long getId() {
+            return id;
+        }
+
+        /**
+         * Retrieves the start of the interval, inclusive.
+         *
+         * @return The start of the interval.
+         */
+        long getStart() {
+            return start;
+        }
+
+        /**
+         * Retrieves the end of the interval, exclusive.
+         *
+         * @return The end of the interval.
+         */
+        long getEnd() {
+            return end;
+        }
+    }
+
+    /** The source of node priorities, which keep the treap balanced in expectation. */
+    private final Random random = new Random();
+    /** The root of the tree, or null if it is empty. */
+    private Node root = null;
+    /** The number of intervals in the tree. */
+    private int size = 0;
+
+    /**
+     * Inserts an interval.
+     *
+     * @param id    The identifier of the interval.
+     * @param start The start of the interval, inclusive.
+     * @param end   The end of the interval, exclusive.
+     */
+    void insert(long id, long start, long end) {
+        root = insert(root, new Node(id, start, end, random.nextInt()));
+        size++;
+    }
+
+    /**
+     * Removes an interval, if present.
+     *
+     * @param id    The identifier of the interval.
+     * @param start The start of the interval, as given when it was inserted.
+     */
+    void remove(long id, long start) {
+        root = remove(root, id, start);
+    }
+
+    /**
+     * Retrieves the number of intervals in the tree.
+     *
+     * @return The number of intervals.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Finds the identifiers of the intervals overlapping [start, end).
+     *
+     * @param start  The start of the query, inclusive.
+     * @param end    The end of the query, exclusive.
+     * @param result The list receiving the identifiers.
+     */
+    void findOverlapping(long start, long end, List<Long> result) {
+        findOverlapping(root, start, end, result);
+    }
+
+    /**
+     * Visits every interval in order of start.
+     *
+     * @param visitor The visitor of the nodes.
+     */
+    void forEachInOrder(Consumer<Node> visitor) {
+        forEachInOrder(root, visitor);
+    }
+
+    /**
+     * Inserts a node into a subtree, rotating it up while its priority is higher than its parent's.
+     *
+     * @return The new root of the subtree.
+     */
+    private Node insert(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (compare(newNode.start, newNode.id, node) < 0) {
+            node.left = insert(node.left, newNode);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, newNode);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Removes the node with the given key from a subtree.
+     *
+     * @return The new root of the subtree.
+     */
+    private Node remove(Node node, long id, long start) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(start, id, node);
+        if (comparison < 0) {
+            node.left = remove(node.left, id, start);
+        } else if (comparison > 0) {
+            node.right = remove(node.right, id, start);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Merges two subtrees where every key in the first is before every key in the second.
+     *
+     * @return The root of the merged subtree.
+     */
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    /**
+     * Collects the intervals of a subtree that overlap [start, end), skipping subtrees that cannot.
+     */
+    private void findOverlapping(Node node, long start, long end, List<Long> result) {
+        // No interval in this subtree ends after the query starts
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        findOverlapping(node.left, start, end, result);
+        if (node.start < end && start < node.end) {
+            result.add(node.id);
+        }
+        // Intervals in the right subtree start no earlier than this one
+        if (node.start < end) {
+            findOverlapping(node.right, start, end, result);
+        }
+    }
+
+    /**
+     * Visits the nodes of a subtree in order of start.
+     */
+    private void forEachInOrder(Node node, Consumer<Node> visitor) {
+        if (node == null) {
+            return;
+        }
+        forEachInOrder(node.left, visitor);
+        visitor.accept(node);
+        forEachInOrder(node.right, visitor);
+    }
+
+    /**
+     * Compares a key with the key of a node, ordering by start and then by identifier.
+     */
+    private static int compare(long start, long id, Node node) {
+        if (start != node.start) {
+            return Long.compare(start, node.start);
+        }
+        return Long.compare(id, node.id);
+    }
+
+    /**
+     * Rotates a subtree to the right, returning its new root.
+     */
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    /**
+     * Rotates a subtree to the left, returning its new root.
+     */
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    /**
+     * Recomputes the largest end in the subtree of a node from its children.
+     */
+    private static void update(Node node) {
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+}
@@ -0,0 +1,316 @@
+package duke.task;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Represents an operation applied to the task list, together with its inverse.
+ * Each operation remembers exactly what it changed, so undoing or redoing it
+ * costs the same no matter how many tasks are in the list.
+ */
+abstract class Operation {
+    /**
+     * Reverts the effect of the operation on the task list.
+     */
+    abstract void undo();
+
+    /**
+     * Applies the operation to the task list again after it has been undone.
+     */
+    abstract void redo();
+
+    /**
+     * Describes the operation for display to the user.
+     *
+     * @return The description of the operation.
+     */
+    abstract String describe();
+
+    /**
+     * The insertion of a task at a position in the task list.
+     */
+    static class Add extends Operation {
+        private final int index;
+        private final Task task;
+
+        Add(int index, Task task) {
+            this.index = index;
+            this.task = task;
+        }
+
+        @Override
+        void undo() {
+            TaskList.removeTask(index);
+        }
+
+        @Override
+        void redo() {
+            TaskList.insertTask(index, task);
+        }
+
+        @Override
+        String describe() {
+            return "add " + task;
+        }
+    }
+
+    /**
+     * The addition of a run of tasks at the end of the task list, such as an import. While the tasks are
+     * in the list, only where the run starts and its length are kept, however long it is.
+     */
+    static class Append extends Operation {
+        private final int index;
+        private final int count;
+        private final String description;
+        /** The tasks of the run while it is undone, or null while they are in the list. */
+        private Task[] tasks = null;
+
+        Append(int index, int count, String description) {
+            this.index = index;
+            this.count = count;
+            this.description = description;
+        }
+
+        @Override
+        void undo() {
+            tasks = new Task[count];
+            // From the end, so that no removal shifts the tasks after it
+            for (int i = count - 1; i >= 0; i--) {
+                tasks[i] = TaskList.removeTask(index + i);
+            }
+        }
+
+        @Override
+        void redo() {
+            for (int i = 0; i < count; i++) {
+                TaskList.insertTask(index + i, tasks[i]);
+            }
+            tasks = null;
+        }
+
+        @Override
+        String describe() {
+            return description + " (" + count + " task(s))";
+        }
+    }
+
+    /**
+     * The removal of a task from a position in the task list.
+     */
+    static class Delete extends Operation {
+        private final int index;
+        private final Task task;
+
+        Delete(int index, Task task) {
+            this.index = index;
+            this.task = task;
+        }
+
+        @Override
+        void undo() {
+            TaskList.insertTask(index, task);
+        }
+
+        @Override
+        void redo() {
+            TaskList.removeTask(index);
+        }
+
+        @Override
+        String describe() {
+            return "delete " + task;
+        }
+    }
+
+    /**
+     * The replacement of a task at a position in the task list.
+     */
+    static class Replace extends Operation {
+        private final int index;
+        private final Task oldTask;
+        private final Task newTask;
+
+        Replace(int index, Task oldTask, Task newTask) {
+            this.index = index;
+            this.oldTask = oldTask;
+            this.newTask = newTask;
+        }
+
+        @Override
+        void undo() {
+            TaskList.replaceTask(index, oldTask);
+        }
+
+        @Override
+        void redo() {
+            TaskList.replaceTask(index, newTask);
+        }
+
+        @Override
+        String describe() {
+            return "replace " + oldTask;
+        }
+    }
+
+    /**
+     * The move of a task from one position in the task list to another.
+     */
+    static class Move extends Operation {
+        private final int fromIndex;
+        private final int toIndex;
+        private final Task task;
+
+        Move(int fromIndex, int toIndex, Task task) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.task = task;
+        }
+
+        @Override
+        void undo() {
+            TaskList.repositionTask(toIndex, fromIndex);
+        }
+
+        @Override
+        void redo() {
+            TaskList.repositionTask(fromIndex, toIndex);
+        }
+
+        @Override
+        String describe() {
+            return "move " + task;
+        }
+    }
+
+    /**
+     * The change of the completion status of a task.
+     */
+    static class Mark extends Operation {
+        private final Task task;
+        private final boolean isDone;
+        /** When the task was completed while it was done, so that marking it done again keeps that time. */
+        private final LocalDateTime completedDateTime;
+
+        Mark(Task task, boolean isDone, LocalDateTime completedDateTime) {
+            this.task = task;
+            this.isDone = isDone;
+            this.completedDateTime = completedDateTime;
+        }
+
+        @Override
+        void undo() {
+            TaskList.setTaskDone(task, !isDone, completedDateTime);
+        }
+
+        @Override
+        void redo() {
+            TaskList.setTaskDone(task, isDone, completedDateTime);
+        }
+
+        @Override
+        String describe() {
+            return (isDone ? "mark " : "unmark ") + task;
+        }
+    }
+
+    /**
+     * The rescheduling of a deadline or event.
+     */
+    static class Reschedule extends Operation {
+        private final Task task;
+        private final LocalDateTime oldStart;
+        private final LocalDateTime oldEnd;
+        private final LocalDateTime newStart;
+        private final LocalDateTime newEnd;
+
+        Reschedule(Task task, LocalDateTime oldStart, LocalDateTime oldEnd,
+                   LocalDateTime newStart, LocalDateTime newEnd) {
+            this.task = task;
+            this.oldStart = oldStart;
+            this.oldEnd = oldEnd;
+            this.newStart = newStart;
+            this.newEnd = newEnd;
+        }
+
+        @Override
+        void undo() {
+            TaskList.rescheduleTask(task, oldStart, oldEnd);
+        }
+
+        @Override
+        void redo() {
+            TaskList.rescheduleTask(task, newStart, newEnd);
+        }
+
+        @Override
+        String describe() {
+            return "postpone " + task;
+        }
+    }
+
+    /**
+     * The change of the priority or tags of a task.
+     */
+    static class Label extends Operation {
+        private final Task task;
+        private final int oldPriority;
+        private final List<String> oldTags;
+        private final int newPriority;
+        private final List<String> newTags;
+
+        Label(Task task, int oldPriority, List<String> oldTags, int newPriority, List<String> newTags) {
+            this.task = task;
+            this.oldPriority = oldPriority;
+            this.oldTags = oldTags;
+            this.newPriority = newPriority;
+            this.newTags = newTags;
+        }
+
+        @Override
+        void undo() {
+            TaskList.labelTask(task, oldPriority, oldTags);
+        }
+
+        @Override
+        void redo() {
+            TaskList.labelTask(task, newPriority, newTags);
+        }
+
+        @Override
+        String describe() {
+            return "label " + task;
+        }
+    }
+
+    /**
+     * A sequence of operations undone and redone together.
+     */
+    static class Group extends Operation {
+        private final List<Operation> operations;
+        private final String description;
+
+        Group(List<Operation> operations, String description) {
+            this.operations = operations;
+            this.description = description;
+        }
+
+        @Override
+        void undo() {
+            for (int i = operations.size() - 1; i >= 0; i--) {
+                operations.get(i).undo();
+            }
+        }
+
+        @Override
+        void redo() {
+            for (Operation operation : operations) {
+                operation.redo();
+            }
+        }
+
+        @Override
+        String describe() {
+            return description + " (" + operations.size() + " change(s))";
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package duke.task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A sequence of values kept in a treap whose nodes know the size of their subtree and their parent,
+ * so that the value at any rank, the rank of any node, and inserting or removing a node all take
+ * O(log n) expected time. Values are placed either at a rank or by a comparator, and callers hold on to
+ * the node of each value to find or remove it later without searching. The tree is not thread-safe.
+ *
+ * @param <T> The type of the values.
+ */
+class OrderStatisticTree<T> {
+    /**
+     * A node of the tree, holding one value.
+     *
+     * @param <T> The type of the value.
+     */
+    static class Node<T> {
+        private T value;
+        private final int priority;
+        private int size = 1;
+        private Node<T> left;
+        private Node<T> right;
+        private Node<T> parent;
+
+        private Node(T value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+
+        /**
+         * Retrieves the value held.
+         *
+         * @return The value.
+         */
+        T getValue() {
+            return value;
+        }
+    }
+
+    /** The source of node priorities, which keep the treap balanced in expectation. */
+    private final Random random = new Random();
+    /** The root of the tree, or null if it is empty. */
+    private Node<T> root = null;
+
+    /**
+     * Retrieves the number of values in the tree.
+     *
+     * @return The number of values.
+     */
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Replaces the contents of the tree with values in order, building it balanced in linear time.
+     * Nodes built this way outrank every node inserted later, so later nodes settle below them.
+     *
+     * @param values The values, in order.
+     * @return The nodes of the values, in the same order.
+     */
+    List<Node<T>> build(List<? extends T> values) {
+        List<Node<T>> nodes = new ArrayList<>(values.size());
+        for (T value : values) {
+            nodes.add(null);
+        }
+        root = build(values, nodes, 0, values.size() - 1, 0);
+        if (root != null) {
+            root.parent = null;
+        }
+        return nodes;
+    }
+
+    /**
+     * Inserts a value at a rank, shifting the values from that rank on by one.
+     *
+     * @param rank  The rank of the value once inserted, from 0 to the size of the tree.
+     * @param value The value.
+     * @return The node of the value.
+     */
+    Node<T> insertAt(int rank, T value) {
+        assert rank >= 0 && rank <= size() : "Rank out of bounds";
+
+        Node<T> node = new Node<>(value, random.nextInt(Integer.MAX_VALUE - 1024));
+        if (root == null) {
+            root = node;
+            return node;
+        }
+        Node<T> parent = root;
+        while (true) {
+            parent.size++;
+            int leftSize = size(parent.left);
+            if (rank <= leftSize) {
+                if (parent.left == null) {
+                    attach(parent, node, true);
+                    break;
+                }
+                parent = parent.left;
+            } else {
+                rank -= leftSize + 1;
+                if (parent.right == null) {
+                    attach(parent, node, false);
+                    break;
+                }
+                parent = parent.right;
+            }
+        }
+        siftUp(node);
+        return node;
+    }
+
+    /**
+     * Inserts a value after every value the comparator puts before it.
+     *
+     * @param value      The value.
+     * @param comparator The order of the values in the tree.
+     * @return The node of the value.
+     */
+    Node<T> insert(T value, Comparator<? super T> comparator) {
+        Node<T> node = new Node<>(value, random.nextInt(Integer.MAX_VALUE - 1024));
+        if (root == null) {
+            root = node;
+            return node;
+        }
+        Node<T> parent = root;
+        while (true) {
+            parent.size++;
+            if (comparator.compare(value, parent.value) < 0) {
+                if (parent.left == null) {
+                    attach(parent, node, true);
+                    break;
+                }
+                parent = parent.left;
+            } else {
+                if (parent.right == null) {
+                    attach(parent, node, false);
+                    break;
+                }
+                parent = parent.right;
+            }
+        }
+        siftUp(node);
+        return node;
+    }
+
+    /**
+     * Removes a node, rotating it down until it is a leaf and then cutting it off.
+     *
+     * @param node The node, in the tree.
+     */
+    void remove(Node<T> node) {
+        while (node.left != null || node.right != null) {
+            Node<T> child = node.right == null
+                    || (node.left != null && node.left.priority > node.right.priority) ? node.left : node.right;
+            rotateUp(child);
+        }
+        Node<T> parent = node.parent;
+        if (parent == null) {
+            root = null;
+            return;
+        }
+        if (parent.left == node) {
+            parent.left = null;
+        } else {
+            parent.right = null;
+        }
+        node.parent = null;
+        for (; parent != null; parent = parent.parent) {
+            parent.size--;
+        }
+    }
+
+    /**
+     * Puts another value in the place of a node's, which must sort the same way.
+     *
+     * @param node  The node.
+     * @param value The value.
+     */
+    void replace(Node<T> node, T value) {
+        node.value = value;
+    }
+
+    /**
+     * Finds the rank of a node.
+     *
+     * @param node The node, in the tree.
+     * @return The number of values before it.
+     */
+    int rankOf(Node<T> node) {
+        int rank = size(node.left);
+        for (; node.parent != null; node = node.parent) {
+            if (node.parent.right == node) {
+                rank += size(node.parent.left) + 1;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Finds the node at a rank.
+     *
+     * @param rank The rank, from 0 to one less than the size of the tree.
+     * @return The node.
+     */
+    Node<T> select(int rank) {
+        assert rank >= 0 && rank < size() : "Rank out of bounds";
+
+        Node<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                node = node.left;
+            } else if (rank == leftSize) {
+                return node;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Finds the node after a node, in constant amortized time when walking the tree.
+     *
+     * @param node The node.
+     * @return The next node, or null if the node is the last.
+     */
+    Node<T> next(Node<T> node) {
+        if (node.right != null) {
+            node = node.right;
+            while (node.left != null) {
+                node = node.left;
+            }
+            return node;
+        }
+        while (node.parent != null && node.parent.right == node) {
+            node = node.parent;
+        }
+        return node.parent;
+    }
+
+    /**
+     * Finds the node before a node, in constant amortized time when walking the tree.
+     *
+     * @param node The node.
+     * @return The previous node, or null if the node is the first.
+     */
+    Node<T> previous(Node<T> node) {
+        if (node.left != null) {
+            node = node.left;
+            while (node.right != null) {
+                node = node.right;
+            }
+            return node;
+        }
+        while (node.parent != null && node.parent.left == node) {
+            node = node.parent;
+        }
+        return node.parent;
+    }
+
+    /**
+     * Builds a balanced subtree from a run of values, giving its nodes priorities by depth.
+     *
+     * @return The subtree root, or null if the run is empty.
+     */
+    private Node<T> build(List<? extends T> values, List<Node<T>> nodes, int from, int to, int depth) {
+        if (from > to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        // Random priorities stay below the range left for built nodes
+        Node<T> node = new Node<>(values.get(middle), Integer.MAX_VALUE - depth);
+        nodes.set(middle, node);
+        node.left = build(values, nodes, from, middle - 1, depth + 1);
+        node.right = build(values, nodes, middle + 1, to, depth + 1);
+        if (node.left != null) {
+            node.left.parent = node;
+        }
+        if (node.right != null) {
+            node.right.parent = node;
+        }
+        node.size = to - from + 1;
+        return node;
+    }
+
+    /**
+     * Hangs a new leaf under a parent.
+     */
+    private void attach(Node<T> parent, Node<T> node, boolean isLeft) {
+        if (isLeft) {
+            parent.left = node;
+        } else {
+            parent.right = node;
+        }
+        node.parent = parent;
+    }
+
+    /**
+     * Rotates a new node up while it outranks its parent.
+     */
+    private void siftUp(Node<T> node) {
+        while (node.parent != null && node.priority > node.parent.priority) {
+            rotateUp(node);
+        }
+    }
+
+    /**
+     * Rotates a node above its parent, keeping the order of the values and the sizes of the subtrees.
+     */
+    private void rotateUp(Node<T> node) {
+        Node<T> parent = node.parent;
+        Node<T> grandparent = parent.parent;
+        if (parent.left == node) {
+            parent.left = node.right;
+            if (node.right != null) {
+                node.right.parent = parent;
+            }
+            node.right = parent;
+        } else {
+            parent.right = node.left;
+            if (node.left != null) {
+                node.left.parent = parent;
+            }
+            node.left = parent;
+        }
+        parent.parent = node;
+        node.parent = grandparent;
+        if (grandparent == null) {
+            root = node;
+        } else if (grandparent.left == parent) {
+            grandparent.left = node;
+        } else {
+            grandparent.right = node;
+        }
+        node.size = parent.size;
+        parent.size = size(parent.left) + size(parent.right) + 1;
+    }
+
+    /**
+     * Retrieves the size of a subtree, 0 if it is empty.
+     */
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -0,0 +1,378 @@
+package duke.task;
+
+import duke.ui.Ui;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Finds deadlines that fall overdue and flags them, without ever scanning the task list.
+ * Pending deadlines wait in a min-heap on their due time, kept up to date as tasks change, so each
+ * deadline falling overdue is taken off the top in logarithmic time. Deadlines that change are not
+ * looked for in the heap but marked as cancelled and skipped when they reach the top, and the heap is
+ * cleared of them once they outnumber the rest. A background thread sleeps until the next deadline
+ * falls due and announces it, and the main thread flags the deadlines before the next command.
+ * If the {@code duke.overdue.postpone} system property holds a step such as "1d", "12h" or "30m",
+ * deadlines falling overdue are postponed by as many steps as it takes to put them in the future.
+ * Deadlines already overdue when loaded or added are flagged without being announced or postponed.
+ */
+public class OverdueSweeper {
+    /** The number of cancelled entries below which the heap is never cleared of them. */
+    private static final int MIN_PURGE_COUNT = 1024;
+    /** The step by which deadlines falling overdue are postponed, or null if they are not. */
+    private static final Duration POSTPONE_STEP = parseStep(System.getProperty("duke.overdue.postpone"));
+
+    /** The lock guarding the heap, the entries and the swept entries. */
+    private static final Object lock = new Object();
+    /** The entries of pending deadlines not yet due, earliest first, including cancelled entries. */
+    private static PriorityQueue<Entry> heap = new PriorityQueue<>(Entry.ORDER);
+    /** The live entries, by task identifier, until the main thread takes them. */
+    private static final HashMap<Long, Entry> entries = new HashMap<>();
+    /** The number of cancelled entries still in the heap. */
+    private static int cancelledCount = 0;
+    /** The entries taken off the heap since the main thread last took them, in due order. */
+    private static List<Entry> sweptEntries = new ArrayList<>();
+    /** The background thread announcing overdue deadlines, or null if it has not been started. */
+    private static Thread thread = null;
+
+    /** The overdue deadlines, in due order. Only read and changed by the main thread. */
+    private static final TreeSet<Entry> overdueEntries = new TreeSet<>(Entry.ORDER);
+    /** The entries of the overdue deadlines, by task identifier. */
+    private static final HashMap<Long, Entry> overdueById = new HashMap<>();
+
+    /**
+     * Tracks a task, replacing what was tracked of it. Pending deadlines not yet due wait to fall
+     * overdue, pending deadlines already due are flagged at once, and other tasks are not tracked.
+     *
+     * @param task The task.
+     */
+    static void track(Task task) {
+        untrack(task);
+        if (!(task instanceof Deadline) || task.isDone()) {
+            return;
+        }
+        Entry entry = new Entry((Deadline) task);
+        if (entry.dueMillis <= System.currentTimeMillis()) {
+            flag(entry);
+            return;
+        }
+        synchronized (lock) {
+            entries.put(entry.taskId, entry);
+            heap.add(entry);
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Stops tracking a task, clearing its flag if it is overdue.
+     *
+     * @param task The task.
+     */
+    static void untrack(Task task) {
+        Entry overdueEntry = overdueById.remove(task.getId());
+        if (overdueEntry != null) {
+            overdueEntries.remove(overdueEntry);
+        }
+        synchronized (lock) {
+            Entry entry = entries.remove(task.getId());
+            if (entry == null) {
+                return;
+            }
+            entry.isCancelled = true;
+            if (!entry.isSwept && ++cancelledCount >= MIN_PURGE_COUNT && cancelledCount > heap.size() / 2) {
+                purgeLocked();
+            }
+        }
+    }
+
+    /**
+     * Replaces everything tracked with the given tasks, building the heap in linear time.
+     *
+     * @param tasks The tasks.
+     */
+    static void trackAll(List<Task> tasks) {
+        overdueEntries.clear();
+        overdueById.clear();
+        long nowMillis = System.currentTimeMillis();
+        List<Entry> pendingEntries = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task instanceof Deadline && !task.isDone()) {
+                Entry entry = new Entry((Deadline) task);
+                if (entry.dueMillis <= nowMillis) {
+                    flag(entry);
+                } else {
+                    pendingEntries.add(entry);
+                }
+            }
+        }
+        synchronized (lock) {
+            entries.clear();
+            for (Entry entry : pendingEntries) {
+                entries.put(entry.taskId, entry);
+            }
+            // Built from a collection, the heap is ordered in a single pass rather than entry by entry
+            heap = new PriorityQueue<>(pendingEntries.size() + 1, Entry.ORDER);
+            heap.addAll(pendingEntries);
+            cancelledCount = 0;
+            sweptEntries = new ArrayList<>();
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Flags the deadlines that have fallen overdue since the last sweep, postponing them if a
+     * postponement step is configured, and publishes the postponements.
+     * Only deadlines becoming due while tracked are taken, so this costs nothing while none do.
+     *
+     * @return What was done, or null if no deadline fell overdue.
+     */
+    public static String sweep() {
+        List<Entry> swept;
+        synchronized (lock) {
+            sweepLocked(System.currentTimeMillis());
+            if (sweptEntries.isEmpty()) {
+                return null;
+            }
+            swept = sweptEntries;
+            sweptEntries = new ArrayList<>();
+            for (Entry entry : swept) {
+                if (!entry.isCancelled) {
+                    entries.remove(entry.taskId);
+                }
+            }
+        }
+
+        List<Deadline> overdueTasks = new ArrayList<>();
+        for (Entry entry : swept) {
+            if (!entry.isCancelled) {
+                overdueTasks.add(entry.task);
+            }
+        }
+        if (overdueTasks.isEmpty()) {
+            return null;
+        } else if (POSTPONE_STEP == null) {
+            for (Deadline task : overdueTasks) {
+                flag(new Entry(task));
+            }
+            return null;
+        }
+        return postpone(overdueTasks);
+    }
+
+    /**
+     * Retrieves the overdue deadlines.
+     *
+     * @return The overdue deadlines, earliest first.
+     */
+    public static List<Deadline> getOverdueTasks() {
+        List<Deadline> tasks = new ArrayList<>(overdueEntries.size());
+        for (Entry entry : overdueEntries) {
+            tasks.add(entry.task);
+        }
+        return tasks;
+    }
+
+    /**
+     * Retrieves the number of pending deadlines waiting to fall overdue.
+     *
+     * @return The number of deadlines.
+     */
+    public static int getPendingCount() {
+        synchronized (lock) {
+            return heap.size() - cancelledCount;
+        }
+    }
+
+    /**
+     * Starts the background thread that announces overdue deadlines, if it is not running yet.
+     */
+    public static void start() {
+        synchronized (lock) {
+            if (thread != null) {
+                return;
+            }
+            thread = new Thread(OverdueSweeper::announceOverdueTasks, "duke-overdue-sweeper");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Waits for deadlines to fall due and announces them, sleeping until the next one is due.
+     * The deadlines are left for the main thread to flag, since only it may change the task list.
+     */
+    private static void announceOverdueTasks() {
+        while (true) {
+            int sweptCount;
+            synchronized (lock) {
+                try {
+                    long nowMillis = System.currentTimeMillis();
+                    Entry next = peekLocked();
+                    if (next == null || next.dueMillis > nowMillis) {
+                        // Waits without a timeout while nothing is pending; tracking wakes the thread up
+                        lock.wait(next == null ? 0 : next.dueMillis - nowMillis);
+                        continue;
+                    }
+                    sweptCount = sweptEntries.size();
+                    sweepLocked(nowMillis);
+                    sweptCount = sweptEntries.size() - sweptCount;
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            Ui.displayMessage("    Alas, mortal! The hour has passed for " + sweptCount + " more deadline(s).\n"
+                    + (POSTPONE_STEP == null ? "    Behold your failures with: overdue"
+                    : "    They shall be pushed back before your next command."));
+        }
+    }
+
+    /**
+     * Takes the entries due by the given time off the heap, while holding the lock.
+     *
+     * @param nowMillis The current time, in milliseconds since the epoch.
+     */
+    private static void sweepLocked(long nowMillis) {
+        Entry next;
+        while ((next = peekLocked()) != null && next.dueMillis <= nowMillis) {
+            heap.poll();
+            next.isSwept = true;
+            sweptEntries.add(next);
+        }
+    }
+
+    /**
+     * Retrieves the earliest entry that is not cancelled, dropping the cancelled entries above it.
+     *
+     * @return The earliest entry, or null if the heap holds none.
+     */
+    private static Entry peekLocked() {
+        while (!heap.isEmpty() && heap.peek().isCancelled) {
+            heap.poll();
+            cancelledCount--;
+        }
+        return heap.peek();
+    }
+
+    /**
+     * Clears the heap of cancelled entries, while holding the lock.
+     */
+    private static void purgeLocked() {
+        List<Entry> liveEntries = new ArrayList<>(heap.size() - cancelledCount);
+        for (Entry entry : heap) {
+            if (!entry.isCancelled) {
+                liveEntries.add(entry);
+            }
+        }
+        heap = new PriorityQueue<>(liveEntries.size() + 1, Entry.ORDER);
+        heap.addAll(liveEntries);
+        cancelledCount = 0;
+    }
+
+    /**
+     * Flags an overdue deadline.
+     *
+     * @param entry The entry of the deadline.
+     */
+    private static void flag(Entry entry) {
+        overdueEntries.add(entry);
+        overdueById.put(entry.taskId, entry);
+    }
+
+    /**
+     * Postpones overdue deadlines by whole steps until they lie in the future, as one undoable change.
+     *
+     * @param tasks The overdue deadlines.
+     * @return What was done.
+     */
+    private static String postpone(List<Deadline> tasks) {
+        LocalDateTime now = LocalDateTime.now();
+        StringBuilder report = new StringBuilder("    The hour has passed, so I pushed back ").append(tasks.size())
+                .append(" deadline(s) by steps of ").append(describeStep(POSTPONE_STEP)).append(":");
+        UndoLog.beginGroup();
+        for (Deadline task : tasks) {
+            LocalDateTime by = task.getBy();
+            long steps = Duration.between(by, now).toMillis() / POSTPONE_STEP.toMillis() + 1;
+            LocalDateTime newBy = by.plus(POSTPONE_STEP.multipliedBy(steps));
+            TaskList.postponeDeadline(task, newBy);
+            TaskEventBus.publish(new TaskEvent.Postponed(task, newBy));
+            report.append("\n        ").append(task);
+        }
+        UndoLog.endGroup("postpone " + tasks.size() + " overdue deadline(s)");
+        return report.toString();
+    }
+
+    /**
+     * Parses a postponement step, such as "1d", "12h" or "30m".
+     *
+     * @param text The step, or null if none is configured.
+     * @return The step, or null if none is configured or it cannot be understood.
+     */
+    static Duration parseStep(String text) {
+        if (text == null || text.length() < 2) {
+            return null;
+        }
+        long amount;
+        try {
+            amount = Long.parseLong(text.substring(0, text.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (amount <= 0) {
+            return null;
+        }
+        switch (text.charAt(text.length() - 1)) {
+            case 'd':
+                return Duration.ofDays(amount);
+            case 'h':
+                return Duration.ofHours(amount);
+            case 'm':
+                return Duration.ofMinutes(amount);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Describes a postponement step, such as "12 hour(s)".
+     */
+    private static String describeStep(Duration step) {
+        if (step.toMinutes() % (24 * 60) == 0) {
+            return step.toDays() + " day(s)";
+        } else if (step.toMinutes() % 60 == 0) {
+            return step.toHours() + " hour(s)";
+        }
+        return step.toMinutes() + " minute(s)";
+    }
+
+    /**
+     * A pending deadline, holding a copy of its due time so that the background thread never reads
+     * a task being changed.
+     */
+    private static class Entry {
+        /** Orders entries by due time, then by task identifier. */
+        static final Comparator<Entry> ORDER = Comparator.<Entry>comparingLong(entry -> entry.dueMillis)
+                .thenComparingLong(entry -> entry.taskId);
+
+        private final long taskId;
+        /** The deadline, only read by the main thread. */
+        private final Deadline task;
+        private final long dueMillis;
+        /** Whether the deadline changed after the entry was made, so that the entry is to be skipped. */
+        private boolean isCancelled = false;
+        /** Whether the entry has been taken off the heap. */
+        private boolean isSwept = false;
+
+        Entry(Deadline task) {
+            this.taskId = task.getId();
+            this.task = task;
+            this.dueMillis = task.getBy().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package duke.task;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Scans task lists in chunks on all cores, for the read paths that have no index to narrow them down.
+ * The list is cut into fixed chunks of consecutive tasks, each chunk is filtered and rendered into
+ * its own buffer by a parallel stream, and the buffers are joined in list order, so the output is
+ * the same as that of a sequential loop. Lists below a threshold are scanned on the calling thread,
+ * where handing chunks to other threads would cost more than it saves. The list must not change
+ * during a scan, and the predicates and renderers must only read the tasks.
+ */
+public class ParallelScan {
+    /** The number of tasks below which lists are scanned on the calling thread. */
+    private static final int PARALLEL_THRESHOLD = Integer.getInteger("duke.scan.threshold", 1 << 15);
+    /** The number of consecutive tasks in a chunk, small enough for every core to get many chunks. */
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * Renders one task of a scan.
+     */
+    public interface Renderer {
+        /**
+         * Appends the rendering of a task to a buffer.
+         *
+         * @param output The buffer of the chunk holding the task.
+         * @param number The number of the task in the list.
+         * @param task   The task.
+         */
+        void render(StringBuilder output, int number, Task task);
+    }
+
+    /**
+     * The output of a chunk: its rendered tasks and how many there are.
+     */
+    private static class Chunk {
+        private final StringBuilder output = new StringBuilder();
+        private int matchCount = 0;
+    }
+
+    /**
+     * Renders the tasks satisfying a predicate, in list order.
+     *
+     * @param tasks    The tasks.
+     * @param filter   The predicate, or null to render every task.
+     * @param renderer The renderer of each task satisfying the predicate.
+     * @param output   The buffer to which the renderings are appended.
+     * @return The number of tasks rendered.
+     */
+    public static int render(List<Task> tasks, Predicate<Task> filter, Renderer renderer, StringBuilder output) {
+        Chunk[] chunks = chunks(tasks.size())
+                .mapToObj(chunk -> renderChunk(tasks, chunk, filter, renderer))
+                .toArray(Chunk[]::new);
+        int length = output.length();
+        int matchCount = 0;
+        for (Chunk chunk : chunks) {
+            length += chunk.output.length();
+            matchCount += chunk.matchCount;
+        }
+        output.ensureCapacity(length);
+        for (Chunk chunk : chunks) {
+            output.append(chunk.output);
+        }
+        return matchCount;
+    }
+
+    /**
+     * Finds the tasks satisfying a predicate.
+     *
+     * @param tasks  The tasks.
+     * @param filter The predicate.
+     * @return The positions of the tasks satisfying the predicate, in increasing order.
+     */
+    public static int[] find(List<Task> tasks, Predicate<Task> filter) {
+        return chunks(tasks.size())
+                .flatMap(chunk -> {
+                    int end = Math.min(tasks.size(), (chunk + 1) * CHUNK_SIZE);
+                    return IntStream.range(chunk * CHUNK_SIZE, end).filter(i -> filter.test(tasks.get(i)));
+                })
+                .toArray();
+    }
+
+    /**
+     * Streams the indexes of the chunks of a list, in parallel if the list is large enough.
+     */
+    private static IntStream chunks(int taskCount) {
+        IntStream chunks = IntStream.range(0, (taskCount + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        return taskCount >= PARALLEL_THRESHOLD ? chunks.parallel() : chunks;
+    }
+
+    /**
+     * Filters and renders the tasks of one chunk.
+     */
+    private static Chunk renderChunk(List<Task> tasks, int chunkIndex, Predicate<Task> filter, Renderer renderer) {
+        Chunk chunk = new Chunk();
+        int end = Math.min(tasks.size(), (chunkIndex + 1) * CHUNK_SIZE);
+        for (int i = chunkIndex * CHUNK_SIZE; i < end; i++) {
+            Task task = tasks.get(i);
+            if (filter == null || filter.test(task)) {
+                renderer.render(chunk.output, i + 1, task);
+                chunk.matchCount++;
+            }
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,634 @@
+package duke.task;
+
+import duke.command.DateTimeParser;
+import duke.exception.DukeException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A filter over tasks written in a small expression language, such as
+ * {@code type = deadline and not done and by < friday and desc ~ deploy}.
+ * A condition compares a field with a value:
+ * type (=, !=) with todo, deadline, event or recur; done (=, !=) with true or false, or done alone;
+ * desc (~ to contain, = to equal, ignoring case) with text; by, from or to (=, !=, <, <=, >, >=)
+ * with a date and time in any form the other commands accept; tag (=, !=) with a tag; and priority
+ * (=, !=, <, <=, >, >=) with p1 to p3 or none, ordered by number, so that priority <= p2 holds for
+ * p1 and p2 but never for tasks without a priority. Values holding spaces are quoted.
+ * Conditions are joined with "and", "or", "not" and parentheses, and "and" may be left out.
+ * A task lacking a field, such as a to-do compared on its due date, fails every comparison on it.
+ */
+public class Query {
+    /**
+     * A field of a task that conditions compare.
+     */
+    enum Field {
+        TYPE("type"), DONE("done"), DESCRIPTION("desc"), BY("by"), FROM("from"), TO("to"), TAG("tag"),
+        PRIORITY("priority");
+
+        private final String name;
+
+        Field(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Retrieves the date and time a task holds in this field.
+         *
+         * @param task The task.
+         * @return The date and time, or null if the field is not a date or the task lacks it.
+         */
+        LocalDateTime getDateTime(Task task) {
+            if (this == BY && task instanceof Deadline) {
+                return ((Deadline) task).getBy();
+            } else if (this == FROM && task instanceof Event) {
+                return ((Event) task).getFromDateTime();
+            } else if (this == TO && task instanceof Event) {
+                return ((Event) task).getToDateTime();
+            }
+            return null;
+        }
+
+        /**
+         * Checks whether the field holds a date and time.
+         *
+         * @return True for by, from and to, false otherwise.
+         */
+        boolean isDateTime() {
+            return this == BY || this == FROM || this == TO;
+        }
+    }
+
+    /**
+     * A comparison between a field and a value.
+     */
+    enum Operator {
+        EQUAL("="), NOT_EQUAL("!="), LESS("<"), LESS_OR_EQUAL("<="), GREATER(">"), GREATER_OR_EQUAL(">="),
+        CONTAINS("~");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        /**
+         * Checks whether a comparison result satisfies the operator.
+         *
+         * @param comparison The result of comparing the field with the value, as by compareTo.
+         * @return True if the operator holds, false otherwise.
+         */
+        boolean holds(int comparison) {
+            switch (this) {
+                case EQUAL:
+                    return comparison == 0;
+                case NOT_EQUAL:
+                    return comparison != 0;
+                case LESS:
+                    return comparison < 0;
+                case LESS_OR_EQUAL:
+                    return comparison <= 0;
+                case GREATER:
+                    return comparison > 0;
+                case GREATER_OR_EQUAL:
+                    return comparison >= 0;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * A part of a query that a task either satisfies or not. Conditions are immutable, so one can be
+     * tested on many tasks at once.
+     */
+    abstract static class Condition {
+        /**
+         * Checks whether a task satisfies the condition.
+         *
+         * @param task The task.
+         * @return True if the task satisfies the condition, false otherwise.
+         */
+        abstract boolean test(Task task);
+    }
+
+    /**
+     * A condition comparing a field of a task with a value.
+     */
+    static class Comparison extends Condition {
+        private final Field field;
+        private final Operator operator;
+        /** The value as typed, in lower case for descriptions. */
+        private final String text;
+        /** The value of a date and time field, or null. */
+        private final LocalDateTime dateTime;
+        /** The type of task of a type field, or null. */
+        private final Class<? extends Task> type;
+        /** The value of a done field. */
+        private final boolean isDone;
+        /** The value of a priority field, 0 standing for none. */
+        private final int priority;
+
+        private Comparison(Field field, Operator operator, String text, LocalDateTime dateTime,
+                           Class<? extends Task> type, boolean isDone) {
+            this(field, operator, text, dateTime, type, isDone, 0);
+        }
+
+        private Comparison(Field field, Operator operator, String text, LocalDateTime dateTime,
+                           Class<? extends Task> type, boolean isDone, int priority) {
+            this.field = field;
+            this.operator = operator;
+            this.text = text;
+            this.dateTime = dateTime;
+            this.type = type;
+            this.isDone = isDone;
+            this.priority = priority;
+        }
+
+        /**
+         * Retrieves the field compared.
+         *
+         * @return The field.
+         */
+        Field getField() {
+            return field;
+        }
+
+        /**
+         * Retrieves the operator of the comparison.
+         *
+         * @return The operator.
+         */
+        Operator getOperator() {
+            return operator;
+        }
+
+        /**
+         * Retrieves the text of a description comparison, in lower case, or the tag of a tag comparison.
+         *
+         * @return The text.
+         */
+        String getText() {
+            return text;
+        }
+
+        /**
+         * Retrieves the value of a date and time comparison.
+         *
+         * @return The date and time, or null for other fields.
+         */
+        LocalDateTime getDateTime() {
+            return dateTime;
+        }
+
+        /**
+         * Retrieves the type of task of a type comparison.
+         *
+         * @return The type, or null for other fields.
+         */
+        Class<? extends Task> getType() {
+            return type;
+        }
+
+        /**
+         * Retrieves the completion status a done comparison is satisfied by, with its operator applied.
+         *
+         * @return True if done tasks satisfy the comparison, false if pending ones do.
+         */
+        boolean getWantedDone() {
+            return isDone == (operator == Operator.EQUAL);
+        }
+
+        /**
+         * Checks whether a task of the given priority satisfies a priority comparison.
+         *
+         * @param taskPriority The priority of the task, 0 standing for none.
+         * @return True if the task satisfies the comparison, false otherwise.
+         */
+        boolean holdsForPriority(int taskPriority) {
+            boolean isEquality = operator == Operator.EQUAL || operator == Operator.NOT_EQUAL;
+            if (!isEquality && (taskPriority == 0 || priority == 0)) {
+                return false;
+            }
+            return operator.holds(Integer.compare(taskPriority, priority));
+        }
+
+        /**
+         * Creates the comparison satisfied by exactly the tasks that do not satisfy this one, if any.
+         * Only types, completion statuses, tags and priorities are held by every task, counting no
+         * priority as one, so only their equalities have one.
+         *
+         * @return The negated comparison, or null if there is none.
+         */
+        Comparison negate() {
+            boolean isEquality = operator == Operator.EQUAL || operator == Operator.NOT_EQUAL;
+            if (field != Field.TYPE && field != Field.DONE && field != Field.TAG
+                    && !(field == Field.PRIORITY && isEquality)) {
+                return null;
+            }
+            Operator negated = operator == Operator.EQUAL ? Operator.NOT_EQUAL : Operator.EQUAL;
+            return new Comparison(field, negated, text, dateTime, type, isDone, priority);
+        }
+
+        @Override
+        boolean test(Task task) {
+            switch (field) {
+                case TYPE:
+                    return (task.getClass() == type) == (operator == Operator.EQUAL);
+                case DONE:
+                    return task.isDone() == getWantedDone();
+                case DESCRIPTION:
+                    String description = task.getDescription().toLowerCase();
+                    return operator == Operator.CONTAINS ? description.contains(text) : description.equals(text);
+                case TAG:
+                    return task.getTags().contains(text) == (operator == Operator.EQUAL);
+                case PRIORITY:
+                    return holdsForPriority(task.getPriority());
+                default:
+                    LocalDateTime value = field.getDateTime(task);
+                    return value != null && operator.holds(value.compareTo(dateTime));
+            }
+        }
+
+        @Override
+        public String toString() {
+            if (field == Field.DONE) {
+                return getWantedDone() ? "done" : "not done";
+            }
+            String value = dateTime != null ? dateTime.toString() : text;
+            return field.name + " " + operator.symbol + " " + (value.indexOf(' ') >= 0 ? "'" + value + "'" : value);
+        }
+    }
+
+    /**
+     * A condition satisfied by the tasks that do not satisfy another.
+     */
+    static class Not extends Condition {
+        private final Condition operand;
+
+        private Not(Condition operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        boolean test(Task task) {
+            return !operand.test(task);
+        }
+
+        @Override
+        public String toString() {
+            return "not " + operand;
+        }
+    }
+
+    /**
+     * A condition satisfied by the tasks satisfying all or any of several others.
+     */
+    static class Junction extends Condition {
+        private final List<Condition> operands;
+        private final boolean isAnd;
+
+        private Junction(List<Condition> operands, boolean isAnd) {
+            this.operands = operands;
+            this.isAnd = isAnd;
+        }
+
+        @Override
+        boolean test(Task task) {
+            for (Condition operand : operands) {
+                if (operand.test(task) != isAnd) {
+                    return !isAnd;
+                }
+            }
+            return isAnd;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder("(");
+            for (int i = 0; i < operands.size(); i++) {
+                text.append(i == 0 ? "" : isAnd ? " and " : " or ").append(operands.get(i));
+            }
+            return text.append(")").toString();
+        }
+    }
+
+    /** The whole condition. */
+    private final Condition condition;
+
+    private Query(Condition condition) {
+        this.condition = condition;
+    }
+
+    /**
+     * Parses a query, resolving relative dates against the current time.
+     *
+     * @param text The query.
+     * @return The parsed query.
+     * @throws DukeException If the query is not well formed.
+     */
+    public static Query parse(String text) throws DukeException {
+        return parse(text, LocalDateTime.now());
+    }
+
+    /**
+     * Parses a query, resolving relative dates against the given time.
+     *
+     * @param text The query.
+     * @param now  The current date and time.
+     * @return The parsed query.
+     * @throws DukeException If the query is not well formed.
+     */
+    public static Query parse(String text, LocalDateTime now) throws DukeException {
+        QueryParser parser = new QueryParser(tokenize(text), now);
+        Condition condition = parser.parseOr();
+        if (parser.peek() != null) {
+            throw DukeException.invalidQuery(parser.peek());
+        }
+        return new Query(condition);
+    }
+
+    /**
+     * Parses the filters of the "list" command, such as {@code #ops p1 pending}, into the query
+     * satisfied by the tasks bearing every tag, of the priority and of the completion status given.
+     *
+     * @param text The filters, separated by spaces.
+     * @return The query joining the filters with "and".
+     * @throws DukeException If a filter is not a tag, a priority, "done" or "pending".
+     */
+    public static Query parseFilters(String text) throws DukeException {
+        List<Condition> conditions = new ArrayList<>();
+        for (String filter : text.trim().split("\\s+")) {
+            String lowerFilter = filter.toLowerCase(Locale.ROOT);
+            if (lowerFilter.startsWith("#")) {
+                conditions.add(new Comparison(Field.TAG, Operator.EQUAL, Task.parseTag(filter), null, null, false));
+            } else if (lowerFilter.equals("done") || lowerFilter.equals("pending")) {
+                boolean isDone = lowerFilter.equals("done");
+                conditions.add(new Comparison(Field.DONE, Operator.EQUAL, Boolean.toString(isDone), null, null,
+                        isDone));
+            } else if (lowerFilter.length() == 2 && lowerFilter.charAt(0) == 'p') {
+                int priority = parsePriority(filter);
+                conditions.add(new Comparison(Field.PRIORITY, Operator.EQUAL, lowerFilter, null, null, false,
+                        priority));
+            } else {
+                throw DukeException.invalidListFilter(filter);
+            }
+        }
+        return new Query(conditions.size() == 1 ? conditions.get(0) : new Junction(conditions, true));
+    }
+
+    /**
+     * Parses a priority filter or query value, reporting a value that is no priority as such.
+     */
+    private static int parsePriority(String value) throws DukeException {
+        try {
+            return Task.parsePriority(value);
+        } catch (DukeException e) {
+            throw DukeException.invalidQuery(value);
+        }
+    }
+
+    /**
+     * Checks whether a task satisfies the query.
+     *
+     * @param task The task.
+     * @return True if the task satisfies the query, false otherwise.
+     */
+    public boolean test(Task task) {
+        return condition.test(task);
+    }
+
+    /**
+     * Retrieves the conditions every matching task satisfies, which an index can narrow the tasks down by.
+     *
+     * @return The conditions joined by "and" at the top of the query, or the whole condition.
+     */
+    List<Condition> getConjuncts() {
+        if (condition instanceof Junction && ((Junction) condition).isAnd) {
+            return ((Junction) condition).operands;
+        }
+        return Collections.singletonList(condition);
+    }
+
+    @Override
+    public String toString() {
+        return condition.toString();
+    }
+
+    /**
+     * Splits a query into words, quoted values, parentheses and operators.
+     */
+    private static List<String> tokenize(String text) throws DukeException {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                i++;
+            } else if (c == '"' || c == '\'') {
+                int end = text.indexOf(c, i + 1);
+                if (end < 0) {
+                    throw DukeException.invalidQuery(text.substring(i));
+                }
+                // Quoted values keep their quote so that they are never taken for keywords
+                tokens.add(text.substring(i, end));
+                i = end + 1;
+            } else if (c == '(' || c == ')' || c == '~') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (c == '<' || c == '>' || c == '=' || c == '!') {
+                int end = i + 1 < text.length() && text.charAt(i + 1) == '=' ? i + 2 : i + 1;
+                tokens.add(text.substring(i, end));
+                i = end;
+            } else {
+                int start = i;
+                while (i < text.length() && " \"'()~<>=!".indexOf(text.charAt(i)) < 0) {
+                    i++;
+                }
+                tokens.add(text.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * A recursive descent parser over the tokens of a query, with "or" binding loosest and "not" tightest.
+     */
+    private static class QueryParser {
+        private final List<String> tokens;
+        private final LocalDateTime now;
+        private int position = 0;
+
+        private QueryParser(List<String> tokens, LocalDateTime now) {
+            this.tokens = tokens;
+            this.now = now;
+        }
+
+        /**
+         * Retrieves the next token without consuming it.
+         *
+         * @return The token, or null at the end of the query.
+         */
+        String peek() {
+            return position < tokens.size() ? tokens.get(position) : null;
+        }
+
+        /**
+         * Consumes the next token if it is the given keyword, ignoring case.
+         */
+        private boolean accept(String keyword) {
+            if (keyword.equalsIgnoreCase(peek())) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Consumes the next token, which must be present.
+         */
+        private String next() throws DukeException {
+            if (position == tokens.size()) {
+                throw DukeException.invalidQueryFormat();
+            }
+            return tokens.get(position++);
+        }
+
+        /**
+         * Parses conditions joined by "or".
+         */
+        Condition parseOr() throws DukeException {
+            List<Condition> operands = new ArrayList<>();
+            do {
+                operands.add(parseAnd());
+            } while (accept("or"));
+            return operands.size() == 1 ? operands.get(0) : new Junction(operands, false);
+        }
+
+        /**
+         * Parses conditions joined by "and", or simply following one another.
+         */
+        private Condition parseAnd() throws DukeException {
+            List<Condition> operands = new ArrayList<>();
+            operands.add(parseNot());
+            while (peek() != null && !peek().equals(")") && !peek().equalsIgnoreCase("or")) {
+                accept("and");
+                operands.add(parseNot());
+            }
+            return operands.size() == 1 ? operands.get(0) : new Junction(operands, true);
+        }
+
+        /**
+         * Parses a condition, possibly negated or in parentheses.
+         */
+        private Condition parseNot() throws DukeException {
+            if (accept("not")) {
+                Condition operand = parseNot();
+                Comparison negated = operand instanceof Comparison ? ((Comparison) operand).negate() : null;
+                return negated != null ? negated : new Not(operand);
+            }
+            if (accept("(")) {
+                Condition condition = parseOr();
+                if (!accept(")")) {
+                    throw DukeException.invalidQuery(peek() == null ? "(" : peek());
+                }
+                return condition;
+            }
+            return parseComparison();
+        }
+
+        /**
+         * Parses a comparison between a field and a value.
+         */
+        private Comparison parseComparison() throws DukeException {
+            String name = next();
+            Field field = name.equalsIgnoreCase("description") ? Field.DESCRIPTION : null;
+            for (Field candidate : Field.values()) {
+                if (candidate.name.equalsIgnoreCase(name)) {
+                    field = candidate;
+                }
+            }
+            if (field == null) {
+                throw DukeException.invalidQuery(name);
+            }
+            if (field == Field.DONE && (!isOperator(peek()) || peek().equals(")"))) {
+                return new Comparison(field, Operator.EQUAL, "true", null, null, true);
+            }
+
+            String symbol = next();
+            Operator operator = null;
+            for (Operator candidate : Operator.values()) {
+                if (candidate.symbol.equals(symbol)) {
+                    operator = candidate;
+                }
+            }
+            String value = next();
+            boolean isQuoted = value.startsWith("\"") || value.startsWith("'");
+            value = isQuoted ? value.substring(1) : value;
+            if (operator == null || !isQuoted && isOperator(value)) {
+                throw DukeException.invalidQuery(operator == null ? symbol : value);
+            }
+            return createComparison(field, operator, value);
+        }
+
+        /**
+         * Creates a comparison, checking that its operator and value suit its field.
+         */
+        private Comparison createComparison(Field field, Operator operator, String value) throws DukeException {
+            boolean isEquality = operator == Operator.EQUAL || operator == Operator.NOT_EQUAL;
+            String lowerValue = value.toLowerCase(Locale.ROOT);
+            switch (field) {
+                case TYPE:
+                    Class<? extends Task> type = lowerValue.equals("todo") ? ToDo.class
+                            : lowerValue.equals("deadline") ? Deadline.class
+                            : lowerValue.equals("event") ? Event.class
+                            : lowerValue.startsWith("recur") ? Recurring.class : null;
+                    if (!isEquality || type == null) {
+                        throw DukeException.invalidQuery(isEquality ? value : operator.symbol);
+                    }
+                    return new Comparison(field, operator, lowerValue, null, type, false);
+                case DONE:
+                    boolean isTrue = lowerValue.equals("true") || lowerValue.equals("yes");
+                    if (!isEquality || !isTrue && !lowerValue.equals("false") && !lowerValue.equals("no")) {
+                        throw DukeException.invalidQuery(isEquality ? value : operator.symbol);
+                    }
+                    return new Comparison(field, operator, lowerValue, null, null, isTrue);
+                case DESCRIPTION:
+                    if (operator != Operator.CONTAINS && operator != Operator.EQUAL) {
+                        throw DukeException.invalidQuery(operator.symbol);
+                    }
+                    return new Comparison(field, operator, value.toLowerCase(), null, null, false);
+                case TAG:
+                    if (!isEquality) {
+                        throw DukeException.invalidQuery(operator.symbol);
+                    }
+                    try {
+                        return new Comparison(field, operator, Task.parseTag(value), null, null, false);
+                    } catch (DukeException e) {
+                        throw DukeException.invalidQuery(value);
+                    }
+                case PRIORITY:
+                    if (operator == Operator.CONTAINS) {
+                        throw DukeException.invalidQuery(operator.symbol);
+                    }
+                    return new Comparison(field, operator, lowerValue, null, null, false, parsePriority(value));
+                default:
+                    if (operator == Operator.CONTAINS) {
+                        throw DukeException.invalidQuery(operator.symbol);
+                    }
+                    LocalDateTime dateTime = DateTimeParser.parseDateTime(value, now);
+                    return new Comparison(field, operator, value, dateTime, null, false);
+            }
+        }
+
+        /**
+         * Checks whether a token is an operator or a parenthesis rather than a value.
+         */
+        private static boolean isOperator(String token) {
+            return token != null && !token.isEmpty() && "()~<>=!".indexOf(token.charAt(0)) >= 0;
+        }
+    }
+}
@@ -0,0 +1,617 @@
+package duke.task;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Indexes tasks by type, completion status, priority, tags and dates, so that queries can narrow the
+ * task list down before checking their conditions. Each indexed task holds a slot, and slots are handed
+ * out in list order, so the number of a task in the list is the number of live slots up to and including
+ * its own. Types, completion statuses, priorities and tags are kept as compressed bitmaps over slots,
+ * one per value, so that a tag borne by a handful of tasks costs a handful of entries, and filters
+ * on them are intersections of bitmaps rather than scans. The dates of each field are kept as a
+ * sorted array of keys packing the minute with the slot. Keys of tasks changed since the array was
+ * sorted are kept in a small sorted set instead, and keys left behind by changed or deleted tasks are
+ * skipped by callers, who check every condition on the tasks found anyway.
+ * The index is built on the first query, since most sessions never query.
+ */
+class QueryIndex {
+    /** The number of deleted tasks below which the index is never rebuilt. */
+    private static final int MIN_REBUILD_DELETED_COUNT = 1024;
+    /** The number of keys added since sorting beyond which the keys of a field are sorted again. */
+    private static final int MAX_RECENT_KEY_COUNT = 4096;
+    /** The types of tasks, in the order of their bitmaps. */
+    private static final List<Class<? extends Task>> TYPES = Arrays.asList(
+            ToDo.class, Deadline.class, Event.class, Recurring.class);
+
+    /** Whether the index has been built. */
+    private static boolean isBuilt = false;
+    /** The indexed tasks by slot, with null for deleted tasks. */
+    private static ArrayList<Task> tasksBySlot = new ArrayList<>();
+    /** The slot of each indexed task, by task identifier. */
+    private static HashMap<Long, Integer> slotsById = new HashMap<>();
+    /** The slots of the tasks still in the list. */
+    private static RoaringBitmap liveSlots = new RoaringBitmap();
+    /** The slots of the tasks done. */
+    private static RoaringBitmap doneSlots = new RoaringBitmap();
+    /** The slots of the tasks of each type. */
+    private static RoaringBitmap[] typeSlots = createBitmaps(TYPES.size());
+    /** The slots of the tasks of each priority, by priority, including 0 for tasks without one. */
+    private static RoaringBitmap[] prioritySlots = createBitmaps(Task.MAX_PRIORITY + 1);
+    /** The slots of the tasks bearing each tag, by tag, without tags no task bears. */
+    private static HashMap<String, RoaringBitmap> tagSlots = new HashMap<>();
+    /** The keys of the dates in each date field, by field ordinal. */
+    private static TimeKeys[] timeKeys = createTimeKeys();
+
+    /**
+     * The sorted keys of the dates of one field, each the minute in the high 32 bits and the slot in
+     * the low 32 bits, so that the keys of a range of minutes are adjacent.
+     */
+    private static class TimeKeys {
+        /** The keys sorted when the index was built or last tidied, including keys left behind. */
+        private long[] sortedKeys = new long[0];
+        /** The keys added since. */
+        private final TreeSet<Long> recentKeys = new TreeSet<>();
+    }
+
+    /**
+     * The index of a task list that is not in use.
+     */
+    static class State {
+        private final boolean isBuilt;
+        private final ArrayList<Task> tasksBySlot;
+        private final HashMap<Long, Integer> slotsById;
+        private final RoaringBitmap liveSlots;
+        private final RoaringBitmap doneSlots;
+        private final RoaringBitmap[] typeSlots;
+        private final RoaringBitmap[] prioritySlots;
+        private final HashMap<String, RoaringBitmap> tagSlots;
+        private final TimeKeys[] timeKeys;
+
+        private State(boolean isBuilt, ArrayList<Task> tasksBySlot, HashMap<Long, Integer> slotsById,
+                      RoaringBitmap liveSlots, RoaringBitmap doneSlots, RoaringBitmap[] typeSlots,
+                      RoaringBitmap[] prioritySlots, HashMap<String, RoaringBitmap> tagSlots, TimeKeys[] timeKeys) {
+            this.isBuilt = isBuilt;
+            this.tasksBySlot = tasksBySlot;
+            this.slotsById = slotsById;
+            this.liveSlots = liveSlots;
+            this.doneSlots = doneSlots;
+            this.typeSlots = typeSlots;
+            this.prioritySlots = prioritySlots;
+            this.tagSlots = tagSlots;
+            this.timeKeys = timeKeys;
+        }
+    }
+
+    /**
+     * Sets the index aside, leaving none to be built on the next query.
+     *
+     * @return The index set aside.
+     */
+    static State detach() {
+        State state = new State(isBuilt, tasksBySlot, slotsById, liveSlots, doneSlots, typeSlots, prioritySlots,
+                tagSlots, timeKeys);
+        clear();
+        return state;
+    }
+
+    /**
+     * Puts an index set aside back in use, replacing the current one.
+     *
+     * @param state The index set aside.
+     */
+    static void attach(State state) {
+        isBuilt = state.isBuilt;
+        tasksBySlot = state.tasksBySlot;
+        slotsById = state.slotsById;
+        liveSlots = state.liveSlots;
+        doneSlots = state.doneSlots;
+        typeSlots = state.typeSlots;
+        prioritySlots = state.prioritySlots;
+        tagSlots = state.tagSlots;
+        timeKeys = state.timeKeys;
+    }
+
+    /**
+     * Indexes a task inserted into the list. Slots must follow list order, so a task inserted
+     * anywhere but at the end drops the index, to be built again on the next query.
+     *
+     * @param position The position of the task in the list.
+     * @param task     The task inserted.
+     */
+    static void insert(int position, Task task) {
+        if (!isBuilt) {
+            return;
+        }
+        if (position != slotsById.size()) {
+            clear();
+            return;
+        }
+        int slot = tasksBySlot.size();
+        tasksBySlot.add(task);
+        slotsById.put(task.getId(), slot);
+        liveSlots.add(slot);
+        indexFields(slot, task, true);
+        indexTags(slot, task.getTags(), true);
+    }
+
+    /**
+     * Removes a task deleted from the list.
+     *
+     * @param task The task deleted.
+     */
+    static void remove(Task task) {
+        if (!isBuilt) {
+            return;
+        }
+        Integer slot = slotsById.remove(task.getId());
+        if (slot == null) {
+            return;
+        }
+        tasksBySlot.set(slot, null);
+        liveSlots.remove(slot);
+        doneSlots.remove(slot);
+        typeSlots[TYPES.indexOf(task.getClass())].remove(slot);
+        prioritySlots[task.getPriority()].remove(slot);
+        indexTags(slot, task.getTags(), false);
+        int deletedCount = tasksBySlot.size() - slotsById.size();
+        if (deletedCount >= MIN_REBUILD_DELETED_COUNT && deletedCount > slotsById.size()) {
+            clear();
+        }
+    }
+
+    /**
+     * Indexes a task taking the place of another in the list, in the slot of the task replaced.
+     *
+     * @param oldTask The task replaced.
+     * @param newTask The task taking its place.
+     */
+    static void replace(Task oldTask, Task newTask) {
+        if (!isBuilt) {
+            return;
+        }
+        Integer slot = slotsById.remove(oldTask.getId());
+        if (slot == null) {
+            return;
+        }
+        tasksBySlot.set(slot, newTask);
+        slotsById.put(newTask.getId(), slot);
+        typeSlots[TYPES.indexOf(oldTask.getClass())].remove(slot);
+        prioritySlots[oldTask.getPriority()].remove(slot);
+        indexTags(slot, oldTask.getTags(), false);
+        indexFields(slot, newTask, true);
+        indexTags(slot, newTask.getTags(), true);
+    }
+
+    /**
+     * Moves the slot of a task to the new identifier it has been given.
+     *
+     * @param oldId The identifier the task had.
+     * @param task  The task, holding its new identifier.
+     */
+    static void reassignId(long oldId, Task task) {
+        if (!isBuilt) {
+            return;
+        }
+        Integer slot = slotsById.remove(oldId);
+        if (slot != null) {
+            slotsById.put(task.getId(), slot);
+        }
+    }
+
+    /**
+     * Indexes the completion status or dates of a task changed in place.
+     *
+     * @param task          The task changed.
+     * @param isRescheduled Whether its dates changed, rather than only its completion status.
+     */
+    static void update(Task task, boolean isRescheduled) {
+        if (!isBuilt) {
+            return;
+        }
+        Integer slot = slotsById.get(task.getId());
+        if (slot != null) {
+            indexFields(slot, task, isRescheduled);
+        }
+    }
+
+    /**
+     * Indexes the priority and tags of a task changed in place.
+     *
+     * @param task        The task changed.
+     * @param oldPriority The priority of the task before the change.
+     * @param oldTags     The tags of the task before the change.
+     */
+    static void updateLabels(Task task, int oldPriority, List<String> oldTags) {
+        if (!isBuilt) {
+            return;
+        }
+        Integer slot = slotsById.get(task.getId());
+        if (slot == null) {
+            return;
+        }
+        prioritySlots[oldPriority].remove(slot);
+        prioritySlots[task.getPriority()].add(slot);
+        indexTags(slot, oldTags, false);
+        indexTags(slot, task.getTags(), true);
+    }
+
+    /**
+     * Counts the tasks in the list, building the index if needed.
+     *
+     * @return The number of tasks indexed.
+     */
+    static int size() {
+        build();
+        return slotsById.size();
+    }
+
+    /**
+     * Retrieves the slots of the tasks of a type, or of every other type.
+     *
+     * @param type     The type.
+     * @param isWanted False to retrieve the slots of the tasks of every other type.
+     * @return A new bitmap of slots.
+     */
+    static RoaringBitmap findByType(Class<? extends Task> type, boolean isWanted) {
+        build();
+        return select(typeSlots[TYPES.indexOf(type)], isWanted);
+    }
+
+    /**
+     * Retrieves the slots of the tasks done, or of the tasks pending.
+     *
+     * @param isDone True to retrieve the tasks done, false to retrieve the tasks pending.
+     * @return A new bitmap of slots.
+     */
+    static RoaringBitmap findByDone(boolean isDone) {
+        build();
+        return select(doneSlots, isDone);
+    }
+
+    /**
+     * Retrieves the slots of the tasks bearing a tag, or of those not bearing it.
+     *
+     * @param tag      The tag.
+     * @param isWanted False to retrieve the slots of the tasks not bearing the tag.
+     * @return A new bitmap of slots.
+     */
+    static RoaringBitmap findByTag(String tag, boolean isWanted) {
+        build();
+        RoaringBitmap slots = tagSlots.get(tag);
+        if (isWanted) {
+            return slots == null ? new RoaringBitmap() : slots.copy();
+        }
+        return slots == null ? liveSlots.copy() : select(slots, false);
+    }
+
+    /**
+     * Retrieves the slots of the tasks of some priorities.
+     *
+     * @param isWanted Whether the tasks of each priority are wanted, by priority, 0 standing for none.
+     * @return A new bitmap of slots.
+     */
+    static RoaringBitmap findByPriority(boolean[] isWanted) {
+        build();
+        RoaringBitmap slots = new RoaringBitmap();
+        for (int priority = 0; priority < prioritySlots.length; priority++) {
+            if (isWanted[priority]) {
+                slots.or(prioritySlots[priority]);
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Counts the keys of a date field within a range of minutes, including keys left behind, which
+     * bounds the number of tasks found by {@link #findByTime}.
+     *
+     * @param field     The date field.
+     * @param minMinute The first minute, inclusive.
+     * @param maxMinute The last minute, inclusive.
+     * @return The number of keys in the range.
+     */
+    static int countByTime(Query.Field field, long minMinute, long maxMinute) {
+        build();
+        if (minMinute > maxMinute) {
+            return 0;
+        }
+        TimeKeys keys = timeKeys[field.ordinal()];
+        long minKey = toKey(minMinute, 0);
+        long maxKey = toKey(maxMinute, Integer.MAX_VALUE);
+        int count = findFirstKey(keys.sortedKeys, maxKey + 1) - findFirstKey(keys.sortedKeys, minKey);
+        return count + keys.recentKeys.subSet(minKey, true, maxKey, true).size();
+    }
+
+    /**
+     * Retrieves the slots of the tasks with a date in a field within a range of minutes.
+     * Tasks whose date has since moved out of the range may be included.
+     *
+     * @param field     The date field.
+     * @param minMinute The first minute, inclusive.
+     * @param maxMinute The last minute, inclusive.
+     * @return A new bitmap of slots.
+     */
+    static RoaringBitmap findByTime(Query.Field field, long minMinute, long maxMinute) {
+        build();
+        if (minMinute > maxMinute) {
+            return new RoaringBitmap();
+        }
+        TimeKeys keys = timeKeys[field.ordinal()];
+        long minKey = toKey(minMinute, 0);
+        long maxKey = toKey(maxMinute, Integer.MAX_VALUE);
+        int start = findFirstKey(keys.sortedKeys, minKey);
+        int end = findFirstKey(keys.sortedKeys, maxKey + 1);
+        NavigableSet<Long> recentKeys = keys.recentKeys.subSet(minKey, true, maxKey, true);
+        int[] slots = new int[end - start + recentKeys.size()];
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            slots[count++] = (int) keys.sortedKeys[i];
+        }
+        for (long key : recentKeys) {
+            slots[count++] = (int) key;
+        }
+        RoaringBitmap found = toBitmap(slots);
+        found.and(liveSlots);
+        return found;
+    }
+
+    /**
+     * Retrieves the slots of some tasks in the list.
+     *
+     * @param tasks The tasks.
+     * @return A new bitmap of the slots of those tasks still in the list.
+     */
+    static RoaringBitmap findByTasks(List<Task> tasks) {
+        build();
+        int[] slots = new int[tasks.size()];
+        int count = 0;
+        for (Task task : tasks) {
+            Integer slot = slotsById.get(task.getId());
+            if (slot != null && tasksBySlot.get(slot) == task) {
+                slots[count++] = slot;
+            }
+        }
+        return toBitmap(Arrays.copyOf(slots, count));
+    }
+
+    /**
+     * Retrieves the task in a slot.
+     *
+     * @param slot The slot.
+     * @return The task.
+     */
+    static Task getTask(int slot) {
+        return tasksBySlot.get(slot);
+    }
+
+    /**
+     * Computes the numbers in the list of the tasks in some slots, in a single pass over the live slots.
+     *
+     * @param slots The slots, in increasing order.
+     * @return The number of the task in each slot, in the same order.
+     */
+    static int[] toTaskNumbers(int[] slots) {
+        return liveSlots.rank(slots);
+    }
+
+    /**
+     * Builds the index from the task list if it has not been built.
+     */
+    private static void build() {
+        if (isBuilt) {
+            return;
+        }
+        clear();
+        isBuilt = true;
+        List<Task> tasks = TaskList.taskList;
+        tasksBySlot.ensureCapacity(tasks.size());
+        long[][] keys = new long[timeKeys.length][];
+        int[] keyCounts = new int[timeKeys.length];
+        for (Query.Field field : Query.Field.values()) {
+            keys[field.ordinal()] = new long[field.isDateTime() ? tasks.size() : 0];
+        }
+        for (int slot = 0; slot < tasks.size(); slot++) {
+            Task task = tasks.get(slot);
+            tasksBySlot.add(task);
+            slotsById.put(task.getId(), slot);
+            liveSlots.add(slot);
+            indexFields(slot, task, false);
+            indexTags(slot, task.getTags(), true);
+            for (Query.Field field : Query.Field.values()) {
+                LocalDateTime dateTime = field.getDateTime(task);
+                if (dateTime != null) {
+                    keys[field.ordinal()][keyCounts[field.ordinal()]++] = toKey(toMinute(dateTime), slot);
+                }
+            }
+        }
+        for (int i = 0; i < timeKeys.length; i++) {
+            timeKeys[i].sortedKeys = Arrays.copyOf(keys[i], keyCounts[i]);
+            Arrays.sort(timeKeys[i].sortedKeys);
+        }
+    }
+
+    /**
+     * Drops the index, to be built again on the next query.
+     */
+    private static void clear() {
+        isBuilt = false;
+        tasksBySlot = new ArrayList<>();
+        slotsById = new HashMap<>();
+        liveSlots = new RoaringBitmap();
+        doneSlots = new RoaringBitmap();
+        typeSlots = createBitmaps(TYPES.size());
+        prioritySlots = createBitmaps(Task.MAX_PRIORITY + 1);
+        tagSlots = new HashMap<>();
+        timeKeys = createTimeKeys();
+    }
+
+    /**
+     * Records the type, completion status and priority of the task in a slot, and optionally the keys
+     * of its dates.
+     */
+    private static void indexFields(int slot, Task task, boolean isIndexingDates) {
+        typeSlots[TYPES.indexOf(task.getClass())].add(slot);
+        doneSlots.set(slot, task.isDone());
+        prioritySlots[task.getPriority()].add(slot);
+        if (!isIndexingDates) {
+            return;
+        }
+        for (Query.Field field : Query.Field.values()) {
+            LocalDateTime dateTime = field.getDateTime(task);
+            if (dateTime == null) {
+                continue;
+            }
+            TimeKeys keys = timeKeys[field.ordinal()];
+            keys.recentKeys.add(toKey(toMinute(dateTime), slot));
+            if (keys.recentKeys.size() > MAX_RECENT_KEY_COUNT) {
+                tidy(field);
+            }
+        }
+    }
+
+    /**
+     * Adds a slot to the bitmaps of some tags, or removes it, dropping the bitmaps left empty.
+     */
+    private static void indexTags(int slot, List<String> tags, boolean isAdded) {
+        for (String tag : tags) {
+            RoaringBitmap slots = tagSlots.get(tag);
+            if (isAdded) {
+                if (slots == null) {
+                    slots = new RoaringBitmap();
+                    tagSlots.put(tag, slots);
+                }
+                slots.add(slot);
+            } else if (slots != null) {
+                slots.remove(slot);
+                if (slots.cardinality() == 0) {
+                    tagSlots.remove(tag);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges the keys added since sorting into the sorted keys of a field, dropping the keys left
+     * behind by tasks deleted or moved to another date.
+     */
+    private static void tidy(Query.Field field) {
+        TimeKeys keys = timeKeys[field.ordinal()];
+        long[] mergedKeys = new long[keys.sortedKeys.length + keys.recentKeys.size()];
+        int count = 0;
+        int i = 0;
+        for (long recentKey : keys.recentKeys) {
+            while (i < keys.sortedKeys.length && keys.sortedKeys[i] < recentKey) {
+                count = keepIfCurrent(field, keys.sortedKeys[i++], mergedKeys, count);
+            }
+            count = keepIfCurrent(field, recentKey, mergedKeys, count);
+        }
+        while (i < keys.sortedKeys.length) {
+            count = keepIfCurrent(field, keys.sortedKeys[i++], mergedKeys, count);
+        }
+        keys.sortedKeys = Arrays.copyOf(mergedKeys, count);
+        keys.recentKeys.clear();
+    }
+
+    /**
+     * Appends a key to an array if it still holds the date of the task in its slot and differs from
+     * the key before it.
+     *
+     * @return The new number of keys in the array.
+     */
+    private static int keepIfCurrent(Query.Field field, long key, long[] keys, int count) {
+        Task task = tasksBySlot.get((int) key);
+        LocalDateTime dateTime = task == null ? null : field.getDateTime(task);
+        if (dateTime == null || toKey(toMinute(dateTime), (int) key) != key || count > 0 && keys[count - 1] == key) {
+            return count;
+        }
+        keys[count] = key;
+        return count + 1;
+    }
+
+    /**
+     * Copies the live slots in a bitmap, or those not in it.
+     */
+    private static RoaringBitmap select(RoaringBitmap slots, boolean isInBitmap) {
+        RoaringBitmap selected = liveSlots.copy();
+        if (isInBitmap) {
+            selected.and(slots);
+        } else {
+            selected.andNot(slots);
+        }
+        return selected;
+    }
+
+    /**
+     * Creates a bitmap of some slots, sorting them first so that each is appended to its container.
+     */
+    private static RoaringBitmap toBitmap(int[] slots) {
+        Arrays.sort(slots);
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int slot : slots) {
+            bitmap.add(slot);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Finds the position of the first key at least the given key in a sorted array.
+     */
+    private static int findFirstKey(long[] keys, long key) {
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && keys[index - 1] == key) {
+            index--;
+        }
+        return index;
+    }
+
+    /**
+     * Packs a minute and a slot into a key ordered by minute, then slot. Minutes beyond the range of
+     * an int, thousands of years away, are clamped, which only makes ranges find more tasks.
+     */
+    private static long toKey(long minute, int slot) {
+        long clampedMinute = Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, minute));
+        return (clampedMinute << 32) | slot;
+    }
+
+    /**
+     * Converts a date and time to minutes since the epoch, rounding down and ignoring time zones.
+     *
+     * @param dateTime The date and time.
+     * @return The number of minutes since the epoch.
+     */
+    static long toMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Creates empty bitmaps, one for each value of a field.
+     */
+    private static RoaringBitmap[] createBitmaps(int count) {
+        RoaringBitmap[] slots = new RoaringBitmap[count];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new RoaringBitmap();
+        }
+        return slots;
+    }
+
+    /**
+     * Creates empty keys for each field, of which only the date fields are ever filled.
+     */
+    private static TimeKeys[] createTimeKeys() {
+        TimeKeys[] keys = new TimeKeys[Query.Field.values().length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new TimeKeys();
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,239 @@
+package duke.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Plans and runs queries. The conditions every match must satisfy pick the candidates through their
+ * indexes, and the whole query is then checked on each candidate alone. The compressed bitmaps of types,
+ * completion statuses, priorities and tags cost at most a few words per thousand tasks to intersect,
+ * so all of them are intersected.
+ * Of the date fields compared, only the one whose range holds the fewest keys is looked up, with
+ * every comparison on it narrowing the range. Words are only looked up when nothing else narrows the
+ * tasks down to a few thousand, as their index costs a full pass to build. Queries no index helps,
+ * such as those joined by "or" at the top, are checked on every task by a parallel scan instead.
+ */
+class QueryPlanner {
+    /** The number of candidates below which checking them costs less than looking words up. */
+    private static final int MIN_WORD_LOOKUP_CANDIDATES = 4096;
+
+    /**
+     * The way a query is run: the indexes picking the candidates, if any.
+     */
+    static class Plan {
+        private final Query query;
+        /** The indexes picking the candidates, each with the conditions it was looked up for. */
+        private final List<String> indexesUsed;
+        /** The slots of the candidates, or null to check every task. */
+        private final RoaringBitmap candidates;
+        private final int taskCount;
+
+        private Plan(Query query, List<String> indexesUsed, RoaringBitmap candidates, int taskCount) {
+            this.query = query;
+            this.indexesUsed = indexesUsed;
+            this.candidates = candidates;
+            this.taskCount = taskCount;
+        }
+
+        /**
+         * Runs the query.
+         *
+         * @return The matching tasks by their number in the list, in list order.
+         */
+        LinkedHashMap<Integer, Task> run() {
+            LinkedHashMap<Integer, Task> matches = new LinkedHashMap<>();
+            if (candidates == null) {
+                List<Task> tasks = TaskList.taskList;
+                for (int index : ParallelScan.find(tasks, query::test)) {
+                    matches.put(index + 1, tasks.get(index));
+                }
+                return matches;
+            }
+
+            int[] slots = candidates.toArray();
+            int matchCount = 0;
+            for (int slot : slots) {
+                if (query.test(QueryIndex.getTask(slot))) {
+                    slots[matchCount++] = slot;
+                }
+            }
+            int[] numbers = QueryIndex.toTaskNumbers(Arrays.copyOf(slots, matchCount));
+            for (int i = 0; i < matchCount; i++) {
+                matches.put(numbers[i], QueryIndex.getTask(slots[i]));
+            }
+            return matches;
+        }
+
+        /**
+         * Describes how the query is run.
+         *
+         * @return The description, such as which indexes pick how many candidates.
+         */
+        String describe() {
+            if (candidates == null) {
+                return "no index applies, so all " + taskCount + " task(s) are scanned";
+            }
+            StringBuilder description = new StringBuilder();
+            for (int i = 0; i < indexesUsed.size(); i++) {
+                String separator = i == 0 ? "" : i == indexesUsed.size() - 1 ? " and " : ", ";
+                description.append(separator).append(indexesUsed.get(i));
+            }
+            return description.append(indexesUsed.size() == 1 ? " narrows " : " narrow ").append(taskCount)
+                    .append(" task(s) down to ").append(candidates.cardinality()).append(" candidate(s)").toString();
+        }
+    }
+
+    /**
+     * Plans how to run a query, building the indexes it uses if needed.
+     *
+     * @param query The query.
+     * @return The plan.
+     */
+    static Plan plan(Query query) {
+        List<Query.Comparison> bitmapConditions = new ArrayList<>();
+        Query.Comparison wordCondition = null;
+        // The range of minutes every comparison on each date field allows, by field ordinal
+        int fieldCount = Query.Field.values().length;
+        long[] minMinutes = new long[fieldCount];
+        long[] maxMinutes = new long[fieldCount];
+        String[] rangeConditions = new String[fieldCount];
+        for (Query.Condition condition : query.getConjuncts()) {
+            if (!(condition instanceof Query.Comparison)) {
+                continue;
+            }
+            Query.Comparison comparison = (Query.Comparison) condition;
+            Query.Field field = comparison.getField();
+            if (field == Query.Field.DESCRIPTION) {
+                boolean hasWords = TrigramIndex.tokenize(comparison.getText()).length > 0;
+                wordCondition = wordCondition == null && hasWords ? comparison : wordCondition;
+            } else if (!field.isDateTime()) {
+                bitmapConditions.add(comparison);
+            } else if (comparison.getOperator() != Query.Operator.NOT_EQUAL) {
+                int i = field.ordinal();
+                long minute = QueryIndex.toMinute(comparison.getDateTime());
+                boolean isFirst = rangeConditions[i] == null;
+                minMinutes[i] = Math.max(isFirst ? Long.MIN_VALUE : minMinutes[i], getMinMinute(comparison, minute));
+                maxMinutes[i] = Math.min(isFirst ? Long.MAX_VALUE : maxMinutes[i], getMaxMinute(comparison, minute));
+                rangeConditions[i] = isFirst ? comparison.toString() : rangeConditions[i] + " and " + comparison;
+            }
+        }
+        boolean hasRange = false;
+        for (String rangeCondition : rangeConditions) {
+            hasRange |= rangeCondition != null;
+        }
+        if (bitmapConditions.isEmpty() && !hasRange && wordCondition == null) {
+            return new Plan(query, new ArrayList<>(), null, TaskList.taskList.size());
+        }
+
+        int taskCount = QueryIndex.size();
+        List<String> indexesUsed = new ArrayList<>();
+        RoaringBitmap candidates = null;
+        for (Query.Comparison comparison : bitmapConditions) {
+            candidates = intersect(candidates, findByBitmap(comparison));
+            indexesUsed.add(describeIndex(comparison.getField(), comparison.toString()));
+        }
+
+        Query.Field rangeField = null;
+        long rangeCount = candidates == null ? taskCount : candidates.cardinality();
+        for (Query.Field field : Query.Field.values()) {
+            int i = field.ordinal();
+            long count = rangeConditions[i] == null ? Long.MAX_VALUE
+                    : QueryIndex.countByTime(field, minMinutes[i], maxMinutes[i]);
+            if (count < rangeCount) {
+                rangeField = field;
+                rangeCount = count;
+            }
+        }
+        if (rangeField != null) {
+            int i = rangeField.ordinal();
+            candidates = intersect(candidates, QueryIndex.findByTime(rangeField, minMinutes[i], maxMinutes[i]));
+            indexesUsed.add(describeIndex(rangeField, rangeConditions[i]));
+        }
+
+        if (wordCondition != null && (candidates == null
+                || candidates.cardinality() > MIN_WORD_LOOKUP_CANDIDATES && FuzzySearch.isBuilt())) {
+            candidates = intersect(candidates,
+                    QueryIndex.findByTasks(FuzzySearch.findContaining(wordCondition.getText())));
+            indexesUsed.add(describeIndex(Query.Field.DESCRIPTION, wordCondition.toString()));
+        }
+        return new Plan(query, indexesUsed, candidates, taskCount);
+    }
+
+    /**
+     * Looks up the bitmaps of a comparison on a field held by every task.
+     *
+     * @param comparison The comparison on a type, completion status, tag or priority.
+     * @return A new bitmap of the slots of the tasks satisfying the comparison.
+     */
+    private static RoaringBitmap findByBitmap(Query.Comparison comparison) {
+        boolean isEqual = comparison.getOperator() == Query.Operator.EQUAL;
+        switch (comparison.getField()) {
+            case TYPE:
+                return QueryIndex.findByType(comparison.getType(), isEqual);
+            case DONE:
+                return QueryIndex.findByDone(comparison.getWantedDone());
+            case TAG:
+                return QueryIndex.findByTag(comparison.getText(), isEqual);
+            default:
+                boolean[] isWanted = new boolean[Task.MAX_PRIORITY + 1];
+                for (int priority = 0; priority < isWanted.length; priority++) {
+                    isWanted[priority] = comparison.holdsForPriority(priority);
+                }
+                return QueryIndex.findByPriority(isWanted);
+        }
+    }
+
+    /**
+     * Intersects the candidates picked so far with those picked by another index.
+     *
+     * @param candidates The candidates picked so far, or null if none have been.
+     * @param picked     The candidates picked by the other index, which may be changed.
+     * @return The candidates picked by both.
+     */
+    private static RoaringBitmap intersect(RoaringBitmap candidates, RoaringBitmap picked) {
+        if (candidates != null) {
+            picked.and(candidates);
+        }
+        return picked;
+    }
+
+    /**
+     * Describes an index looked up for some conditions.
+     */
+    private static String describeIndex(Query.Field field, String conditions) {
+        switch (field) {
+            case TYPE:
+                return "the type bitmap for '" + conditions + "'";
+            case DONE:
+                return "the done bitmap for '" + conditions + "'";
+            case TAG:
+                return "the tag bitmap for '" + conditions + "'";
+            case PRIORITY:
+                return "the priority bitmaps for '" + conditions + "'";
+            case DESCRIPTION:
+                return "the word index for '" + conditions + "'";
+            default:
+                return "the '" + field.name().toLowerCase() + "' date index for '" + conditions + "'";
+        }
+    }
+
+    /**
+     * Retrieves the first minute a date comparison can hold in. Dates are compared to the second,
+     * so the minute of the value itself is always included.
+     */
+    private static long getMinMinute(Query.Comparison comparison, long minute) {
+        Query.Operator operator = comparison.getOperator();
+        return operator == Query.Operator.LESS || operator == Query.Operator.LESS_OR_EQUAL ? Long.MIN_VALUE : minute;
+    }
+
+    /**
+     * Retrieves the last minute a date comparison can hold in.
+     */
+    private static long getMaxMinute(Query.Comparison comparison, long minute) {
+        Query.Operator operator = comparison.getOperator();
+        return operator == Query.Operator.GREATER || operator == Query.Operator.GREATER_OR_EQUAL
+                ? Long.MAX_VALUE : minute;
+    }
+}
@@ -0,0 +1,291 @@
+package duke.task;
+
+import duke.command.DateTimeParser;
+import duke.exception.DukeException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a recurring task with a description and a rule that generates its occurrences.
+ * Occurrences are never stored; they are computed on demand for the window being viewed.
+ */
+public class Recurring extends Task {
+    /**
+     * The interval between two occurrences of a recurring task.
+     */
+    public enum Frequency {
+        DAILY(ChronoUnit.DAYS), WEEKLY(ChronoUnit.WEEKS), MONTHLY(ChronoUnit.MONTHS);
+
+        /** The unit of time between two occurrences. */
+        private final ChronoUnit unit;
+
+        Frequency(ChronoUnit unit) {
+            this.unit = unit;
+        }
+    }
+
+    /** The frequency of the occurrences. */
+    private final Frequency frequency;
+    /** The start date and time of the first occurrence. */
+    private LocalDateTime startDateTime;
+    /** The length of each occurrence; zero for occurrences that are due at a single point in time. */
+    private final Duration duration;
+    /** The date and time after which no occurrence starts, or null if there is no such limit. */
+    private final LocalDateTime untilDateTime;
+    /** The maximum number of occurrences, or 0 if there is no such limit. */
+    private final int count;
+
+    /**
+     * Constructs a recurring task with the given description and rule.
+     *
+     * @param description   The description of the recurring task.
+     * @param frequency     The frequency of the occurrences.
+     * @param startDateTime The start date and time of the first occurrence.
+     * @param duration      The length of each occurrence.
+     * @param untilDateTime The date and time after which no occurrence starts, or null.
+     * @param count         The maximum number of occurrences, or 0.
+     */
+    public Recurring(String description, Frequency frequency, LocalDateTime startDateTime, Duration duration,
+                     LocalDateTime untilDateTime, int count) {
+        super(description);
+        this.frequency = frequency;
+        this.startDateTime = startDateTime;
+        this.duration = duration;
+        this.untilDateTime = untilDateTime;
+        this.count = count;
+    }
+
+    /**
+     * Retrieves the frequency of the occurrences.
+     *
+     * @return The frequency of the occurrences.
+     */
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * Retrieves the start date and time of the first occurrence.
+     *
+     * @return The start date and time of the first occurrence.
+     */
+    public LocalDateTime getStartDateTime() {
+        return startDateTime;
+    }
+
+    /**
+     * Sets the start date and time of the first occurrence, shifting the whole series.
+     *
+     * @param newStartDateTime The new start date and time of the first occurrence.
+     */
+    public void setStartDateTime(LocalDateTime newStartDateTime) {
+        this.startDateTime = newStartDateTime;
+    }
+
+    /**
+     * Retrieves the length of each occurrence.
+     *
+     * @return The length of each occurrence.
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * Retrieves the date and time after which no occurrence starts.
+     *
+     * @return The date and time after which no occurrence starts, or null if there is no such limit.
+     */
+    public LocalDateTime getUntil() {
+        return untilDateTime;
+    }
+
+    /**
+     * Retrieves the maximum number of occurrences.
+     *
+     * @return The maximum number of occurrences, or 0 if there is no such limit.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Computes the start of the occurrence with the given index, counted from zero.
+     * Each occurrence is computed from the first, so monthly occurrences do not drift.
+     *
+     * @param index The index of the occurrence.
+     * @return The start of the occurrence, or null if the rule ends before it.
+     */
+    public LocalDateTime getOccurrence(long index) {
+        if (index < 0 || (count > 0 && index >= count)) {
+            return null;
+        }
+        LocalDateTime occurrence = startDateTime.plus(index, frequency.unit);
+        if (untilDateTime != null && occurrence.isAfter(untilDateTime)) {
+            return null;
+        }
+        return occurrence;
+    }
+
+    /**
+     * Computes the starts of the occurrences within the given window.
+     * Only the occurrences inside the window are generated.
+     *
+     * @param from The start of the window, inclusive.
+     * @param to   The end of the window, inclusive.
+     * @return The starts of the occurrences within the window, in chronological order.
+     */
+    public List<LocalDateTime> getOccurrencesBetween(LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        long index = getFirstIndexNotBefore(from);
+        LocalDateTime occurrence = getOccurrence(index);
+        while (occurrence != null && !occurrence.isAfter(to)) {
+            occurrences.add(occurrence);
+            occurrence = getOccurrence(++index);
+        }
+        return occurrences;
+    }
+
+    /**
+     * Computes the start of the first occurrence at or after the given date and time.
+     *
+     * @param dateTime The date and time to search from.
+     * @return The start of the next occurrence, or null if the rule has ended.
+     */
+    public LocalDateTime getNextOccurrence(LocalDateTime dateTime) {
+        return getOccurrence(getFirstIndexNotBefore(dateTime));
+    }
+
+    /**
+     * Finds the index of the first occurrence at or after the given date and time
+     * by jumping straight to it rather than stepping through earlier occurrences.
+     *
+     * @param dateTime The date and time to search from.
+     * @return The index of the first occurrence not before the date and time.
+     */
+    private long getFirstIndexNotBefore(LocalDateTime dateTime) {
+        if (!dateTime.isAfter(startDateTime)) {
+            return 0;
+        }
+        long index = Math.max(0, frequency.unit.between(startDateTime, dateTime));
+        while (startDateTime.plus(index, frequency.unit).isBefore(dateTime)) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Creates a recurring task from the arguments of a user command.
+     * Optional parts of the rule that were not given are passed as null.
+     *
+     * @param description         The description of the recurring task.
+     * @param frequencyString     The frequency as typed.
+     * @param fromDateTimeString  The start of the first occurrence as typed.
+     * @param toDateTimeString    The end of the first occurrence as typed.
+     * @param untilDateTimeString The date and time after which no occurrence starts as typed.
+     * @param countString         The maximum number of occurrences as typed.
+     * @return The created recurring task, or null if an error occurs.
+     */
+    public static Recurring createRecurring(String description, String frequencyString, String fromDateTimeString,
+                                            String toDateTimeString, String untilDateTimeString, String countString) {
+        try {
+            if (description.isEmpty() || isBlank(frequencyString) || isBlank(fromDateTimeString)) {
+                throw DukeException.invalidRecurringFormat();
+            }
+
+            Frequency frequency = parseFrequency(frequencyString);
+            LocalDateTime fromDateTime = DateTimeParser.parseDateTime(fromDateTimeString);
+            Duration duration = Duration.ZERO;
+            if (!isBlank(toDateTimeString)) {
+                LocalDateTime toDateTime = DateTimeParser.parseDateTime(toDateTimeString);
+                if (fromDateTime.isAfter(toDateTime)) {
+                    throw new DukeException("Start time cannot be after end time");
+                }
+                duration = Duration.between(fromDateTime, toDateTime);
+            }
+            LocalDateTime untilDateTime = isBlank(untilDateTimeString)
+                    ? null : DateTimeParser.parseDateTime(untilDateTimeString);
+            int count = 0;
+            if (!isBlank(countString)) {
+                try {
+                    count = Integer.parseInt(countString);
+                } catch (NumberFormatException e) {
+                    throw DukeException.invalidRecurringFormat();
+                }
+                if (count <= 0) {
+                    throw DukeException.invalidRecurringFormat();
+                }
+            }
+
+            if (fromDateTime.isBefore(LocalDateTime.now())) {
+                throw DukeException.invalidDateTime();
+            }
+
+            return new Recurring(description, frequency, fromDateTime, duration, untilDateTime, count);
+        } catch (DukeException e) {
+            DukeException.handleGracefulError(e);
+            return null;
+        }
+    }
+
+    /**
+     * Parses the frequency of a recurring task.
+     *
+     * @param frequencyString The frequency, such as "daily", "weekly" or "monthly".
+     * @return The parsed frequency.
+     * @throws DukeException If the frequency is not recognised.
+     */
+    public static Frequency parseFrequency(String frequencyString) throws DukeException {
+        try {
+            return Frequency.valueOf(frequencyString.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw DukeException.invalidRecurringFormat();
+        }
+    }
+
+    /**
+     * Checks whether an optional part of a rule is missing or empty.
+     *
+     * @param value The part as typed, or null.
+     * @return True if the part is missing or empty, false otherwise.
+     */
+    private static boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    /**
+     * Creates a copy of the recurring task holding the same state, which later changes to it leave untouched.
+     *
+     * @return The copy.
+     */
+    @Override
+    Recurring copy() {
+        return copyStateTo(new Recurring(getDescription(), frequency, startDateTime, duration, untilDateTime, count));
+    }
+
+    /**
+     * Returns a string representation of the recurring task.
+     *
+     * @return A string representation of the recurring task.
+     */
+    @Override
+    public String toString() {
+        DateTimeFormatter formatter = DISPLAY_DATE_TIME_FORMAT;
+        String rule = frequency.name().toLowerCase() + " from: " + startDateTime.format(formatter);
+        if (!duration.isZero()) {
+            rule += " for " + duration.toMinutes() + " min";
+        }
+        if (untilDateTime != null) {
+            rule += " until: " + untilDateTime.format(formatter);
+        }
+        if (count > 0) {
+            rule += " x" + count;
+        }
+        return "[R]" + super.toString() + " (" + rule + ")";
+    }
+}
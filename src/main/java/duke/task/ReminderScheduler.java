@@ -0,0 +1,245 @@
+package duke.task;
+
+import duke.ui.Ui;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Reminds the user of upcoming deadlines, events and occurrences of recurring tasks.
+ * Reminders wait in a timing wheel that is kept up to date as tasks change, and a background
+ * thread sleeps until the next reminder is due, so nothing is polled while idle.
+ * The number of minutes of notice is read from the {@code duke.reminder.lead} system property.
+ */
+public class ReminderScheduler {
+    /** The minutes of notice given when no lead time is configured. */
+    private static final int DEFAULT_LEAD_MINUTES = 15;
+    /** The number of minutes of notice given before a task is due. */
+    private static final long LEAD_MINUTES = Long.getLong("duke.reminder.lead", DEFAULT_LEAD_MINUTES);
+
+    /** The lock guarding the wheel and the scheduled reminders. */
+    private static final Object lock = new Object();
+    /** The pending reminders by the minute at which they are due. */
+    private static final TimingWheel<Reminder> wheel = new TimingWheel<>(toMinute(LocalDateTime.now()));
+    /** The pending reminder entries by task identifier. */
+    private static final HashMap<Long, TimingWheel.Entry<Reminder>> entries = new HashMap<>();
+    /** The background thread delivering reminders, or null if it has not been started. */
+    private static Thread thread = null;
+
+    /**
+     * Schedules a reminder for the next time the task is due, replacing any earlier reminder for it.
+     * Tasks that are done or never due are not reminded of.
+     *
+     * @param task The task to be reminded of.
+     */
+    public static void schedule(Task task) {
+        assert task != null : "Task must not be null";
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime dueDateTime = null;
+        // The task is copied so that the background thread never reads a task being changed
+        Task copy = null;
+        Recurring rule = null;
+        if (task.isDone()) {
+            dueDateTime = null;
+        } else if (task instanceof Deadline) {
+            dueDateTime = ((Deadline) task).getBy();
+            copy = new Deadline(task.getDescription(), dueDateTime);
+        } else if (task instanceof Event) {
+            dueDateTime = ((Event) task).getFromDateTime();
+            copy = new Event(task.getDescription(), dueDateTime, ((Event) task).getToDateTime());
+        } else if (task instanceof Recurring) {
+            Recurring recurringTask = (Recurring) task;
+            rule = new Recurring(task.getDescription(), recurringTask.getFrequency(), recurringTask.getStartDateTime(),
+                    recurringTask.getDuration(), recurringTask.getUntil(), recurringTask.getCount());
+            copy = rule;
+            dueDateTime = rule.getNextOccurrence(now);
+        }
+
+        synchronized (lock) {
+            cancelLocked(task.getId());
+            if (dueDateTime != null && dueDateTime.isAfter(now)) {
+                scheduleLocked(new Reminder(task.getId(), copy, dueDateTime, rule));
+            }
+        }
+    }
+
+    /**
+     * Cancels the pending reminder for a task, if any.
+     *
+     * @param task The task no longer to be reminded of.
+     */
+    public static void cancel(Task task) {
+        assert task != null : "Task must not be null";
+
+        synchronized (lock) {
+            cancelLocked(task.getId());
+        }
+    }
+
+    /**
+     * Replaces all pending reminders with reminders for the given tasks.
+     *
+     * @param tasks The tasks to be reminded of.
+     */
+    public static void scheduleAll(List<Task> tasks) {
+        synchronized (lock) {
+            for (TimingWheel.Entry<Reminder> entry : entries.values()) {
+                wheel.cancel(entry);
+            }
+            entries.clear();
+        }
+        for (Task task : tasks) {
+            schedule(task);
+        }
+    }
+
+    /**
+     * Retrieves the number of pending reminders.
+     *
+     * @return The number of pending reminders.
+     */
+    public static int getPendingCount() {
+        synchronized (lock) {
+            return wheel.size();
+        }
+    }
+
+    /**
+     * Starts the background thread that delivers reminders, if it is not running yet.
+     */
+    public static void start() {
+        synchronized (lock) {
+            if (thread != null) {
+                return;
+            }
+            thread = new Thread(ReminderScheduler::deliverReminders, "duke-reminders");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Waits for reminders to fall due and displays them, sleeping until the next one is due.
+     */
+    private static void deliverReminders() {
+        while (true) {
+            List<Reminder> dueReminders = new ArrayList<>();
+            synchronized (lock) {
+                try {
+                    long nowMinute = toMinute(LocalDateTime.now());
+                    long nextMinute = wheel.getNextWorkMinute();
+                    if (nextMinute > nowMinute) {
+                        // Waits without a timeout while the wheel is empty; scheduling wakes the thread up
+                        lock.wait(nextMinute == Long.MAX_VALUE ? 0 : untilMinute(nextMinute));
+                        continue;
+                    }
+                    wheel.advance(nowMinute, dueReminders::add);
+                    for (Reminder reminder : dueReminders) {
+                        entries.remove(reminder.taskId);
+                        Reminder nextReminder = reminder.getNextReminder();
+                        if (nextReminder != null) {
+                            scheduleLocked(nextReminder);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            for (Reminder reminder : dueReminders) {
+                Ui.displayMessage(reminder.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Schedules a reminder while holding the lock, waking up the background thread.
+     *
+     * @param reminder The reminder to schedule.
+     */
+    private static void scheduleLocked(Reminder reminder) {
+        long remindMinute = toMinute(reminder.dueDateTime) - LEAD_MINUTES;
+        entries.put(reminder.taskId, wheel.schedule(remindMinute, reminder));
+        lock.notifyAll();
+    }
+
+    /**
+     * Cancels the pending reminder for a task while holding the lock.
+     *
+     * @param taskId The identifier of the task.
+     */
+    private static void cancelLocked(long taskId) {
+        TimingWheel.Entry<Reminder> entry = entries.remove(taskId);
+        if (entry != null) {
+            wheel.cancel(entry);
+        }
+    }
+
+    /**
+     * Converts a date and time to the number of minutes since the epoch in the system time zone.
+     *
+     * @param dateTime The date and time.
+     * @return The number of minutes since the epoch.
+     */
+    private static long toMinute(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toEpochSecond() / 60;
+    }
+
+    /**
+     * Computes the number of milliseconds from now until the start of the given minute.
+     *
+     * @param minute The number of minutes since the epoch.
+     * @return The number of milliseconds to wait, at least 1.
+     */
+    private static long untilMinute(long minute) {
+        return Math.max(1, minute * 60_000 - System.currentTimeMillis());
+    }
+
+    /**
+     * A reminder for one occurrence of a task.
+     */
+    private static class Reminder {
+        private final long taskId;
+        /** A private copy of the task, only displayed once due, so that scheduling never formats dates. */
+        private final Task copy;
+        private final LocalDateTime dueDateTime;
+        /** A private copy of the rule of a recurring task, or null for other tasks. */
+        private final Recurring rule;
+
+        Reminder(long taskId, Task copy, LocalDateTime dueDateTime, Recurring rule) {
+            this.taskId = taskId;
+            this.copy = copy;
+            this.dueDateTime = dueDateTime;
+            this.rule = rule;
+        }
+
+        /**
+         * Creates the reminder for the occurrence after this one, for recurring tasks.
+         *
+         * @return The next reminder, or null if there is none.
+         */
+        Reminder getNextReminder() {
+            if (rule == null) {
+                return null;
+            }
+            LocalDateTime nextDateTime = rule.getNextOccurrence(dueDateTime.plusMinutes(1));
+            return nextDateTime == null ? null : new Reminder(taskId, copy, nextDateTime, rule);
+        }
+
+        /**
+         * Builds the message displayed when the reminder is due.
+         *
+         * @return The reminder message.
+         */
+        String getMessage() {
+            long minutesLeft = Math.max(0, Duration.between(LocalDateTime.now(), dueDateTime).toMinutes());
+            String label = rule == null ? copy.toString()
+                    : "[R][ ] " + copy.getDescription() + " (on: " + dueDateTime.format(Task.DISPLAY_DATE_TIME_FORMAT) + ")";
+            return "    Hark, mortal! Doom approaches in " + minutesLeft + " min:\n        " + label;
+        }
+    }
+}
@@ -0,0 +1,556 @@
+package duke.task;
+
+import java.util.Arrays;
+
+/**
+ * A set of non-negative ints, such as the slots of indexed tasks, compressed in the manner of Roaring
+ * bitmaps. The ints are split by their high 16 bits into containers of up to 65536 values. A container
+ * holding few values keeps their low 16 bits in a sorted array, two bytes per value, and one holding
+ * more than {@value #MAX_ARRAY_CARDINALITY} keeps a plain bitmap of 8 KB instead, so that sparse sets,
+ * such as the tasks bearing a rare tag, cost memory in proportion to their size while dense ones cost
+ * at most a bit per int. Intersections and differences go container by container and skip the
+ * containers of one side missing from the other, so they cost little more than the smaller set.
+ */
+class RoaringBitmap {
+    /** The number of values beyond which a container keeps a bitmap rather than an array. */
+    private static final int MAX_ARRAY_CARDINALITY = 4096;
+    /** The number of 64-bit words in the bitmap of a container. */
+    private static final int BITMAP_WORD_COUNT = 1024;
+
+    /** The high 16 bits shared by the values of each container, in increasing order. */
+    private int[] keys = new int[4];
+    /** The containers, in the order of their keys. */
+    private Container[] containers = new Container[4];
+    /** The number of containers in use. */
+    private int containerCount = 0;
+
+    /**
+     * The values sharing the same high 16 bits, kept as a sorted array or as a bitmap of their low 16 bits.
+     */
+    private static final class Container {
+        /** The low bits of the values in increasing order, in the first cardinality elements, or null. */
+        private char[] values;
+        /** The bitmap of the low bits of the values, or null while they are kept in an array. */
+        private long[] words;
+        /** The number of values. */
+        private int cardinality;
+
+        private Container(char[] values, long[] words, int cardinality) {
+            this.values = values;
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        /**
+         * Creates a container from the low bits of some values, as an array or a bitmap by their number.
+         *
+         * @param values The low bits, in increasing order and without duplicates.
+         * @param count  The number of low bits in use.
+         * @return The container.
+         */
+        static Container ofValues(char[] values, int count) {
+            Container container = new Container(values, null, count);
+            if (count > MAX_ARRAY_CARDINALITY) {
+                container.convertToBitmap();
+            }
+            return container;
+        }
+
+        /**
+         * Creates a container from a bitmap, as an array or a bitmap by the number of bits set.
+         *
+         * @param words The bitmap.
+         * @return The container.
+         */
+        static Container ofWords(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            Container container = new Container(null, words, cardinality);
+            if (cardinality <= MAX_ARRAY_CARDINALITY) {
+                container.convertToArray();
+            }
+            return container;
+        }
+
+        /**
+         * Adds a value.
+         *
+         * @return True if the value was not already present.
+         */
+        boolean add(char value) {
+            if (words != null) {
+                long bit = 1L << value;
+                if ((words[value >>> 6] & bit) != 0) {
+                    return false;
+                }
+                words[value >>> 6] |= bit;
+                cardinality++;
+                return true;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return false;
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.max(4, 2 * cardinality));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            if (cardinality > MAX_ARRAY_CARDINALITY) {
+                convertToBitmap();
+            }
+            return true;
+        }
+
+        /**
+         * Removes a value. A bitmap only turns back into an array once half as many values remain as
+         * would make it one, so that values added and removed around the limit do not convert it each time.
+         *
+         * @return True if the value was present.
+         */
+        boolean remove(char value) {
+            if (words != null) {
+                long bit = 1L << value;
+                if ((words[value >>> 6] & bit) == 0) {
+                    return false;
+                }
+                words[value >>> 6] &= ~bit;
+                cardinality--;
+                if (cardinality <= MAX_ARRAY_CARDINALITY / 2) {
+                    convertToArray();
+                }
+                return true;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+            return true;
+        }
+
+        /**
+         * Checks whether a value is present.
+         */
+        boolean contains(char value) {
+            if (words != null) {
+                return (words[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        /**
+         * Creates a container of the values present in both this container and another.
+         */
+        Container and(Container other) {
+            if (words != null && other.words != null) {
+                long[] result = new long[BITMAP_WORD_COUNT];
+                for (int i = 0; i < BITMAP_WORD_COUNT; i++) {
+                    result[i] = words[i] & other.words[i];
+                }
+                return ofWords(result);
+            }
+            if (words != null) {
+                return other.and(this);
+            }
+            char[] result = new char[Math.min(cardinality, other.cardinality)];
+            int count = 0;
+            if (other.words != null) {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+                return ofValues(result, count);
+            }
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < other.cardinality) {
+                if (values[i] < other.values[j]) {
+                    i++;
+                } else if (values[i] > other.values[j]) {
+                    j++;
+                } else {
+                    result[count++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return ofValues(result, count);
+        }
+
+        /**
+         * Creates a container of the values present in this container but not in another.
+         */
+        Container andNot(Container other) {
+            if (words == null) {
+                char[] result = new char[cardinality];
+                int count = 0;
+                for (int i = 0; i < cardinality; i++) {
+                    if (!other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+                return ofValues(result, count);
+            }
+            long[] result = words.clone();
+            if (other.words != null) {
+                for (int i = 0; i < BITMAP_WORD_COUNT; i++) {
+                    result[i] &= ~other.words[i];
+                }
+            } else {
+                for (int i = 0; i < other.cardinality; i++) {
+                    result[other.values[i] >>> 6] &= ~(1L << other.values[i]);
+                }
+            }
+            return ofWords(result);
+        }
+
+        /**
+         * Creates a container of the values present in this container, another or both.
+         */
+        Container or(Container other) {
+            if (words == null && other.words == null) {
+                char[] result = new char[cardinality + other.cardinality];
+                int count = 0;
+                int i = 0;
+                int j = 0;
+                while (i < cardinality || j < other.cardinality) {
+                    if (j == other.cardinality || i < cardinality && values[i] < other.values[j]) {
+                        result[count++] = values[i++];
+                    } else if (i == cardinality || values[i] > other.values[j]) {
+                        result[count++] = other.values[j++];
+                    } else {
+                        result[count++] = values[i++];
+                        j++;
+                    }
+                }
+                return ofValues(result, count);
+            }
+            if (words == null) {
+                return other.or(this);
+            }
+            long[] result = words.clone();
+            if (other.words != null) {
+                for (int i = 0; i < BITMAP_WORD_COUNT; i++) {
+                    result[i] |= other.words[i];
+                }
+            } else {
+                for (int i = 0; i < other.cardinality; i++) {
+                    result[other.values[i] >>> 6] |= 1L << other.values[i];
+                }
+            }
+            return ofWords(result);
+        }
+
+        /**
+         * Copies the values into an array, with the given high bits.
+         *
+         * @return The position in the array after the last value copied.
+         */
+        int copyTo(int high, int[] output, int position) {
+            if (words == null) {
+                for (int i = 0; i < cardinality; i++) {
+                    output[position++] = high | values[i];
+                }
+                return position;
+            }
+            for (int i = 0; i < BITMAP_WORD_COUNT; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    output[position++] = high | (i << 6) | Long.numberOfTrailingZeros(word);
+                }
+            }
+            return position;
+        }
+
+        /**
+         * Creates a copy of the container that can be changed independently.
+         */
+        Container copy() {
+            return new Container(values == null ? null : Arrays.copyOf(values, Math.max(4, cardinality)),
+                    words == null ? null : words.clone(), cardinality);
+        }
+
+        /**
+         * Switches from an array of values to a bitmap.
+         */
+        private void convertToBitmap() {
+            words = new long[BITMAP_WORD_COUNT];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        /**
+         * Switches from a bitmap to an array of values.
+         */
+        private void convertToArray() {
+            values = new char[Math.max(4, cardinality)];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORD_COUNT; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    values[count++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                }
+            }
+            words = null;
+        }
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value The value, which must not be negative.
+     */
+    void add(int value) {
+        int high = value >>> 16;
+        int index = findContainer(high);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, high, new Container(new char[4], null, 0));
+        }
+        containers[index].add((char) value);
+    }
+
+    /**
+     * Removes a value, if present.
+     *
+     * @param value The value.
+     */
+    void remove(int value) {
+        int index = findContainer(value >>> 16);
+        if (index >= 0 && containers[index].remove((char) value) && containers[index].cardinality == 0) {
+            System.arraycopy(keys, index + 1, keys, index, containerCount - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, containerCount - index - 1);
+            containers[--containerCount] = null;
+        }
+    }
+
+    /**
+     * Adds or removes a value.
+     *
+     * @param value   The value.
+     * @param isAdded True to add the value, false to remove it.
+     */
+    void set(int value, boolean isAdded) {
+        if (isAdded) {
+            add(value);
+        } else {
+            remove(value);
+        }
+    }
+
+    /**
+     * Checks whether a value is present.
+     *
+     * @param value The value.
+     * @return True if the value is present, false otherwise.
+     */
+    boolean contains(int value) {
+        int index = findContainer(value >>> 16);
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    /**
+     * Counts the values.
+     *
+     * @return The number of values present.
+     */
+    int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < containerCount; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    /**
+     * Creates a copy of the bitmap that can be changed independently.
+     *
+     * @return The copy.
+     */
+    RoaringBitmap copy() {
+        RoaringBitmap copy = new RoaringBitmap();
+        copy.keys = Arrays.copyOf(keys, Math.max(4, containerCount));
+        copy.containers = new Container[copy.keys.length];
+        for (int i = 0; i < containerCount; i++) {
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.containerCount = containerCount;
+        return copy;
+    }
+
+    /**
+     * Keeps only the values also present in another bitmap.
+     *
+     * @param other The other bitmap, which is not changed.
+     */
+    void and(RoaringBitmap other) {
+        int count = 0;
+        int j = 0;
+        for (int i = 0; i < containerCount; i++) {
+            while (j < other.containerCount && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.containerCount && other.keys[j] == keys[i]) {
+                count = keepContainer(count, keys[i], containers[i].and(other.containers[j]));
+            }
+        }
+        truncate(count);
+    }
+
+    /**
+     * Removes the values present in another bitmap.
+     *
+     * @param other The other bitmap, which is not changed.
+     */
+    void andNot(RoaringBitmap other) {
+        int count = 0;
+        int j = 0;
+        for (int i = 0; i < containerCount; i++) {
+            while (j < other.containerCount && other.keys[j] < keys[i]) {
+                j++;
+            }
+            boolean isShared = j < other.containerCount && other.keys[j] == keys[i];
+            count = keepContainer(count, keys[i],
+                    isShared ? containers[i].andNot(other.containers[j]) : containers[i]);
+        }
+        truncate(count);
+    }
+
+    /**
+     * Adds the values present in another bitmap.
+     *
+     * @param other The other bitmap, which is not changed.
+     */
+    void or(RoaringBitmap other) {
+        int[] mergedKeys = new int[containerCount + other.containerCount];
+        Container[] mergedContainers = new Container[mergedKeys.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < containerCount || j < other.containerCount) {
+            if (j == other.containerCount || i < containerCount && keys[i] < other.keys[j]) {
+                mergedKeys[count] = keys[i];
+                mergedContainers[count++] = containers[i++];
+            } else if (i == containerCount || keys[i] > other.keys[j]) {
+                mergedKeys[count] = other.keys[j];
+                mergedContainers[count++] = other.containers[j++].copy();
+            } else {
+                mergedKeys[count] = keys[i];
+                mergedContainers[count++] = containers[i++].or(other.containers[j++]);
+            }
+        }
+        keys = count == 0 ? new int[4] : mergedKeys;
+        containers = count == 0 ? new Container[4] : mergedContainers;
+        containerCount = count;
+    }
+
+    /**
+     * Copies the values into an array.
+     *
+     * @return The values, in increasing order.
+     */
+    int[] toArray() {
+        int[] values = new int[cardinality()];
+        int position = 0;
+        for (int i = 0; i < containerCount; i++) {
+            position = containers[i].copyTo(keys[i] << 16, values, position);
+        }
+        return values;
+    }
+
+    /**
+     * Counts the values up to and including each of the given ints, in a single pass over the bitmap.
+     *
+     * @param sortedValues The ints, in increasing order.
+     * @return The number of values present up to and including each int, in the same order.
+     */
+    int[] rank(int[] sortedValues) {
+        int[] ranks = new int[sortedValues.length];
+        int index = 0;
+        int countBeforeContainer = 0;
+        int word = 0;
+        int countBeforeWord = 0;
+        for (int i = 0; i < sortedValues.length; i++) {
+            int high = sortedValues[i] >>> 16;
+            while (index < containerCount && keys[index] < high) {
+                countBeforeContainer += containers[index++].cardinality;
+                word = 0;
+                countBeforeWord = 0;
+            }
+            if (index == containerCount || keys[index] > high) {
+                ranks[i] = countBeforeContainer;
+                continue;
+            }
+            Container container = containers[index];
+            char low = (char) sortedValues[i];
+            if (container.words == null) {
+                int position = Arrays.binarySearch(container.values, 0, container.cardinality, low);
+                ranks[i] = countBeforeContainer + (position >= 0 ? position + 1 : -position - 1);
+                continue;
+            }
+            while (word < low >>> 6) {
+                countBeforeWord += Long.bitCount(container.words[word++]);
+            }
+            long mask = -1L >>> (63 - (low & 63));
+            ranks[i] = countBeforeContainer + countBeforeWord + Long.bitCount(container.words[word] & mask);
+        }
+        return ranks;
+    }
+
+    /**
+     * Finds the container of the given high bits, checking the last one first since values are mostly
+     * added in increasing order.
+     *
+     * @return The index of the container, or (-(insertion point) - 1) if there is none.
+     */
+    private int findContainer(int high) {
+        if (containerCount > 0 && keys[containerCount - 1] == high) {
+            return containerCount - 1;
+        }
+        return Arrays.binarySearch(keys, 0, containerCount, high);
+    }
+
+    /**
+     * Inserts a container at the given index.
+     */
+    private void insertContainer(int index, int high, Container container) {
+        if (containerCount == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * containerCount);
+            containers = Arrays.copyOf(containers, 2 * containerCount);
+        }
+        System.arraycopy(keys, index, keys, index + 1, containerCount - index);
+        System.arraycopy(containers, index, containers, index + 1, containerCount - index);
+        keys[index] = high;
+        containers[index] = container;
+        containerCount++;
+    }
+
+    /**
+     * Stores the result of an operation on a container at the given index, unless it is empty.
+     *
+     * @return The number of containers kept so far.
+     */
+    private int keepContainer(int count, int high, Container container) {
+        if (container.cardinality == 0) {
+            return count;
+        }
+        keys[count] = high;
+        containers[count] = container;
+        return count + 1;
+    }
+
+    /**
+     * Drops the containers beyond the given number.
+     */
+    private void truncate(int count) {
+        Arrays.fill(containers, count, containerCount, null);
+        containerCount = count;
+    }
+}
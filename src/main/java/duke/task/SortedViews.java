@@ -0,0 +1,335 @@
+package duke.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keeps views of the task list sorted by due date, type or completion status, so that showing a page of
+ * a view costs time proportional to the page rather than a sort of the whole list. Each view is an
+ * order-statistic tree of the tasks by its key, ties in list order, which finds the task at any rank of
+ * the view in logarithmic time. The positions of the tasks in the list are kept in an order-statistic
+ * tree too, which finds the number of any task in logarithmic time however the list has been reordered.
+ * A change to the task list only moves the tasks it touches. Positions are only kept from the first
+ * sorted view shown or task looked up, and each view from its first showing, since most sessions never sort.
+ */
+class SortedViews {
+    /**
+     * The keys the task list can be sorted by.
+     */
+    enum Key {
+        DUE("due"), TYPE("type"), DONE("done");
+
+        private final String name;
+
+        Key(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Finds the key of a name, such as "due".
+         *
+         * @param name The name, in any case.
+         * @return The key, or null if there is none of that name.
+         */
+        static Key parse(String name) {
+            for (Key key : values()) {
+                if (key.name.equals(name.toLowerCase(Locale.ROOT))) {
+                    return key;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Retrieves the name of the key.
+         *
+         * @return The name.
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Computes the value a task is sorted by: the minute a deadline is due, an event starts or a
+         * recurring task first occurs, with to-dos last; the type, in the order of {@link TaskStats#TYPES};
+         * or pending before done.
+         *
+         * @param task The task.
+         * @return The value.
+         */
+        int valueOf(Task task) {
+            switch (this) {
+                case DUE:
+                    LocalDateTime due = getDueDateTime(task);
+                    // Minutes since the epoch fit in an int, as in the keys of the query index
+                    return due == null ? Integer.MAX_VALUE : (int) QueryIndex.toMinute(due);
+                case TYPE:
+                    return TaskStats.TYPES.indexOf(task.getClass());
+                default:
+                    return task.isDone() ? 1 : 0;
+            }
+        }
+    }
+
+    /**
+     * The tree of one view and the node of each task in it.
+     */
+    private static class View {
+        private final Key key;
+        private final OrderStatisticTree<Task> tree = new OrderStatisticTree<>();
+        private final IdentityHashMap<Task, OrderStatisticTree.Node<Task>> nodes = new IdentityHashMap<>();
+
+        private View(Key key) {
+            this.key = key;
+        }
+    }
+
+    /** The tasks in list order, or null if positions are not kept yet. */
+    private static OrderStatisticTree<Task> positions = null;
+    /** The node of each task in the tree of positions. */
+    private static IdentityHashMap<Task, OrderStatisticTree.Node<Task>> positionNodes = new IdentityHashMap<>();
+    /** The views kept, by key. */
+    private static EnumMap<Key, View> views = new EnumMap<>(Key.class);
+
+    /**
+     * The views of a task list that is not in use.
+     */
+    static class State {
+        private final OrderStatisticTree<Task> positions;
+        private final IdentityHashMap<Task, OrderStatisticTree.Node<Task>> positionNodes;
+        private final EnumMap<Key, View> views;
+
+        private State(OrderStatisticTree<Task> positions,
+                      IdentityHashMap<Task, OrderStatisticTree.Node<Task>> positionNodes, EnumMap<Key, View> views) {
+            this.positions = positions;
+            this.positionNodes = positionNodes;
+            this.views = views;
+        }
+    }
+
+    /**
+     * Sets the views aside, leaving none kept until the next sorted view shown.
+     *
+     * @return The views set aside.
+     */
+    static State detach() {
+        State state = new State(positions, positionNodes, views);
+        positions = null;
+        positionNodes = new IdentityHashMap<>();
+        views = new EnumMap<>(Key.class);
+        return state;
+    }
+
+    /**
+     * Puts views set aside back in use, replacing the current ones.
+     *
+     * @param state The views set aside.
+     */
+    static void attach(State state) {
+        positions = state.positions;
+        positionNodes = state.positionNodes;
+        views = state.views;
+    }
+
+    /**
+     * Finds a page of the task list sorted by a key, building the view if it is not kept yet.
+     * Must be called holding the lock of the task list.
+     *
+     * @param key          The key.
+     * @param isDescending Whether the view is read from its end, reversing ties too.
+     * @param offset       The number of tasks of the view before the page.
+     * @param count        The largest number of tasks on the page.
+     * @return The tasks of the page by their number in the list, in the order of the view.
+     */
+    static LinkedHashMap<Integer, Task> findPage(Key key, boolean isDescending, int offset, int count) {
+        OrderStatisticTree<Task> tree = getView(key).tree;
+        LinkedHashMap<Integer, Task> page = new LinkedHashMap<>();
+        int size = tree.size();
+        if (offset >= size) {
+            return page;
+        }
+        OrderStatisticTree.Node<Task> node = tree.select(isDescending ? size - 1 - offset : offset);
+        for (int i = 0; i < count && node != null; i++) {
+            Task task = node.getValue();
+            page.put(positions.rankOf(positionNodes.get(task)) + 1, task);
+            node = isDescending ? tree.previous(node) : tree.next(node);
+        }
+        return page;
+    }
+
+    /**
+     * Finds the position of a task in the task list in logarithmic time, keeping positions from now on.
+     *
+     * @param task The task, which must be in the task list.
+     * @return The position of the task.
+     */
+    static int indexOf(Task task) {
+        keepPositions();
+        return positions.rankOf(positionNodes.get(task));
+    }
+
+    /**
+     * Adds a task just inserted into the task list.
+     *
+     * @param index The position of the task in the task list.
+     * @param task  The task.
+     */
+    static void insert(int index, Task task) {
+        if (positions == null) {
+            return;
+        }
+        positionNodes.put(task, positions.insertAt(index, task));
+        for (View view : views.values()) {
+            add(view, task);
+        }
+    }
+
+    /**
+     * Drops a task just removed from the task list.
+     *
+     * @param task The task.
+     */
+    static void remove(Task task) {
+        if (positions == null) {
+            return;
+        }
+        positions.remove(positionNodes.remove(task));
+        for (View view : views.values()) {
+            view.tree.remove(view.nodes.remove(task));
+        }
+    }
+
+    /**
+     * Puts a task in the place of the one it has just replaced in the task list.
+     *
+     * @param oldTask The task replaced.
+     * @param newTask The task taking its place.
+     */
+    static void replace(Task oldTask, Task newTask) {
+        if (positions == null) {
+            return;
+        }
+        OrderStatisticTree.Node<Task> node = positionNodes.remove(oldTask);
+        positions.replace(node, newTask);
+        positionNodes.put(newTask, node);
+        for (View view : views.values()) {
+            view.tree.remove(view.nodes.remove(oldTask));
+            add(view, newTask);
+        }
+    }
+
+    /**
+     * Moves a task just moved to another position in the task list, in the views too, since its
+     * place among the tasks it ties with has changed.
+     *
+     * @param index The new position of the task in the task list.
+     * @param task  The task.
+     */
+    static void move(int index, Task task) {
+        if (positions == null) {
+            return;
+        }
+        positions.remove(positionNodes.get(task));
+        positionNodes.put(task, positions.insertAt(index, task));
+        update(task);
+    }
+
+    /**
+     * Sorts a task just changed in place again, such as one marked as done or postponed.
+     *
+     * @param task The task.
+     */
+    static void update(Task task) {
+        for (View view : views.values()) {
+            view.tree.remove(view.nodes.get(task));
+            add(view, task);
+        }
+    }
+
+    /**
+     * Retrieves the view of a key, building it and the positions if they are not kept yet.
+     */
+    private static View getView(Key key) {
+        List<Task> tasks = TaskList.taskList;
+        keepPositions();
+        View view = views.get(key);
+        if (view == null) {
+            view = build(key, tasks);
+            views.put(key, view);
+        }
+        assert positions.size() == tasks.size() : "Positions out of step with the task list";
+        return view;
+    }
+
+    /**
+     * Builds the positions of the tasks in the list if they are not kept yet.
+     */
+    private static void keepPositions() {
+        if (positions != null) {
+            return;
+        }
+        List<Task> tasks = TaskList.taskList;
+        positions = new OrderStatisticTree<>();
+        List<OrderStatisticTree.Node<Task>> nodes = positions.build(tasks);
+        for (int i = 0; i < tasks.size(); i++) {
+            positionNodes.put(tasks.get(i), nodes.get(i));
+        }
+    }
+
+    /**
+     * Builds the view of a key, sorting the values and positions of the tasks packed into longs,
+     * so that ties fall in list order.
+     */
+    private static View build(Key key, List<Task> tasks) {
+        long[] packedKeys = new long[tasks.size()];
+        for (int i = 0; i < packedKeys.length; i++) {
+            packedKeys[i] = (long) key.valueOf(tasks.get(i)) << 32 | i;
+        }
+        Arrays.sort(packedKeys);
+        List<Task> sortedTasks = new ArrayList<>(packedKeys.length);
+        for (long packedKey : packedKeys) {
+            sortedTasks.add(tasks.get((int) packedKey));
+        }
+        View view = new View(key);
+        List<OrderStatisticTree.Node<Task>> nodes = view.tree.build(sortedTasks);
+        for (int i = 0; i < sortedTasks.size(); i++) {
+            view.nodes.put(sortedTasks.get(i), nodes.get(i));
+        }
+        return view;
+    }
+
+    /**
+     * Adds a task to a view, after the tasks sorting before it or tying with it earlier in the list.
+     */
+    private static void add(View view, Task task) {
+        int value = view.key.valueOf(task);
+        int position = positions.rankOf(positionNodes.get(task));
+        view.nodes.put(task, view.tree.insert(task, (newTask, other) -> {
+            int comparison = Integer.compare(value, view.key.valueOf(other));
+            if (comparison != 0) {
+                return comparison;
+            }
+            return Integer.compare(position, positions.rankOf(positionNodes.get(other)));
+        }));
+    }
+
+    /**
+     * Retrieves the date and time a task is due by, or null for a to-do.
+     */
+    private static LocalDateTime getDueDateTime(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getBy();
+        } else if (task instanceof Event) {
+            return ((Event) task).getFromDateTime();
+        } else if (task instanceof Recurring) {
+            return ((Recurring) task).getStartDateTime();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,273 @@
+package duke.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges the file of the task list in use, as written by another process, into the task list.
+ * The lines of the file are fed in order, and a line holding a task at the version this process
+ * last synced is kept without being parsed, so only the lines changed elsewhere are parsed.
+ * Tasks changed here since the last sync win over changes made elsewhere to the same tasks, tasks
+ * added elsewhere are added at the end of the list, and tasks gone from the file are deleted.
+ * Every change goes through the same primitives as commands, so that every index stays up to date.
+ */
+public class StoreMerge {
+    /** The change feed version at which this process last loaded, saved or merged the file. */
+    private final long syncedVersion;
+    /** The largest identifier or version in the file. */
+    private long fileVersion = 0;
+    /** The identifiers of the tasks kept unchanged, in file order. */
+    private long[] keptIds = new long[16];
+    private int keptCount = 0;
+    /** The tasks parsed from lines changed elsewhere, in file order. */
+    private final List<Task> parsedTasks = new ArrayList<>();
+    /** The identifiers of the parsed tasks, to tell tasks written twice. */
+    private final HashSet<Long> parsedIds = new HashSet<>();
+    /** The number of parsed tasks without an identifier or version, such as tasks appended by one-shot adds. */
+    private int unversionedCount = 0;
+    /** The deletions in the file, as versions by identifier. */
+    private final HashMap<Long, Long> tombstones = new HashMap<>();
+    /** The horizon in the file. */
+    private long horizon = 0;
+
+    /** What the merge took in from the file, or null if nothing. */
+    private String report = null;
+    /** Whether the file no longer holds what the merged list should, and must be written again. */
+    private boolean isRewriteNeeded = false;
+    /** Whether tasks were deleted, moving the tasks after them to other numbers. */
+    private boolean isRenumbered = false;
+
+    /**
+     * Creates a merge against the task list in use.
+     *
+     * @param syncedVersion The change feed version at which this process last loaded, saved or merged the file.
+     */
+    public StoreMerge(long syncedVersion) {
+        this.syncedVersion = syncedVersion;
+    }
+
+    /**
+     * Keeps the task of a line without parsing it, if the line holds it at the version last synced.
+     *
+     * @param id      The identifier in the line, or 0 if it has none.
+     * @param version The version in the line, or 0 if it has none.
+     * @return True if the task is unchanged and kept, false if the line must be parsed and added.
+     */
+    public boolean keepIfUnchanged(long id, long version) {
+        Task task = id == 0 ? null : ChangeFeed.getTask(id);
+        if (task == null || version == 0 || version > syncedVersion || task.getVersion() != version) {
+            return false;
+        }
+        if (keptCount == keptIds.length) {
+            keptIds = Arrays.copyOf(keptIds, keptCount * 2);
+        }
+        keptIds[keptCount++] = id;
+        fileVersion = Math.max(fileVersion, Math.max(id, version));
+        return true;
+    }
+
+    /**
+     * Adds a task parsed from a line that was not kept.
+     *
+     * @param task The parsed task, holding the identifier and version of the line if it has them.
+     */
+    public void addTask(Task task) {
+        assert task != null : "Task must not be null";
+
+        if (task.getId() == 0 || task.getVersion() == 0 || !parsedIds.add(task.getId())) {
+            // Stamped as loading stamps them, so that every process gives them the same identifiers
+            task.setId(0);
+            unversionedCount++;
+        } else {
+            fileVersion = Math.max(fileVersion, Math.max(task.getId(), task.getVersion()));
+        }
+        parsedTasks.add(task);
+    }
+
+    /**
+     * Adds a tombstone line.
+     *
+     * @param id      The identifier of the deleted task.
+     * @param version The version at which it was deleted.
+     */
+    public void addTombstone(long id, long version) {
+        tombstones.put(id, version);
+        fileVersion = Math.max(fileVersion, version);
+    }
+
+    /**
+     * Adds the horizon line.
+     *
+     * @param version The latest version whose deletions may have been forgotten.
+     */
+    public void addHorizon(long version) {
+        horizon = Math.max(horizon, version);
+        fileVersion = Math.max(fileVersion, version);
+    }
+
+    /**
+     * Merges the lines fed into the task list.
+     */
+    public void apply() {
+        List<Task> taskList = TaskList.taskList;
+        // Changes made here are sorted out before their versions move past those in the file
+        HashSet<Long> addedIds = new HashSet<>();
+        HashSet<Long> changedIds = new HashSet<>();
+        for (Task task : ChangeFeed.getTasksChangedSince(syncedVersion).values()) {
+            (task.getId() > syncedVersion ? addedIds : changedIds).add(task.getId());
+        }
+        HashSet<Long> deletedIds = new HashSet<>(ChangeFeed.getTombstonesSince(syncedVersion).values());
+        isRewriteNeeded = !addedIds.isEmpty() || !changedIds.isEmpty() || !deletedIds.isEmpty()
+                || unversionedCount > 0;
+        ChangeFeed.raiseVersion(fileVersion + unversionedCount);
+        ChangeFeed.restampSince(syncedVersion);
+
+        int expectedCount = taskList.size() - addedIds.size();
+        int presentCount = keptCount;
+        int conflictCount = 0;
+        int reassignedCount = 0;
+        long nextId = fileVersion;
+        List<Task> additions = new ArrayList<>();
+        HashMap<Long, Task> replacements = new HashMap<>();
+        for (Task task : parsedTasks) {
+            boolean isUnversioned = task.getId() == 0;
+            if (isUnversioned) {
+                task.setId(++nextId);
+                task.setVersion(nextId);
+            }
+            Task ownTask = ChangeFeed.getTask(task.getId());
+            boolean isChangedThere = task.getVersion() > syncedVersion;
+            if (ownTask != null && addedIds.contains(ownTask.getId())) {
+                // Both processes gave the same identifier to new tasks; the one not yet written gives way
+                TaskList.reassignTaskId(ownTask);
+                addedIds.add(ownTask.getId());
+                reassignedCount++;
+                additions.add(task);
+            } else if (isUnversioned) {
+                if (ownTask != null) {
+                    // The identifier every process would give it is taken here, so it is stamped anew
+                    task.setId(0);
+                    task.setVersion(0);
+                }
+                additions.add(task);
+            } else if (ownTask == null) {
+                if (!deletedIds.contains(task.getId())) {
+                    additions.add(task);
+                } else if (isChangedThere) {
+                    conflictCount++;
+                }
+            } else if (changedIds.contains(task.getId())) {
+                presentCount++;
+                conflictCount += isChangedThere ? 1 : 0;
+            } else {
+                presentCount++;
+                replacements.put(task.getId(), task);
+            }
+        }
+
+        List<Integer> deletions = new ArrayList<>();
+        boolean isMissing = presentCount < expectedCount;
+        if (isMissing || !replacements.isEmpty()) {
+            long[] sortedKeptIds = Arrays.copyOf(keptIds, keptCount);
+            Arrays.sort(sortedKeptIds);
+            for (int i = 0; i < taskList.size(); i++) {
+                Task ownTask = taskList.get(i);
+                long id = ownTask.getId();
+                Task task = replacements.get(id);
+                if (task != null) {
+                    long version = task.getVersion();
+                    TaskList.replaceTask(i, task);
+                    ChangeFeed.adoptVersion(task, version);
+                } else if (isMissing && !addedIds.contains(id) && !parsedIds.contains(id)
+                        && Arrays.binarySearch(sortedKeptIds, id) < 0) {
+                    if (changedIds.contains(id)) {
+                        conflictCount++;
+                    } else {
+                        deletions.add(i);
+                    }
+                }
+            }
+        }
+        for (int i = deletions.size() - 1; i >= 0; i--) {
+            Task task = TaskList.removeTask(deletions.get(i));
+            Long version = tombstones.get(task.getId());
+            if (version != null) {
+                ChangeFeed.adoptDeletion(task.getId(), version);
+            }
+        }
+        for (Task task : additions) {
+            long version = task.getVersion();
+            TaskList.insertTask(taskList.size(), task);
+            if (version != 0) {
+                ChangeFeed.adoptVersion(task, version);
+            }
+        }
+        for (Map.Entry<Long, Long> tombstone : tombstones.entrySet()) {
+            if (tombstone.getValue() > syncedVersion && ChangeFeed.getTask(tombstone.getKey()) == null) {
+                ChangeFeed.restoreTombstone(tombstone.getKey(), tombstone.getValue());
+            }
+        }
+        ChangeFeed.restoreHorizon(horizon);
+
+        isRewriteNeeded |= reassignedCount > 0;
+        isRenumbered = !deletions.isEmpty();
+        report = describe(additions.size(), replacements.size(), deletions.size(), conflictCount);
+        if (additions.size() + replacements.size() + deletions.size() + reassignedCount > 0) {
+            // Recorded positions and tasks may no longer be where the log expects them
+            UndoLog.clear();
+        }
+    }
+
+    /**
+     * Describes what the merge took in from the file.
+     */
+    private static String describe(int addedCount, int changedCount, int deletedCount, int conflictCount) {
+        if (addedCount + changedCount + deletedCount + conflictCount == 0) {
+            return null;
+        }
+        StringBuilder message = new StringBuilder("    Another hand has meddled with your scroll! ")
+                .append("From elsewhere, I took in ").append(addedCount).append(" added, ")
+                .append(changedCount).append(" changed and ").append(deletedCount).append(" deleted task(s).");
+        if (conflictCount > 0) {
+            message.append("\n    Where both hands changed the same task, yours prevailed: ")
+                    .append(conflictCount).append(" task(s).");
+        }
+        if (addedCount + changedCount + deletedCount > 0) {
+            message.append("\n    What came before can no longer be undone.");
+        }
+        return message.toString();
+    }
+
+    /**
+     * Retrieves what the merge took in from the file.
+     *
+     * @return The report, or null if nothing was taken in.
+     */
+    public String getReport() {
+        return report;
+    }
+
+    /**
+     * Checks whether tasks were deleted, so that task numbers seen before the merge may now name other tasks.
+     *
+     * @return True if tasks were deleted, false otherwise.
+     */
+    public boolean isRenumbered() {
+        return isRenumbered;
+    }
+
+    /**
+     * Checks whether the file must be written again to hold the merged list.
+     * It must if tasks were changed here, or if tasks in it lacked identifiers, which are
+     * written so that every process agrees on them.
+     *
+     * @return True if the file must be written, false otherwise.
+     */
+    public boolean isRewriteNeeded() {
+        return isRewriteNeeded;
+    }
+}
@@ -1,13 +1,73 @@
 package duke.task;
 
+import duke.exception.DukeException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
 /**
- * Represents a task with a description and completion status.
+ * Represents a task with a description and completion status, and optionally a priority and tags.
  */
 public class Task {
+    /**
+     * The format in which dates and times are displayed, such as "Dec 02 2019 18:00".
+     * Month names are spelled out here rather than looked up in the locale data, which is slow to load
+     * at startup, and they stay in English so that displayed dates can be typed back in.
+     */
+    static final DateTimeFormatter DISPLAY_DATE_TIME_FORMAT = new DateTimeFormatterBuilder()
+            .appendText(ChronoField.MONTH_OF_YEAR, getMonthNames())
+            .appendPattern(" dd yyyy HH:mm")
+            .toFormatter(Locale.ENGLISH);
+    /** The format in which dates alone are displayed, such as "Dec 02 2019", with the same month names. */
+    static final DateTimeFormatter DISPLAY_DATE_FORMAT = new DateTimeFormatterBuilder()
+            .appendText(ChronoField.MONTH_OF_YEAR, getMonthNames())
+            .appendPattern(" dd yyyy")
+            .toFormatter(Locale.ENGLISH);
+    /** The lowest priority a task can have, p1 being the highest. Tasks without a priority have 0. */
+    public static final int MAX_PRIORITY = 3;
+    /** The number of characters a tag holds at most. */
+    private static final int MAX_TAG_LENGTH = 32;
+
     /** The description of the task. */
     private String description;
     /** The completion status of the task. */
     private boolean isDone;
+    /** The identifier of the task, assigned when it first enters the task list. */
+    private long id;
+    /** The task list version at which the task was last changed. */
+    private long version;
+    /** The priority of the task, from 1 for the highest to {@link #MAX_PRIORITY}, or 0 if it has none. */
+    private int priority;
+    /** The tags of the task, sorted and never changed in place, so they can be handed out as they are. */
+    private List<String> tags = Collections.emptyList();
+    /** When the task was marked as done, or null if it is not done or was done before this was recorded. */
+    private LocalDateTime completedDateTime;
+    /** The key ordering the task in the views kept by {@link TaskSnapshots}, or 0 if it has none. */
+    private long orderKey;
+
+    /**
+     * Builds the English abbreviations of month names by month number.
+     *
+     * @return The abbreviated month names.
+     */
+    private static Map<Long, String> getMonthNames() {
+        String[] names = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+        Map<Long, String> monthNames = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            monthNames.put((long) i + 1, names[i]);
+        }
+        return monthNames;
+    }
 
     /**
      * Constructs a task with the given description and sets its completion status to false.
@@ -45,10 +105,198 @@ public class Task {
     }
 
     /**
-     * Marks the task as not done.
+     * Marks the task as not done, forgetting when it was completed.
      */
     public void unmarkAsDone() {
         this.isDone = false;
+        this.completedDateTime = null;
+    }
+
+    /**
+     * Retrieves when the task was marked as done.
+     *
+     * @return The date and time of completion, or null if the task is not done or it is not known.
+     */
+    public LocalDateTime getCompletedDateTime() {
+        return completedDateTime;
+    }
+
+    /**
+     * Sets when the task was marked as done.
+     *
+     * @param completedDateTime The date and time of completion, or null if it is not known.
+     */
+    public void setCompletedDateTime(LocalDateTime completedDateTime) {
+        this.completedDateTime = completedDateTime;
+    }
+
+    /**
+     * Retrieves the identifier of the task.
+     *
+     * @return The identifier of the task, or 0 if none has been assigned yet.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the identifier of the task.
+     *
+     * @param id The new identifier of the task.
+     */
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Retrieves the task list version at which the task was last changed.
+     *
+     * @return The version of the last change to the task.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the task list version at which the task was last changed.
+     *
+     * @param version The version of the last change to the task.
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Retrieves the priority of the task.
+     *
+     * @return The priority, from 1 for the highest to {@link #MAX_PRIORITY}, or 0 if the task has none.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority of the task.
+     *
+     * @param priority The priority, from 1 for the highest to {@link #MAX_PRIORITY}, or 0 for none.
+     */
+    public void setPriority(int priority) {
+        assert priority >= 0 && priority <= MAX_PRIORITY : "Priority must be between 0 and " + MAX_PRIORITY;
+
+        this.priority = priority;
+    }
+
+    /**
+     * Retrieves the tags of the task.
+     *
+     * @return The tags in alphabetical order, which cannot be changed.
+     */
+    public List<String> getTags() {
+        return tags;
+    }
+
+    /**
+     * Sets the tags of the task.
+     *
+     * @param tags The tags, as returned by {@link #parseTag}.
+     */
+    public void setTags(Collection<String> tags) {
+        if (tags.size() <= 1) {
+            // Most tasks bear one tag or none, which need no sorting
+            this.tags = tags.isEmpty() ? Collections.emptyList() : Collections.singletonList(tags.iterator().next());
+        } else {
+            this.tags = Collections.unmodifiableList(new ArrayList<>(new TreeSet<>(tags)));
+        }
+    }
+
+    /**
+     * Parses a priority such as "p1", "1" or "none".
+     *
+     * @param text The priority as typed.
+     * @return The priority, from 1 to {@link #MAX_PRIORITY}, or 0 for none.
+     * @throws DukeException If the text is not a priority.
+     */
+    public static int parsePriority(String text) throws DukeException {
+        String value = text.trim().toLowerCase(Locale.ROOT);
+        if (value.equals("none")) {
+            return 0;
+        }
+        String digits = value.startsWith("p") ? value.substring(1) : value;
+        if (digits.length() == 1 && digits.charAt(0) >= '0' && digits.charAt(0) <= '0' + MAX_PRIORITY) {
+            return digits.charAt(0) - '0';
+        }
+        throw DukeException.invalidPriorityFormat();
+    }
+
+    /**
+     * Parses a tag such as "#ops", dropping the leading '#' and ignoring case. Tags hold letters,
+     * digits, '-' and '_' only, so that they can be stored and typed back without quoting.
+     *
+     * @param text The tag as typed.
+     * @return The tag, in lower case and without '#'.
+     * @throws DukeException If the text is not a valid tag.
+     */
+    public static String parseTag(String text) throws DukeException {
+        String tag = text.trim().toLowerCase(Locale.ROOT);
+        tag = tag.startsWith("#") ? tag.substring(1) : tag;
+        boolean isValid = !tag.isEmpty() && tag.length() <= MAX_TAG_LENGTH && tag.charAt(0) != '-'
+                && tag.charAt(0) != '_';
+        for (int i = 0; i < tag.length() && isValid; i++) {
+            char c = tag.charAt(i);
+            isValid = c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '-' || c == '_';
+        }
+        if (!isValid) {
+            throw DukeException.invalidTag(text.trim());
+        }
+        return tag;
+    }
+
+    /**
+     * Creates a copy of the task holding the same state, which later changes to the task leave untouched.
+     *
+     * @return The copy.
+     */
+    Task copy() {
+        return copyStateTo(new Task(description));
+    }
+
+    /**
+     * Gives a copy of the task the state every task holds.
+     *
+     * @param copy The copy, holding the state of its own type already.
+     * @param <T>  The type of the task.
+     * @return The copy.
+     */
+    <T extends Task> T copyStateTo(T copy) {
+        Task task = copy;
+        task.isDone = isDone;
+        task.id = id;
+        task.version = version;
+        task.priority = priority;
+        // The tags are never changed in place, so the copy can share them
+        task.tags = tags;
+        task.completedDateTime = completedDateTime;
+        task.orderKey = orderKey;
+        return copy;
+    }
+
+    /**
+     * Retrieves the key ordering the task in the views kept by {@link TaskSnapshots} and in stores
+     * saving each task under its key.
+     *
+     * @return The key, or 0 if the task has none.
+     */
+    public long getOrderKey() {
+        return orderKey;
+    }
+
+    /**
+     * Sets the key ordering the task in the views kept by {@link TaskSnapshots}.
+     *
+     * @param orderKey The key, or 0 for none.
+     */
+    public void setOrderKey(long orderKey) {
+        this.orderKey = orderKey;
     }
 
     /**
@@ -66,7 +314,14 @@ public class Task {
      * @return A string representation of the task.
      */
     public String toString() {
-        return "[" + getStatusIcon() + "] " + description;
+        if (priority == 0 && tags.isEmpty()) {
+            return "[" + getStatusIcon() + "] " + description;
+        }
+        StringBuilder labels = new StringBuilder(priority > 0 ? "p" + priority : "");
+        for (String tag : tags) {
+            labels.append(labels.length() == 0 ? "#" : " #").append(tag);
+        }
+        return "[" + getStatusIcon() + "] " + description + " (" + labels + ")";
     }
 
     /**
@@ -0,0 +1,95 @@
+package duke.task;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change made to the task list by a command, published on the {@link TaskEventBus} once the task
+ * list holds it, for listeners to act on.
+ */
+public abstract class TaskEvent {
+    /** The task changed. */
+    private final Task task;
+
+    TaskEvent(Task task) {
+        this.task = task;
+    }
+
+    /**
+     * Retrieves the task changed. It is only safe to read while holding the lock of the task list,
+     * taken with {@link TaskEventBus#lockTaskList}.
+     *
+     * @return The task.
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * A task added to the task list.
+     */
+    public static class Added extends TaskEvent {
+        Added(Task task) {
+            super(task);
+        }
+    }
+
+    /**
+     * A task deleted from the task list.
+     */
+    public static class Deleted extends TaskEvent {
+        Deleted(Task task) {
+            super(task);
+        }
+    }
+
+    /**
+     * A task marked as done or not done.
+     */
+    public static class Marked extends TaskEvent {
+        private final boolean isDone;
+
+        Marked(Task task, boolean isDone) {
+            super(task);
+            this.isDone = isDone;
+        }
+
+        /**
+         * Checks whether the task was marked as done.
+         *
+         * @return True if it was marked as done, false if as not done.
+         */
+        public boolean isDone() {
+            return isDone;
+        }
+    }
+
+    /**
+     * A deadline, event or recurring task given a new due date and time or start.
+     */
+    public static class Postponed extends TaskEvent {
+        private final LocalDateTime newDateTime;
+
+        Postponed(Task task, LocalDateTime newDateTime) {
+            super(task);
+            this.newDateTime = newDateTime;
+        }
+
+        /**
+         * Retrieves the new due date and time of a deadline, or start of an event or recurring task.
+         *
+         * @return The new date and time.
+         */
+        public LocalDateTime getNewDateTime() {
+            return newDateTime;
+        }
+    }
+
+    /**
+     * Any other change, such as new labels or changes undone or redone, which may touch several tasks.
+     */
+    public static class Changed extends TaskEvent {
+        Changed() {
+            super(null);
+        }
+    }
+}
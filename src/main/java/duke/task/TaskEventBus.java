@@ -0,0 +1,212 @@
+package duke.task;
+
+import duke.log.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Carries changes to the task list from commands to the listeners that act on them, such as saving.
+ * Once started, events are written into a ring buffer and handed to the listeners by a background
+ * thread, so a command only changes the task list in memory and publishes. The ring buffer is free of
+ * locks: the thread running commands is its only writer and claims slots by sequence number, and the
+ * background thread takes every event published since its last pass into one batch, so listeners act
+ * once for a burst of commands. The thread running commands holds the lock of the task list while it
+ * runs one, and listeners take it with {@link #lockTaskList} for as long as they read the task list,
+ * so they see it between commands and may let commands go on while they work from a view of it.
+ * While waiting for the lock, the background thread keeps taking events out of the ring buffer, so a
+ * command publishing more events than the ring buffer holds never waits on a thread waiting on it.
+ * Until started, events are handed to the listeners at once, on the thread publishing them.
+ */
+public class TaskEventBus {
+    /** The number of slots in the ring buffer, a power of two. */
+    private static final int CAPACITY = 1024;
+    private static final int MASK = CAPACITY - 1;
+
+    /** The number of milliseconds the background thread waits for the lock before taking more events. */
+    private static final long LOCK_WAIT_MILLIS = 1;
+
+    /** The lock held while the task list is read or changed by commands and listeners. */
+    private static final ReentrantLock taskListLock = new ReentrantLock();
+    /** The listeners, in the order they subscribed. */
+    private static final List<TaskEventListener> listeners = new CopyOnWriteArrayList<>();
+    /** The ring buffer, holding the event of each sequence number in the slot it masks to. */
+    private static final TaskEvent[] ring = new TaskEvent[CAPACITY];
+    /** The sequence number of the last event published. */
+    private static final AtomicLong publishedSequence = new AtomicLong(-1);
+    /** The sequence number of the last event taken out of the ring buffer, freeing its slot. */
+    private static final AtomicLong takenSequence = new AtomicLong(-1);
+    /** The sequence number of the last event handed to the listeners. */
+    private static final AtomicLong dispatchedSequence = new AtomicLong(-1);
+    /** The sequence number of the next event to publish. Only used by the thread publishing. */
+    private static long nextSequence = 0;
+    /** The background thread handing events to the listeners, or null if it has not been started. */
+    private static volatile Thread thread = null;
+    /** Whether the background thread is about to wait, or waiting, for events to be published. */
+    private static volatile boolean isIdle = false;
+    /** The events taken out of the ring buffer and not yet handed to the listeners, used by the background thread. */
+    private static List<TaskEvent> batch = new ArrayList<>();
+
+    /**
+     * Retrieves the lock to hold while reading or changing the task list outside of a listener.
+     *
+     * @return The lock of the task list.
+     */
+    public static ReentrantLock getTaskListLock() {
+        return taskListLock;
+    }
+
+    /**
+     * Takes the lock of the task list for a listener, to be released with {@code getTaskListLock().unlock()}.
+     * On the background thread, events published while waiting are taken out of the ring buffer meanwhile,
+     * so that a command holding the lock and publishing never waits on the listener.
+     */
+    public static void lockTaskList() {
+        if (Thread.currentThread() != thread) {
+            taskListLock.lock();
+            return;
+        }
+        try {
+            while (!taskListLock.tryLock(LOCK_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                takeEvents();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            taskListLock.lock();
+        }
+    }
+
+    /**
+     * Checks whether the background thread has been started, so that listeners run on it rather than
+     * on the thread publishing.
+     *
+     * @return True if the background thread has been started, false otherwise.
+     */
+    public static boolean isStarted() {
+        return thread != null;
+    }
+
+    /**
+     * Adds a listener for the events published from now on.
+     *
+     * @param listener The listener.
+     */
+    public static void subscribe(TaskEventListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Publishes an event. Must be called by the thread running commands, holding the lock of the task list.
+     * Waits only if the background thread has fallen a whole ring buffer behind.
+     *
+     * @param event The event.
+     */
+    static void publish(TaskEvent event) {
+        if (thread == null) {
+            dispatch(Collections.singletonList(event));
+            return;
+        }
+        long sequence = nextSequence++;
+        while (sequence - takenSequence.get() > CAPACITY) {
+            // The ring buffer is full, so the slot still holds an event not yet taken
+            LockSupport.unpark(thread);
+            Thread.yield();
+        }
+        ring[(int) sequence & MASK] = event;
+        // Publishing after writing the slot makes the event visible to the background thread with it
+        publishedSequence.set(sequence);
+        if (isIdle) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Starts the background thread that hands events to the listeners, if it is not running yet.
+     */
+    public static synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        Thread dispatcher = new Thread(TaskEventBus::dispatchEvents, "duke-task-events");
+        dispatcher.setDaemon(true);
+        thread = dispatcher;
+        dispatcher.start();
+    }
+
+    /**
+     * Waits until every event published has been handed to the listeners.
+     * Must not be called while holding the lock of the task list, which the listeners need.
+     */
+    public static void drain() {
+        assert !taskListLock.isHeldByCurrentThread() : "Listeners cannot run while the task list is locked";
+
+        while (thread != null && dispatchedSequence.get() < publishedSequence.get()) {
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    /**
+     * Takes batches of events out of the ring buffer and hands them to the listeners, waiting while none
+     * are published.
+     */
+    private static void dispatchEvents() {
+        while (true) {
+            if (!takeEvents() && batch.isEmpty()) {
+                isIdle = true;
+                // Checked again once idle, so that an event published meanwhile is not left waiting
+                if (publishedSequence.get() <= takenSequence.get()) {
+                    LockSupport.park();
+                }
+                isIdle = false;
+                continue;
+            }
+            // Events taken while a listener waits for the lock are left for the next batch
+            List<TaskEvent> events = batch;
+            long last = takenSequence.get();
+            batch = new ArrayList<>();
+            dispatch(events);
+            dispatchedSequence.set(last);
+        }
+    }
+
+    /**
+     * Takes every event published since the last call out of the ring buffer into the batch, freeing
+     * their slots. Only called by the background thread.
+     *
+     * @return True if any event was taken, false otherwise.
+     */
+    private static boolean takeEvents() {
+        long first = takenSequence.get() + 1;
+        long last = publishedSequence.get();
+        for (long sequence = first; sequence <= last; sequence++) {
+            int slot = (int) sequence & MASK;
+            batch.add(ring[slot]);
+            ring[slot] = null;
+        }
+        takenSequence.set(last);
+        return last >= first;
+    }
+
+    /**
+     * Hands a batch of events to every listener. A listener that fails is logged and the others still run,
+     * so that one failure does not stop the background thread and every listener with it.
+     *
+     * @param batch The events.
+     */
+    private static void dispatch(List<TaskEvent> batch) {
+        for (TaskEventListener listener : listeners) {
+            try {
+                listener.onEvents(batch);
+            } catch (RuntimeException e) {
+                Log.error(TaskEventBus.class, "A listener failed to handle " + batch.size() + " event(s)", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package duke.task;
+
+import java.util.List;
+
+/**
+ * Acts on changes to the task list published on the {@link TaskEventBus}.
+ */
+public interface TaskEventListener {
+    /**
+     * Acts on a batch of changes. The lock of the task list is not held, so a listener reading the task
+     * list takes it with {@link TaskEventBus#lockTaskList}.
+     *
+     * @param events The changes, in the order they were made.
+     */
+    void onEvents(List<TaskEvent> events);
+}
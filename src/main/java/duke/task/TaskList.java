@@ -2,11 +2,21 @@ package duke.task;
 
 import duke.exception.DukeException;
 import duke.ui.Ui;
-import duke.storage.Storage;
+import duke.storage.TaskRepository;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * Represents a list of tasks.
@@ -17,6 +27,27 @@ public class TaskList {
      * The list of tasks.
      */
     public static ArrayList<Task> taskList = new ArrayList<>();
+    /**
+     * Where the task list is saved and loaded, chosen when Duke starts.
+     */
+    private static final TaskRepository repository = TaskRepository.create();
+    /**
+     * The largest number of fuzzy matches displayed.
+     */
+    private static final int FUZZY_DISPLAY_LIMIT = 20;
+    /**
+     * The number of tasks on each page of a sorted view.
+     */
+    private static final int SORTED_PAGE_SIZE = 50;
+
+    /**
+     * Retrieves where the task list is saved and loaded.
+     *
+     * @return The repository.
+     */
+    public static TaskRepository getRepository() {
+        return repository;
+    }
 
     /**
      * Reads tasks from a file and loads them into the task list.
@@ -24,14 +55,37 @@ public class TaskList {
      * @throws DukeException If there is an error while reading tasks from the file.
      */
     public void readTasksFromFile() throws DukeException {
-        ArrayList<Task> loadedTasks = Storage.loadTasksFromFile();
-        if (!loadedTasks.isEmpty()) {
-            taskList.addAll(loadedTasks);
+        loadTasks();
+        if (!taskList.isEmpty()) {
             System.out.println("    " + taskList.size() + " task(s) loaded from previous session!");
             Ui.printHorizontalLine();
         }
     }
 
+    /**
+     * Loads the tasks of the workspace in use into the empty task list, without announcing them.
+     *
+     * @throws DukeException If there is an error while reading tasks from the file.
+     */
+    public static void loadTasks() throws DukeException {
+        restoreTasks(repository.loadTasks());
+    }
+
+    /**
+     * Fills the empty task list with tasks loaded from storage and rebuilds the indexes over them.
+     *
+     * @param loadedTasks The loaded tasks, in list order.
+     */
+    static void restoreTasks(List<Task> loadedTasks) {
+        taskList.addAll(loadedTasks);
+        ChangeFeed.restore(taskList);
+        ReminderScheduler.scheduleAll(taskList);
+        OverdueSweeper.trackAll(taskList);
+        EventSchedule.addAll(taskList);
+        // Identifiers stamped on tasks from older files are stamped again the same way on the next load
+        repository.markSaved();
+    }
+
     /**
      * Adds a task to the task list and saves tasks to file.
      *
@@ -41,10 +95,46 @@ public class TaskList {
     public static void addTask(Task task) throws DukeException {
         assert task != null : "Task to be added should not be null";
 
-        taskList.add(task);
+        insertTask(taskList.size(), task);
+        UndoLog.record(new Operation.Add(taskList.size() - 1, task));
         Task.echoUserCommand(task);
         System.out.println("    Now you have " + taskList.size() + " task(s) in your list.");
-        Storage.saveTasksToFile(taskList);
+        if (task instanceof Event) {
+            warnAboutConflicts((Event) task);
+        }
+        TaskEventBus.publish(new TaskEvent.Added(task));
+    }
+
+    /**
+     * Warns the user about the events overlapping the given event, if any.
+     *
+     * @param event The event to check.
+     */
+    private static void warnAboutConflicts(Event event) {
+        List<Task> conflicts = EventSchedule.findConflicts(event);
+        if (conflicts.isEmpty()) {
+            return;
+        }
+        System.out.println("    Beware, mortal! This event clashes with:");
+        for (Task conflict : conflicts) {
+            System.out.println("        " + (taskList.indexOf(conflict) + 1) + ". " + conflict);
+        }
+    }
+
+    /**
+     * Displays every pair of events whose time spans overlap.
+     */
+    public static void displayConflicts() {
+        List<Task[]> conflicts = EventSchedule.findAllConflicts();
+        if (conflicts.isEmpty()) {
+            System.out.println("    No events clash. Your calendar is as empty as your soul.");
+            return;
+        }
+        System.out.println("    ======= Clashing Events =======");
+        for (Task[] pair : conflicts) {
+            System.out.println("        " + (taskList.indexOf(pair[0]) + 1) + ". " + pair[0]);
+            System.out.println("          clashes with " + (taskList.indexOf(pair[1]) + 1) + ". " + pair[1]);
+        }
     }
 
     /**
@@ -54,12 +144,72 @@ public class TaskList {
         if (taskList.isEmpty()) {
             System.out.println("    Your feeble Task List is Empty!");
         } else {
-            System.out.println("    ======= Scroll of Puny Tasks =======");
-            for (int i = 0; i < taskList.size(); i++) {
-                System.out.println("         " + (i + 1) + ". " + taskList.get(i));
-            }
+            // Printed at once, since printing line by line flushes the output once per task
+            StringBuilder lines = new StringBuilder("    ======= Scroll of Puny Tasks =======");
+            String lineSeparator = System.lineSeparator();
+            ParallelScan.render(taskList, null, (output, number, task) -> output.append(lineSeparator)
+                    .append("         ").append(number).append(". ").append(task), lines);
+            System.out.println(lines);
+        }
+    }
+
+    /**
+     * Displays the tasks satisfying the filters of the "list" command, with their numbers in the list.
+     *
+     * @param filters The filters, as parsed by {@link Query#parseFilters}.
+     */
+    public static void displayFilteredList(Query filters) {
+        LinkedHashMap<Integer, Task> matches = findQueryMatches(filters);
+        if (matches.isEmpty()) {
+            System.out.println("    No tasks in your feeble list bear those marks.");
+            return;
+        }
+        StringBuilder lines = new StringBuilder("    ======= Scroll of Puny Tasks =======");
+        String lineSeparator = System.lineSeparator();
+        for (Map.Entry<Integer, Task> match : matches.entrySet()) {
+            lines.append(lineSeparator).append("         ").append(match.getKey()).append(". ")
+                    .append(match.getValue());
         }
-        Ui.printHorizontalLine();
+        System.out.println(lines);
+    }
+
+    /**
+     * Displays a page of the task list sorted by due date, type or completion status, with the numbers
+     * of the tasks in the list. Only the tasks on the page are looked at, since the views are kept sorted.
+     *
+     * @param keyName      The name of the key to sort by: "due", "type" or "done".
+     * @param isDescending Whether to show the view in reverse.
+     * @param pageNumber   The number of the page, from 1.
+     * @throws DukeException If the key is unknown or the page number is not positive.
+     */
+    public static void displaySortedList(String keyName, boolean isDescending, int pageNumber) throws DukeException {
+        SortedViews.Key key = SortedViews.Key.parse(keyName);
+        if (key == null || pageNumber < 1) {
+            throw DukeException.invalidSortFormat();
+        }
+        if (taskList.isEmpty()) {
+            System.out.println("    Your feeble Task List is Empty!");
+            return;
+        }
+        int pageCount = (taskList.size() + SORTED_PAGE_SIZE - 1) / SORTED_PAGE_SIZE;
+        if (pageNumber > pageCount) {
+            DukeException.handleGracefulError("    Fool! Your pitiful list fills only " + pageCount + " page(s)!");
+            return;
+        }
+        LinkedHashMap<Integer, Task> page = SortedViews.findPage(key, isDescending,
+                (pageNumber - 1) * SORTED_PAGE_SIZE, SORTED_PAGE_SIZE);
+        StringBuilder lines = new StringBuilder("    ======= Scroll of Puny Tasks, by " + key.getName()
+                + (isDescending ? ", reversed" : "") + " =======");
+        String lineSeparator = System.lineSeparator();
+        for (Map.Entry<Integer, Task> entry : page.entrySet()) {
+            lines.append(lineSeparator).append("         ").append(entry.getKey()).append(". ")
+                    .append(entry.getValue());
+        }
+        if (pageCount > 1) {
+            lines.append(lineSeparator).append("    Page ").append(pageNumber).append(" of ").append(pageCount)
+                    .append(pageNumber < pageCount ? ". Demand more with --page " + (pageNumber + 1) + "." : ".");
+        }
+        System.out.println(lines);
     }
 
     /**
@@ -74,12 +224,13 @@ public class TaskList {
         assert isValidTaskNumber(taskNumber, taskList) : "Invalid task number";
 
         if (isValidTaskNumber(taskNumber, taskList)) {
-            Task deletedTask = taskList.remove(taskNumber - 1);
-            Storage.saveTasksToFile(TaskList.taskList);
+            Task deletedTask = removeTask(taskNumber - 1);
+            UndoLog.record(new Operation.Delete(taskNumber - 1, deletedTask));
+            TaskEventBus.publish(new TaskEvent.Deleted(deletedTask));
             System.out.println("    Witness the eradication of this feeble task:\n         " + taskNumber + ". " + deletedTask.toString());
             System.out.println("    Now you have " + taskList.size() + " task(s) in the list. Tremble!");
         } else {
-            System.out.println("    Fool! That task number is beyond the realm of your pitiful list!");
+            DukeException.handleGracefulError("    Fool! That task number is beyond the realm of your pitiful list!");
         }
     }
 
@@ -104,14 +255,15 @@ public class TaskList {
         if (TaskList.isValidTaskNumber(taskNumber, TaskList.taskList)) {
             Task task = TaskList.taskList.get(taskNumber - 1);
             if (!task.isDone()) {
-                task.markAsDone();
+                setTaskDone(task, true);
+                UndoLog.record(new Operation.Mark(task, true, task.getCompletedDateTime()));
                 System.out.println("    Hmph! I've smitten this task from the list:\n         " + taskNumber + ". " + task);
-                Storage.saveTasksToFile(TaskList.taskList);
+                TaskEventBus.publish(new TaskEvent.Marked(task, true));
             } else {
                 System.out.println("    Fool! This task has already been marked as done!\n         " + taskNumber + ". " + task);
             }
         } else {
-            System.out.println("    Fool! That task number is beyond the realm of your pitiful list!");
+            DukeException.handleGracefulError("    Fool! That task number is beyond the realm of your pitiful list!");
         }
     }
 
@@ -125,39 +277,329 @@ public class TaskList {
         if (TaskList.isValidTaskNumber(taskNumber, TaskList.taskList)) {
             Task task = TaskList.taskList.get(taskNumber - 1);
             if (task.isDone()) {
-                task.unmarkAsDone();
+                LocalDateTime completedDateTime = task.getCompletedDateTime();
+                setTaskDone(task, false);
+                UndoLog.record(new Operation.Mark(task, false, completedDateTime));
                 System.out.println("    Bah! I've restored this task to its pathetic existence:\n      " + taskNumber + ". " + task);
-                Storage.saveTasksToFile(TaskList.taskList);
+                TaskEventBus.publish(new TaskEvent.Marked(task, false));
             } else {
                 System.out.println("    Fool! This task is already in its wretched, incomplete state!\n      " + taskNumber + ". " + task);
             }
         } else {
-            System.out.println("    You dare invoke the invalid task number? Pathetic!");
+            DukeException.handleGracefulError("    You dare invoke the invalid task number? Pathetic!");
         }
     }
 
+    /**
+     * Adds tags to a task, or removes them.
+     *
+     * @param taskNumber The number of the task.
+     * @param tags       The tags, as returned by {@link Task#parseTag}; when removing, none stands for all.
+     * @param isAdded    True to add the tags, false to remove them.
+     * @throws DukeException If there is an error while saving tasks to file.
+     */
+    public static void tagTask(int taskNumber, List<String> tags, boolean isAdded) throws DukeException {
+        if (!isValidTaskNumber(taskNumber, taskList)) {
+            DukeException.handleGracefulError("    Fool! That task number is beyond the realm of your pitiful list!");
+            return;
+        }
+        Task task = taskList.get(taskNumber - 1);
+        TreeSet<String> newTags = new TreeSet<>(task.getTags());
+        if (isAdded) {
+            newTags.addAll(tags);
+        } else if (tags.isEmpty()) {
+            newTags.clear();
+        } else {
+            newTags.removeAll(tags);
+        }
+        relabelTask(taskNumber, task, task.getPriority(), newTags, isAdded
+                ? "    So be it! I have branded this task:" : "    Hmph! I have burned those marks from this task:");
+    }
+
+    /**
+     * Sets the priority of a task.
+     *
+     * @param taskNumber The number of the task.
+     * @param priority   The priority, from 1 for the highest to {@link Task#MAX_PRIORITY}, or 0 for none.
+     * @throws DukeException If there is an error while saving tasks to file.
+     */
+    public static void prioritizeTask(int taskNumber, int priority) throws DukeException {
+        if (!isValidTaskNumber(taskNumber, taskList)) {
+            DukeException.handleGracefulError("    Fool! That task number is beyond the realm of your pitiful list!");
+            return;
+        }
+        Task task = taskList.get(taskNumber - 1);
+        relabelTask(taskNumber, task, priority, task.getTags(), "    The order of your doom is set:");
+    }
+
+    /**
+     * Moves a task to another place in the list, shifting the tasks in between by one, and saves tasks to file.
+     *
+     * @param taskNumber    The number of the task.
+     * @param newTaskNumber The number of the task once moved.
+     * @throws DukeException If there is an error while saving tasks to file.
+     */
+    public static void moveTask(int taskNumber, int newTaskNumber) throws DukeException {
+        if (!isValidTaskNumber(taskNumber, taskList) || !isValidTaskNumber(newTaskNumber, taskList)) {
+            DukeException.handleGracefulError("    Fool! That task number is beyond the realm of your pitiful list!");
+            return;
+        }
+        Task task = taskList.get(taskNumber - 1);
+        if (taskNumber == newTaskNumber) {
+            System.out.println("    Fool! This task already stands there!\n         " + taskNumber + ". " + task);
+            return;
+        }
+        repositionTask(taskNumber - 1, newTaskNumber - 1);
+        UndoLog.record(new Operation.Move(taskNumber - 1, newTaskNumber - 1, task));
+        System.out.println("    So be it! I have dragged this task to its new place:\n         " + newTaskNumber + ". "
+                + task);
+        TaskEventBus.publish(new TaskEvent.Changed());
+    }
+
+    /**
+     * Gives a task a new priority and tags, recording the change for undo and saving tasks to file,
+     * unless they are the ones it has.
+     */
+    private static void relabelTask(int taskNumber, Task task, int priority, Collection<String> tags,
+                                    String message) throws DukeException {
+        int oldPriority = task.getPriority();
+        List<String> oldTags = task.getTags();
+        if (priority == oldPriority && oldTags.equals(new ArrayList<>(tags))) {
+            System.out.println("    Fool! This task already bears those marks!\n         " + taskNumber + ". " + task);
+            return;
+        }
+        labelTask(task, priority, tags);
+        UndoLog.record(new Operation.Label(task, oldPriority, oldTags, priority, task.getTags()));
+        System.out.println(message + "\n         " + taskNumber + ". " + task);
+        TaskEventBus.publish(new TaskEvent.Changed());
+    }
+
     /**
      * Finds tasks containing a specific keyword and displays them.
      *
      * @param keyword The keyword to search for in task descriptions.
      */
     public static void findTasksByKeyword(String keyword) {
-        boolean isFound = false;
-        for (int i = 0; i < TaskList.taskList.size(); i++) {
-            Task task = TaskList.taskList.get(i);
-            if (task.getDescription().toLowerCase().contains(keyword.toLowerCase())) {
-                if (!isFound) {
-                    System.out.println("    Tasks containing keyword '" + keyword + "':");
-                    isFound = true;
+        String lowerKeyword = keyword.toLowerCase();
+        StringBuilder lines = new StringBuilder("    Tasks containing keyword '" + keyword + "':");
+        String lineSeparator = System.lineSeparator();
+        int matchCount = ParallelScan.render(taskList,
+                task -> task.getDescription().toLowerCase().contains(lowerKeyword),
+                (output, number, task) -> output.append(lineSeparator)
+                        .append("        ").append(number).append(". ").append(task), lines);
+        if (matchCount == 0) {
+            System.out.println("    No tasks containing keyword '" + keyword + "' found.");
+        } else {
+            System.out.println(lines);
+        }
+    }
+
+    /**
+     * Finds tasks resembling a keyword despite typos and displays the closest ones, closest first.
+     *
+     * @param keyword The words to search for in task descriptions.
+     */
+    public static void displayFuzzyMatches(String keyword) {
+        List<Task> matches = new ArrayList<>();
+        int matchCount = FuzzySearch.find(keyword, FUZZY_DISPLAY_LIMIT, matches);
+        if (matchCount == 0) {
+            System.out.println("    No tasks resembling '" + keyword + "' found.");
+            return;
+        }
+        StringBuilder output = new StringBuilder("    Tasks resembling '" + keyword + "', closest first:");
+        for (Map.Entry<Integer, Task> match : numberTasks(matches).entrySet()) {
+            output.append("\n        ").append(match.getKey()).append(". ").append(match.getValue());
+        }
+        if (matchCount > matches.size()) {
+            output.append("\n    ...and ").append(matchCount - matches.size()).append(" lesser match(es).");
+        }
+        System.out.println(output);
+    }
+
+    /**
+     * Finds every task resembling a keyword despite typos.
+     *
+     * @param keyword The words to search for in task descriptions.
+     * @return The matching tasks by their number in the list, closest first.
+     */
+    public static LinkedHashMap<Integer, Task> findFuzzyMatches(String keyword) {
+        List<Task> matches = new ArrayList<>();
+        FuzzySearch.find(keyword, Integer.MAX_VALUE, matches);
+        return numberTasks(matches);
+    }
+
+    /**
+     * Looks up the numbers of some tasks in the list in a single pass.
+     *
+     * @param tasks The tasks, all in the list.
+     * @return The tasks by their number in the list, in the given order.
+     */
+    private static LinkedHashMap<Integer, Task> numberTasks(List<Task> tasks) {
+        IdentityHashMap<Task, Integer> numbers = new IdentityHashMap<>();
+        for (Task task : tasks) {
+            numbers.put(task, 0);
+        }
+        for (int i = 0; i < taskList.size(); i++) {
+            numbers.replace(taskList.get(i), i + 1);
+        }
+        LinkedHashMap<Integer, Task> numberedTasks = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            numberedTasks.put(numbers.get(task), task);
+        }
+        return numberedTasks;
+    }
+
+    /**
+     * Finds the tasks matching a query and displays them, optionally with how the query was run.
+     *
+     * @param query       The query.
+     * @param isExplained Whether to display how the query was run.
+     */
+    public static void displayQueryMatches(Query query, boolean isExplained) {
+        QueryPlanner.Plan plan = QueryPlanner.plan(query);
+        LinkedHashMap<Integer, Task> matches = plan.run();
+        StringBuilder output = new StringBuilder();
+        if (isExplained) {
+            output.append("    Plan: ").append(plan.describe()).append(".\n");
+        }
+        if (matches.isEmpty()) {
+            output.append("    No tasks match the query.");
+        } else {
+            output.append("    Tasks matching the query:");
+        }
+        for (Map.Entry<Integer, Task> match : matches.entrySet()) {
+            output.append("\n        ").append(match.getKey()).append(". ").append(match.getValue());
+        }
+        System.out.println(output);
+    }
+
+    /**
+     * Finds every task matching a query.
+     *
+     * @param query The query.
+     * @return The matching tasks by their number in the list, in list order.
+     */
+    public static LinkedHashMap<Integer, Task> findQueryMatches(Query query) {
+        return QueryPlanner.plan(query).run();
+    }
+
+    /**
+     * Displays the deadlines, events and occurrences of recurring tasks that are due
+     * from now until the given date and time, in chronological order.
+     * Recurring tasks are expanded only within this window.
+     *
+     * @param endDateTime The end of the window, inclusive.
+     */
+    public static void displayTasksDueBefore(LocalDateTime endDateTime) {
+        LocalDateTime now = LocalDateTime.now();
+        TreeMap<LocalDateTime, List<String>> dueEntries = new TreeMap<>();
+        for (int i = 0; i < taskList.size(); i++) {
+            Task task = taskList.get(i);
+            String prefix = (i + 1) + ". ";
+            if (task instanceof Deadline) {
+                addDueEntry(dueEntries, ((Deadline) task).getBy(), now, endDateTime, prefix + task);
+            } else if (task instanceof Event) {
+                addDueEntry(dueEntries, ((Event) task).getFromDateTime(), now, endDateTime, prefix + task);
+            } else if (task instanceof Recurring) {
+                Recurring recurringTask = (Recurring) task;
+                String label = prefix + "[R][" + task.getStatusIcon() + "] " + task.getDescription() + " (on: ";
+                for (LocalDateTime occurrence : recurringTask.getOccurrencesBetween(now, endDateTime)) {
+                    addDueEntry(dueEntries, occurrence, now, endDateTime,
+                            label + occurrence.format(Task.DISPLAY_DATE_TIME_FORMAT) + ")");
                 }
-                System.out.println("        " + (i + 1) + ". " + task);
             }
         }
-        if (!isFound) {
-            System.out.println("    No tasks containing keyword '" + keyword + "' found.");
+        if (dueEntries.isEmpty()) {
+            System.out.println("    Nothing is due before then, mortal. Enjoy your fleeting respite.");
+            return;
+        }
+        System.out.println("    ======= Doom Approaching =======");
+        for (List<String> entries : dueEntries.values()) {
+            for (String entry : entries) {
+                System.out.println("        " + entry);
+            }
+        }
+    }
+
+    /**
+     * Displays the deadlines flagged as overdue, earliest first, with their numbers in the list.
+     */
+    public static void displayOverdueTasks() {
+        List<Deadline> overdueTasks = OverdueSweeper.getOverdueTasks();
+        if (overdueTasks.isEmpty()) {
+            System.out.println("    No deadline has slipped past you... yet.");
+            return;
+        }
+        int[] slots = QueryIndex.findByTasks(new ArrayList<>(overdueTasks)).toArray();
+        int[] numbers = QueryIndex.toTaskNumbers(slots);
+        IdentityHashMap<Task, Integer> numbersByTask = new IdentityHashMap<>();
+        for (int i = 0; i < slots.length; i++) {
+            numbersByTask.put(QueryIndex.getTask(slots[i]), numbers[i]);
+        }
+        System.out.println("    ======= Doom Already Upon You =======");
+        for (Deadline task : overdueTasks) {
+            System.out.println("        " + numbersByTask.get(task) + ". " + task);
+        }
+    }
+
+    /**
+     * Displays tallies of the task list: tasks by type and completion status, overdue deadlines,
+     * deadlines and events due on each of the coming days, and tasks completed on each of the past days.
+     * The tallies are kept up to date as tasks change, so no task is looked at.
+     *
+     * @param days The number of days before and after today that the histograms cover.
+     */
+    public static void displayStats(int days) {
+        assert days > 0 : "The number of days should be positive";
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        int doneCount = TaskStats.getTotalCount(true);
+        int totalCount = doneCount + TaskStats.getTotalCount(false);
+        System.out.println("    ======= Tally of Your Feeble Efforts =======");
+        System.out.println("    Tasks: " + totalCount + ", of which " + doneCount + " done ("
+                + (totalCount == 0 ? 0 : Math.round(100.0 * doneCount / totalCount)) + "%)");
+        for (Class<? extends Task> type : TaskStats.TYPES) {
+            System.out.println("        " + type.getSimpleName() + ": " + TaskStats.getCount(type, false)
+                    + " pending, " + TaskStats.getCount(type, true) + " done");
+        }
+        System.out.println("    Overdue deadlines: " + TaskStats.getOverdueCount(now));
+
+        System.out.println("    Due in the next " + days + " day(s):");
+        TreeMap<LocalDate, int[]> dueByDay = TaskStats.getDueByDay(today, today.plusDays(days - 1));
+        for (LocalDate day = today; day.isBefore(today.plusDays(days)); day = day.plusDays(1)) {
+            int[] dueCounts = dueByDay.getOrDefault(day, new int[2]);
+            System.out.println("        " + day.format(Task.DISPLAY_DATE_FORMAT) + ": "
+                    + dueCounts[TaskStats.DEADLINES] + " deadline(s), " + dueCounts[TaskStats.EVENTS] + " event(s)");
+        }
+
+        System.out.println("    Completed in the last " + days + " day(s):");
+        TreeMap<LocalDate, Integer> completedByDay = TaskStats.getCompletedByDay(today.minusDays(days - 1), today);
+        int completedCount = 0;
+        for (LocalDate day = today.minusDays(days - 1); !day.isAfter(today); day = day.plusDays(1)) {
+            int dayCount = completedByDay.getOrDefault(day, 0);
+            completedCount += dayCount;
+            System.out.println("        " + day.format(Task.DISPLAY_DATE_FORMAT) + ": " + dayCount);
         }
+        System.out.println("    That is " + String.format(Locale.ROOT, "%.1f", (double) completedCount / days)
+                + " task(s) a day. The shadow grows impatient.");
     }
 
+    /**
+     * Adds a line to the due entries if its date and time lies within the window.
+     *
+     * @param dueEntries The due entries by date and time.
+     * @param dateTime   The date and time at which the entry is due.
+     * @param from       The start of the window, inclusive.
+     * @param to         The end of the window, inclusive.
+     * @param entry      The line to display.
+     */
+    private static void addDueEntry(TreeMap<LocalDateTime, List<String>> dueEntries, LocalDateTime dateTime,
+                                    LocalDateTime from, LocalDateTime to, String entry) {
+        if (!dateTime.isBefore(from) && !dateTime.isAfter(to)) {
+            dueEntries.computeIfAbsent(dateTime, key -> new ArrayList<>()).add(entry);
+        }
+    }
 
     /**
      * Postpones the due date of a task.
@@ -176,10 +618,10 @@ public class TaskList {
                 DukeException.handleGracefulError(DukeException.invalidPostponeTaskType());
             } else if (task instanceof Deadline) {
                 Deadline deadlineTask = (Deadline) task;
-                deadlineTask.setBy(newDueDateTime);
+                postponeDeadline(deadlineTask, newDueDateTime);
                 System.out.println("    Deadline Task has been postponed successfully:\n" +
                                    "        " + taskNumber + ". " + deadlineTask);
-                Storage.saveTasksToFile(taskList);
+                TaskEventBus.publish(new TaskEvent.Postponed(deadlineTask, newDueDateTime));
             } else if (task instanceof Event) {
                 Event eventTask = (Event) task;
                 LocalDateTime oldStartDateTime = eventTask.getFromDateTime();
@@ -192,13 +634,317 @@ public class TaskList {
                 LocalDateTime newEndDateTime = newDueDateTime.plus(duration);
 
                 // Update event task with new start and end times
-                eventTask.setFromDateTime(newDueDateTime);
-                eventTask.setToDateTime(newEndDateTime);
+                rescheduleTask(eventTask, newDueDateTime, newEndDateTime);
+                UndoLog.record(new Operation.Reschedule(eventTask, oldStartDateTime, oldEndDateTime,
+                        newDueDateTime, newEndDateTime));
 
                 System.out.println("    Event task has been postponed successfully:\n" +
                                    "        " + taskNumber + ". " + eventTask);
-                Storage.saveTasksToFile(taskList);
+                warnAboutConflicts(eventTask);
+                TaskEventBus.publish(new TaskEvent.Postponed(eventTask, newDueDateTime));
+            } else if (task instanceof Recurring) {
+                Recurring recurringTask = (Recurring) task;
+                LocalDateTime oldStartDateTime = recurringTask.getStartDateTime();
+                rescheduleTask(recurringTask, newDueDateTime, null);
+                UndoLog.record(new Operation.Reschedule(recurringTask, oldStartDateTime, null, newDueDateTime, null));
+                System.out.println("    Recurring task has been postponed successfully:\n" +
+                                   "        " + taskNumber + ". " + recurringTask);
+                TaskEventBus.publish(new TaskEvent.Postponed(recurringTask, newDueDateTime));
             }
         }
     }
+
+    /**
+     * Inserts a task received from another store, replacing the task with the same identifier if present.
+     * The task is stamped with a new local version but is not saved to file.
+     *
+     * @param task The task to insert or replace.
+     */
+    public static void upsertTask(Task task) {
+        assert task != null : "Task to be upserted should not be null";
+
+        Task existingTask = ChangeFeed.getTask(task.getId());
+        if (existingTask == null) {
+            insertTask(taskList.size(), task);
+            UndoLog.record(new Operation.Add(taskList.size() - 1, task));
+        } else {
+            int index = SortedViews.indexOf(existingTask);
+            replaceTask(index, task);
+            UndoLog.record(new Operation.Replace(index, existingTask, task));
+        }
+    }
+
+    /**
+     * Appends a task without echoing, saving or recording it to be undone, for adding many tasks at once.
+     * The tasks appended are then recorded together by {@link #recordAppendedTasks}.
+     *
+     * @param task The task to be appended.
+     */
+    public static void appendTask(Task task) {
+        assert task != null : "Task to be appended should not be null";
+
+        insertTask(taskList.size(), task);
+    }
+
+    /**
+     * Records the tasks appended from the given position to the end of the list as one change, to be
+     * undone together, keeping nothing for each task.
+     *
+     * @param index       The position of the first task appended.
+     * @param description The description of the change.
+     */
+    public static void recordAppendedTasks(int index, String description) {
+        if (index < taskList.size()) {
+            UndoLog.record(new Operation.Append(index, taskList.size() - index, description));
+        }
+    }
+
+    /**
+     * Deletes the task with the given identifier, if present, without saving tasks to file.
+     *
+     * @param id The identifier of the task to be deleted.
+     * @return True if a task was deleted, false otherwise.
+     */
+    public static boolean deleteTaskById(long id) {
+        Task task = ChangeFeed.getTask(id);
+        if (task == null) {
+            return false;
+        }
+        int index = SortedViews.indexOf(task);
+        removeTask(index);
+        UndoLog.record(new Operation.Delete(index, task));
+        return true;
+    }
+
+    /**
+     * Undoes up to the given number of the most recent changes and saves tasks to file.
+     *
+     * @param count The number of changes to undo.
+     * @throws DukeException If there is an error while saving tasks to file.
+     */
+    public static void undoChanges(int count) throws DukeException {
+        List<String> descriptions = UndoLog.undo(count);
+        if (descriptions.isEmpty()) {
+            System.out.println("    Fool! There is nothing left to undo!");
+            return;
+        }
+        System.out.println("    Time itself bends to my will! I have undone:");
+        for (String description : descriptions) {
+            System.out.println("        " + description);
+        }
+        TaskEventBus.publish(new TaskEvent.Changed());
+    }
+
+    /**
+     * Redoes up to the given number of the most recently undone changes and saves tasks to file.
+     *
+     * @param count The number of changes to redo.
+     * @throws DukeException If there is an error while saving tasks to file.
+     */
+    public static void redoChanges(int count) throws DukeException {
+        List<String> descriptions = UndoLog.redo(count);
+        if (descriptions.isEmpty()) {
+            System.out.println("    Fool! There is nothing left to redo!");
+            return;
+        }
+        System.out.println("    So be it! I have redone:");
+        for (String description : descriptions) {
+            System.out.println("        " + description);
+        }
+        TaskEventBus.publish(new TaskEvent.Changed());
+    }
+
+    /**
+     * Inserts a task at the given position without echoing or saving.
+     *
+     * @param index The position at which the task is inserted.
+     * @param task  The task to be inserted.
+     */
+    static void insertTask(int index, Task task) {
+        taskList.add(index, task);
+        ChangeFeed.recordAdded(task);
+        TaskStats.add(task);
+        ReminderScheduler.schedule(task);
+        OverdueSweeper.track(task);
+        EventSchedule.add(task);
+        FuzzySearch.add(task);
+        QueryIndex.insert(index, task);
+        TaskSnapshots.insert(index, task);
+        SortedViews.insert(index, task);
+    }
+
+    /**
+     * Removes the task at the given position without echoing or saving.
+     *
+     * @param index The position of the task to be removed.
+     * @return The removed task.
+     */
+    static Task removeTask(int index) {
+        Task task = taskList.remove(index);
+        ChangeFeed.recordDeleted(task);
+        TaskStats.remove(task);
+        ReminderScheduler.cancel(task);
+        OverdueSweeper.untrack(task);
+        EventSchedule.remove(task);
+        FuzzySearch.remove(task);
+        QueryIndex.remove(task);
+        TaskSnapshots.remove(task);
+        SortedViews.remove(task);
+        return task;
+    }
+
+    /**
+     * Replaces the task at the given position without echoing or saving.
+     *
+     * @param index   The position of the task to be replaced.
+     * @param newTask The task taking its place.
+     */
+    static void replaceTask(int index, Task newTask) {
+        Task oldTask = taskList.set(index, newTask);
+        ChangeFeed.recordReplaced(oldTask, newTask);
+        TaskStats.remove(oldTask);
+        TaskStats.add(newTask);
+        ReminderScheduler.cancel(oldTask);
+        ReminderScheduler.schedule(newTask);
+        OverdueSweeper.untrack(oldTask);
+        OverdueSweeper.track(newTask);
+        EventSchedule.remove(oldTask);
+        EventSchedule.add(newTask);
+        FuzzySearch.remove(oldTask);
+        FuzzySearch.add(newTask);
+        QueryIndex.replace(oldTask, newTask);
+        TaskSnapshots.replace(oldTask, newTask);
+        SortedViews.replace(oldTask, newTask);
+    }
+
+    /**
+     * Moves a task to another position without echoing or saving.
+     * The sorted views, the positions and the snapshots move the task in logarithmic time, but the
+     * list itself is an array, so the tasks after both positions are shifted, in linear time. The query
+     * index is dropped unless the task is moved to the end, and is built again by the next query.
+     *
+     * @param fromIndex The position of the task.
+     * @param toIndex   The position of the task once moved.
+     */
+    static void repositionTask(int fromIndex, int toIndex) {
+        Task task = taskList.remove(fromIndex);
+        taskList.add(toIndex, task);
+        ChangeFeed.recordModified(task);
+        // Slots of the query index follow list order, so the task takes a new slot
+        QueryIndex.remove(task);
+        QueryIndex.insert(toIndex, task);
+        TaskSnapshots.remove(task);
+        TaskSnapshots.insert(toIndex, task);
+        SortedViews.move(toIndex, task);
+    }
+
+    /**
+     * Gives a task a new identifier without echoing or saving, moving it in every index.
+     *
+     * @param task The task to be given a new identifier.
+     */
+    static void reassignTaskId(Task task) {
+        ReminderScheduler.cancel(task);
+        OverdueSweeper.untrack(task);
+        EventSchedule.remove(task);
+        FuzzySearch.remove(task);
+        long oldId = ChangeFeed.reassignId(task);
+        ReminderScheduler.schedule(task);
+        OverdueSweeper.track(task);
+        EventSchedule.add(task);
+        FuzzySearch.add(task);
+        QueryIndex.reassignId(oldId, task);
+        TaskSnapshots.update(task);
+    }
+
+    /**
+     * Sets the completion status of a task without echoing or saving.
+     *
+     * @param task   The task to be updated.
+     * @param isDone True to mark the task as done, false to mark it as not done.
+     */
+    static void setTaskDone(Task task, boolean isDone) {
+        // Whole minutes, the precision of the file
+        setTaskDone(task, isDone, LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES));
+    }
+
+    /**
+     * Sets the completion status of a task without echoing or saving, keeping the given time of completion.
+     *
+     * @param task              The task to be updated.
+     * @param isDone            True to mark the task as done, false to mark it as not done.
+     * @param completedDateTime When the task was completed, or null if it is not known; ignored if it is not done.
+     */
+    static void setTaskDone(Task task, boolean isDone, LocalDateTime completedDateTime) {
+        TaskStats.remove(task);
+        if (isDone) {
+            task.markAsDone();
+            task.setCompletedDateTime(completedDateTime);
+        } else {
+            task.unmarkAsDone();
+        }
+        ChangeFeed.recordModified(task);
+        TaskStats.add(task);
+        ReminderScheduler.schedule(task);
+        OverdueSweeper.track(task);
+        QueryIndex.update(task, false);
+        TaskSnapshots.update(task);
+        SortedViews.update(task);
+    }
+
+    /**
+     * Sets the priority and tags of a task without echoing or saving.
+     *
+     * @param task     The task to be updated.
+     * @param priority The new priority, or 0 for none.
+     * @param tags     The new tags.
+     */
+    static void labelTask(Task task, int priority, Collection<String> tags) {
+        int oldPriority = task.getPriority();
+        List<String> oldTags = task.getTags();
+        task.setPriority(priority);
+        task.setTags(tags);
+        ChangeFeed.recordModified(task);
+        QueryIndex.updateLabels(task, oldPriority, oldTags);
+        TaskSnapshots.update(task);
+    }
+
+    /**
+     * Postpones a deadline without echoing or saving, recording the change to be undone.
+     *
+     * @param task           The deadline to be postponed.
+     * @param newDueDateTime The new due date and time.
+     */
+    static void postponeDeadline(Deadline task, LocalDateTime newDueDateTime) {
+        LocalDateTime oldDueDateTime = task.getBy();
+        rescheduleTask(task, newDueDateTime, null);
+        UndoLog.record(new Operation.Reschedule(task, oldDueDateTime, null, newDueDateTime, null));
+    }
+
+    /**
+     * Sets the due date and time of a deadline, or the start and end of an event, without echoing or saving.
+     *
+     * @param task  The deadline or event to be rescheduled.
+     * @param start The new due date and time of a deadline, or start of an event or recurring series.
+     * @param end   The new end of an event; ignored for deadlines.
+     */
+    static void rescheduleTask(Task task, LocalDateTime start, LocalDateTime end) {
+        TaskStats.remove(task);
+        if (task instanceof Deadline) {
+            ((Deadline) task).setBy(start);
+        } else if (task instanceof Event) {
+            ((Event) task).setFromDateTime(start);
+            ((Event) task).setToDateTime(end);
+        } else if (task instanceof Recurring) {
+            ((Recurring) task).setStartDateTime(start);
+        }
+        ChangeFeed.recordModified(task);
+        TaskStats.add(task);
+        ReminderScheduler.schedule(task);
+        OverdueSweeper.track(task);
+        EventSchedule.add(task);
+        QueryIndex.update(task, true);
+        TaskSnapshots.update(task);
+        SortedViews.update(task);
+    }
 }
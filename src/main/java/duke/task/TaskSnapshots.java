@@ -0,0 +1,377 @@
+package duke.task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Takes point-in-time views of the task list, for readers that work while commands go on changing it,
+ * such as saving on the background thread. The views share one persistent treap holding frozen copies of
+ * the tasks, ordered like the task list by a key each task carries. A change copies the task and the nodes
+ * on the path to it, leaving every node an older view holds untouched, so it costs logarithmic time, and
+ * taking a view costs constant time however long the list.
+ * The treap is built on the first view taken, since only sessions saving in the background take any.
+ * The keys are kept on their own for stores that save each task under its key, such as the key-value
+ * store, from when such a store first asks for them.
+ */
+public class TaskSnapshots {
+    /** The distance between the keys of adjacent tasks when keys are handed out afresh. */
+    public static final long KEY_GAP = 1L << 20;
+
+    /** The number of times keys have been handed out, in any task list. */
+    private static long keyingCount = 0;
+    /** Whether every task in the list carries a key. */
+    private static boolean isKeyed = false;
+    /** The value of the count when the tasks in the list were last keyed, or 0 if they are not keyed. */
+    private static long keying = 0;
+    /** Whether the treap has been built. */
+    private static boolean isBuilt = false;
+    /** The root of the treap, or null if the task list is empty. */
+    private static Node root = null;
+
+    /**
+     * A node of the treap, never changed once built.
+     */
+    private static class Node {
+        private final long key;
+        private final Task task;
+        private final int priority;
+        private final Node left;
+        private final Node right;
+
+        private Node(long key, Task task, int priority, Node left, Node right) {
+            this.key = key;
+            this.task = task;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /**
+     * The task list as it was at one moment, which later changes leave untouched.
+     */
+    public static class View {
+        private final Node root;
+        private final long version;
+        private final Map<Long, Long> tombstones;
+        private final long horizon;
+
+        private View(Node root, long version, Map<Long, Long> tombstones, long horizon) {
+            this.root = root;
+            this.version = version;
+            this.tombstones = tombstones;
+            this.horizon = horizon;
+        }
+
+        /**
+         * Retrieves copies of the tasks, in list order.
+         *
+         * @return The tasks.
+         */
+        public List<Task> getTasks() {
+            List<Task> tasks = new ArrayList<>();
+            Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            while (node != null || !path.isEmpty()) {
+                for (; node != null; node = node.left) {
+                    path.push(node);
+                }
+                node = path.pop();
+                tasks.add(node.task);
+                node = node.right;
+            }
+            return tasks;
+        }
+
+        /**
+         * Retrieves the version of the latest change the view holds.
+         *
+         * @return The version.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Retrieves the tombstones of the deleted tasks, ordered by version.
+         *
+         * @return The identifiers of deleted tasks by the version of their deletion.
+         */
+        public Map<Long, Long> getTombstones() {
+            return tombstones;
+        }
+
+        /**
+         * Retrieves the latest version whose deletions may have been forgotten.
+         *
+         * @return The horizon version.
+         */
+        public long getHorizon() {
+            return horizon;
+        }
+    }
+
+    /**
+     * The treap of a task list that is not in use.
+     */
+    static class State {
+        private final boolean isKeyed;
+        private final long keying;
+        private final boolean isBuilt;
+        private final Node root;
+
+        private State(boolean isKeyed, long keying, boolean isBuilt, Node root) {
+            this.isKeyed = isKeyed;
+            this.keying = keying;
+            this.isBuilt = isBuilt;
+            this.root = root;
+        }
+    }
+
+    /**
+     * Sets the treap aside, leaving none to be built on the next view taken.
+     *
+     * @return The treap set aside.
+     */
+    static State detach() {
+        State state = new State(isKeyed, keying, isBuilt, root);
+        clear();
+        return state;
+    }
+
+    /**
+     * Puts a treap set aside back in use, replacing the current one.
+     *
+     * @param state The treap set aside.
+     */
+    static void attach(State state) {
+        isKeyed = state.isKeyed;
+        keying = state.keying;
+        isBuilt = state.isBuilt;
+        root = state.root;
+    }
+
+    /**
+     * Takes a view of the task list as it is now. Must be called holding the lock of the task list.
+     *
+     * @return The view.
+     */
+    public static View take() {
+        build();
+        return new View(root, ChangeFeed.getCurrentVersion(),
+                Collections.unmodifiableMap(new TreeMap<>(ChangeFeed.getTombstonesSince(0))), ChangeFeed.getHorizon());
+    }
+
+    /**
+     * Makes sure every task in the list carries a key, keeping the keys the tasks were loaded with if
+     * they rise along the list and handing out keys evenly apart otherwise.
+     * Must be called holding the lock of the task list.
+     *
+     * @return The keying in force, which changes whenever keys are handed out afresh, so that a store
+     *         holding the keys of an earlier keying knows to write every task again.
+     */
+    public static long keyTasks() {
+        if (isKeyed) {
+            return keying;
+        }
+        List<Task> tasks = TaskList.taskList;
+        long previousKey = 0;
+        boolean isRising = true;
+        for (int i = 0; i < tasks.size() && isRising; i++) {
+            isRising = tasks.get(i).getOrderKey() > previousKey;
+            previousKey = tasks.get(i).getOrderKey();
+        }
+        if (!isRising) {
+            for (int i = 0; i < tasks.size(); i++) {
+                tasks.get(i).setOrderKey((i + 1) * KEY_GAP);
+            }
+        }
+        isKeyed = true;
+        keying = ++keyingCount;
+        return keying;
+    }
+
+    /**
+     * Adds a task just inserted into the task list, keyed between its neighbours.
+     * If no key is left between them, the keys and the treap are dropped, to be handed out spread out again.
+     *
+     * @param index The position of the task in the task list.
+     * @param task  The task.
+     */
+    static void insert(int index, Task task) {
+        if (!isKeyed) {
+            return;
+        }
+        List<Task> tasks = TaskList.taskList;
+        long before = index > 0 ? tasks.get(index - 1).getOrderKey() : 0;
+        long after = index + 1 < tasks.size() ? tasks.get(index + 1).getOrderKey() : before + 2 * KEY_GAP;
+        if (after - before < 2) {
+            clear();
+            return;
+        }
+        task.setOrderKey(before + (after - before) / 2);
+        if (isBuilt) {
+            root = put(root, task.getOrderKey(), task.copy());
+        }
+    }
+
+    /**
+     * Drops a task just removed from the task list.
+     *
+     * @param task The task.
+     */
+    static void remove(Task task) {
+        if (isBuilt) {
+            root = remove(root, task.getOrderKey());
+        }
+        task.setOrderKey(0);
+    }
+
+    /**
+     * Puts a task in the place of the one it has just replaced in the task list.
+     *
+     * @param oldTask The task replaced.
+     * @param newTask The task taking its place.
+     */
+    static void replace(Task oldTask, Task newTask) {
+        if (isKeyed) {
+            newTask.setOrderKey(oldTask.getOrderKey());
+        }
+        if (isBuilt) {
+            root = put(root, newTask.getOrderKey(), newTask.copy());
+        }
+        oldTask.setOrderKey(0);
+    }
+
+    /**
+     * Copies a task just changed in the task list again.
+     *
+     * @param task The task.
+     */
+    static void update(Task task) {
+        if (isBuilt && task.getOrderKey() != 0) {
+            root = put(root, task.getOrderKey(), task.copy());
+        }
+    }
+
+    /**
+     * Builds the treap from the task list, if not built yet, keying the tasks first if they are not keyed.
+     * Nodes are given priorities by depth, so the treap is balanced however the keys fall.
+     */
+    private static void build() {
+        if (isBuilt) {
+            return;
+        }
+        keyTasks();
+        List<Task> tasks = TaskList.taskList;
+        root = build(tasks, 0, tasks.size() - 1, 0);
+        isBuilt = true;
+    }
+
+    /**
+     * Builds a balanced subtree from a run of the task list.
+     *
+     * @param tasks The task list.
+     * @param from  The position of the first task of the run.
+     * @param to    The position of the last task of the run.
+     * @param depth The depth of the subtree root.
+     * @return The subtree root, or null if the run is empty.
+     */
+    private static Node build(List<Task> tasks, int from, int to, int depth) {
+        if (from > to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Task task = tasks.get(middle);
+        // Priorities drawn from keys stay below a quarter of the range, so built nodes always outrank them
+        return new Node(task.getOrderKey(), task.copy(), Integer.MAX_VALUE - depth,
+                build(tasks, from, middle - 1, depth + 1), build(tasks, middle + 1, to, depth + 1));
+    }
+
+    /**
+     * Forgets the keys and the treap, to be handed out and built again when next needed.
+     */
+    private static void clear() {
+        isKeyed = false;
+        keying = 0;
+        isBuilt = false;
+        root = null;
+    }
+
+    /**
+     * Draws the priority of a node added after the treap was built from its key.
+     */
+    private static int priorityOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 34);
+    }
+
+    /**
+     * Puts a task at a key, copying the path to it and rotating the new node up while it outranks its parent.
+     *
+     * @return The new subtree root.
+     */
+    private static Node put(Node node, long key, Task task) {
+        if (node == null) {
+            return new Node(key, task, priorityOf(key), null, null);
+        }
+        if (key < node.key) {
+            Node left = put(node.left, key, task);
+            if (left.priority > node.priority) {
+                return new Node(left.key, left.task, left.priority, left.left,
+                        new Node(node.key, node.task, node.priority, left.right, node.right));
+            }
+            return new Node(node.key, node.task, node.priority, left, node.right);
+        }
+        if (key > node.key) {
+            Node right = put(node.right, key, task);
+            if (right.priority > node.priority) {
+                return new Node(right.key, right.task, right.priority,
+                        new Node(node.key, node.task, node.priority, node.left, right.left), right.right);
+            }
+            return new Node(node.key, node.task, node.priority, node.left, right);
+        }
+        return new Node(key, task, node.priority, node.left, node.right);
+    }
+
+    /**
+     * Removes the task at a key, copying the path to it and merging its subtrees in its place.
+     *
+     * @return The new subtree root.
+     */
+    private static Node remove(Node node, long key) {
+        if (node == null) {
+            return null;
+        }
+        if (key < node.key) {
+            return new Node(node.key, node.task, node.priority, remove(node.left, key), node.right);
+        }
+        if (key > node.key) {
+            return new Node(node.key, node.task, node.priority, node.left, remove(node.right, key));
+        }
+        return merge(node.left, node.right);
+    }
+
+    /**
+     * Merges two subtrees, every key of the first below every key of the second.
+     *
+     * @return The merged subtree root.
+     */
+    private static Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            return new Node(first.key, first.task, first.priority, first.left, merge(first.right, second));
+        }
+        return new Node(second.key, second.task, second.priority, merge(first, second.left), second.right);
+    }
+}
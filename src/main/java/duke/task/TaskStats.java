@@ -0,0 +1,240 @@
+package duke.task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the figures shown by the stats command up to date as tasks change, so that reading them never
+ * scans the task list: tasks counted by type and completion status, pending deadlines and events counted
+ * by the day they fall due, and done tasks counted by the day they were completed. Counts are read in
+ * constant time, and overdue counts and histograms in time proportional to the days they span.
+ * Recurring tasks fall due again and again, so they are counted by type only.
+ * The figures are gathered on the first request, since most sessions never ask for them.
+ */
+public class TaskStats {
+    /** The types of tasks, in the order of their counts. */
+    public static final List<Class<? extends Task>> TYPES = Arrays.asList(
+            ToDo.class, Deadline.class, Event.class, Recurring.class);
+    /** The position of the count of deadlines, then of events, in the counts of a day. */
+    public static final int DEADLINES = 0;
+    public static final int EVENTS = 1;
+
+    /** Whether the figures have been gathered. */
+    private static boolean isBuilt = false;
+    /** The number of tasks of each type, by type and then 1 for done and 0 for pending. */
+    private static int[][] counts = new int[TYPES.size()][2];
+    /** The number of pending deadlines due at each date and time. */
+    private static TreeMap<LocalDateTime, Integer> pendingDeadlines = new TreeMap<>();
+    /** The number of pending deadlines and events falling due on each day, by epoch day. */
+    private static TreeMap<Long, int[]> dueByDay = new TreeMap<>();
+    /** The number of done tasks completed on each day, by epoch day. */
+    private static TreeMap<Long, Integer> completedByDay = new TreeMap<>();
+
+    /**
+     * The figures of a task list that is not in use.
+     */
+    static class State {
+        private final boolean isBuilt;
+        private final int[][] counts;
+        private final TreeMap<LocalDateTime, Integer> pendingDeadlines;
+        private final TreeMap<Long, int[]> dueByDay;
+        private final TreeMap<Long, Integer> completedByDay;
+
+        private State(boolean isBuilt, int[][] counts, TreeMap<LocalDateTime, Integer> pendingDeadlines,
+                      TreeMap<Long, int[]> dueByDay, TreeMap<Long, Integer> completedByDay) {
+            this.isBuilt = isBuilt;
+            this.counts = counts;
+            this.pendingDeadlines = pendingDeadlines;
+            this.dueByDay = dueByDay;
+            this.completedByDay = completedByDay;
+        }
+    }
+
+    /**
+     * Sets the figures aside, leaving none to be gathered on the next request.
+     *
+     * @return The figures set aside.
+     */
+    static State detach() {
+        State state = new State(isBuilt, counts, pendingDeadlines, dueByDay, completedByDay);
+        clear();
+        return state;
+    }
+
+    /**
+     * Puts figures set aside back in use, replacing the current ones.
+     *
+     * @param state The figures set aside.
+     */
+    static void attach(State state) {
+        isBuilt = state.isBuilt;
+        counts = state.counts;
+        pendingDeadlines = state.pendingDeadlines;
+        dueByDay = state.dueByDay;
+        completedByDay = state.completedByDay;
+    }
+
+    /**
+     * Counts a task that has entered the task list, or has been changed, if the figures have been gathered.
+     *
+     * @param task The task.
+     */
+    static void add(Task task) {
+        if (isBuilt) {
+            count(task, 1);
+        }
+    }
+
+    /**
+     * Stops counting a task that has left the task list, or is about to be changed.
+     *
+     * @param task The task.
+     */
+    static void remove(Task task) {
+        if (isBuilt) {
+            count(task, -1);
+        }
+    }
+
+    /**
+     * Retrieves the number of tasks of a type.
+     *
+     * @param type   The type of the tasks.
+     * @param isDone True to count the tasks done, false to count those pending.
+     * @return The number of tasks.
+     */
+    public static int getCount(Class<? extends Task> type, boolean isDone) {
+        build();
+        return counts[TYPES.indexOf(type)][isDone ? 1 : 0];
+    }
+
+    /**
+     * Retrieves the number of tasks of every type.
+     *
+     * @param isDone True to count the tasks done, false to count those pending.
+     * @return The number of tasks.
+     */
+    public static int getTotalCount(boolean isDone) {
+        build();
+        int count = 0;
+        for (int[] typeCounts : counts) {
+            count += typeCounts[isDone ? 1 : 0];
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the number of pending deadlines that were due before the given time.
+     * Whole days are summed from the daily counts, and only the deadlines of the current day are looked at singly.
+     *
+     * @param now The current date and time.
+     * @return The number of overdue deadlines.
+     */
+    public static int getOverdueCount(LocalDateTime now) {
+        build();
+        int count = 0;
+        for (int[] dayCounts : dueByDay.headMap(now.toLocalDate().toEpochDay()).values()) {
+            count += dayCounts[DEADLINES];
+        }
+        for (int dueCount : pendingDeadlines.subMap(now.toLocalDate().atStartOfDay(), now).values()) {
+            count += dueCount;
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the number of pending deadlines and events falling due on each day of a range.
+     *
+     * @param from The first day, inclusive.
+     * @param to   The last day, inclusive.
+     * @return The counts of the days on which anything falls due, indexed by {@link #DEADLINES} and
+     *         {@link #EVENTS}, by day.
+     */
+    public static TreeMap<LocalDate, int[]> getDueByDay(LocalDate from, LocalDate to) {
+        build();
+        TreeMap<LocalDate, int[]> days = new TreeMap<>();
+        for (Map.Entry<Long, int[]> day : dueByDay.subMap(from.toEpochDay(), true, to.toEpochDay(), true).entrySet()) {
+            days.put(LocalDate.ofEpochDay(day.getKey()), day.getValue().clone());
+        }
+        return days;
+    }
+
+    /**
+     * Retrieves the number of done tasks completed on each day of a range.
+     * Tasks done before completion times were recorded are not counted.
+     *
+     * @param from The first day, inclusive.
+     * @param to   The last day, inclusive.
+     * @return The counts of the days on which any task was completed, by day.
+     */
+    public static TreeMap<LocalDate, Integer> getCompletedByDay(LocalDate from, LocalDate to) {
+        build();
+        TreeMap<LocalDate, Integer> days = new TreeMap<>();
+        for (Map.Entry<Long, Integer> day : completedByDay.subMap(from.toEpochDay(), true, to.toEpochDay(), true)
+                .entrySet()) {
+            days.put(LocalDate.ofEpochDay(day.getKey()), day.getValue());
+        }
+        return days;
+    }
+
+    /**
+     * Gathers the figures from the task list, if not gathered yet.
+     */
+    private static void build() {
+        if (isBuilt) {
+            return;
+        }
+        for (Task task : TaskList.taskList) {
+            count(task, 1);
+        }
+        isBuilt = true;
+    }
+
+    /**
+     * Forgets the figures, to be gathered again on the next request.
+     */
+    private static void clear() {
+        isBuilt = false;
+        counts = new int[TYPES.size()][2];
+        pendingDeadlines = new TreeMap<>();
+        dueByDay = new TreeMap<>();
+        completedByDay = new TreeMap<>();
+    }
+
+    /**
+     * Adds a task to the figures, or takes it away.
+     *
+     * @param task  The task.
+     * @param delta 1 to add the task, -1 to take it away.
+     */
+    private static void count(Task task, int delta) {
+        counts[TYPES.indexOf(task.getClass())][task.isDone() ? 1 : 0] += delta;
+        if (task.isDone()) {
+            if (task.getCompletedDateTime() != null) {
+                completedByDay.merge(task.getCompletedDateTime().toLocalDate().toEpochDay(), delta,
+                        (count, change) -> count + change == 0 ? null : count + change);
+            }
+        } else if (task instanceof Deadline) {
+            LocalDateTime by = ((Deadline) task).getBy();
+            pendingDeadlines.merge(by, delta, (count, change) -> count + change == 0 ? null : count + change);
+            countDue(by.toLocalDate(), DEADLINES, delta);
+        } else if (task instanceof Event) {
+            countDue(((Event) task).getFromDateTime().toLocalDate(), EVENTS, delta);
+        }
+    }
+
+    /**
+     * Adds to the number of deadlines or events falling due on a day, forgetting days left with none.
+     */
+    private static void countDue(LocalDate day, int kind, int delta) {
+        int[] dayCounts = dueByDay.computeIfAbsent(day.toEpochDay(), key -> new int[2]);
+        dayCounts[kind] += delta;
+        if (dayCounts[DEADLINES] == 0 && dayCounts[EVENTS] == 0) {
+            dueByDay.remove(day.toEpochDay());
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package duke.task;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel that holds items until a given minute.
+ * Each of its levels has 64 slots, each slot on one level covering a whole turn of the level below,
+ * so scheduling and cancelling an item take constant time regardless of how many items are held.
+ * A bit mask of occupied slots per level lets the wheel find the next minute at which anything
+ * happens without visiting empty slots, so a caller can sleep until exactly that minute.
+ * The wheel is not thread-safe.
+ *
+ * @param <T> The type of the items held.
+ */
+class TimingWheel<T> {
+    /** The number of bits used to index the slots of one level. */
+    private static final int SLOT_BITS = 6;
+    /** The number of slots of one level. */
+    private static final int SLOT_COUNT = 1 << SLOT_BITS;
+    /** The number of levels. */
+    private static final int LEVEL_COUNT = 5;
+    /** The number of minutes in one turn of the top level, minus one. */
+    private static final long TURN_MASK = (1L << (SLOT_BITS * LEVEL_COUNT)) - 1;
+    /** The pseudo-level holding entries due after the current turn of the top level. */
+    private static final int OVERFLOW_LEVEL = LEVEL_COUNT;
+
+    /**
+     * An item held by the wheel, linked into the slot where it is placed.
+     *
+     * @param <T> The type of the item.
+     */
+    static class Entry<T> {
+        /** The minute at which the item is due. */
+        private final long dueMinute;
+        /** The item. */
+        private final T item;
+        /** The level and slot where the entry is placed, or -1 if it is not placed. */
+        private int level = -1;
+        private int slot;
+        private Entry<T> previous;
+        private Entry<T> next;
+
+        private Entry(long dueMinute, T item) {
+            this.dueMinute = dueMinute;
+            this.item = item;
+        }
+
+        /**
+         * Retrieves the item held by the entry.
+         *
+         * @return The item.
+         */
+        T getItem() {
+            return item;
+        }
+    }
+
+    /** The heads of the entry lists of each slot of each level, followed by the overflow list. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Entry<T>[][] slots = new Entry[LEVEL_COUNT + 1][SLOT_COUNT];
+    /** The occupied slots of each level, one bit per slot, followed by the overflow list. */
+    private final long[] occupiedSlots = new long[LEVEL_COUNT + 1];
+    /** The minute up to which the wheel has advanced. */
+    private long cursor;
+    /** The number of entries held. */
+    private int size = 0;
+
+    /**
+     * Constructs an empty timing wheel whose cursor starts at the given minute.
+     *
+     * @param startMinute The minute at which the cursor starts.
+     */
+    TimingWheel(long startMinute) {
+        this.cursor = startMinute;
+    }
+
+    /**
+     * Schedules an item to expire at the given minute.
+     * Items due at or before the cursor expire on the next advance.
+     *
+     * @param dueMinute The minute at which the item is due.
+     * @param item      The item.
+     * @return The entry, which can be used to cancel the item.
+     */
+    Entry<T> schedule(long dueMinute, T item) {
+        Entry<T> entry = new Entry<>(dueMinute, item);
+        place(entry);
+        size++;
+        return entry;
+    }
+
+    /**
+     * Cancels a scheduled item. Cancelling an item that has already expired does nothing.
+     *
+     * @param entry The entry returned when the item was scheduled.
+     */
+    void cancel(Entry<T> entry) {
+        if (entry.level >= 0) {
+            unlink(entry);
+            size--;
+        }
+    }
+
+    /**
+     * Retrieves the number of items held.
+     *
+     * @return The number of items held.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Finds the next minute at which the wheel has work to do: either an item expires
+     * or the items of a higher-level slot must be moved to lower levels.
+     *
+     * @return The next minute with work, or Long.MAX_VALUE if the wheel is empty.
+     */
+    long getNextWorkMinute() {
+        for (int level = 0; level < LEVEL_COUNT; level++) {
+            int shift = SLOT_BITS * level;
+            int currentSlot = (int) ((cursor >>> shift) & (SLOT_COUNT - 1));
+            // Level 0 includes the current minute; higher levels only hold slots after the current one
+            int firstSlot = level == 0 ? currentSlot : currentSlot + 1;
+            if (firstSlot >= SLOT_COUNT) {
+                continue;
+            }
+            long candidates = occupiedSlots[level] & (-1L << firstSlot);
+            if (candidates != 0) {
+                int slot = Long.numberOfTrailingZeros(candidates);
+                long turnStart = (cursor >>> (shift + SLOT_BITS)) << (shift + SLOT_BITS);
+                return Math.max(cursor, turnStart + ((long) slot << shift));
+            }
+        }
+        if (occupiedSlots[OVERFLOW_LEVEL] != 0) {
+            return (cursor | TURN_MASK) + 1;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Advances the cursor to the given minute, passing every item due by then to the consumer.
+     *
+     * @param minute    The minute to advance to.
+     * @param onExpired The consumer of the expired items.
+     */
+    void advance(long minute, Consumer<T> onExpired) {
+        long workMinute;
+        while ((workMinute = getNextWorkMinute()) <= minute) {
+            cursor = workMinute;
+            for (int level = OVERFLOW_LEVEL; level >= 0; level--) {
+                if (level == OVERFLOW_LEVEL && (cursor & TURN_MASK) != 0) {
+                    continue;
+                }
+                int slot = level == OVERFLOW_LEVEL ? 0 : (int) ((cursor >>> (SLOT_BITS * level)) & (SLOT_COUNT - 1));
+                Entry<T> entry = slots[level][slot];
+                while (entry != null) {
+                    Entry<T> next = entry.next;
+                    unlink(entry);
+                    if (entry.dueMinute <= cursor) {
+                        size--;
+                        onExpired.accept(entry.item);
+                    } else {
+                        place(entry);
+                    }
+                    entry = next;
+                }
+            }
+        }
+        cursor = Math.max(cursor, minute);
+    }
+
+    /**
+     * Links an entry into the slot matching its due minute relative to the cursor.
+     *
+     * @param entry The entry to place.
+     */
+    private void place(Entry<T> entry) {
+        long placedMinute = Math.max(entry.dueMinute, cursor);
+        int level = 0;
+        while (level < OVERFLOW_LEVEL
+                && (placedMinute >>> (SLOT_BITS * (level + 1))) != (cursor >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        // Entries beyond the current turn of the top level wait in the overflow list until the next turn
+        int slot = level == OVERFLOW_LEVEL ? 0 : (int) ((placedMinute >>> (SLOT_BITS * level)) & (SLOT_COUNT - 1));
+
+        entry.level = level;
+        entry.slot = slot;
+        entry.previous = null;
+        entry.next = slots[level][slot];
+        if (entry.next != null) {
+            entry.next.previous = entry;
+        }
+        slots[level][slot] = entry;
+        occupiedSlots[level] |= 1L << slot;
+    }
+
+    /**
+     * Unlinks an entry from its slot.
+     *
+     * @param entry The entry to unlink.
+     */
+    private void unlink(Entry<T> entry) {
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            slots[entry.level][entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        }
+        if (slots[entry.level][entry.slot] == null) {
+            occupiedSlots[entry.level] &= ~(1L << entry.slot);
+        }
+        entry.level = -1;
+        entry.previous = null;
+        entry.next = null;
+    }
+}
@@ -17,6 +17,11 @@ public class ToDo extends Task {
         return null;
     }
 
+    @Override
+    ToDo copy() {
+        return copyStateTo(new ToDo(getDescription()));
+    }
+
     @Override
     public String toString() {
         return "[T]" + super.toString();
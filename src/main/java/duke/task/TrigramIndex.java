@@ -0,0 +1,357 @@
+package duke.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * An index of the words of descriptions for finding them despite typos.
+ * Every distinct word is kept once, with the documents it appears in and its trigrams: the
+ * sequences of three characters of the word padded with a space at each end. A query word is
+ * only compared with the words that share enough of its trigrams, since every edit breaks at most
+ * four of them, so edit distances are computed on a few candidates rather than every description.
+ * Query words too short for that bound fall back on bigrams, of which an edit breaks at most three.
+ * Documents are numbered by the caller in increasing order and are never removed; the caller
+ * skips documents it no longer needs and rebuilds the index once there are too many of them.
+ * The index is not thread-safe.
+ */
+class TrigramIndex {
+    /**
+     * A growable array of ints, which costs far less memory than a list of boxed integers.
+     */
+    private static class IntList {
+        private int[] values = new int[2];
+        private int size = 0;
+
+        /**
+         * Appends a value.
+         */
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        /**
+         * Retrieves the last value, or -1 if there is none.
+         */
+        int last() {
+            return size == 0 ? -1 : values[size - 1];
+        }
+    }
+
+    /** An odd constant, the golden ratio in fixed point, by which packed grams are multiplied. */
+    private static final long GRAM_SCRAMBLER = 0x9E3779B97F4A7C15L;
+
+    /** The identifier of each distinct word. */
+    private final HashMap<String, Integer> wordIds = new HashMap<>();
+    /** The distinct words, by identifier. */
+    private final ArrayList<String> words = new ArrayList<>();
+    /** The documents each word appears in, by word identifier, in increasing order. */
+    private final ArrayList<IntList> documentsByWord = new ArrayList<>();
+    /** The words each bigram and trigram appears in, by gram packed into a long. */
+    private final HashMap<Long, IntList> wordsByGram = new HashMap<>();
+    /** The number of documents numbered so far, one more than the largest document number. */
+    private int documentLimit = 0;
+
+    /** Scratch space reused across searches: shared trigram counts by word, and query progress by document. */
+    private int[] sharedCounts = new int[0];
+    private int[] matchedWords = new int[0];
+    private int[] scores = new int[0];
+    private int[][] distanceRows = new int[3][0];
+
+    /**
+     * Indexes the words of a document.
+     *
+     * @param document    The number of the document, larger than that of every document indexed before.
+     * @param description The text of the document.
+     */
+    void add(int document, String description) {
+        assert document >= documentLimit : "Documents must be added in increasing order";
+
+        documentLimit = document + 1;
+        for (String word : tokenize(description)) {
+            IntList documents = documentsByWord.get(getOrAddWord(word));
+            if (documents.last() != document) {
+                documents.add(document);
+            }
+        }
+    }
+
+    /**
+     * Finds the documents in which every word of a query appears, allowing a few typos per word.
+     * A query word matches a word of a document that contains it, or whose start is within a small
+     * edit distance of it: none for words of up to three letters, one for up to seven, two beyond.
+     * Adjacent letters swapped count as one edit. Each match scores 0 if the words are equal, 1 if
+     * the word merely contains the query word and 2 per edit otherwise, so lower scores are closer.
+     *
+     * @param query The query.
+     * @return The matching documents, each packed as its total score in the high 32 bits and its
+     *         number in the low 32 bits, in no particular order.
+     */
+    long[] search(String query) {
+        return search(query, true);
+    }
+
+    /**
+     * Finds the documents in which every word of a query appears, with or without typos.
+     * Without typos, a query word only matches the words of a document that contain it.
+     *
+     * @param query       The query.
+     * @param allowsTypos Whether query words may match words a few edits away.
+     * @return The matching documents, packed as by {@link #search(String)}.
+     */
+    long[] search(String query, boolean allowsTypos) {
+        String[] queryWords = tokenize(query);
+        if (queryWords.length == 0) {
+            return new long[0];
+        }
+        if (matchedWords.length < documentLimit) {
+            matchedWords = new int[documentLimit];
+            scores = new int[documentLimit];
+        }
+
+        // A document stays a candidate only while it has matched every query word so far
+        IntList candidates = new IntList();
+        for (int i = 0; i < queryWords.length; i++) {
+            for (long match : matchWords(queryWords[i], allowsTypos)) {
+                int score = (int) (match >>> 32);
+                IntList documents = documentsByWord.get((int) match);
+                for (int j = 0; j < documents.size; j++) {
+                    int document = documents.values[j];
+                    if (matchedWords[document] == i) {
+                        // Matches come closest first, so each document keeps its closest word
+                        matchedWords[document] = i + 1;
+                        scores[document] = i == 0 ? score : scores[document] + score;
+                        if (i == 0) {
+                            candidates.add(document);
+                        }
+                    }
+                }
+            }
+        }
+
+        long[] results = new long[candidates.size];
+        int resultCount = 0;
+        for (int i = 0; i < candidates.size; i++) {
+            int document = candidates.values[i];
+            if (matchedWords[document] == queryWords.length) {
+                results[resultCount++] = ((long) scores[document] << 32) | document;
+            }
+            matchedWords[document] = 0;
+        }
+        return Arrays.copyOf(results, resultCount);
+    }
+
+    /**
+     * Finds the indexed words matching a query word.
+     *
+     * @return The matches, each packed as its score in the high 32 bits and the word identifier
+     *         in the low 32 bits, closest first.
+     */
+    private long[] matchWords(String queryWord, boolean allowsTypos) {
+        int maxDistance = allowsTypos ? getMaxDistance(queryWord.length()) : 0;
+        String padded = " " + queryWord + " ";
+        // A word containing the query word shares every gram not touching the padding. Otherwise each
+        // edit breaks at most four trigrams or three bigrams, and a word merely starting with the
+        // query word lacks its last gram. Trigrams are more selective but need longer query words.
+        int minSharedTrigrams = countDistinctGrams(padded, 3) - (maxDistance == 0 ? 2 : 1 + 4 * maxDistance);
+        int minSharedBigrams = countDistinctGrams(padded, 2) - (maxDistance == 0 ? 2 : 1 + 3 * maxDistance);
+        IntList candidates;
+        if (minSharedTrigrams > 0) {
+            candidates = findSharingGrams(padded, 3, minSharedTrigrams);
+        } else if (minSharedBigrams > 0) {
+            candidates = findSharingGrams(padded, 2, minSharedBigrams);
+        } else {
+            // A single letter is in too many words for grams to narrow anything down
+            candidates = new IntList();
+            for (int id = 0; id < words.size(); id++) {
+                candidates.add(id);
+            }
+        }
+
+        long[] matches = new long[candidates.size];
+        int matchCount = 0;
+        for (int i = 0; i < candidates.size; i++) {
+            int id = candidates.values[i];
+            String word = words.get(id);
+            if (word.equals(queryWord)) {
+                matches[matchCount++] = id;
+            } else if (word.contains(queryWord)) {
+                matches[matchCount++] = (1L << 32) | id;
+            } else {
+                int distance = getEditDistance(queryWord, word, maxDistance);
+                if (distance <= maxDistance) {
+                    matches[matchCount++] = ((long) (2 * distance) << 32) | id;
+                }
+            }
+        }
+        matches = Arrays.copyOf(matches, matchCount);
+        Arrays.sort(matches);
+        return matches;
+    }
+
+    /**
+     * Finds the words sharing at least the given number of distinct grams with a padded query word.
+     */
+    private IntList findSharingGrams(String padded, int gramSize, int minShared) {
+        if (sharedCounts.length < words.size()) {
+            sharedCounts = new int[Math.max(words.size(), 2 * sharedCounts.length)];
+        }
+        IntList candidates = new IntList();
+        for (int i = 0; i + gramSize <= padded.length(); i++) {
+            if (isRepeatedGram(padded, i, gramSize)) {
+                continue;
+            }
+            IntList gramWords = wordsByGram.get(toGram(padded, i, gramSize));
+            for (int j = 0; gramWords != null && j < gramWords.size; j++) {
+                int id = gramWords.values[j];
+                if (sharedCounts[id]++ == 0) {
+                    candidates.add(id);
+                }
+            }
+        }
+        int keptCount = 0;
+        for (int i = 0; i < candidates.size; i++) {
+            int id = candidates.values[i];
+            if (sharedCounts[id] >= minShared) {
+                candidates.values[keptCount++] = id;
+            }
+            sharedCounts[id] = 0;
+        }
+        candidates.size = keptCount;
+        return candidates;
+    }
+
+    /**
+     * Counts the distinct grams of a padded word. Edits break occurrences of grams, and a word
+     * keeps a gram as long as one occurrence survives, so bounds are on distinct grams.
+     */
+    private static int countDistinctGrams(String padded, int gramSize) {
+        int count = 0;
+        for (int i = 0; i + gramSize <= padded.length(); i++) {
+            if (!isRepeatedGram(padded, i, gramSize)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether the gram at a position already occurs earlier in the text.
+     */
+    private static boolean isRepeatedGram(String text, int index, int gramSize) {
+        return text.indexOf(text.substring(index, index + gramSize)) < index;
+    }
+
+    /**
+     * Computes the least number of edits turning a query word into a word or one of its prefixes.
+     *
+     * @return The distance, or more than the maximum distance if it exceeds it.
+     */
+    private int getEditDistance(String queryWord, String word, int maxDistance) {
+        int n = queryWord.length();
+        int m = word.length();
+        if (maxDistance == 0 || m < n - maxDistance) {
+            return maxDistance + 1;
+        }
+        if (distanceRows[0].length < m + 1) {
+            distanceRows = new int[3][m + 1];
+        }
+        int[] beforePrevious = distanceRows[0];
+        int[] previous = distanceRows[1];
+        int[] current = distanceRows[2];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = i;
+            char queryChar = queryWord.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                char wordChar = word.charAt(j - 1);
+                int distance = Math.min(Math.min(previous[j], current[j - 1]) + 1,
+                        previous[j - 1] + (queryChar == wordChar ? 0 : 1));
+                if (i > 1 && j > 1 && queryChar == word.charAt(j - 2) && queryWord.charAt(i - 2) == wordChar) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMin = Math.min(rowMin, distance);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        int distance = Integer.MAX_VALUE;
+        for (int j = 0; j <= m; j++) {
+            distance = Math.min(distance, previous[j]);
+        }
+        return distance;
+    }
+
+    /**
+     * Retrieves the identifier of a word, indexing its bigrams and trigrams if it is new.
+     */
+    private int getOrAddWord(String word) {
+        Integer id = wordIds.get(word);
+        if (id != null) {
+            return id;
+        }
+        int newId = words.size();
+        wordIds.put(word, newId);
+        words.add(word);
+        documentsByWord.add(new IntList());
+        String padded = " " + word + " ";
+        for (int gramSize = 2; gramSize <= 3; gramSize++) {
+            for (int i = 0; i + gramSize <= padded.length(); i++) {
+                IntList gramWords = wordsByGram.computeIfAbsent(toGram(padded, i, gramSize), key -> new IntList());
+                if (gramWords.last() != newId) {
+                    gramWords.add(newId);
+                }
+            }
+        }
+        return newId;
+    }
+
+    /**
+     * Retrieves the largest number of edits allowed for a query word of the given length.
+     */
+    private static int getMaxDistance(int length) {
+        return length <= 3 ? 0 : length <= 7 ? 1 : 2;
+    }
+
+    /**
+     * Packs the two or three characters at a position into a long, marking bigrams so that they
+     * never collide with trigrams. The packed characters are scrambled by multiplying with an odd
+     * constant, which keeps keys distinct, since packed grams such as "abc" and "cba" would otherwise
+     * share a hash code and crowd the same hash buckets.
+     */
+    private static long toGram(String text, int index, int gramSize) {
+        long gram = ((long) text.charAt(index) << 16) | text.charAt(index + 1);
+        gram = gramSize == 2 ? (1L << 48) | gram : (gram << 16) | text.charAt(index + 2);
+        return gram * GRAM_SCRAMBLER;
+    }
+
+    /**
+     * Splits text into lower-case words of letters and digits.
+     */
+    static String[] tokenize(String text) {
+        ArrayList<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isWordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,205 @@
+package duke.task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the operations applied to the task list so that they can be undone and redone.
+ * Operations are kept in ring buffers of bounded depth, so the oldest operations are
+ * forgotten once the depth is reached and the memory used stays constant.
+ * The depth is read from the {@code duke.undo.depth} system property.
+ */
+public class UndoLog {
+    /** The number of operations remembered when no depth is configured. */
+    private static final int DEFAULT_DEPTH = 100;
+
+    /** The operations that can be undone, most recent last. */
+    private static Ring undoRing = new Ring(Integer.getInteger("duke.undo.depth", DEFAULT_DEPTH));
+    /** The undone operations that can be redone, most recently undone last. */
+    private static Ring redoRing = new Ring(Integer.getInteger("duke.undo.depth", DEFAULT_DEPTH));
+    /** The operations of the group being recorded, or null if no group is open. */
+    private static List<Operation> openGroup = null;
+
+    /**
+     * The history of a task list that is not in use.
+     */
+    static class State {
+        private final Ring undoRing;
+        private final Ring redoRing;
+
+        private State(Ring undoRing, Ring redoRing) {
+            this.undoRing = undoRing;
+            this.redoRing = redoRing;
+        }
+    }
+
+    /**
+     * Sets the history aside and starts an empty one.
+     *
+     * @return The history set aside.
+     */
+    static State detach() {
+        assert openGroup == null : "The history must not be set aside while a group is open";
+
+        State state = new State(undoRing, redoRing);
+        undoRing = new Ring(Integer.getInteger("duke.undo.depth", DEFAULT_DEPTH));
+        redoRing = new Ring(Integer.getInteger("duke.undo.depth", DEFAULT_DEPTH));
+        return state;
+    }
+
+    /**
+     * Puts a history set aside back in use, replacing the current one.
+     *
+     * @param state The history set aside.
+     */
+    static void attach(State state) {
+        undoRing = state.undoRing;
+        redoRing = state.redoRing;
+    }
+
+    /**
+     * Records an operation that has just been applied to the task list.
+     * Recording a new operation discards the operations that could be redone.
+     *
+     * @param operation The applied operation.
+     */
+    static void record(Operation operation) {
+        assert operation != null : "Operation must not be null";
+
+        if (openGroup != null) {
+            openGroup.add(operation);
+            return;
+        }
+        undoRing.push(operation);
+        redoRing.clear();
+    }
+
+    /**
+     * Starts grouping the operations recorded next into one operation, undone and redone together.
+     */
+    public static void beginGroup() {
+        assert openGroup == null : "Operation groups must not be nested";
+
+        openGroup = new ArrayList<>();
+    }
+
+    /**
+     * Stops grouping operations and records the group, if it is not empty.
+     *
+     * @param description The description of the grouped operations.
+     */
+    public static void endGroup(String description) {
+        assert openGroup != null : "No operation group is open";
+
+        List<Operation> operations = openGroup;
+        openGroup = null;
+        if (!operations.isEmpty()) {
+            record(new Operation.Group(operations, description));
+        }
+    }
+
+    /**
+     * Undoes up to the given number of the most recent operations.
+     *
+     * @param count The number of operations to undo.
+     * @return The descriptions of the undone operations, most recent first.
+     */
+    public static List<String> undo(int count) {
+        List<String> descriptions = new ArrayList<>();
+        for (int i = 0; i < count && !undoRing.isEmpty(); i++) {
+            Operation operation = undoRing.pop();
+            operation.undo();
+            redoRing.push(operation);
+            descriptions.add(operation.describe());
+        }
+        return descriptions;
+    }
+
+    /**
+     * Redoes up to the given number of the most recently undone operations.
+     *
+     * @param count The number of operations to redo.
+     * @return The descriptions of the redone operations, in the order they were redone.
+     */
+    public static List<String> redo(int count) {
+        List<String> descriptions = new ArrayList<>();
+        for (int i = 0; i < count && !redoRing.isEmpty(); i++) {
+            Operation operation = redoRing.pop();
+            operation.redo();
+            undoRing.push(operation);
+            descriptions.add(operation.describe());
+        }
+        return descriptions;
+    }
+
+    /**
+     * Forgets all recorded operations.
+     */
+    public static void clear() {
+        undoRing.clear();
+        redoRing.clear();
+    }
+
+    /**
+     * A stack of fixed capacity that overwrites its oldest element when full.
+     */
+    private static class Ring {
+        /** The stored operations. */
+        private final Operation[] operations;
+        /** The index at which the next operation is pushed. */
+        private int top = 0;
+        /** The number of stored operations. */
+        private int size = 0;
+
+        /**
+         * Constructs an empty ring with the given capacity.
+         *
+         * @param capacity The maximum number of stored operations.
+         */
+        Ring(int capacity) {
+            operations = new Operation[Math.max(1, capacity)];
+        }
+
+        /**
+         * Pushes an operation, overwriting the oldest one if the ring is full.
+         *
+         * @param operation The operation to push.
+         */
+        void push(Operation operation) {
+            operations[top] = operation;
+            top = (top + 1) % operations.length;
+            size = Math.min(size + 1, operations.length);
+        }
+
+        /**
+         * Removes and returns the most recently pushed operation.
+         *
+         * @return The most recently pushed operation.
+         */
+        Operation pop() {
+            top = (top - 1 + operations.length) % operations.length;
+            size--;
+            Operation operation = operations[top];
+            operations[top] = null;
+            return operation;
+        }
+
+        /**
+         * Checks if the ring holds no operations.
+         *
+         * @return True if the ring is empty, false otherwise.
+         */
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Removes all operations from the ring, in time proportional to the number stored.
+         */
+        void clear() {
+            while (size > 0) {
+                pop();
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package duke.task;
+
+import duke.exception.DukeException;
+import duke.storage.Storage;
+import duke.storage.TaskRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Represents a named task list with its own file, change feed, event and search indexes and undo history.
+ * Only the workspace in use lives in {@link TaskList} and the indexes over it. Other workspaces
+ * are loaded from file on first use and then set aside whole in a least-recently-used cache, so
+ * that switching back is instant while hundreds of lists can exist without all being loaded.
+ * Since every change is saved as it is made, an evicted workspace loses only its undo history.
+ * The number of workspaces set aside is read from the {@code duke.workspace.cache} system property.
+ */
+public class Workspace {
+    /** The number of workspaces set aside when no cache size is configured. */
+    private static final int DEFAULT_CACHE_SIZE = 16;
+    /** The number of workspaces not in use that are kept in memory. */
+    private static final int CACHE_SIZE = Integer.getInteger("duke.workspace.cache", DEFAULT_CACHE_SIZE);
+    /** The names allowed for workspaces, which also name their files. */
+    private static final Pattern VALID_NAME = Pattern.compile("[a-z0-9][a-z0-9_-]{0,63}");
+
+    /** The name of the workspace in use. */
+    private static String currentName = Storage.DEFAULT_WORKSPACE;
+    /** The workspaces set aside, least recently used first. */
+    private static final LinkedHashMap<String, Workspace> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Workspace> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final String name;
+    private final ArrayList<Task> tasks;
+    private final ChangeFeed.State feed;
+    private final EventSchedule.State schedule;
+    private final UndoLog.State history;
+    private final FuzzySearch.State search;
+    private final QueryIndex.State queryIndex;
+    private final TaskStats.State stats;
+    private final TaskSnapshots.State snapshots;
+    private final SortedViews.State sortedViews;
+
+    private Workspace(String name, ArrayList<Task> tasks, ChangeFeed.State feed, EventSchedule.State schedule,
+                      UndoLog.State history, FuzzySearch.State search, QueryIndex.State queryIndex,
+                      TaskStats.State stats, TaskSnapshots.State snapshots, SortedViews.State sortedViews) {
+        this.name = name;
+        this.tasks = tasks;
+        this.feed = feed;
+        this.schedule = schedule;
+        this.history = history;
+        this.search = search;
+        this.queryIndex = queryIndex;
+        this.stats = stats;
+        this.snapshots = snapshots;
+        this.sortedViews = sortedViews;
+    }
+
+    /**
+     * Retrieves the name of the workspace in use.
+     *
+     * @return The name of the workspace in use.
+     */
+    public static String getCurrentName() {
+        return currentName;
+    }
+
+    /**
+     * Checks whether a workspace is held in memory, either in use or set aside.
+     *
+     * @param name The name of the workspace.
+     * @return True if the workspace is held in memory, false if it would be loaded from file.
+     */
+    public static boolean isLoaded(String name) {
+        return name.equals(currentName) || cache.containsKey(name);
+    }
+
+    /**
+     * Lists the workspaces saved in the data directory, without loading any of them.
+     *
+     * @return The names of the workspaces, in alphabetical order.
+     * @throws DukeException If there is an error while reading the data directory.
+     */
+    public static List<String> listNames() throws DukeException {
+        List<String> names = TaskList.getRepository().listWorkspaces();
+        if (!names.contains(currentName)) {
+            names.add(currentName);
+            names.sort(null);
+        }
+        return names;
+    }
+
+    /**
+     * Switches to the named workspace, creating it if it does not exist yet.
+     * The workspace in use is set aside, and the named one is taken from the cache or loaded from file.
+     *
+     * @param name The name of the workspace, in any case.
+     * @return The name of the workspace now in use.
+     * @throws DukeException If the name is invalid or the workspace cannot be loaded, in which
+     *                       case the workspace in use stays in use.
+     */
+    public static String use(String name) throws DukeException {
+        String key = toKey(name);
+        if (key.equals(currentName)) {
+            return currentName;
+        }
+
+        TaskRepository repository = TaskList.getRepository();
+        if (repository.hasUnsavedChanges()) {
+            // Saves still waiting on the task event bus would otherwise write to the next workspace's file
+            repository.saveTasks(TaskList.taskList);
+        }
+        Workspace previous = detachCurrent();
+        Workspace next = cache.remove(key);
+        if (next != null) {
+            next.attach();
+        } else {
+            repository.useWorkspace(key);
+            try {
+                TaskList.restoreTasks(repository.loadTasks());
+            } catch (DukeException e) {
+                previous.attach();
+                throw e;
+            }
+        }
+        currentName = key;
+        cache.put(previous.name, previous);
+        return currentName;
+    }
+
+    /**
+     * Chooses the workspace to work in before any has been loaded, without loading it.
+     *
+     * @param name The name of the workspace, in any case.
+     * @throws DukeException If the name is invalid.
+     */
+    public static void open(String name) throws DukeException {
+        assert TaskList.taskList.isEmpty() : "No workspace must have been loaded yet";
+
+        currentName = toKey(name);
+        TaskList.getRepository().useWorkspace(currentName);
+    }
+
+    /**
+     * Converts the name of a workspace as typed to the name it is stored under.
+     *
+     * @param name The name of the workspace, in any case.
+     * @return The name in lower case.
+     * @throws DukeException If the name is invalid.
+     */
+    private static String toKey(String name) throws DukeException {
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        if (!VALID_NAME.matcher(key).matches()) {
+            throw DukeException.invalidWorkspaceName();
+        }
+        return key;
+    }
+
+    /**
+     * Sets the workspace in use aside, leaving an empty task list and empty indexes in its place.
+     *
+     * @return The workspace set aside.
+     */
+    private static Workspace detachCurrent() {
+        Workspace workspace = new Workspace(currentName, TaskList.taskList, ChangeFeed.detach(),
+                EventSchedule.detach(), UndoLog.detach(), FuzzySearch.detach(), QueryIndex.detach(),
+                TaskStats.detach(), TaskSnapshots.detach(), SortedViews.detach());
+        TaskList.taskList = new ArrayList<>();
+        return workspace;
+    }
+
+    /**
+     * Puts this workspace back in use, replacing whatever is in use.
+     * Reminders are only delivered, and deadlines only swept, for the workspace in use, so they are scheduled anew.
+     */
+    private void attach() {
+        TaskList.getRepository().useWorkspace(name);
+        TaskList.taskList = tasks;
+        ChangeFeed.attach(feed);
+        EventSchedule.attach(schedule);
+        UndoLog.attach(history);
+        FuzzySearch.attach(search);
+        QueryIndex.attach(queryIndex);
+        TaskStats.attach(stats);
+        TaskSnapshots.attach(snapshots);
+        SortedViews.attach(sortedViews);
+        ReminderScheduler.scheduleAll(tasks);
+        OverdueSweeper.trackAll(tasks);
+    }
+}
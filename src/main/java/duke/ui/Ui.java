@@ -3,9 +3,9 @@ package duke.ui;
 import java.util.ArrayList;
 
 import duke.exception.DukeException;
+import duke.task.ParallelScan;
 import duke.task.Task;
 import duke.task.TaskList;
-import duke.storage.Storage;
 
 /**
  * Handles user interface interactions, including displaying messages and task lists.
@@ -24,12 +24,14 @@ public class Ui {
     }
 
     /**
-     * Bids farewell to the user with a goodbye message and saves tasks to file.
+     * Bids farewell to the user with a goodbye message and saves tasks to file if they changed since last saved.
      *
      * @throws DukeException If there is an error while saving tasks to file.
      */
     public void sayGoodbye() throws DukeException {
-        Storage.saveTasksToFile(TaskList.taskList);
+        if (TaskList.getRepository().hasUnsavedChanges()) {
+            TaskList.getRepository().saveTasks(TaskList.taskList);
+        }
         displayMessage("    Flee, mortal! Until our paths cross again!");
         printHorizontalLine();
     }
@@ -52,10 +54,11 @@ public class Ui {
         if (taskList.isEmpty()) {
             displayMessage("    Your feeble Task List is Empty!");
         } else {
-            displayMessage("    ======= Scroll of Puny Tasks =======");
-            for (int i = 0; i < taskList.size(); i++) {
-                displayMessage("        " + (i + 1) + ". " + taskList.get(i));
-            }
+            StringBuilder lines = new StringBuilder("    ======= Scroll of Puny Tasks =======");
+            String lineSeparator = System.lineSeparator();
+            ParallelScan.render(taskList, null, (output, number, task) -> output.append(lineSeparator)
+                    .append("        ").append(number).append(". ").append(task), lines);
+            displayMessage(lines.toString());
         }
         printHorizontalLine();
     }
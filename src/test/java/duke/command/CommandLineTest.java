@@ -0,0 +1,47 @@
+package duke.command;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandLineTest {
+    private static CommandRegistry createRegistry() {
+        CommandRegistry registry = new CommandRegistry();
+        registry.register("deadline", new ArgumentSchema().withFlag("/by", ArgumentSchema.Arity.TEXT), line -> { });
+        registry.register("export", new ArgumentSchema().withFlag("--since", ArgumentSchema.Arity.TOKEN), line -> { });
+        registry.register("todo", new ArgumentSchema(), line -> { });
+        return registry;
+    }
+
+    @Test
+    public void testParse_declaredFlags_splitFromPositionalText() {
+        CommandRegistry registry = createRegistry();
+        CommandLine line = new CommandLine();
+
+        assertTrue(line.parse("DeadLine  return  book /by 2/12/2019 1800", registry));
+        assertEquals("return  book", line.getArguments());
+        assertEquals("2/12/2019 1800", line.getFlag("/by"));
+
+        assertTrue(line.parse("export out.feed --since 42", registry));
+        assertEquals("42", line.getFlag("--since"));
+        assertEquals("out.feed", line.getArguments());
+        assertTrue(line.parse("export --since 42 out.feed", registry));
+        assertEquals("out.feed", line.getArguments());
+    }
+
+    @Test
+    public void testParse_undeclaredFlagsAndUnknownCommands() {
+        CommandRegistry registry = createRegistry();
+        CommandLine line = new CommandLine();
+
+        assertTrue(line.parse("todo read /by the lake", registry));
+        assertEquals("read /by the lake", line.getArguments());
+        assertTrue(line.parse("deadline essay", registry));
+        assertNull(line.getFlag("/by"));
+        assertFalse(line.parse("frobnicate now", registry));
+        assertFalse(line.parse("", registry));
+    }
+}
@@ -17,4 +17,28 @@ public class DateTimeParserTest {
 
         assertEquals(expectedDateTime, actualDateTime);
     }
+
+    @Test
+    public void testParseDateTime_otherFormats_success() throws DukeException {
+        LocalDateTime expectedDateTime = LocalDateTime.of(2024, 4, 21, 12, 0);
+
+        assertEquals(expectedDateTime, DateTimeParser.parseDateTime("2024-04-21T12:00"));
+        assertEquals(expectedDateTime, DateTimeParser.parseDateTime("2024-04-21 12:00"));
+        assertEquals(expectedDateTime, DateTimeParser.parseDateTime("Apr 21 2024 12:00"));
+        assertEquals(expectedDateTime.toLocalDate().atStartOfDay(), DateTimeParser.parseDateTime("2024-04-21"));
+        // The same shape again takes the remembered format
+        assertEquals(LocalDateTime.of(2025, 1, 2, 3, 4), DateTimeParser.parseDateTime("2025-01-02T03:04"));
+    }
+
+    @Test
+    public void testParseDateTime_relativeForms_resolvedAgainstNow() throws DukeException {
+        // A Sunday
+        LocalDateTime now = LocalDateTime.of(2024, 4, 21, 12, 0);
+
+        assertEquals(LocalDateTime.of(2024, 4, 22, 9, 0), DateTimeParser.parseDateTime("tomorrow 9am", now));
+        assertEquals(LocalDateTime.of(2024, 4, 26, 0, 0), DateTimeParser.parseDateTime("next fri", now));
+        assertEquals(LocalDateTime.of(2024, 4, 26, 14, 30), DateTimeParser.parseDateTime("Friday 14:30", now));
+        assertEquals(LocalDateTime.of(2024, 4, 24, 12, 0), DateTimeParser.parseDateTime("+3d", now));
+        assertEquals(LocalDateTime.of(2024, 4, 21, 21, 30), DateTimeParser.parseDateTime("9:30pm", now));
+    }
 }
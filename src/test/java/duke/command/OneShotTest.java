@@ -0,0 +1,141 @@
+package duke.command;
+
+import duke.exception.DukeException;
+import duke.storage.Storage;
+import duke.task.TaskList;
+import duke.task.Workspace;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OneShotTest {
+    private static final String READ_BOOK =
+            "{\"number\":1,\"type\":\"todo\",\"description\":\"read book\",\"done\":false}\n";
+
+    private final PrintStream standardOutput = System.out;
+    private final PrintStream standardError = System.err;
+    private String previousName;
+    private String output;
+    private String errors;
+
+    @BeforeEach
+    public void setUp() {
+        previousName = Workspace.getCurrentName();
+    }
+
+    @AfterEach
+    public void tearDown() throws DukeException {
+        System.setOut(standardOutput);
+        System.setErr(standardError);
+        DukeException.reportErrorsTo(standardOutput);
+        Workspace.use(previousName);
+    }
+
+    /**
+     * Switches to a workspace with no saved tasks and nothing loaded, as a new process would start.
+     */
+    private static Path useEmptyWorkspace(String name) throws DukeException, IOException {
+        Path file = Storage.getWorkspaceFile(name);
+        Files.deleteIfExists(file);
+        Workspace.use(name);
+        return file;
+    }
+
+    /**
+     * Runs a command line, keeping what it prints to standard output and to standard error.
+     */
+    private int run(String... args) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream errorBytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        System.setErr(new PrintStream(errorBytes, true, StandardCharsets.UTF_8));
+        try {
+            return OneShot.run(args);
+        } finally {
+            System.setOut(standardOutput);
+            System.setErr(standardError);
+            output = bytes.toString(StandardCharsets.UTF_8);
+            errors = errorBytes.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testRun_successAndFailures_exitStatusReported() throws DukeException, IOException {
+        useEmptyWorkspace("oneshot-status");
+
+        assertEquals(OneShot.EXIT_SUCCESS, run("add", "todo", "read", "book"));
+        assertEquals("[T][ ] read book\n", output);
+        assertEquals(OneShot.EXIT_USAGE, run());
+        assertEquals(OneShot.EXIT_USAGE, run("add", "fly", "away"));
+        assertEquals(OneShot.EXIT_USAGE, run("--json", "mark", "1"));
+        assertEquals(OneShot.EXIT_FAILURE, run("add", "deadline", "return", "book", "/by", "2000-01-05", "1800"));
+        assertEquals("", output);
+
+        // Marking loads the list, so it runs last
+        assertEquals(OneShot.EXIT_FAILURE, run("mark", "9"));
+        assertEquals("", output);
+        assertTrue(errors.contains("beyond the realm"));
+        assertEquals(1, TaskList.taskList.size());
+        assertFalse(TaskList.taskList.get(0).isDone());
+
+        useEmptyWorkspace("oneshot-unknown");
+        assertEquals(OneShot.EXIT_FAILURE, run("frobnicate"));
+        assertEquals("", output);
+        assertTrue(errors.contains("Unknown command!"));
+    }
+
+    @Test
+    public void testRun_json_tasksPrintedAsJsonLines() throws DukeException, IOException {
+        useEmptyWorkspace("oneshot-json");
+        assertEquals(OneShot.EXIT_SUCCESS, run("--json", "add", "todo", "read", "book"));
+        assertEquals("{\"type\":\"todo\",\"description\":\"read book\",\"done\":false}\n", output);
+        assertEquals(OneShot.EXIT_SUCCESS, run("add", "todo", "write", "essay"));
+
+        assertEquals(OneShot.EXIT_SUCCESS, run("--json", "list"));
+        assertEquals(READ_BOOK
+                + "{\"number\":2,\"type\":\"todo\",\"description\":\"write essay\",\"done\":false}\n", output);
+        assertEquals(OneShot.EXIT_SUCCESS, run("--json", "find", "BOOK"));
+        assertEquals(READ_BOOK, output);
+        assertEquals(OneShot.EXIT_SUCCESS, run("--json", "find", "nothing"));
+        assertEquals("", output);
+
+        // Options after the command are words of the command
+        assertEquals(OneShot.EXIT_SUCCESS, run("add", "todo", "fix", "--json", "parser"));
+        assertEquals("[T][ ] fix --json parser\n", output);
+
+        // Querying loads the list, so it runs last
+        assertEquals(OneShot.EXIT_SUCCESS, run("--json", "query", "desc ~ book"));
+        assertEquals(READ_BOOK, output);
+    }
+
+    @Test
+    public void testRun_add_taskAppendedWithoutRewritingFile() throws DukeException, IOException {
+        Path file = useEmptyWorkspace("oneshot-append");
+        assertEquals(OneShot.EXIT_SUCCESS, run("add", "todo", "read", "book"));
+        byte[] before = Files.readAllBytes(file);
+
+        assertEquals(OneShot.EXIT_SUCCESS, run("add", "deadline", "return", "book", "/by", "2099-01-05", "1800"));
+        byte[] after = Files.readAllBytes(file);
+
+        assertTrue(after.length > before.length);
+        assertArrayEquals(before, Arrays.copyOf(after, before.length));
+        String appended = new String(after, before.length, after.length - before.length, StandardCharsets.UTF_8);
+        assertTrue(appended.startsWith("D | "));
+        assertTrue(appended.contains("return book"));
+        // Nothing was loaded, so the list was never rewritten from memory
+        assertTrue(TaskList.taskList.isEmpty());
+    }
+}
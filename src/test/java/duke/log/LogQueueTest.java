@@ -0,0 +1,84 @@
+package duke.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogQueueTest {
+    private static LogRecord record(String message, Object... fields) {
+        return new LogRecord(0, Log.Level.WARN, "main", "duke.Duke", message, fields, null);
+    }
+
+    @Test
+    public void testOffer_manyThreads_everyRecordTakenOnceInThreadOrder() throws InterruptedException {
+        LogQueue queue = new LogQueue(64);
+        int threadCount = 4;
+        int recordsPerThread = 20000;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            String name = String.valueOf(t);
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < recordsPerThread; i++) {
+                    LogRecord record = record(name, i);
+                    while (!queue.offer(record)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        int[] nextIndex = new int[threadCount];
+        for (int taken = 0; taken < threadCount * recordsPerThread; ) {
+            LogRecord record = queue.poll();
+            if (record == null) {
+                Thread.yield();
+                continue;
+            }
+            int t = Integer.parseInt(record.message);
+            assertEquals(nextIndex[t]++, record.fields[0]);
+            taken++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testOffer_fullQueue_refusesUntilTaken() {
+        LogQueue queue = new LogQueue(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(record("r" + i)));
+        }
+        assertFalse(queue.offer(record("r4")));
+        assertEquals("r0", queue.poll().message);
+        assertTrue(queue.offer(record("r4")));
+    }
+
+    @Test
+    public void testWrite_beyondMaxBytes_rollsOverToBackups() throws IOException {
+        Path file = Files.createTempDirectory("duke").resolve("duke-log.jsonl");
+        String line = JsonLinesSink.format(record("Skipped \"a\"\n", "record", 7, "reason", null));
+        assertTrue(line.endsWith(",\"message\":\"Skipped \\\"a\\\"\\n\",\"record\":7,\"reason\":null}\n"));
+
+        JsonLinesSink sink = new JsonLinesSink(file, 2L * line.length(), 1);
+        for (int i = 0; i < 5; i++) {
+            sink.write(record("Skipped \"a\"\n", "record", 7, "reason", null));
+        }
+        sink.close();
+        assertEquals(1, Files.readAllLines(file).size());
+        assertEquals(2, Files.readAllLines(sink.getBackup(1)).size());
+        assertFalse(Files.exists(sink.getBackup(2)));
+    }
+}
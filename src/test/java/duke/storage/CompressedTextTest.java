@@ -0,0 +1,52 @@
+package duke.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompressedTextTest {
+    @Test
+    public void testWrite_manyBlocksAndAppendedLine_readBackInOrder() throws IOException {
+        Path file = Files.createTempDirectory("duke").resolve("duke.txt");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            lines.add("D | " + i % 2 + " | weekly report \u00fc" + i % 7 + " | 2/12/2019 1800 | id=" + i + " | v=" + i);
+        }
+        CompressedText.write(file, lines);
+        assertTrue(CompressedText.isCompressed(file));
+        assertTrue(Files.size(file) * 5 < String.join("\n", lines).length());
+        assertEquals(lines, CompressedText.readAllLines(file));
+
+        CompressedText.append(file, "T | 0 | read book");
+        lines.add("T | 0 | read book");
+        List<String> streamed = new ArrayList<>();
+        try (BufferedReader reader = CompressedText.newReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                streamed.add(line);
+            }
+        }
+        assertEquals(lines, streamed);
+    }
+
+    @Test
+    public void testReadAllLines_plainTextFile_readAsItIs() throws IOException {
+        Path file = Files.createTempDirectory("duke").resolve("duke.txt");
+        List<String> lines = Arrays.asList("T | 0 | read book", "X | 3 | 4");
+        Files.write(file, lines);
+        assertFalse(CompressedText.isCompressed(file));
+        assertEquals(lines, CompressedText.readAllLines(file));
+        CompressedText.write(file, new ArrayList<>());
+        assertEquals(new ArrayList<>(), CompressedText.readAllLines(file));
+    }
+}
@@ -0,0 +1,51 @@
+package duke.storage;
+
+import duke.exception.DukeException;
+import duke.task.Deadline;
+import duke.task.Task;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CsvCodecTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Test
+    public void testRoundTrip_quotedFieldsSurvive() throws IOException, DukeException {
+        Deadline deadline = new Deadline("pay \"rent\", fees", LocalDateTime.of(2024, 2, 1, 18, 0));
+        deadline.markAsDone();
+        CsvCodec codec = new CsvCodec();
+        StringWriter writer = new StringWriter();
+        codec.writeHeader(writer);
+        codec.writeRecord(deadline, writer);
+
+        BufferedReader reader = new BufferedReader(new StringReader(writer.toString()));
+        codec.readHeader(reader);
+        Task task = codec.decode(codec.readRecord(reader), NOW);
+        assertEquals(deadline.toString(), task.toString());
+        assertTrue(task.isDone());
+    }
+
+    @Test
+    public void testDecode_headerOrderAliasesAndMultiLineRecords() throws IOException, DukeException {
+        String csv = "\uFEFFnotes,by,Description,type\n"
+                + "ignored,2024-02-01 18:00,\"two\nlines\",d\n";
+        CsvCodec codec = new CsvCodec();
+        BufferedReader reader = new BufferedReader(new StringReader(csv));
+        codec.readHeader(reader);
+        Task task = codec.decode(codec.readRecord(reader), NOW);
+        assertEquals("two lines", task.getDescription());
+        assertEquals(LocalDateTime.of(2024, 2, 1, 18, 0), ((Deadline) task).getBy());
+
+        Task jsonTask = new JsonLinesCodec().decode("{\"description\": \"read\\tbook\", \"done\": true}", NOW);
+        assertEquals("read\tbook", jsonTask.getDescription());
+        assertTrue(jsonTask.isDone());
+    }
+}
@@ -0,0 +1,79 @@
+package duke.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KeyValueStoreTest {
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Map<Long, String> readAll(KeyValueStore store) throws IOException {
+        Map<Long, String> values = new HashMap<>();
+        try (KeyValueStore.Cursor cursor = store.openCursor()) {
+            while (cursor.next()) {
+                values.put(cursor.getKey(), new String(cursor.getValue(), StandardCharsets.UTF_8));
+            }
+        }
+        return values;
+    }
+
+    @Test
+    public void testOpen_batchCutShort_earlierBatchesKept() throws IOException {
+        Path path = Files.createTempDirectory("duke").resolve("duke.kv");
+        try (KeyValueStore store = KeyValueStore.open(path)) {
+            store.write(Map.of(1L, bytes("one"), 2L, bytes("two"), 3L, bytes("three")), Collections.emptyList());
+            store.write(Map.of(2L, bytes("deux")), Collections.singletonList(3L));
+        }
+        long size = Files.size(path);
+        try (KeyValueStore store = KeyValueStore.open(path)) {
+            store.write(Map.of(4L, bytes("four")), Collections.emptyList());
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            // As if the process had died halfway through writing the last batch
+            channel.truncate(Files.size(path) - 2);
+        }
+
+        try (KeyValueStore store = KeyValueStore.open(path)) {
+            assertEquals(size, Files.size(path));
+            assertEquals(Map.of(1L, "one", 2L, "deux"), readAll(store));
+            assertEquals("deux", new String(store.get(2L), StandardCharsets.UTF_8));
+            assertNull(store.get(3L));
+            assertNull(store.get(4L));
+        }
+    }
+
+    @Test
+    public void testWrite_deadRecordsOutweighLive_compacted() throws IOException {
+        Path path = Files.createTempDirectory("duke").resolve("duke.kv");
+        byte[] filler = new byte[4096];
+        try (KeyValueStore store = KeyValueStore.open(path)) {
+            store.write(Map.of(1L, bytes("kept")), Collections.emptyList());
+            for (int i = 0; i < 1000; i++) {
+                store.write(Map.of(2L, filler, 3L, bytes("latest " + i)), Collections.emptyList());
+            }
+            assertTrue(Files.size(path) < 1000 * filler.length / 2);
+            store.write(Collections.emptyMap(), Collections.singletonList(2L));
+        }
+
+        try (KeyValueStore store = KeyValueStore.open(path)) {
+            assertEquals(Map.of(1L, "kept", 3L, "latest 999"), readAll(store));
+            store.replaceAll(Map.of(5L, bytes("five")));
+            assertEquals(Map.of(5L, "five"), readAll(store));
+            assertEquals(1, store.size());
+        }
+    }
+}
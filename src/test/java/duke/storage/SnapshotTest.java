@@ -0,0 +1,65 @@
+package duke.storage;
+
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Recurring;
+import duke.task.Task;
+import duke.task.ToDo;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class SnapshotTest {
+    @Test
+    public void testRead_matchingTextFile_restoresEveryTask() throws IOException {
+        Path textFile = Files.createTempDirectory("duke").resolve("duke.txt");
+        Files.write(textFile, Collections.singletonList("T | 0 | placeholder"));
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("read book \u00fc"));
+        Deadline deadline = new Deadline("return book", LocalDateTime.of(2019, 12, 2, 18, 0));
+        deadline.markAsDone();
+        deadline.setCompletedDateTime(LocalDateTime.of(2019, 12, 1, 20, 30));
+        deadline.setPriority(1);
+        deadline.setTags(Arrays.asList("library", "errands"));
+        tasks.add(deadline);
+        tasks.add(new Event("meeting", LocalDateTime.of(2019, 12, 2, 14, 0), LocalDateTime.of(2019, 12, 2, 16, 0)));
+        tasks.add(new Recurring("water plants", Recurring.Frequency.WEEKLY, LocalDateTime.of(2019, 12, 1, 9, 0),
+                Duration.ofMinutes(30), null, 10));
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.get(i).setId(i + 1);
+            tasks.get(i).setVersion(i + 1);
+        }
+
+        Snapshot.write(textFile, tasks, Collections.emptyMap(), 0);
+        List<Task> loadedTasks = Snapshot.read(textFile);
+        assertEquals(tasks.size(), loadedTasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toString(), loadedTasks.get(i).toString());
+            assertEquals(tasks.get(i).getId(), loadedTasks.get(i).getId());
+            assertEquals(tasks.get(i).getVersion(), loadedTasks.get(i).getVersion());
+            assertEquals(tasks.get(i).getCompletedDateTime(), loadedTasks.get(i).getCompletedDateTime());
+        }
+    }
+
+    @Test
+    public void testRead_textFileEditedSinceWritten_ignored() throws IOException {
+        Path textFile = Files.createTempDirectory("duke").resolve("duke.txt");
+        Files.write(textFile, Collections.singletonList("T | 0 | read book"));
+        Snapshot.write(textFile, Collections.singletonList(new ToDo("read book")), Collections.emptyMap(), 0);
+
+        Files.setLastModifiedTime(textFile, FileTime.fromMillis(Files.getLastModifiedTime(textFile).toMillis() + 1000));
+        assertNull(Snapshot.read(textFile));
+    }
+}
@@ -0,0 +1,82 @@
+package duke.task;
+
+import duke.exception.DukeException;
+import duke.storage.Storage;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChangeFeedTest {
+    @Test
+    public void testChangesSince_modifiedAndDeletedTasks_onlyLaterChangesReturned() {
+        ToDo first = new ToDo("read book");
+        ToDo second = new ToDo("return book");
+        ChangeFeed.recordAdded(first);
+        ChangeFeed.recordAdded(second);
+        long since = ChangeFeed.getCurrentVersion();
+
+        ChangeFeed.recordModified(first);
+        ChangeFeed.recordDeleted(second);
+
+        Map<Long, Task> changedTasks = ChangeFeed.getTasksChangedSince(since);
+        Map<Long, Long> deletedIds = ChangeFeed.getTombstonesSince(since);
+        assertEquals(1, changedTasks.size());
+        assertTrue(changedTasks.containsValue(first));
+        assertEquals(1, deletedIds.size());
+        assertTrue(deletedIds.containsValue(second.getId()));
+        assertNull(ChangeFeed.getTask(second.getId()));
+    }
+
+    @Test
+    public void testRecordAdded_taskWithExistingId_newIdsNotReused() {
+        ToDo imported = new ToDo("imported");
+        imported.setId(ChangeFeed.getCurrentVersion() + 100);
+        ChangeFeed.recordAdded(imported);
+
+        ToDo created = new ToDo("created");
+        ChangeFeed.recordAdded(created);
+
+        assertTrue(created.getId() > imported.getId());
+    }
+
+    @Test
+    public void testRecordAdded_deletionUndone_tombstoneDroppedFromFeedAndFile() throws DukeException, IOException {
+        String previousName = Workspace.getCurrentName();
+        Path file = Storage.getWorkspaceFile("tombstones");
+        Files.deleteIfExists(file);
+        Workspace.use("tombstones");
+        TaskList.addTask(new ToDo("kept"));
+        TaskList.addTask(new ToDo("deleted and brought back"));
+        long id = TaskList.taskList.get(1).getId();
+
+        TaskList.deleteTask(2, TaskList.taskList);
+        assertTrue(ChangeFeed.getTombstonesSince(0).containsValue(id));
+        TaskList.undoChanges(1);
+        assertFalse(ChangeFeed.getTombstonesSince(0).containsValue(id));
+        TaskList.getRepository().saveTasks(TaskList.taskList);
+        for (String line : Files.readAllLines(file)) {
+            assertFalse(line.startsWith("X | " + id + " |"));
+        }
+
+        // Going through more workspaces than are kept in memory loads the list from its file again
+        int cacheSize = Integer.getInteger("duke.workspace.cache", 16);
+        for (int i = 0; i <= cacheSize; i++) {
+            Workspace.use("tombstones-" + i);
+        }
+        Workspace.use("tombstones");
+        assertEquals(2, TaskList.taskList.size());
+        assertEquals(id, TaskList.taskList.get(1).getId());
+        assertSame(TaskList.taskList.get(1), ChangeFeed.getTask(id));
+        assertFalse(ChangeFeed.getTombstonesSince(0).containsValue(id));
+        Workspace.use(previousName);
+    }
+}
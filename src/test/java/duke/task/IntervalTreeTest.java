@@ -0,0 +1,41 @@
+package duke.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class IntervalTreeTest {
+    @Test
+    public void testFindOverlapping_halfOpenIntervals_touchingIntervalsExcluded() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, 0, 10);
+        tree.insert(2, 10, 20);
+        tree.insert(3, 5, 15);
+        tree.insert(4, 30, 40);
+
+        List<Long> overlapping = new ArrayList<>();
+        tree.findOverlapping(8, 12, overlapping);
+        Collections.sort(overlapping);
+
+        assertEquals(List.of(1L, 2L, 3L), overlapping);
+    }
+
+    @Test
+    public void testRemove_insertedInterval_noLongerFound() {
+        IntervalTree tree = new IntervalTree();
+        for (long id = 1; id <= 100; id++) {
+            tree.insert(id, id * 10, id * 10 + 15);
+        }
+        tree.remove(50, 500);
+
+        List<Long> overlapping = new ArrayList<>();
+        tree.findOverlapping(500, 501, overlapping);
+
+        assertEquals(List.of(49L), overlapping);
+        assertEquals(99, tree.size());
+    }
+}
@@ -0,0 +1,47 @@
+package duke.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OverdueSweeperTest {
+    @Test
+    public void testTrack_overdueAndFutureDeadlines_flaggedUntilChanged() {
+        LocalDateTime now = LocalDateTime.now();
+        int start = TaskList.taskList.size();
+        int pending = OverdueSweeper.getPendingCount();
+        Deadline late = new Deadline("late", now.minusDays(1));
+        Deadline later = new Deadline("later", now.minusDays(2));
+        Deadline future = new Deadline("future", now.plusDays(1));
+        TaskList.insertTask(start, late);
+        TaskList.insertTask(start + 1, later);
+        TaskList.insertTask(start + 2, future);
+        assertEquals(later, OverdueSweeper.getOverdueTasks().get(0));
+        assertTrue(OverdueSweeper.getOverdueTasks().contains(late));
+        assertFalse(OverdueSweeper.getOverdueTasks().contains(future));
+        assertEquals(pending + 1, OverdueSweeper.getPendingCount());
+        assertNull(OverdueSweeper.sweep());
+
+        TaskList.setTaskDone(late, true);
+        TaskList.rescheduleTask(later, now.plusDays(3), null);
+        TaskList.rescheduleTask(future, now.minusHours(1), null);
+        assertFalse(OverdueSweeper.getOverdueTasks().contains(late));
+        assertFalse(OverdueSweeper.getOverdueTasks().contains(later));
+        assertTrue(OverdueSweeper.getOverdueTasks().contains(future));
+        assertEquals(pending + 1, OverdueSweeper.getPendingCount());
+
+        while (TaskList.taskList.size() > start) {
+            TaskList.removeTask(start);
+        }
+        assertEquals(pending, OverdueSweeper.getPendingCount());
+        assertEquals(Duration.ofHours(12), OverdueSweeper.parseStep("12h"));
+        assertNull(OverdueSweeper.parseStep("0d"));
+        assertNull(OverdueSweeper.parseStep("soon"));
+    }
+}
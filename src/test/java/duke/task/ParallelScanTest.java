@@ -0,0 +1,39 @@
+package duke.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ParallelScanTest {
+    @Test
+    public void testRender_largeList_sameOrderAsSequentialLoop() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            tasks.add(new ToDo(i % 7 == 0 ? "water plants " + i : "read book " + i));
+        }
+
+        StringBuilder expected = new StringBuilder("header");
+        List<Integer> expectedPositions = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getDescription().contains("plants")) {
+                expected.append('\n').append(i + 1).append(". ").append(tasks.get(i));
+                expectedPositions.add(i);
+            }
+        }
+
+        StringBuilder output = new StringBuilder("header");
+        int matchCount = ParallelScan.render(tasks, task -> task.getDescription().contains("plants"),
+                (lines, number, task) -> lines.append('\n').append(number).append(". ").append(task), output);
+        assertEquals(expectedPositions.size(), matchCount);
+        assertEquals(expected.toString(), output.toString());
+
+        List<Integer> positions = new ArrayList<>();
+        for (int position : ParallelScan.find(tasks, task -> task.getDescription().contains("plants"))) {
+            positions.add(position);
+        }
+        assertEquals(expectedPositions, positions);
+    }
+}
@@ -0,0 +1,85 @@
+package duke.task;
+
+import duke.exception.DukeException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QueryTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2019, 12, 2, 12, 0);
+
+    @Test
+    public void testParse_precedenceNegationAndMissingFields_evaluatedAsWritten() throws DukeException {
+        Deadline deadline = new Deadline("Deploy prod", LocalDateTime.of(2019, 12, 6, 9, 0));
+        ToDo todo = new ToDo("deploy docs");
+        todo.markAsDone();
+
+        Query query = Query.parse("type = deadline and not done and by < 'next sat' and desc ~ DEPLOY", NOW);
+        assertTrue(query.test(deadline));
+        assertFalse(query.test(todo));
+        assertTrue(Query.parse("done or by<=2019-12-06T09:00 desc ~ prod", NOW).test(todo));
+        assertFalse(Query.parse("by != 2019-12-06T09:00", NOW).test(todo));
+        assertTrue(Query.parse("not (by >= friday)", NOW).test(todo));
+        assertThrows(DukeException.class, () -> Query.parse("desc < deploy", NOW));
+        assertThrows(DukeException.class, () -> Query.parse("(done or type = todo", NOW));
+    }
+
+    @Test
+    public void testPlan_dateRangeAndBitmaps_sameMatchesAsScan() throws DukeException {
+        int start = TaskList.taskList.size();
+        for (int i = 0; i < 100; i++) {
+            Task task = i % 2 == 0 ? new Deadline("task " + i, NOW.plusHours(i)) : new ToDo("task " + i);
+            TaskList.insertTask(TaskList.taskList.size(), task);
+        }
+        TaskList.setTaskDone(TaskList.taskList.get(start + 20), true);
+        TaskList.removeTask(start);
+
+        QueryPlanner.Plan plan = QueryPlanner.plan(Query.parse("not done and by >= '+20h' and by < '+30h'", NOW));
+        Map<Integer, Task> matches = plan.run();
+        assertEquals(Arrays.asList(start + 22, start + 24, start + 26, start + 28), new ArrayList<>(matches.keySet()));
+        assertEquals("task 22", matches.get(start + 22).getDescription());
+        assertTrue(plan.describe().contains("'by' date index"));
+        QueryPlanner.Plan scan = QueryPlanner.plan(Query.parse("(not done and by >= '+20h' and by < '+30h') "
+                + "or desc = nothing", NOW));
+        assertEquals(matches, scan.run());
+        assertTrue(scan.describe().startsWith("no index applies"));
+
+        while (TaskList.taskList.size() > start) {
+            TaskList.removeTask(start);
+        }
+    }
+
+    @Test
+    public void testParseFilters_tagsPriorityAndDone_pickedFromBitmaps() throws DukeException {
+        int start = TaskList.taskList.size();
+        for (int i = 0; i < 50; i++) {
+            Task task = new ToDo("task " + i);
+            TaskList.insertTask(TaskList.taskList.size(), task);
+            TaskList.labelTask(task, i % 4, i % 5 == 0 ? Arrays.asList("ops", "home") : Arrays.asList("home"));
+        }
+        TaskList.setTaskDone(TaskList.taskList.get(start + 25), true);
+
+        QueryPlanner.Plan plan = QueryPlanner.plan(Query.parseFilters("#ops P1 pending"));
+        assertEquals(Arrays.asList(start + 6, start + 46), new ArrayList<>(plan.run().keySet()));
+        assertTrue(plan.describe().contains("the tag bitmap for 'tag = ops'"));
+        TaskList.labelTask(TaskList.taskList.get(start + 45), 2, Arrays.asList("home"));
+        assertEquals(Arrays.asList(start + 6),
+                new ArrayList<>(QueryPlanner.plan(Query.parseFilters("#ops p1 pending")).run().keySet()));
+        Query query = Query.parse("tag != ops and priority <= p2 and not priority = p1 and tag = home", NOW);
+        assertEquals(QueryPlanner.plan(Query.parse("(" + query + ") or desc = nothing", NOW)).run(),
+                QueryPlanner.plan(query).run());
+        assertThrows(DukeException.class, () -> Query.parseFilters("#ops urgent"));
+
+        while (TaskList.taskList.size() > start) {
+            TaskList.removeTask(start);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package duke.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class RecurringTest {
+    @Test
+    public void testOccurrencesBetween_dailyWithCount_onlyWindowGenerated() {
+        Recurring standup = new Recurring("standup", Recurring.Frequency.DAILY,
+                LocalDateTime.of(2030, 1, 1, 9, 0), Duration.ofMinutes(15), null, 5);
+
+        List<LocalDateTime> occurrences = standup.getOccurrencesBetween(
+                LocalDateTime.of(2030, 1, 3, 0, 0), LocalDateTime.of(2030, 2, 1, 0, 0));
+
+        assertEquals(List.of(LocalDateTime.of(2030, 1, 3, 9, 0), LocalDateTime.of(2030, 1, 4, 9, 0),
+                LocalDateTime.of(2030, 1, 5, 9, 0)), occurrences);
+    }
+
+    @Test
+    public void testNextOccurrence_monthlyFromMonthEnd_noDrift() {
+        Recurring rent = new Recurring("rent", Recurring.Frequency.MONTHLY,
+                LocalDateTime.of(2030, 1, 31, 12, 0), Duration.ZERO, LocalDateTime.of(2030, 4, 1, 0, 0), 0);
+
+        assertEquals(LocalDateTime.of(2030, 3, 31, 12, 0), rent.getNextOccurrence(LocalDateTime.of(2030, 3, 1, 0, 0)));
+        assertNull(rent.getNextOccurrence(LocalDateTime.of(2030, 4, 1, 0, 0)));
+    }
+}
@@ -0,0 +1,67 @@
+package duke.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RoaringBitmapTest {
+    @Test
+    public void testSetOperations_sparseAndDenseContainers_sameAsBitSet() {
+        Random random = new Random(40);
+        RoaringBitmap[] bitmaps = new RoaringBitmap[3];
+        BitSet[] expected = new BitSet[3];
+        // Sparse, dense and mixed sets, so that array and bitmap containers meet in every combination
+        int[] densities = {50, 2, 6};
+        for (int b = 0; b < bitmaps.length; b++) {
+            bitmaps[b] = new RoaringBitmap();
+            expected[b] = new BitSet();
+            for (int value = 0; value < 300_000; value++) {
+                if (random.nextInt(densities[b]) == 0) {
+                    bitmaps[b].add(value);
+                    expected[b].set(value);
+                }
+            }
+            for (int i = 0; i < 20_000; i++) {
+                int value = random.nextInt(300_000);
+                bitmaps[b].remove(value);
+                expected[b].clear(value);
+            }
+        }
+
+        for (int b = 0; b < bitmaps.length; b++) {
+            RoaringBitmap other = bitmaps[(b + 1) % bitmaps.length];
+            BitSet otherExpected = expected[(b + 1) % bitmaps.length];
+            RoaringBitmap and = bitmaps[b].copy();
+            and.and(other);
+            BitSet andExpected = (BitSet) expected[b].clone();
+            andExpected.and(otherExpected);
+            assertArrayEquals(andExpected.stream().toArray(), and.toArray());
+
+            RoaringBitmap andNot = bitmaps[b].copy();
+            andNot.andNot(other);
+            BitSet andNotExpected = (BitSet) expected[b].clone();
+            andNotExpected.andNot(otherExpected);
+            assertArrayEquals(andNotExpected.stream().toArray(), andNot.toArray());
+
+            RoaringBitmap or = bitmaps[b].copy();
+            or.or(other);
+            BitSet orExpected = (BitSet) expected[b].clone();
+            orExpected.or(otherExpected);
+            assertArrayEquals(orExpected.stream().toArray(), or.toArray());
+            assertEquals(expected[b].cardinality(), bitmaps[b].cardinality());
+        }
+
+        int[] values = {0, 7, 65_535, 65_536, 131_000, 299_999, 400_000};
+        int[] ranks = bitmaps[1].rank(values);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(expected[1].get(0, values[i] + 1).cardinality(), ranks[i]);
+            assertEquals(expected[1].get(values[i]), bitmaps[1].contains(values[i]));
+        }
+        assertEquals(0, Arrays.stream(new RoaringBitmap().toArray()).count());
+    }
+}
@@ -0,0 +1,139 @@
+package duke.task;
+
+import duke.exception.DukeException;
+import duke.storage.Storage;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SortedViewsTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    /**
+     * Sorts the whole task list the slow way, numbering the tasks.
+     */
+    private static List<String> sortSlowly(SortedViews.Key key, boolean isDescending) {
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 1; i <= TaskList.taskList.size(); i++) {
+            numbers.add(i);
+        }
+        // A stable sort keeps ties in list order
+        numbers.sort(Comparator.comparingInt(number -> key.valueOf(TaskList.taskList.get(number - 1))));
+        List<String> lines = new ArrayList<>();
+        for (int number : numbers) {
+            lines.add(number + ". " + TaskList.taskList.get(number - 1));
+        }
+        if (isDescending) {
+            Collections.reverse(lines);
+        }
+        return lines;
+    }
+
+    private static List<String> sortQuickly(SortedViews.Key key, boolean isDescending, int offset, int count) {
+        LinkedHashMap<Integer, Task> page = SortedViews.findPage(key, isDescending, offset, count);
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<Integer, Task> entry : page.entrySet()) {
+            lines.add(entry.getKey() + ". " + entry.getValue());
+        }
+        return lines;
+    }
+
+    @Test
+    public void testFindPage_randomChanges_matchesSortingAfresh() {
+        int start = TaskList.taskList.size();
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            TaskList.insertTask(TaskList.taskList.size(), i % 3 == 0 ? new ToDo("todo " + i)
+                    : new Deadline("deadline " + i, BASE.plusDays(random.nextInt(10))));
+        }
+        for (SortedViews.Key key : SortedViews.Key.values()) {
+            assertEquals(sortSlowly(key, false), sortQuickly(key, false, 0, Integer.MAX_VALUE));
+        }
+
+        for (int i = 0; i < 300; i++) {
+            int size = TaskList.taskList.size();
+            int index = start + random.nextInt(size - start);
+            Task task = TaskList.taskList.get(index);
+            switch (random.nextInt(5)) {
+                case 0:
+                    TaskList.insertTask(index, new Deadline("wedged " + i, BASE.plusDays(random.nextInt(10))));
+                    break;
+                case 1:
+                    TaskList.removeTask(index);
+                    TaskList.insertTask(start + random.nextInt(size - start), new ToDo("todo again " + i));
+                    break;
+                case 2:
+                    TaskList.repositionTask(index, start + random.nextInt(size - start));
+                    break;
+                case 3:
+                    TaskList.setTaskDone(task, !task.isDone());
+                    break;
+                default:
+                    if (task instanceof Deadline) {
+                        TaskList.rescheduleTask(task, BASE.plusDays(random.nextInt(10)), null);
+                    }
+                    break;
+            }
+        }
+        for (SortedViews.Key key : SortedViews.Key.values()) {
+            assertEquals(sortSlowly(key, false), sortQuickly(key, false, 0, Integer.MAX_VALUE));
+            List<String> reversed = sortSlowly(key, true);
+            assertEquals(reversed.subList(10, 30), sortQuickly(key, true, 10, 20));
+        }
+
+        for (int i = 0; i < TaskList.taskList.size(); i++) {
+            assertEquals(i, SortedViews.indexOf(TaskList.taskList.get(i)));
+        }
+
+        while (TaskList.taskList.size() > start) {
+            TaskList.removeTask(start);
+        }
+        assertEquals(start, sortQuickly(SortedViews.Key.DUE, false, 0, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    public void testIndexOf_tasksUpsertedAndDeletedById_foundWhereverTheyAre() throws DukeException, IOException {
+        String previousName = Workspace.getCurrentName();
+        Files.deleteIfExists(Storage.getWorkspaceFile("positions"));
+        Workspace.use("positions");
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            TaskList.appendTask(new ToDo("todo " + i));
+            expected.add("todo " + i);
+        }
+
+        Random random = new Random(11);
+        for (int i = 0; i < 50; i++) {
+            int index = random.nextInt(TaskList.taskList.size());
+            long id = TaskList.taskList.get(index).getId();
+            if (i % 2 == 0) {
+                ToDo renamed = new ToDo("renamed " + i);
+                renamed.setId(id);
+                TaskList.upsertTask(renamed);
+                expected.set(index, "renamed " + i);
+            } else {
+                assertTrue(TaskList.deleteTaskById(id));
+                expected.remove(index);
+            }
+        }
+        List<String> descriptions = new ArrayList<>();
+        for (int i = 0; i < TaskList.taskList.size(); i++) {
+            descriptions.add(TaskList.taskList.get(i).getDescription());
+            assertEquals(i, SortedViews.indexOf(TaskList.taskList.get(i)));
+        }
+        assertEquals(expected, descriptions);
+        Workspace.use(previousName);
+    }
+}
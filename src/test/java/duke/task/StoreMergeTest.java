@@ -0,0 +1,72 @@
+package duke.task;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StoreMergeTest {
+    @Test
+    public void testApply_changesOnBothSides_ownChangesWinAndNewTasksKept() {
+        int start = TaskList.taskList.size();
+        ToDo first = new ToDo("first");
+        ToDo second = new ToDo("second");
+        ToDo third = new ToDo("third");
+        TaskList.insertTask(start, first);
+        TaskList.insertTask(start + 1, second);
+        TaskList.insertTask(start + 2, third);
+        long syncedVersion = ChangeFeed.getCurrentVersion();
+
+        // Changed here since the last sync: the first task is done and a task is added
+        TaskList.setTaskDone(first, true);
+        ToDo added = new ToDo("added here");
+        TaskList.insertTask(start + 3, added);
+        long addedId = added.getId();
+
+        // Meanwhile another process changed the first task, deleted the second and added two tasks,
+        // one of them under the identifier given to the task added here
+        StoreMerge merge = new StoreMerge(syncedVersion);
+        for (int i = 0; i < start; i++) {
+            Task task = TaskList.taskList.get(i);
+            assertTrue(merge.keepIfUnchanged(task.getId(), task.getVersion()));
+        }
+        ToDo firstThere = new ToDo("first, renamed there");
+        firstThere.setId(first.getId());
+        firstThere.setVersion(syncedVersion + 1);
+        assertFalse(merge.keepIfUnchanged(first.getId(), syncedVersion + 1));
+        merge.addTask(firstThere);
+        assertTrue(merge.keepIfUnchanged(third.getId(), third.getVersion()));
+        ToDo addedThere = new ToDo("added there");
+        addedThere.setId(addedId);
+        addedThere.setVersion(syncedVersion + 3);
+        merge.addTask(addedThere);
+        merge.addTask(new ToDo("appended without identifier"));
+        merge.addTombstone(second.getId(), syncedVersion + 2);
+        merge.apply();
+
+        assertEquals(start + 5, TaskList.taskList.size());
+        assertSame(first, TaskList.taskList.get(start));
+        assertTrue(first.isDone());
+        assertSame(third, TaskList.taskList.get(start + 1));
+        assertNull(ChangeFeed.getTask(second.getId()));
+        assertEquals(Long.valueOf(second.getId()),
+                ChangeFeed.getTombstonesSince(syncedVersion).get(syncedVersion + 2));
+        assertNotEquals(addedId, added.getId());
+        assertSame(added, ChangeFeed.getTask(added.getId()));
+        assertSame(addedThere, ChangeFeed.getTask(addedId));
+        assertEquals(syncedVersion + 3, addedThere.getVersion());
+        assertEquals(syncedVersion + 4, TaskList.taskList.get(start + 4).getId());
+        assertTrue(first.getVersion() > syncedVersion + 4);
+        assertTrue(merge.getReport().contains("2 added, 0 changed and 1 deleted"));
+        assertTrue(merge.isRewriteNeeded());
+        assertTrue(merge.isRenumbered());
+
+        while (TaskList.taskList.size() > start) {
+            TaskList.removeTask(start);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package duke.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TaskEventBusTest {
+    @Test
+    public void testPublish_moreEventsThanSlots_allDispatchedInOrder() {
+        List<TaskEvent> received = new ArrayList<>();
+        TaskEventBus.subscribe(received::addAll);
+        TaskEventBus.start();
+
+        List<TaskEvent> published = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            TaskEvent event = i % 2 == 0 ? new TaskEvent.Added(new ToDo("task " + i)) : new TaskEvent.Changed();
+            published.add(event);
+        }
+        // Published as by a single command, holding the lock all along
+        TaskEventBus.getTaskListLock().lock();
+        try {
+            for (TaskEvent event : published) {
+                TaskEventBus.publish(event);
+            }
+        } finally {
+            TaskEventBus.getTaskListLock().unlock();
+        }
+        TaskEventBus.drain();
+
+        assertEquals(published.size(), received.size());
+        for (int i = 0; i < published.size(); i++) {
+            assertSame(published.get(i), received.get(i));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package duke.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskSnapshotsTest {
+    @Test
+    public void testTake_laterChanges_leaveEarlierViewsUntouched() {
+        int start = TaskList.taskList.size();
+        for (int i = 0; i < 5; i++) {
+            TaskList.insertTask(start + i, new ToDo("task " + i));
+        }
+        TaskSnapshots.View before = TaskSnapshots.take();
+
+        TaskList.setTaskDone(TaskList.taskList.get(start + 1), true);
+        TaskList.removeTask(start + 3);
+        // More insertions at one place than there are keys between its neighbours
+        for (int i = 0; i < 30; i++) {
+            TaskList.insertTask(start + 2, new ToDo("wedged " + i));
+        }
+        TaskSnapshots.View after = TaskSnapshots.take();
+
+        List<String> descriptions = new ArrayList<>();
+        for (Task task : before.getTasks().subList(start, start + 5)) {
+            descriptions.add(task.getDescription());
+        }
+        assertEquals(List.of("task 0", "task 1", "task 2", "task 3", "task 4"), descriptions);
+        assertFalse(before.getTasks().get(start + 1).isDone());
+        assertTrue(after.getTasks().get(start + 1).isDone());
+        assertTrue(after.getVersion() > before.getVersion());
+
+        List<Task> tasks = after.getTasks();
+        assertEquals(TaskList.taskList.size(), tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(TaskList.taskList.get(i).toString(), tasks.get(i).toString());
+            assertNotSame(TaskList.taskList.get(i), tasks.get(i));
+        }
+
+        while (TaskList.taskList.size() > start) {
+            TaskList.removeTask(start);
+        }
+        assertEquals(start, TaskSnapshots.take().getTasks().size());
+    }
+}
@@ -0,0 +1,51 @@
+package duke.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TaskStatsTest {
+    @Test
+    public void testMutators_addMarkRescheduleDelete_talliesFollow() {
+        LocalDateTime now = LocalDateTime.of(2019, 12, 2, 12, 0);
+        LocalDate today = now.toLocalDate();
+        int start = TaskList.taskList.size();
+        int pendingDeadlines = TaskStats.getCount(Deadline.class, false);
+        int doneDeadlines = TaskStats.getCount(Deadline.class, true);
+        int overdue = TaskStats.getOverdueCount(now);
+
+        Deadline late = new Deadline("late", now.minusDays(1));
+        Deadline soon = new Deadline("soon", now.plusHours(2));
+        Event event = new Event("event", now.plusDays(1), now.plusDays(1).plusHours(1));
+        ToDo todo = new ToDo("todo");
+        TaskList.insertTask(start, late);
+        TaskList.insertTask(start + 1, soon);
+        TaskList.insertTask(start + 2, event);
+        TaskList.insertTask(start + 3, todo);
+        assertEquals(pendingDeadlines + 2, TaskStats.getCount(Deadline.class, false));
+        assertEquals(overdue + 1, TaskStats.getOverdueCount(now));
+        assertEquals(overdue + 2, TaskStats.getOverdueCount(now.plusHours(3)));
+        assertEquals(1, TaskStats.getDueByDay(today.plusDays(1), today.plusDays(1))
+                .get(today.plusDays(1))[TaskStats.EVENTS]);
+
+        TaskList.setTaskDone(late, true);
+        TaskList.rescheduleTask(soon, now.minusHours(1), null);
+        assertEquals(overdue + 1, TaskStats.getOverdueCount(now));
+        assertEquals(doneDeadlines + 1, TaskStats.getCount(Deadline.class, true));
+        LocalDate completedDay = late.getCompletedDateTime().toLocalDate();
+        int completed = TaskStats.getCompletedByDay(completedDay, completedDay).get(completedDay);
+        TaskList.setTaskDone(late, false);
+        assertEquals(completed - 1, (int) TaskStats.getCompletedByDay(completedDay, completedDay)
+                .getOrDefault(completedDay, 0));
+        assertEquals(overdue + 2, TaskStats.getOverdueCount(now));
+
+        while (TaskList.taskList.size() > start) {
+            TaskList.removeTask(start);
+        }
+        assertEquals(pendingDeadlines, TaskStats.getCount(Deadline.class, false));
+        assertEquals(overdue, TaskStats.getOverdueCount(now));
+    }
+}
@@ -0,0 +1,46 @@
+package duke.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TimingWheelTest {
+    @Test
+    public void testAdvance_itemsAcrossLevels_expireInOrderAndNotEarly() {
+        long start = 29_000_000L;
+        TimingWheel<Long> wheel = new TimingWheel<>(start);
+        long[] dueMinutes = {start + 5, start + 70, start + 5_000, start + 300_000, start + 2_000_000_000L};
+        for (long dueMinute : dueMinutes) {
+            wheel.schedule(dueMinute, dueMinute);
+        }
+
+        List<Long> expired = new ArrayList<>();
+        wheel.advance(start + 4, expired::add);
+        assertEquals(0, expired.size());
+        wheel.advance(start + 5_000, expired::add);
+        assertEquals(List.of(start + 5, start + 70, start + 5_000), expired);
+        wheel.advance(start + 299_999, expired::add);
+        assertEquals(3, expired.size());
+        wheel.advance(start + 300_000, expired::add);
+        assertEquals(start + 300_000, (long) expired.get(3));
+        wheel.advance(Long.MAX_VALUE / 2, expired::add);
+        assertEquals(5, expired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testCancel_scheduledItem_neverExpires() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        TimingWheel.Entry<String> cancelled = wheel.schedule(100, "cancelled");
+        wheel.schedule(100, "kept");
+
+        wheel.cancel(cancelled);
+        List<String> expired = new ArrayList<>();
+        wheel.advance(100, expired::add);
+
+        assertEquals(List.of("kept"), expired);
+    }
+}
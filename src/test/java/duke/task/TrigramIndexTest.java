@@ -0,0 +1,41 @@
+package duke.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TrigramIndexTest {
+    @Test
+    public void testSearch_typosAndSwappedLetters_closestFirst() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(0, "submit reports to boss");
+        index.add(1, "buy milk");
+        index.add(2, "report card");
+        index.add(3, "repair bike");
+
+        long[] results = index.search("reprot");
+        Arrays.sort(results);
+
+        assertEquals(2, results.length);
+        assertEquals((2L << 32) | 0, results[0]);
+        assertEquals((2L << 32) | 2, results[1]);
+        assertEquals(1, index.search("mlik").length);
+        assertEquals(0, index.search("bike milk").length);
+    }
+
+    @Test
+    public void testSearch_substringsAndEveryQueryWord_matchedExactly() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(0, "Read the book");
+        index.add(1, "return book");
+        index.add(2, "read the news");
+
+        assertEquals(3, index.search("re").length);
+        assertEquals((1L << 32) | 1, index.search("book turn")[0]);
+        long[] results = index.search("READ bokk");
+        assertEquals(1, results.length);
+        assertEquals((2L << 32) | 0, results[0]);
+    }
+}
@@ -0,0 +1,244 @@
+package duke.task;
+
+import duke.exception.DukeException;
+import duke.storage.Storage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UndoLogTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    private int start;
+    private UndoLog.State savedHistory;
+
+    @BeforeEach
+    public void setUp() {
+        start = TaskList.taskList.size();
+        savedHistory = UndoLog.detach();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        while (TaskList.taskList.size() > start) {
+            TaskList.removeTask(start);
+        }
+        UndoLog.attach(savedHistory);
+    }
+
+    /**
+     * Describes the tasks added by the test, with their dates, in list order.
+     */
+    private List<String> describeTasks() {
+        List<String> lines = new ArrayList<>();
+        for (Task task : TaskList.taskList.subList(start, TaskList.taskList.size())) {
+            lines.add(task.toString() + " " + task.getPriority() + " " + task.getTags() + " "
+                    + (task instanceof Deadline ? ((Deadline) task).getBy() : "")
+                    + (task instanceof Event ? ((Event) task).getFromDateTime() : ""));
+        }
+        return lines;
+    }
+
+    /**
+     * Adds a task at the end of the list as the add command would, recording it to be undone.
+     */
+    private void add(Task task) {
+        int index = TaskList.taskList.size();
+        TaskList.insertTask(index, task);
+        UndoLog.record(new Operation.Add(index, task));
+    }
+
+    @Test
+    public void testUndoRedo_eachOperationKind_revertedAndReappliedInTurn() {
+        Deadline deadline = new Deadline("deadline", BASE);
+        Event event = new Event("event", BASE, BASE.plusHours(2));
+        List<List<String>> states = new ArrayList<>();
+        states.add(describeTasks());
+
+        add(deadline);
+        states.add(describeTasks());
+        add(event);
+        states.add(describeTasks());
+        add(new ToDo("doomed"));
+        states.add(describeTasks());
+
+        Task doomed = TaskList.removeTask(start + 2);
+        UndoLog.record(new Operation.Delete(start + 2, doomed));
+        states.add(describeTasks());
+
+        ToDo replacement = new ToDo("replacement");
+        TaskList.replaceTask(start, replacement);
+        UndoLog.record(new Operation.Replace(start, deadline, replacement));
+        states.add(describeTasks());
+
+        TaskList.repositionTask(start, start + 1);
+        UndoLog.record(new Operation.Move(start, start + 1, replacement));
+        states.add(describeTasks());
+
+        TaskList.setTaskDone(event, true);
+        UndoLog.record(new Operation.Mark(event, true, event.getCompletedDateTime()));
+        states.add(describeTasks());
+
+        TaskList.rescheduleTask(event, BASE.plusDays(1), BASE.plusDays(1).plusHours(2));
+        UndoLog.record(new Operation.Reschedule(event, BASE, BASE.plusHours(2),
+                BASE.plusDays(1), BASE.plusDays(1).plusHours(2)));
+        states.add(describeTasks());
+
+        TaskList.labelTask(replacement, 2, Collections.singletonList("work"));
+        UndoLog.record(new Operation.Label(replacement, 0, Collections.emptyList(), 2,
+                Collections.singletonList("work")));
+        states.add(describeTasks());
+
+        for (int i = states.size() - 2; i >= 0; i--) {
+            assertEquals(1, UndoLog.undo(1).size());
+            assertEquals(states.get(i), describeTasks());
+        }
+        assertTrue(UndoLog.undo(1).isEmpty());
+        for (int i = 1; i < states.size(); i++) {
+            assertEquals(1, UndoLog.redo(1).size());
+            assertEquals(states.get(i), describeTasks());
+        }
+        assertTrue(UndoLog.redo(1).isEmpty());
+    }
+
+    @Test
+    public void testUndoRedo_severalAtOnce_mostRecentUndoneFirst() {
+        ToDo first = new ToDo("first");
+        ToDo second = new ToDo("second");
+        ToDo third = new ToDo("third");
+        add(first);
+        add(second);
+        add(third);
+
+        assertEquals(Arrays.asList("add " + third, "add " + second), UndoLog.undo(2));
+        assertEquals(Collections.singletonList(first), TaskList.taskList.subList(start, TaskList.taskList.size()));
+
+        // Asking for more than there is undoes what there is
+        assertEquals(Collections.singletonList("add " + first), UndoLog.undo(5));
+        assertEquals(start, TaskList.taskList.size());
+
+        assertEquals(Arrays.asList("add " + first, "add " + second, "add " + third), UndoLog.redo(5));
+        assertEquals(Arrays.asList(first, second, third), TaskList.taskList.subList(start, TaskList.taskList.size()));
+    }
+
+    @Test
+    public void testRecord_beyondDepth_oldestForgotten() {
+        System.setProperty("duke.undo.depth", "3");
+        try {
+            UndoLog.detach();
+        } finally {
+            System.clearProperty("duke.undo.depth");
+        }
+        for (int i = 0; i < 5; i++) {
+            add(new ToDo("todo " + i));
+        }
+
+        assertEquals(3, UndoLog.undo(10).size());
+        assertEquals(2, TaskList.taskList.size() - start);
+        assertEquals("todo 1", TaskList.taskList.get(start + 1).getDescription());
+        assertEquals(3, UndoLog.redo(10).size());
+        assertEquals(5, TaskList.taskList.size() - start);
+    }
+
+    @Test
+    public void testRecord_afterUndo_redoDiscarded() {
+        ToDo undone = new ToDo("undone");
+        add(undone);
+        UndoLog.undo(1);
+
+        ToDo added = new ToDo("added");
+        add(added);
+
+        assertTrue(UndoLog.redo(1).isEmpty());
+        assertEquals(Collections.singletonList(added), TaskList.taskList.subList(start, TaskList.taskList.size()));
+        assertEquals(Collections.singletonList("add " + added), UndoLog.undo(5));
+    }
+
+    @Test
+    public void testEndGroup_postponedDeadlines_undoneAndRedoneAsOne() {
+        Deadline first = new Deadline("first", BASE);
+        Deadline second = new Deadline("second", BASE.plusHours(1));
+        add(first);
+        add(second);
+
+        UndoLog.beginGroup();
+        TaskList.postponeDeadline(first, BASE.plusDays(1));
+        TaskList.postponeDeadline(second, BASE.plusDays(1).plusHours(1));
+        UndoLog.endGroup("postpone 2 overdue deadline(s)");
+
+        assertEquals(Collections.singletonList("postpone 2 overdue deadline(s) (2 change(s))"), UndoLog.undo(1));
+        assertEquals(BASE, first.getBy());
+        assertEquals(BASE.plusHours(1), second.getBy());
+        assertEquals(2, TaskList.taskList.size() - start);
+
+        assertEquals(1, UndoLog.redo(1).size());
+        assertEquals(BASE.plusDays(1), first.getBy());
+        assertEquals(BASE.plusDays(1).plusHours(1), second.getBy());
+
+        // An empty group is not recorded
+        UndoLog.beginGroup();
+        UndoLog.endGroup("nothing");
+        assertEquals(3, UndoLog.undo(5).size());
+        assertEquals(start, TaskList.taskList.size());
+    }
+
+    @Test
+    public void testRecordAppendedTasks_manyTasks_undoneAndRedoneAsOne() {
+        add(new ToDo("before"));
+        int firstIndex = TaskList.taskList.size();
+        for (int i = 0; i < 1000; i++) {
+            TaskList.appendTask(new ToDo("imported " + i));
+        }
+        TaskList.recordAppendedTasks(firstIndex, "import tasks.csv");
+        List<String> imported = describeTasks();
+
+        assertEquals(Collections.singletonList("import tasks.csv (1000 task(s))"), UndoLog.undo(1));
+        assertEquals(1, TaskList.taskList.size() - start);
+        assertEquals(1, UndoLog.redo(5).size());
+        assertEquals(imported, describeTasks());
+        assertEquals(2, UndoLog.undo(5).size());
+        assertEquals(start, TaskList.taskList.size());
+
+        // Appending nothing records nothing
+        TaskList.recordAppendedTasks(TaskList.taskList.size(), "import empty.csv");
+        assertTrue(UndoLog.undo(1).isEmpty());
+    }
+
+    @Test
+    public void testUndo_unmarkedTask_completionTimeRestored() throws DukeException, IOException {
+        String previousName = Workspace.getCurrentName();
+        Files.deleteIfExists(Storage.getWorkspaceFile("undo-marks"));
+        Workspace.use("undo-marks");
+        Deadline deadline = new Deadline("deadline", BASE);
+        TaskList.addTask(deadline);
+        TaskList.markTaskAsDone(1);
+        LocalDateTime completedDateTime = deadline.getCompletedDateTime();
+        // Redoing the mark keeps the time it was first made
+        TaskList.undoChanges(1);
+        TaskList.redoChanges(1);
+        assertEquals(completedDateTime, deadline.getCompletedDateTime());
+
+        TaskList.setTaskDone(deadline, true, BASE.minusDays(3));
+        TaskList.unmarkTaskAsDone(1);
+        assertNull(deadline.getCompletedDateTime());
+        TaskList.undoChanges(1);
+        assertTrue(deadline.isDone());
+        assertEquals(BASE.minusDays(3), deadline.getCompletedDateTime());
+        TaskList.redoChanges(1);
+        TaskList.undoChanges(1);
+        assertEquals(BASE.minusDays(3), deadline.getCompletedDateTime());
+        Workspace.use(previousName);
+    }
+}
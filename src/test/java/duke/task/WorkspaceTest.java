@@ -0,0 +1,63 @@
+package duke.task;
+
+import duke.exception.DukeException;
+import duke.storage.Storage;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WorkspaceTest {
+    private static List<String> describe(List<? extends Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(task.getDescription());
+        }
+        return lines;
+    }
+
+    @Test
+    public void testUse_evictedWorkspaceReloaded_onlyItsOwnTasksFound() throws DukeException, IOException {
+        String previousName = Workspace.getCurrentName();
+        LocalDateTime now = LocalDateTime.now();
+        for (String name : Arrays.asList("isolated-a", "isolated-b")) {
+            Files.deleteIfExists(Storage.getWorkspaceFile(name));
+        }
+        Workspace.use("isolated-a");
+        TaskList.addTask(new ToDo("alpha report"));
+        TaskList.addTask(new Deadline("alpha report overdue", now.minusDays(1)));
+        TaskList.addTask(new Deadline("alpha report later", now.plusDays(1)));
+
+        Workspace.use("isolated-b");
+        TaskList.addTask(new ToDo("beta report"));
+        TaskList.addTask(new Deadline("beta report overdue", now.minusDays(2)));
+        assertEquals(Collections.singletonList("beta report overdue"), describe(OverdueSweeper.getOverdueTasks()));
+
+        // Going through more workspaces than are kept in memory loads the first one from its file again
+        int cacheSize = Integer.getInteger("duke.workspace.cache", 16);
+        for (int i = 0; i <= cacheSize; i++) {
+            Workspace.use("isolated-" + i);
+        }
+        assertFalse(Workspace.isLoaded("isolated-a"));
+        Workspace.use("isolated-a");
+
+        List<String> alphaTasks = Arrays.asList("alpha report", "alpha report overdue", "alpha report later");
+        assertEquals(alphaTasks, describe(TaskList.taskList));
+        assertEquals(alphaTasks, describe(new ArrayList<>(
+                TaskList.findQueryMatches(Query.parse("desc ~ report", now)).values())));
+        List<String> fuzzyMatches = describe(new ArrayList<>(TaskList.findFuzzyMatches("report").values()));
+        assertEquals(3, fuzzyMatches.size());
+        assertTrue(fuzzyMatches.containsAll(alphaTasks));
+        assertEquals(Collections.singletonList("alpha report overdue"), describe(OverdueSweeper.getOverdueTasks()));
+        Workspace.use(previousName);
+    }
+}